@@ -31,13 +31,19 @@ public abstract class ComposedGeospatial<T extends Geospatial> extends Geospatia
 
   protected final List<T> geospatials;
 
+  @SuppressWarnings("unchecked")
   protected ComposedGeospatial(final Dimension dimension, final Type type, final SRID srid,
       final List<T> geospatials) {
 
     super(dimension, type, srid);
-    this.geospatials = new ArrayList<T>();
-    if (geospatials != null) {
-      this.geospatials.addAll(geospatials);
+    if (geospatials instanceof PointArray) {
+      // Packed points stay packed; T can only be Point here.
+      this.geospatials = (List<T>) new PointArray((PointArray) geospatials);
+    } else {
+      this.geospatials = new ArrayList<T>();
+      if (geospatials != null) {
+        this.geospatials.addAll(geospatials);
+      }
     }
   }
 
@@ -49,6 +55,25 @@ public abstract class ComposedGeospatial<T extends Geospatial> extends Geospatia
     return this.geospatials.iterator();
   }
 
+  /**
+   * Gets the packed coordinates, if this geospatial has been composed from a {@link PointArray}.
+   * The returned array must not be modified.
+   *
+   * @return packed points or <tt>null</tt>
+   */
+  public PointArray getPointArray() {
+    return geospatials instanceof PointArray ? (PointArray) geospatials : null;
+  }
+
+  /**
+   * Gets the number of composed elements.
+   *
+   * @return number of elements
+   */
+  public int size() {
+    return geospatials.size();
+  }
+
   /**
    * Checks if is empty.
    * 
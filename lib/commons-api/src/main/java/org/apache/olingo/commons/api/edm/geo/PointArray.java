@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.edm.geo;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import org.apache.olingo.commons.api.edm.geo.Geospatial.Dimension;
+
+/**
+ * List of points keeping all coordinates in one packed array instead of one {@link Point} object per vertex.
+ * <br/>
+ * Large line strings and polygons should be built with this class: composed geospatials keep it as it is,
+ * and parsers and serializers read and write its coordinates without creating point objects.
+ * Points returned by {@link #get(int)} are created on demand; changing them does not change this list.
+ */
+public final class PointArray extends AbstractList<Point> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = -3474379478457226618L;
+
+  private static final int STRIDE = 3;
+
+  private final Dimension dimension;
+
+  private final SRID srid;
+
+  private double[] coordinates;
+
+  private int size;
+
+  public PointArray(final Dimension dimension, final SRID srid) {
+    this(dimension, srid, 16);
+  }
+
+  public PointArray(final Dimension dimension, final SRID srid, final int initialCapacity) {
+    this.dimension = dimension;
+    this.srid = srid;
+    coordinates = new double[Math.max(initialCapacity, 1) * STRIDE];
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other the points to be copied
+   */
+  public PointArray(final PointArray other) {
+    dimension = other.dimension;
+    srid = other.srid;
+    size = other.size;
+    coordinates = Arrays.copyOf(other.coordinates, Math.max(size, 1) * STRIDE);
+  }
+
+  public Dimension getDimension() {
+    return dimension;
+  }
+
+  /**
+   * Appends a point.
+   *
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   */
+  public void add(final double x, final double y) {
+    add(x, y, 0);
+  }
+
+  /**
+   * Appends a point.
+   *
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   */
+  public void add(final double x, final double y, final double z) {
+    if ((size + 1) * STRIDE > coordinates.length) {
+      coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+    }
+    final int offset = size * STRIDE;
+    coordinates[offset] = x;
+    coordinates[offset + 1] = y;
+    coordinates[offset + 2] = z;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(final Point point) {
+    add(point.getX(), point.getY(), point.getZ());
+    return true;
+  }
+
+  public double getX(final int index) {
+    return coordinates[checkIndex(index) * STRIDE];
+  }
+
+  public double getY(final int index) {
+    return coordinates[checkIndex(index) * STRIDE + 1];
+  }
+
+  public double getZ(final int index) {
+    return coordinates[checkIndex(index) * STRIDE + 2];
+  }
+
+  @Override
+  public Point get(final int index) {
+    final int offset = checkIndex(index) * STRIDE;
+    final Point point = new Point(dimension, srid);
+    point.setX(coordinates[offset]);
+    point.setY(coordinates[offset + 1]);
+    point.setZ(coordinates[offset + 2]);
+    return point;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private int checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return index;
+  }
+}
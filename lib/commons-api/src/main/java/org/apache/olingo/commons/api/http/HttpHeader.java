@@ -169,5 +169,12 @@ public interface HttpHeader {
    * {@link <a href="http://docs.oasis-open.org/odata/odata/v4.0/errata01/os/complete/part1-protocol/odata-v4.0-errata01-os-part1-protocol-complete.html#_Toc399426728"> OData Version 4.0 Part 1: Protocol Plus Errata 01</a>}
    */
   public static final String PREFER = "Prefer";
+
+  /**
+   * OData Preference-Applied Header
+   * See section "Header Preference-Applied" in
+   * {@link <a href="http://docs.oasis-open.org/odata/odata/v4.0/errata01/os/complete/part1-protocol/odata-v4.0-errata01-os-part1-protocol-complete.html"> OData Version 4.0 Part 1: Protocol Plus Errata 01</a>}
+   */
+  public static final String PREFERENCE_APPLIED = "Preference-Applied";
   //CHECKSTYLE:ON
 }
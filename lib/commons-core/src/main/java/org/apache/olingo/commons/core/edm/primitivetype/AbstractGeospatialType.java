@@ -20,6 +20,7 @@ package org.apache.olingo.commons.core.edm.primitivetype;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.geo.ComposedGeospatial;
 import org.apache.olingo.commons.api.edm.geo.Geospatial;
 import org.apache.olingo.commons.api.edm.geo.Geospatial.Dimension;
 import org.apache.olingo.commons.api.edm.geo.Geospatial.Type;
@@ -29,6 +30,7 @@ import org.apache.olingo.commons.api.edm.geo.MultiLineString;
 import org.apache.olingo.commons.api.edm.geo.MultiPoint;
 import org.apache.olingo.commons.api.edm.geo.MultiPolygon;
 import org.apache.olingo.commons.api.edm.geo.Point;
+import org.apache.olingo.commons.api.edm.geo.PointArray;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.apache.olingo.commons.api.edm.geo.SRID;
 
@@ -112,30 +114,88 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
         isNullable, maxLength, precision, scale, isUnicode);
   }
 
+  /**
+   * Reads a comma-separated sequence of points directly into packed coordinates,
+   * without splitting the literal into one string per point.
+   *
+   * @param srid the SRID of the points
+   * @param value the literal
+   * @param begin the index of the first character of the sequence
+   * @param end the index after the last character of the sequence
+   * @param enclosed whether each point is enclosed in parentheses
+   */
+  private PointArray newPoints(final SRID srid, final String value, final int begin, final int end,
+      final boolean enclosed, final Boolean isNullable, final Integer maxLength, final Integer precision,
+      final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    final PointArray points = new PointArray(dimension, srid);
+    int start = begin;
+    while (start < end) {
+      int comma = value.indexOf(',', start);
+      if (comma < 0 || comma > end) {
+        comma = end;
+      }
+      if (comma > start) {
+        addPoint(points, value, enclosed ? start + 1 : start, enclosed ? comma - 1 : comma,
+            isNullable, maxLength, precision, scale, isUnicode);
+      }
+      start = comma + 1;
+    }
+    return points;
+  }
+
+  private void addPoint(final PointArray points, final String value, final int begin, final int end,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    final int xBegin = skipBlanks(value, begin, end);
+    final int xEnd = nextBlank(value, xBegin, end);
+    final int yBegin = skipBlanks(value, xEnd, end);
+    final int yEnd = nextBlank(value, yBegin, end);
+    if (xBegin == xEnd || yBegin == yEnd || skipBlanks(value, yEnd, end) < end) {
+      throw new EdmPrimitiveTypeException("The literal '"
+          + (begin < end ? value.substring(begin, end) : "") + "' has illegal content.");
+    }
+
+    points.add(
+        EdmDouble.getInstance().valueOfString(value.substring(xBegin, xEnd),
+            isNullable, maxLength, precision, scale, isUnicode, Double.class),
+        EdmDouble.getInstance().valueOfString(value.substring(yBegin, yEnd),
+            isNullable, maxLength, precision, scale, isUnicode, Double.class));
+  }
+
+  private static int skipBlanks(final String value, final int begin, final int end) {
+    int index = begin;
+    while (index < end && value.charAt(index) == ' ') {
+      index++;
+    }
+    return index;
+  }
+
+  private static int nextBlank(final String value, final int begin, final int end) {
+    int index = begin;
+    while (index < end && value.charAt(index) != ' ') {
+      index++;
+    }
+    return index;
+  }
+
   protected MultiPoint stringToMultiPoint(final String value, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
     final Matcher matcher = getMatcher(PATTERN, value);
 
-    final List<Point> points = new ArrayList<Point>();
-    for (String pointCoo : StringUtils.split(matcher.group(4), ',')) {
-      points.add(newPoint(null, pointCoo.substring(1, pointCoo.length() - 1),
-          isNullable, maxLength, precision, scale, isUnicode));
-    }
-
-    return new MultiPoint(dimension, SRID.valueOf(matcher.group(2)), points);
+    return new MultiPoint(dimension, SRID.valueOf(matcher.group(2)),
+        newPoints(null, value, matcher.start(4), matcher.end(4), true,
+            isNullable, maxLength, precision, scale, isUnicode));
   }
 
   private LineString newLineString(final SRID srid, final String lineString, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
       throws EdmPrimitiveTypeException {
 
-    final List<Point> points = new ArrayList<Point>();
-    for (String pointCoo : StringUtils.split(lineString, ',')) {
-      points.add(newPoint(null, pointCoo, isNullable, maxLength, precision, scale, isUnicode));
-    }
-
-    return new LineString(this.dimension, srid, points);
+    return new LineString(this.dimension, srid, newPoints(null, lineString, 0, lineString.length(), false,
+        isNullable, maxLength, precision, scale, isUnicode));
   }
 
   protected LineString stringToLineString(final String value, final Boolean isNullable, final Integer maxLength,
@@ -175,18 +235,16 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
       throws EdmPrimitiveTypeException {
 
-    final String[] first = polygon.split("\\),\\(");
-
-    final List<Point> interior = new ArrayList<Point>();
-    for (String pointCoo : StringUtils.split(first[0].substring(1, first[0].length()), ',')) {
-      interior.add(newPoint(null, pointCoo, isNullable, maxLength, precision, scale, isUnicode));
-    }
-    final List<Point> exterior = new ArrayList<Point>();
-    for (String pointCoo : StringUtils.split(first[1].substring(0, first[1].length() - 1), ',')) {
-      exterior.add(newPoint(null, pointCoo, isNullable, maxLength, precision, scale, isUnicode));
+    final int separator = polygon.indexOf("),(");
+    if (separator < 0) {
+      throw new EdmPrimitiveTypeException("The literal '" + polygon + "' has illegal content.");
     }
+    final int next = polygon.indexOf("),(", separator + 1);
 
-    return new Polygon(dimension, srid, interior, exterior);
+    return new Polygon(dimension, srid,
+        newPoints(null, polygon, 1, separator, false, isNullable, maxLength, precision, scale, isUnicode),
+        newPoints(null, polygon, separator + 3, next < 0 ? polygon.length() - 1 : next, false,
+            isNullable, maxLength, precision, scale, isUnicode));
   }
 
   protected Polygon stringToPolygon(final String value, final Boolean isNullable, final Integer maxLength,
@@ -241,13 +299,9 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       break;
 
     case MULTIPOINT:
-      final List<Point> points = new ArrayList<Point>();
-      for (String pointCoo : StringUtils.split(matcher.group(4), ',')) {
-        points.add(newPoint(null, pointCoo.substring(1, pointCoo.length() - 1),
-            isNullable, maxLength, precision, scale, isUnicode));
-      }
-
-      item = new MultiPoint(dimension, SRID.valueOf(matcher.group(2)), points);
+      item = new MultiPoint(dimension, SRID.valueOf(matcher.group(2)),
+          newPoints(null, value, matcher.start(4), matcher.end(4), true,
+              isNullable, maxLength, precision, scale, isUnicode));
       break;
 
     case LINESTRING:
@@ -292,17 +346,58 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
         append("SRID=").append(srid).append(';');
   }
 
-  private String point(final Point point, final Boolean isNullable,
+  private void appendCoordinates(final StringBuilder result, final double x, final double y,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    result.append(EdmDouble.getInstance().valueToString(x, isNullable, maxLength, precision, scale, isUnicode)).
+        append(' ').
+        append(EdmDouble.getInstance().valueToString(y, isNullable, maxLength, precision, scale, isUnicode));
+  }
+
+  private void point(final StringBuilder result, final Point point, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
       throws EdmPrimitiveTypeException {
 
-    return new StringBuilder().
-        append(EdmDouble.getInstance().valueToString(point.getX(),
-            isNullable, maxLength, precision, scale, isUnicode)).
-        append(' ').
-        append(EdmDouble.getInstance().valueToString(point.getY(),
-            isNullable, maxLength, precision, scale, isUnicode)).
-        toString();
+    appendCoordinates(result, point.getX(), point.getY(), isNullable, maxLength, precision, scale, isUnicode);
+  }
+
+  /**
+   * Appends the given points, separated by commas; packed coordinates are written without creating points.
+   */
+  private void points(final StringBuilder result, final ComposedGeospatial<Point> points, final boolean enclosed,
+      final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
+      final Boolean isUnicode) throws EdmPrimitiveTypeException {
+
+    final PointArray pointArray = points.getPointArray();
+    if (pointArray == null) {
+      for (final Iterator<Point> itor = points.iterator(); itor.hasNext();) {
+        if (enclosed) {
+          result.append('(');
+        }
+        point(result, itor.next(), isNullable, maxLength, precision, scale, isUnicode);
+        if (enclosed) {
+          result.append(')');
+        }
+        if (itor.hasNext()) {
+          result.append(',');
+        }
+      }
+    } else {
+      for (int index = 0; index < pointArray.size(); index++) {
+        if (index > 0) {
+          result.append(',');
+        }
+        if (enclosed) {
+          result.append('(');
+        }
+        appendCoordinates(result, pointArray.getX(index), pointArray.getY(index),
+            isNullable, maxLength, precision, scale, isUnicode);
+        if (enclosed) {
+          result.append(')');
+        }
+      }
+    }
   }
 
   protected String toString(final Point point, final Boolean isNullable, final Integer maxLength,
@@ -312,12 +407,11 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       throw new EdmPrimitiveTypeException("The value '" + point + "' is not valid.");
     }
 
-    return toStringBuilder(point.getSrid()).
+    final StringBuilder result = toStringBuilder(point.getSrid()).
         append(reference.getSimpleName()).
-        append('(').
-        append(point(point, isNullable, maxLength, precision, scale, isUnicode)).
-        append(")'").
-        toString();
+        append('(');
+    point(result, point, isNullable, maxLength, precision, scale, isUnicode);
+    return result.append(")'").toString();
   }
 
   protected String toString(final MultiPoint multiPoint, final Boolean isNullable, final Integer maxLength,
@@ -331,34 +425,11 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
         append(reference.getSimpleName()).
         append('(');
 
-    for (final Iterator<Point> itor = multiPoint.iterator(); itor.hasNext();) {
-      result.append('(').
-          append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-          append(')');
-      if (itor.hasNext()) {
-        result.append(',');
-      }
-    }
+    points(result, multiPoint, true, isNullable, maxLength, precision, scale, isUnicode);
 
     return result.append(")'").toString();
   }
 
-  private String lineString(final LineString lineString, final Boolean isNullable,
-      final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
-      throws EdmPrimitiveTypeException {
-
-    final StringBuilder result = new StringBuilder();
-
-    for (final Iterator<Point> itor = lineString.iterator(); itor.hasNext();) {
-      result.append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode));
-      if (itor.hasNext()) {
-        result.append(',');
-      }
-    }
-
-    return result.toString();
-  }
-
   protected String toString(final LineString lineString, final Boolean isNullable, final Integer maxLength,
       final Integer precision, final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
@@ -366,11 +437,11 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       throw new EdmPrimitiveTypeException("The value '" + lineString + "' is not valid.");
     }
 
-    return toStringBuilder(lineString.getSrid()).
+    final StringBuilder result = toStringBuilder(lineString.getSrid()).
         append(reference.getSimpleName()).
-        append('(').
-        append(lineString(lineString, isNullable, maxLength, precision, scale, isUnicode)).
-        append(")'").toString();
+        append('(');
+    points(result, lineString, false, isNullable, maxLength, precision, scale, isUnicode);
+    return result.append(")'").toString();
   }
 
   protected String toString(final MultiLineString multiLineString, final Boolean isNullable, final Integer maxLength,
@@ -385,9 +456,9 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
         append('(');
 
     for (final Iterator<LineString> itor = multiLineString.iterator(); itor.hasNext();) {
-      result.append('(').
-          append(lineString(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-          append(')');
+      result.append('(');
+      points(result, itor.next(), false, isNullable, maxLength, precision, scale, isUnicode);
+      result.append(')');
       if (itor.hasNext()) {
         result.append(',');
       }
@@ -396,28 +467,15 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
     return result.append(")'").toString();
   }
 
-  private String polygon(final Polygon polygon, final Boolean isNullable,
+  private void polygon(final StringBuilder result, final Polygon polygon, final Boolean isNullable,
       final Integer maxLength, final Integer precision, final Integer scale, final Boolean isUnicode)
       throws EdmPrimitiveTypeException {
 
-    final StringBuilder result = new StringBuilder();
-
     result.append('(');
-    for (final Iterator<Point> itor = polygon.getInterior().iterator(); itor.hasNext();) {
-      result.append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode));
-      if (itor.hasNext()) {
-        result.append(',');
-      }
-    }
+    points(result, polygon.getInterior(), false, isNullable, maxLength, precision, scale, isUnicode);
     result.append("),(");
-    for (final Iterator<Point> itor = polygon.getExterior().iterator(); itor.hasNext();) {
-      result.append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode));
-      if (itor.hasNext()) {
-        result.append(',');
-      }
-    }
-
-    return result.append(')').toString();
+    points(result, polygon.getExterior(), false, isNullable, maxLength, precision, scale, isUnicode);
+    result.append(')');
   }
 
   protected String toString(final Polygon polygon, final Boolean isNullable, final Integer maxLength,
@@ -427,11 +485,11 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       throw new EdmPrimitiveTypeException("The value '" + polygon + "' is not valid.");
     }
 
-    return toStringBuilder(polygon.getSrid()).
+    final StringBuilder result = toStringBuilder(polygon.getSrid()).
         append(reference.getSimpleName()).
-        append('(').
-        append(polygon(polygon, isNullable, maxLength, precision, scale, isUnicode)).
-        append(")'").toString();
+        append('(');
+    polygon(result, polygon, isNullable, maxLength, precision, scale, isUnicode);
+    return result.append(")'").toString();
   }
 
   protected String toString(final MultiPolygon multiPolygon, final Boolean isNullable, final Integer maxLength,
@@ -446,9 +504,9 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
         append('(');
 
     for (final Iterator<Polygon> itor = multiPolygon.iterator(); itor.hasNext();) {
-      result.append('(').
-          append(polygon(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-          append(')');
+      result.append('(');
+      polygon(result, itor.next(), isNullable, maxLength, precision, scale, isUnicode);
+      result.append(')');
       if (itor.hasNext()) {
         result.append(',');
       }
@@ -473,32 +531,25 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
       switch (item.getEdmPrimitiveTypeKind()) {
       case GeographyPoint:
       case GeometryPoint:
-        result.append(point((Point) item, isNullable, maxLength, precision, scale, isUnicode));
+        point(result, (Point) item, isNullable, maxLength, precision, scale, isUnicode);
         break;
 
       case GeographyMultiPoint:
       case GeometryMultiPoint:
-        for (final Iterator<Point> itor = ((MultiPoint) item).iterator(); itor.hasNext();) {
-          result.append('(').
-              append(point(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-              append(')');
-          if (itor.hasNext()) {
-            result.append(',');
-          }
-        }
+        points(result, (MultiPoint) item, true, isNullable, maxLength, precision, scale, isUnicode);
         break;
 
       case GeographyLineString:
       case GeometryLineString:
-        result.append(lineString((LineString) item, isNullable, maxLength, precision, scale, isUnicode));
+        points(result, (LineString) item, false, isNullable, maxLength, precision, scale, isUnicode);
         break;
 
       case GeographyMultiLineString:
       case GeometryMultiLineString:
         for (final Iterator<LineString> itor = ((MultiLineString) item).iterator(); itor.hasNext();) {
-          result.append('(').
-              append(lineString(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-              append(')');
+          result.append('(');
+          points(result, itor.next(), false, isNullable, maxLength, precision, scale, isUnicode);
+          result.append(')');
           if (itor.hasNext()) {
             result.append(',');
           }
@@ -507,15 +558,15 @@ public abstract class AbstractGeospatialType<T extends Geospatial> extends Singl
 
       case GeographyPolygon:
       case GeometryPolygon:
-        result.append(polygon((Polygon) item, isNullable, maxLength, precision, scale, isUnicode));
+        polygon(result, (Polygon) item, isNullable, maxLength, precision, scale, isUnicode);
         break;
 
       case GeographyMultiPolygon:
       case GeometryMultiPolygon:
         for (final Iterator<Polygon> itor = ((MultiPolygon) item).iterator(); itor.hasNext();) {
-          result.append('(').
-              append(polygon(itor.next(), isNullable, maxLength, precision, scale, isUnicode)).
-              append(')');
+          result.append('(');
+          polygon(result, itor.next(), isNullable, maxLength, precision, scale, isUnicode);
+          result.append(')');
           if (itor.hasNext()) {
             result.append(',');
           }
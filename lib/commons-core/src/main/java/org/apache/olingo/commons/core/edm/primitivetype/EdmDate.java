@@ -48,18 +48,27 @@ public final class EdmDate extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-    dateTimeValue.clear();
-
     final Matcher matcher = PATTERN.matcher(value);
     if (!matcher.matches()) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
 
-    dateTimeValue.set(
-        Integer.parseInt(matcher.group(1)),
-        Byte.parseByte(matcher.group(2)) - 1, // month is zero-based
-        Byte.parseByte(matcher.group(3)));
+    final int year = Integer.parseInt(matcher.group(1));
+    final byte month = Byte.parseByte(matcher.group(2));
+    final byte day = Byte.parseByte(matcher.group(3));
+
+    if (year > EdmDateTimeOffset.GREGORIAN_CUTOVER_YEAR && EdmDateTimeOffset.isEpochMillisType(returnType)) {
+      try {
+        return EdmDateTimeOffset.convertEpochMillis(
+            EdmDateTimeOffset.toEpochMillis(year, month, day, 0, 0, 0, 0), 0, returnType);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.", e);
+      }
+    }
+
+    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    dateTimeValue.clear();
+    dateTimeValue.set(year, month - 1, day); // month is zero-based
 
     try {
       return EdmDateTimeOffset.convertDateTime(dateTimeValue, 0, returnType);
@@ -75,9 +84,14 @@ public final class EdmDate extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
-    final Calendar dateTimeValue = EdmDateTimeOffset.createDateTime(value);
-
     final StringBuilder result = new StringBuilder(10); // Ten characters are enough for "normal" dates.
+    if (value instanceof Long && EdmDateTimeOffset.isEpochMillisInRange((Long) value)) {
+      EdmDateTimeOffset.appendDate(result,
+          EdmDateTimeOffset.floorDiv((Long) value, EdmDateTimeOffset.MILLIS_PER_DAY));
+      return result.toString();
+    }
+
+    final Calendar dateTimeValue = EdmDateTimeOffset.createDateTime(value);
     final int year = dateTimeValue.get(Calendar.YEAR);
     if (year < 0 || year >= 10000) {
       result.append(year);
@@ -45,6 +45,17 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
           + "T(\\p{Digit}{2}):(\\p{Digit}{2})(?::(\\p{Digit}{2})(\\.(\\p{Digit}{0,12}?)0*)?)?"
           + "(Z|([-+]\\p{Digit}{2}:\\p{Digit}{2}))?");
 
+  /** The last year before the Gregorian calendar came into effect. */
+  protected static final int GREGORIAN_CUTOVER_YEAR = 1582;
+
+  protected static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+  /** Milliseconds since the epoch of 1583-01-01T00:00:00Z. */
+  private static final long GREGORIAN_CUTOVER_MILLIS = -12212553600000L;
+
+  /** Milliseconds since the epoch of 10000-01-01T00:00:00Z. */
+  private static final long MAX_EPOCH_MILLIS = 253402300800000L;
+
   private static final EdmDateTimeOffset INSTANCE = new EdmDateTimeOffset();
 
   public static EdmDateTimeOffset getInstance() {
@@ -68,21 +79,15 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
 
     final String timeZoneOffset = matcher.group(9) == null || matcher.group(10) == null
             || matcher.group(10).matches("[-+]0+:0+") ? null : matcher.group(10);
-    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT" + timeZoneOffset));
-    if (dateTimeValue.get(Calendar.ZONE_OFFSET) == 0 && timeZoneOffset != null) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
-    }
-    dateTimeValue.clear();
-
-    dateTimeValue.set(
-            Short.parseShort(matcher.group(1)),
-            Byte.parseByte(matcher.group(2)) - 1, // month is zero-based
-            Byte.parseByte(matcher.group(3)),
-            Byte.parseByte(matcher.group(4)),
-            Byte.parseByte(matcher.group(5)),
-            matcher.group(6) == null ? 0 : Byte.parseByte(matcher.group(6)));
+    final short year = Short.parseShort(matcher.group(1));
+    final byte month = Byte.parseByte(matcher.group(2));
+    final byte day = Byte.parseByte(matcher.group(3));
+    final byte hour = Byte.parseByte(matcher.group(4));
+    final byte minute = Byte.parseByte(matcher.group(5));
+    final byte second = matcher.group(6) == null ? 0 : Byte.parseByte(matcher.group(6));
 
     int nanoSeconds = 0;
+    short milliSeconds = 0;
     if (matcher.group(7) != null) {
       if (matcher.group(7).length() == 1 || matcher.group(7).length() > 13) {
         throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
@@ -97,13 +102,34 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
                   : decimals + "000000000".substring(decimals.length()));
         }
       } else {
-        final String milliSeconds = decimals.length() > 3
+        milliSeconds = Short.parseShort(decimals.length() > 3
                 ? decimals.substring(0, 3)
-                : decimals + "000".substring(decimals.length());
-        dateTimeValue.set(Calendar.MILLISECOND, Short.parseShort(milliSeconds));
+                : decimals + "000".substring(decimals.length()));
+      }
+    }
+
+    // Instants in the Gregorian calendar are computed without the (comparatively expensive) Calendar class.
+    if (year > GREGORIAN_CUTOVER_YEAR && isEpochMillisType(returnType)) {
+      try {
+        return convertEpochMillis(
+                toEpochMillis(year, month, day, hour, minute, second, milliSeconds)
+                - parseOffsetInMinutes(timeZoneOffset) * 60L * 1000L,
+                nanoSeconds, returnType);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.", e);
       }
     }
 
+    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT" + timeZoneOffset));
+    if (dateTimeValue.get(Calendar.ZONE_OFFSET) == 0 && timeZoneOffset != null) {
+      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    }
+    dateTimeValue.clear();
+    dateTimeValue.set(year, month - 1, day, hour, minute, second); // month is zero-based
+    if (matcher.group(7) != null && !returnType.isAssignableFrom(Timestamp.class)) {
+      dateTimeValue.set(Calendar.MILLISECOND, milliSeconds);
+    }
+
     try {
       return convertDateTime(dateTimeValue, nanoSeconds, returnType);
     } catch (final IllegalArgumentException e) {
@@ -157,6 +183,27 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
           final Boolean isNullable, final Integer maxLength, final Integer precision,
           final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
+    // Values without time-zone information are formatted in UTC without the help of the Calendar class.
+    if ((value instanceof Long || value instanceof Timestamp) && isEpochMillisInRange(getEpochMillis(value))) {
+      final long millis = getEpochMillis(value);
+      final StringBuilder result = new StringBuilder(30);
+      appendDate(result, floorDiv(millis, MILLIS_PER_DAY));
+      result.append('T');
+      final int millisOfDay = (int) floorMod(millis, MILLIS_PER_DAY);
+      appendTime(result, millisOfDay);
+      try {
+        if (value instanceof Timestamp) {
+          appendFractionalSeconds(result, ((Timestamp) value).getNanos(), precision);
+        } else {
+          appendMilliseconds(result, millisOfDay % 1000, precision);
+        }
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.", e);
+      }
+      result.append('Z');
+      return result.toString();
+    }
+
     final Calendar dateTimeValue;
     final int fractionalSecs;
     if (value instanceof Timestamp) {
@@ -196,14 +243,203 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
 
     final int offsetInMinutes = (dateTimeValue.get(Calendar.ZONE_OFFSET)
             + dateTimeValue.get(Calendar.DST_OFFSET)) / 60 / 1000;
-    final int offsetHours = offsetInMinutes / 60;
-    final int offsetMinutes = Math.abs(offsetInMinutes % 60);
-    final String offsetString = offsetInMinutes == 0 ? "Z" : String.format("%+03d:%02d", offsetHours, offsetMinutes);
-    result.append(offsetString);
+    if (offsetInMinutes == 0) {
+      result.append('Z');
+    } else {
+      result.append(offsetInMinutes < 0 ? '-' : '+');
+      appendTwoDigits(result, Math.abs(offsetInMinutes) / 60);
+      result.append(':');
+      appendTwoDigits(result, Math.abs(offsetInMinutes) % 60);
+    }
 
     return result.toString();
   }
 
+  /**
+   * Checks whether the given return type can be served directly from milliseconds since the epoch,
+   * i.e., it is one of {@link Long}, {@link Date}, or {@link Timestamp} but not {@link Calendar}.
+   *
+   * @param returnType the class of the value to be returned
+   * @return <code>true</code> if no {@link Calendar} is needed to create a value of the return type
+   */
+  protected static boolean isEpochMillisType(final Class<?> returnType) {
+    return !returnType.isAssignableFrom(Calendar.class)
+            && (returnType.isAssignableFrom(Long.class)
+            || returnType.isAssignableFrom(Date.class)
+            || returnType.isAssignableFrom(Timestamp.class));
+  }
+
+  /**
+   * Converts milliseconds since the epoch into the requested return type.
+   *
+   * @param millis milliseconds since the epoch
+   * @param nanoSeconds nanoseconds part of the value; only used for the {@link Timestamp} return type
+   * @param returnType the class of the returned value; it must be one of {@link Long}, {@link Date},
+   * or {@link Timestamp}
+   * @return the converted value
+   * @throws ClassCastException if the return type is not allowed
+   * @see #isEpochMillisType(Class)
+   */
+  protected static <T> T convertEpochMillis(final long millis, final int nanoSeconds, final Class<T> returnType)
+          throws ClassCastException {
+    if (returnType.isAssignableFrom(Long.class)) {
+      return returnType.cast(millis);
+    } else if (returnType.isAssignableFrom(Date.class)) {
+      return returnType.cast(new Date(millis));
+    } else if (returnType.isAssignableFrom(Timestamp.class)) {
+      Timestamp timestamp = new Timestamp(millis);
+      if (nanoSeconds > 0) {
+        timestamp.setNanos(nanoSeconds);
+      }
+      return returnType.cast(timestamp);
+    } else {
+      throw new ClassCastException("unsupported return type " + returnType.getSimpleName());
+    }
+  }
+
+  /**
+   * Computes milliseconds since the epoch from the given UTC date and time fields in the Gregorian calendar,
+   * validating all fields as strictly as a non-lenient {@link Calendar} would do.
+   *
+   * @param year the year; must be after {@link #GREGORIAN_CUTOVER_YEAR}
+   * @param month the month, starting with 1 for January
+   * @param day the day of the month
+   * @param hour the hour of the day
+   * @param minute the minute
+   * @param second the second
+   * @param milliSecond the millisecond
+   * @return milliseconds since the epoch
+   * @throws IllegalArgumentException if any of the fields is out of its range
+   */
+  protected static long toEpochMillis(final int year, final int month, final int day,
+          final int hour, final int minute, final int second, final int milliSecond) throws IllegalArgumentException {
+    if (year <= GREGORIAN_CUTOVER_YEAR || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+            || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+            || milliSecond < 0 || milliSecond > 999) {
+      throw new IllegalArgumentException();
+    }
+    return toEpochDay(year, month, day) * MILLIS_PER_DAY
+            + ((hour * 60L + minute) * 60L + second) * 1000L + milliSecond;
+  }
+
+  /**
+   * Parses a time-zone offset of the form <code>[+-]hh:mm</code>.
+   *
+   * @param offset the offset or <code>null</code>
+   * @return the offset in minutes; zero for <code>null</code>
+   * @throws IllegalArgumentException if the offset is out of range
+   */
+  private static int parseOffsetInMinutes(final String offset) throws IllegalArgumentException {
+    if (offset == null) {
+      return 0;
+    }
+    final int hours = Integer.parseInt(offset.substring(1, 3));
+    final int minutes = Integer.parseInt(offset.substring(4, 6));
+    if (hours > 23 || minutes > 59) {
+      throw new IllegalArgumentException();
+    }
+    return (offset.charAt(0) == '-' ? -1 : 1) * (hours * 60 + minutes);
+  }
+
+  /**
+   * Checks whether the given milliseconds since the epoch can be formatted without the help of {@link Calendar},
+   * i.e., they denote an instant of a year between the Gregorian cutover and the year 10000.
+   *
+   * @param millis milliseconds since the epoch
+   * @return <code>true</code> if the value can be formatted without {@link Calendar}
+   */
+  protected static boolean isEpochMillisInRange(final long millis) {
+    return millis >= GREGORIAN_CUTOVER_MILLIS && millis < MAX_EPOCH_MILLIS;
+  }
+
+  /**
+   * Returns milliseconds since the epoch of the given value.
+   *
+   * @param value the value as {@link Long} or {@link Date}
+   */
+  protected static long getEpochMillis(final Object value) {
+    return value instanceof Long ? (Long) value : ((Date) value).getTime();
+  }
+
+  /**
+   * Computes the number of days since the epoch of the given date in the proleptic Gregorian calendar.
+   *
+   * @param year the year
+   * @param month the month, starting with 1 for January
+   * @param day the day of the month
+   * @return days since 1970-01-01
+   */
+  protected static long toEpochDay(final int year, final int month, final int day) {
+    final long y = month <= 2 ? year - 1 : year;
+    final long era = (y >= 0 ? y : y - 399) / 400;
+    final long yearOfEra = y - era * 400;
+    final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  /**
+   * Appends the date of the given day since the epoch in the format <code>yyyy-MM-dd</code>
+   * to the given string builder, performance-optimized.
+   *
+   * @param result a {@link StringBuilder}
+   * @param epochDay days since 1970-01-01; the year must satisfy <code>0 &lt;= year &lt;= 9999</code>
+   */
+  protected static void appendDate(final StringBuilder result, final long epochDay) {
+    final long shifted = epochDay + 719468;
+    final long era = (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+    final long dayOfEra = shifted - era * 146097;
+    final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    final int shiftedMonth = (int) ((5 * dayOfYear + 2) / 153);
+    final int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+    final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+    appendTwoDigits(result, year / 100);
+    appendTwoDigits(result, year % 100);
+    result.append('-');
+    appendTwoDigits(result, month);
+    result.append('-');
+    appendTwoDigits(result, day);
+  }
+
+  /**
+   * Appends the time of the given millisecond of the day in the format <code>HH:mm:ss</code>
+   * to the given string builder, performance-optimized.
+   *
+   * @param result a {@link StringBuilder}
+   * @param millisOfDay an integer that must satisfy <code>0 &lt;= millisOfDay &lt; 86400000</code>
+   */
+  protected static void appendTime(final StringBuilder result, final int millisOfDay) {
+    final int secondsOfDay = millisOfDay / 1000;
+    appendTwoDigits(result, secondsOfDay / 3600);
+    result.append(':');
+    appendTwoDigits(result, secondsOfDay / 60 % 60);
+    result.append(':');
+    appendTwoDigits(result, secondsOfDay % 60);
+  }
+
+  private static int lengthOfMonth(final int year, final int month) {
+    return month == 2 ? (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28)
+            : month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  /**
+   * Divides, rounding towards negative infinity, so that instants before the epoch end up in the right day.
+   */
+  protected static long floorDiv(final long dividend, final long divisor) {
+    final long quotient = dividend / divisor;
+    return dividend % divisor < 0 ? quotient - 1 : quotient;
+  }
+
+  /**
+   * Computes the remainder matching {@link #floorDiv(long, long)}; the result has the sign of the divisor.
+   */
+  protected static long floorMod(final long dividend, final long divisor) {
+    final long remainder = dividend % divisor;
+    return remainder < 0 ? remainder + divisor : remainder;
+  }
+
   /**
    * Creates a date/time value from the given value.
    *
@@ -59,6 +59,20 @@ public class EdmDuration extends SingletonPrimitiveType {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
 
+    if (isIntegralType(returnType) && isShortLiteral(matcher)) {
+      // Whole seconds fit into a long, so there is no need for BigDecimal arithmetic.
+      final long seconds = (matcher.group(1) == null ? 0 : Long.parseLong(matcher.group(1)) * 24 * 60 * 60)
+          + (matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2)) * 60 * 60)
+          + (matcher.group(3) == null ? 0 : Long.parseLong(matcher.group(3)) * 60)
+          + (matcher.group(4) == null ? 0 : Long.parseLong(matcher.group(4)));
+      try {
+        return EdmInt64.convertNumber(value.charAt(0) == '-' ? -seconds : seconds, returnType);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The literal '" + value
+            + "' cannot be converted to value type " + returnType + ".", e);
+      }
+    }
+
     BigDecimal result = (matcher.group(1) == null ? BigDecimal.ZERO
         : new BigDecimal(matcher.group(1)).multiply(BigDecimal.valueOf(24 * 60 * 60))).
         add(matcher.group(2) == null ? BigDecimal.ZERO
@@ -88,6 +102,11 @@ public class EdmDuration extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
+    if ((value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long)
+        && ((Number) value).longValue() != Long.MIN_VALUE) {
+      return integralValueToString(((Number) value).longValue());
+    }
+
     BigDecimal valueDecimal;
     if (value instanceof BigDecimal) {
       valueDecimal = (BigDecimal) value;
@@ -133,4 +152,52 @@ public class EdmDuration extends SingletonPrimitiveType {
 
     return result.toString();
   }
+
+  private static boolean isIntegralType(final Class<?> returnType) {
+    return returnType == Long.class || returnType == Integer.class
+        || returnType == Short.class || returnType == Byte.class;
+  }
+
+  /**
+   * Checks that the literal has no fractional seconds and that its parts are short enough
+   * so that the total number of seconds cannot overflow a long value.
+   */
+  private static boolean isShortLiteral(final Matcher matcher) {
+    for (int group = 1; group <= 4; group++) {
+      if (matcher.group(group) != null && matcher.group(group).length() > 12) {
+        return false;
+      }
+    }
+    return matcher.group(4) == null || matcher.group(4).indexOf('.') < 0;
+  }
+
+  /**
+   * Formats the given number of seconds with long arithmetic.
+   *
+   * @param value seconds; must not be {@link Long#MIN_VALUE}
+   */
+  private static String integralValueToString(final long value) {
+    final StringBuilder result = new StringBuilder();
+    long seconds = value;
+    if (seconds < 0) {
+      result.append('-');
+      seconds = -seconds;
+    }
+    result.append('P');
+    final long days = seconds / (24 * 60 * 60);
+    if (days != 0) {
+      result.append(days).append('D');
+    }
+    result.append('T');
+    final long hours = seconds / (60 * 60) % 24;
+    if (hours != 0) {
+      result.append(hours).append('H');
+    }
+    final long minutes = seconds / 60 % 60;
+    if (minutes != 0) {
+      result.append(minutes).append('M');
+    }
+    result.append(seconds % 60).append('S');
+    return result.toString();
+  }
 }
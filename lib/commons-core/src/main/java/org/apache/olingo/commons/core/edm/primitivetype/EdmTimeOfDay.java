@@ -52,13 +52,11 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
 
-    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-    dateTimeValue.clear();
-    dateTimeValue.set(Calendar.HOUR_OF_DAY, Byte.parseByte(matcher.group(1)));
-    dateTimeValue.set(Calendar.MINUTE, Byte.parseByte(matcher.group(2)));
-    dateTimeValue.set(Calendar.SECOND, matcher.group(3) == null ? 0 : Byte.parseByte(matcher.group(3)));
+    final byte hour = Byte.parseByte(matcher.group(1));
+    final byte minute = Byte.parseByte(matcher.group(2));
+    final byte second = matcher.group(3) == null ? 0 : Byte.parseByte(matcher.group(3));
 
-    int nanoSeconds = 0;
+    short millis = 0;
     if (matcher.group(4) != null) {
       if (matcher.group(4).length() == 1 || matcher.group(4).length() > 13) {
         throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
@@ -70,14 +68,31 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
       final String milliSeconds = decimals.length() > 3 ?
           decimals.substring(0, 3) :
           decimals + "000".substring(decimals.length());
-      final short millis = Short.parseShort(milliSeconds);
-      if (returnType.isAssignableFrom(Timestamp.class)) {
-        nanoSeconds = millis * 1000 * 1000;
-      } else {
-        dateTimeValue.set(Calendar.MILLISECOND, millis);
+      millis = Short.parseShort(milliSeconds);
+    }
+
+    final boolean isTimestamp = returnType.isAssignableFrom(Timestamp.class);
+    final int nanoSeconds = isTimestamp ? millis * 1000 * 1000 : 0;
+
+    if (EdmDateTimeOffset.isEpochMillisType(returnType)) {
+      try {
+        return EdmDateTimeOffset.convertEpochMillis(
+            EdmDateTimeOffset.toEpochMillis(1970, 1, 1, hour, minute, second, isTimestamp ? 0 : millis),
+            nanoSeconds, returnType);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.", e);
       }
     }
 
+    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    dateTimeValue.clear();
+    dateTimeValue.set(Calendar.HOUR_OF_DAY, hour);
+    dateTimeValue.set(Calendar.MINUTE, minute);
+    dateTimeValue.set(Calendar.SECOND, second);
+    if (!isTimestamp) {
+      dateTimeValue.set(Calendar.MILLISECOND, millis);
+    }
+
     try {
       return EdmDateTimeOffset.convertDateTime(dateTimeValue, nanoSeconds, returnType);
     } catch (final IllegalArgumentException e) {
@@ -92,6 +107,18 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) throws EdmPrimitiveTypeException {
 
+    if (value instanceof Long) {
+      final int millisOfDay = (int) EdmDateTimeOffset.floorMod((Long) value, EdmDateTimeOffset.MILLIS_PER_DAY);
+      final StringBuilder result = new StringBuilder();
+      EdmDateTimeOffset.appendTime(result, millisOfDay);
+      try {
+        EdmDateTimeOffset.appendMilliseconds(result, millisOfDay % 1000, precision);
+      } catch (final IllegalArgumentException e) {
+        throw new EdmPrimitiveTypeException("The value '" + value + "' does not match the facets' constraints.", e);
+      }
+      return result.toString();
+    }
+
     final Calendar dateTimeValue;
     final int fractionalSecs;
     if (value instanceof Timestamp) {
@@ -23,6 +23,8 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
@@ -37,7 +39,9 @@ import org.apache.olingo.commons.api.edm.provider.PropertyRef;
 public class EdmEntityTypeImpl extends AbstractEdmStructuredType implements EdmEntityType {
 
   private EntityType entityType;
-  private boolean baseTypeChecked = false;
+  private volatile boolean baseTypeChecked = false;
+  // A lock instead of a monitor: building the base type calls the provider, which may block on I/O.
+  private final Lock baseTypeLock = new ReentrantLock();
   private final boolean hasStream;
   protected EdmEntityType entityBaseType;
   private final List<String> keyPredicateNames = Collections.synchronizedList(new ArrayList<String>());
@@ -54,22 +58,29 @@ public class EdmEntityTypeImpl extends AbstractEdmStructuredType implements EdmE
   @Override
   protected void checkBaseType() {
     if (!baseTypeChecked) {
-      if (baseTypeName != null) {
-        baseType = buildBaseType(baseTypeName);
-        entityBaseType = (EdmEntityType) baseType;
-      }
-      if (baseType == null
-          || (baseType.isAbstract() && ((EdmEntityType) baseType).getKeyPropertyRefs().size() == 0)) {
-        final List<PropertyRef> key = entityType.getKey();
-        if (key != null) {
-          final List<EdmKeyPropertyRef> edmKey = new ArrayList<EdmKeyPropertyRef>();
-          for (PropertyRef ref : key) {
-            edmKey.add(new EdmKeyPropertyRefImpl(this, ref));
+      baseTypeLock.lock();
+      try {
+        if (!baseTypeChecked) {
+          if (baseTypeName != null) {
+            baseType = buildBaseType(baseTypeName);
+            entityBaseType = (EdmEntityType) baseType;
+          }
+          if (baseType == null
+              || (baseType.isAbstract() && ((EdmEntityType) baseType).getKeyPropertyRefs().size() == 0)) {
+            final List<PropertyRef> key = entityType.getKey();
+            if (key != null) {
+              final List<EdmKeyPropertyRef> edmKey = new ArrayList<EdmKeyPropertyRef>();
+              for (PropertyRef ref : key) {
+                edmKey.add(new EdmKeyPropertyRefImpl(this, ref));
+              }
+              setEdmKeyPropertyRef(edmKey);
+            }
           }
-          setEdmKeyPropertyRef(edmKey);
+          baseTypeChecked = true;
         }
+      } finally {
+        baseTypeLock.unlock();
       }
-      baseTypeChecked = true;
     }
   }
 
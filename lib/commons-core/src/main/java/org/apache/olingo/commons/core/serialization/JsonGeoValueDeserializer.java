@@ -34,6 +34,7 @@ import org.apache.olingo.commons.api.edm.geo.MultiLineString;
 import org.apache.olingo.commons.api.edm.geo.MultiPoint;
 import org.apache.olingo.commons.api.edm.geo.MultiPolygon;
 import org.apache.olingo.commons.api.edm.geo.Point;
+import org.apache.olingo.commons.api.edm.geo.PointArray;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.apache.olingo.commons.api.edm.geo.SRID;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmDouble;
@@ -61,38 +62,34 @@ class JsonGeoValueDeserializer {
     return point;
   }
 
-  private MultiPoint multipoint(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type, final SRID srid) {
-    final MultiPoint multiPoint;
-
-    if (itor.hasNext()) {
-      final List<Point> points = new ArrayList<Point>();
-      while (itor.hasNext()) {
-        final Iterator<JsonNode> mpItor = itor.next().elements();
-        points.add(point(mpItor, type, srid));
+  /**
+   * Reads an array of coordinate pairs directly into packed coordinates.
+   */
+  private PointArray points(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type, final SRID srid) {
+    final PointArray points = new PointArray(GeoUtils.getDimension(type), srid);
+    while (itor.hasNext()) {
+      final Iterator<JsonNode> pointItor = itor.next().elements();
+      if (pointItor.hasNext()) {
+        try {
+          points.add(
+              EdmDouble.getInstance().valueOfString(pointItor.next().asText(), null, null,
+                  Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, null, Double.class),
+              EdmDouble.getInstance().valueOfString(pointItor.next().asText(), null, null,
+                  Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, null, Double.class));
+        } catch (EdmPrimitiveTypeException e) {
+          throw new IllegalArgumentException("While deserializing point coordinates as double", e);
+        }
       }
-      multiPoint = new MultiPoint(GeoUtils.getDimension(type), srid, points);
-    } else {
-      multiPoint = new MultiPoint(GeoUtils.getDimension(type), srid, Collections.<Point> emptyList());
     }
+    return points;
+  }
 
-    return multiPoint;
+  private MultiPoint multipoint(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type, final SRID srid) {
+    return new MultiPoint(GeoUtils.getDimension(type), srid, points(itor, type, srid));
   }
 
   private LineString lineString(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type, final SRID srid) {
-    final LineString lineString;
-
-    if (itor.hasNext()) {
-      final List<Point> points = new ArrayList<Point>();
-      while (itor.hasNext()) {
-        final Iterator<JsonNode> mpItor = itor.next().elements();
-        points.add(point(mpItor, type, srid));
-      }
-      lineString = new LineString(GeoUtils.getDimension(type), srid, points);
-    } else {
-      lineString = new LineString(GeoUtils.getDimension(type), srid, Collections.<Point> emptyList());
-    }
-
-    return lineString;
+    return new LineString(GeoUtils.getDimension(type), srid, points(itor, type, srid));
   }
 
   private MultiLineString multiLineString(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type,
@@ -115,30 +112,8 @@ class JsonGeoValueDeserializer {
   }
 
   private Polygon polygon(final Iterator<JsonNode> itor, final EdmPrimitiveTypeKind type, final SRID srid) {
-    List<Point> extPoints = null;
-    if (itor.hasNext()) {
-      final Iterator<JsonNode> extItor = itor.next().elements();
-      if (extItor.hasNext()) {
-        extPoints = new ArrayList<Point>();
-        while (extItor.hasNext()) {
-          final Iterator<JsonNode> mpItor = extItor.next().elements();
-          extPoints.add(point(mpItor, type, srid));
-        }
-      }
-    }
-
-    List<Point> intPoints = null;
-    if (itor.hasNext()) {
-      final Iterator<JsonNode> intItor = itor.next().elements();
-      if (intItor.hasNext()) {
-        intPoints = new ArrayList<Point>();
-        while (intItor.hasNext()) {
-          final Iterator<JsonNode> mpItor = intItor.next().elements();
-          intPoints.add(point(mpItor, type, srid));
-        }
-      }
-    }
-
+    final List<Point> extPoints = itor.hasNext() ? points(itor.next().elements(), type, srid) : null;
+    final List<Point> intPoints = itor.hasNext() ? points(itor.next().elements(), type, srid) : null;
     return new Polygon(GeoUtils.getDimension(type), srid, intPoints, extPoints);
   }
 
@@ -30,6 +30,7 @@ import org.apache.olingo.commons.api.edm.geo.MultiLineString;
 import org.apache.olingo.commons.api.edm.geo.MultiPoint;
 import org.apache.olingo.commons.api.edm.geo.MultiPolygon;
 import org.apache.olingo.commons.api.edm.geo.Point;
+import org.apache.olingo.commons.api.edm.geo.PointArray;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.apache.olingo.commons.api.edm.geo.SRID;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmDouble;
@@ -48,10 +49,14 @@ class JsonGeoValueSerializer {
   }
 
   private void point(final JsonGenerator jgen, final Point point) throws IOException {
+    coordinates(jgen, point.getX(), point.getY());
+  }
+
+  private void coordinates(final JsonGenerator jgen, final double x, final double y) throws IOException {
     try {
-      jgen.writeNumber(EdmDouble.getInstance().valueToString(point.getX(), null, null,
+      jgen.writeNumber(EdmDouble.getInstance().valueToString(x, null, null,
           Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, null));
-      jgen.writeNumber(EdmDouble.getInstance().valueToString(point.getY(), null, null,
+      jgen.writeNumber(EdmDouble.getInstance().valueToString(y, null, null,
           Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, null));
     } catch (EdmPrimitiveTypeException e) {
       throw new IllegalArgumentException("While serializing point coordinates as double", e);
@@ -59,18 +64,23 @@ class JsonGeoValueSerializer {
   }
 
   private void multipoint(final JsonGenerator jgen, final MultiPoint multiPoint) throws IOException {
-    for (Point point : multiPoint) {
-      jgen.writeStartArray();
-      point(jgen, point);
-      jgen.writeEndArray();
-    }
+    lineString(jgen, multiPoint);
   }
 
   private void lineString(final JsonGenerator jgen, final ComposedGeospatial<Point> lineString) throws IOException {
-    for (Point point : lineString) {
-      jgen.writeStartArray();
-      point(jgen, point);
-      jgen.writeEndArray();
+    final PointArray points = lineString.getPointArray();
+    if (points == null) {
+      for (Point point : lineString) {
+        jgen.writeStartArray();
+        point(jgen, point);
+        jgen.writeEndArray();
+      }
+    } else {
+      for (int index = 0; index < points.size(); index++) {
+        jgen.writeStartArray();
+        coordinates(jgen, points.getX(index), points.getY(index));
+        jgen.writeEndArray();
+      }
     }
   }
 
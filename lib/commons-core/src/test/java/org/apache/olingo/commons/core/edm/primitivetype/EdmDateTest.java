@@ -56,6 +56,8 @@ public class EdmDateTest extends PrimitiveTypeBaseTest {
     assertEquals("2012-02-29", instance.valueToString(millis, null, null, null, null, null));
 
     assertEquals("1969-12-31", instance.valueToString(new Date(-43200000), null, null, null, null, null));
+    assertEquals("1969-12-31", instance.valueToString(-1L, null, null, null, null, null));
+    assertEquals("1600-02-29", instance.valueToString(-11670998400000L, null, null, null, null, null));
 
     dateTime.set(Calendar.YEAR, 12344);
     assertEquals("12344-02-29", instance.valueToString(dateTime, null, null, null, null, null));
@@ -74,6 +76,9 @@ public class EdmDateTest extends PrimitiveTypeBaseTest {
         null, Long.class));
     assertEquals(dateTime.getTime(), instance.valueOfString("2012-02-29", null, null, null, null, null, Date.class));
 
+    assertEquals(Long.valueOf(-11670998400000L), instance.valueOfString("1600-02-29", null, null, null, null, null,
+        Long.class));
+
     dateTime.set(Calendar.YEAR, 12344);
     assertEquals(dateTime, instance.valueOfString("12344-02-29", null, null, null, null, null, Calendar.class));
 
@@ -83,6 +88,7 @@ public class EdmDateTest extends PrimitiveTypeBaseTest {
 
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02");
     expectContentErrorInValueOfString(instance, "2012-02-30");
+    expectContentErrorInValueOfString(instance, "1900-02-29");
     expectContentErrorInValueOfString(instance, "20120229");
     expectContentErrorInValueOfString(instance, "2012-02-1");
     expectContentErrorInValueOfString(instance, "2012-2-12");
@@ -76,6 +76,14 @@ public class EdmDateTimeOffsetTest extends PrimitiveTypeBaseTest {
     assertEquals("1969-12-31T23:59:59.9Z", instance.valueToString(-100L, null, null, 1, null, null));
     assertEquals("1969-12-31T23:59:59.98Z", instance.valueToString(-20L, null, null, 2, null, null));
 
+    final Timestamp timestamp = new Timestamp(millis);
+    timestamp.setNanos(7654321);
+    assertEquals("2012-02-29T23:32:03.007654321Z", instance.valueToString(timestamp, null, null, 9, null, null));
+    assertEquals("2000-02-29T00:00:00Z", instance.valueToString(951782400000L, null, null, null, null, null));
+    assertEquals("1600-03-01T12:00:00Z", instance.valueToString(-11670868800000L, null, null, null, null, null));
+    // Julian calendar before the Gregorian cutover
+    assertEquals("1500-03-01T00:00:00Z", instance.valueToString(-14825808000000L, null, null, null, null, null));
+
     final Date date = new Date(millis);
     final String time = date.toString().substring(11, 19);
     assertTrue(instance.valueToString(date, null, null, 3, null, null).contains(time));
@@ -124,11 +132,25 @@ public class EdmDateTimeOffsetTest extends PrimitiveTypeBaseTest {
     assertEquals(Long.valueOf(120L), instance.valueOfString("1970-01-01T00:00:00.12", null, null, 2, null, null,
         Long.class));
 
+    assertEquals(Long.valueOf(951782400000L), instance.valueOfString("2000-02-29T00:00:00Z", null, null, null, null,
+        null, Long.class));
+    assertEquals(Long.valueOf(-11670868800000L), instance.valueOfString("1600-03-01T12:00:00Z", null, null, null, null,
+        null, Long.class));
+    assertEquals(Long.valueOf(-1L), instance.valueOfString("1970-01-01T00:59:59.999+01:00", null, null, 3, null, null,
+        Long.class));
+    assertEquals(Long.valueOf(-14825808000000L), instance.valueOfString("1500-03-01T00:00:00Z", null, null, null, null,
+        null, Long.class));
+
     expectFacetsErrorInValueOfString(instance, "2012-02-29T23:32:02.9Z", null, null, null, null, null);
     expectFacetsErrorInValueOfString(instance, "2012-02-29T23:32:02.9Z", null, null, 0, null, null);
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02X");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02+24:00");
     expectContentErrorInValueOfString(instance, "2012-02-30T01:02:03");
+    expectContentErrorInValueOfString(instance, "2011-02-29T01:02:03");
+    expectContentErrorInValueOfString(instance, "2012-13-01T01:02:03");
+    expectContentErrorInValueOfString(instance, "2012-02-29T24:00:00");
+    expectContentErrorInValueOfString(instance, "2012-02-29T23:60:00");
+    expectContentErrorInValueOfString(instance, "2012-02-29T01:02:03+10:60");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02.");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02.0000000000000");
 
@@ -57,6 +57,9 @@ public class EdmDurationTest extends PrimitiveTypeBaseTest {
     assertEquals("PT2M3S", instance.valueToString((byte) 123, null, null, null, null, null));
     assertEquals("PT3H25M45S", instance.valueToString((short) 12345, null, null, null, null, null));
     assertEquals("P14288DT23H31M30S", instance.valueToString(1234567890L, null, null, null, null, null));
+    assertEquals("-P1DT1S", instance.valueToString(-86401L, null, null, null, null, null));
+    assertEquals("PT0S", instance.valueToString(0, null, null, null, null, null));
+    assertEquals("-P106751991167300DT15H30M8S", instance.valueToString(Long.MIN_VALUE, null, null, null, null, null));
     assertEquals("P50903316DT2H25M4S", instance.valueToString(BigInteger.ONE.shiftLeft(42), null, null, null, null,
         null));
 
@@ -81,6 +84,8 @@ public class EdmDurationTest extends PrimitiveTypeBaseTest {
         Integer.class));
     assertEquals(Long.valueOf(1234567890L), instance.valueOfString("P14288DT23H31M30S", null, null, null, null, null,
         Long.class));
+    assertEquals(Long.valueOf(-86401L), instance.valueOfString("-P1DT1S", null, null, null, null, null, Long.class));
+    assertEquals(Integer.valueOf(1), instance.valueOfString("PT1.000S", null, null, 3, null, null, Integer.class));
     assertEquals(BigInteger.ONE.shiftLeft(42), instance.valueOfString("P50903316DT2H25M4S", null, null, null, null,
         null, BigInteger.class));
 
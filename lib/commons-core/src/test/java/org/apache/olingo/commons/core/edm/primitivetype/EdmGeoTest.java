@@ -26,10 +26,13 @@ import org.apache.olingo.commons.api.edm.geo.MultiLineString;
 import org.apache.olingo.commons.api.edm.geo.MultiPoint;
 import org.apache.olingo.commons.api.edm.geo.MultiPolygon;
 import org.apache.olingo.commons.api.edm.geo.Point;
+import org.apache.olingo.commons.api.edm.geo.PointArray;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -172,4 +175,36 @@ public class EdmGeoTest extends PrimitiveTypeBaseTest {
     assertEquals(input, EdmGeometryCollection.getInstance().
         valueToString(collection, null, null, null, null, null));
   }
+
+  @Test
+  public void packedPoints() throws EdmPrimitiveTypeException {
+    final StringBuilder input = new StringBuilder("geography'SRID=0;Polygon((");
+    for (int i = 0; i < 1000; i++) {
+      input.append(i == 0 ? "" : ",").append(i).append(".5 ").append(-i).append(".25");
+    }
+    input.append("),(1.0 1.0,2.0 2.0,3.0 3.0,1.0 1.0))'");
+
+    final Polygon polygon = EdmGeographyPolygon.getInstance().
+        valueOfString(input.toString(), null, null, null, null, null, Polygon.class);
+    final PointArray points = polygon.getInterior().getPointArray();
+    assertNotNull(points);
+    assertEquals(1000, points.size());
+    assertEquals(999.5, points.getX(999), 0);
+    assertEquals(-999.25, points.get(999).getY(), 0);
+
+    assertEquals(input.toString(),
+        EdmGeographyPolygon.getInstance().valueToString(polygon, null, null, null, null, null));
+
+    final List<Point> unpacked = new ArrayList<Point>(points);
+    final LineString lineString = new LineString(Geospatial.Dimension.GEOGRAPHY, null, points);
+    assertEquals(new LineString(Geospatial.Dimension.GEOGRAPHY, null, unpacked), lineString);
+    assertEquals(EdmGeographyLineString.getInstance().valueToString(
+        new LineString(Geospatial.Dimension.GEOGRAPHY, null, unpacked), null, null, null, null, null),
+        EdmGeographyLineString.getInstance().valueToString(lineString, null, null, null, null, null));
+
+    expectContentErrorInValueOfString(EdmGeographyLineString.getInstance(),
+        "geography'SRID=0;LineString(142.1 64.1 1.0,3.14 2.78)'");
+    expectContentErrorInValueOfString(EdmGeographyLineString.getInstance(),
+        "geography'SRID=0;LineString(142.1,3.14 2.78)'");
+  }
 }
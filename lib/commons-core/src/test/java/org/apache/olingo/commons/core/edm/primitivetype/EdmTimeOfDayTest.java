@@ -22,6 +22,7 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.junit.Test;
 
+import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.TimeZone;
 
@@ -55,6 +56,10 @@ public class EdmTimeOfDayTest extends PrimitiveTypeBaseTest {
     assertEquals("04:05:06.042", instance.valueToString(dateTime, null, null, 3, null, null));
     assertEquals("04:05:06.042", instance.valueToString(dateTime, null, null, 4, null, null));
 
+    assertEquals("23:59:59.999", instance.valueToString(-1L, null, null, 3, null, null));
+    assertEquals("12:34:56.7", instance.valueToString(86400000L + 45296700L, null, null, 1, null, null));
+
+    expectFacetsErrorInValueToString(instance, 45296700L, null, null, null, null, null);
     expectFacetsErrorInValueToString(instance, dateTime, null, null, null, null, null);
     expectFacetsErrorInValueToString(instance, dateTime, null, null, 2, null, null);
 
@@ -76,6 +81,11 @@ public class EdmTimeOfDayTest extends PrimitiveTypeBaseTest {
     assertEquals(dateTime, instance.valueOfString("00:00:00.999", null, null, 3, null, null, Calendar.class));
     assertEquals(dateTime, instance.valueOfString("00:00:00.999", null, null, 3, null, null, Calendar.class));
 
+    assertEquals(Long.valueOf(45296700L), instance.valueOfString("12:34:56.7", null, null, 1, null, null,
+        Long.class));
+    assertEquals(700000000, instance.valueOfString("12:34:56.7", null, null, 1, null, null,
+        Timestamp.class).getNanos());
+
     expectFacetsErrorInValueOfString(instance, "11:12:13.123", null, null, null, null, null);
     expectFacetsErrorInValueOfString(instance, "11:12:13.123", null, null, 2, null, null);
 
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import java.io.IOException;
+
+/**
+ * <p>Keeps the responses of asynchronously processed requests until the client retrieves them
+ * from the status monitor resource.</p>
+ * <p>Implementations must be thread-safe; one store is shared between all requests of a service.
+ * They should discard completed responses that are never retrieved, e.g., after a time to live.</p>
+ * @see AsyncSupport#setAsyncSupport(java.util.concurrent.ExecutorService, AsyncResponseStore)
+ * @see OData#createAsyncResponseStore(java.io.File)
+ */
+public interface AsyncResponseStore {
+
+  /**
+   * Registers a new asynchronous request whose processing has not been completed yet.
+   * @return the ID of the request; it must not be guessable because it grants access to the response
+   */
+  String create();
+
+  /**
+   * Stores the response of a completed request; its content is read completely.
+   * If the request has been removed in the meantime, the response is discarded.
+   * @param id the ID of the request
+   * @param response the response
+   * @throws IOException if the response cannot be stored
+   */
+  void complete(String id, ODataResponse response) throws IOException;
+
+  /**
+   * @param id the ID of the request
+   * @return <code>true</code> if the request is known, whether completed or not
+   */
+  boolean contains(String id);
+
+  /**
+   * Returns the stored response of a completed request.
+   * @param id the ID of the request
+   * @return the response, or <code>null</code> if the request is unknown or has not been completed yet
+   * @throws IOException if the response cannot be read
+   */
+  ODataResponse get(String id) throws IOException;
+
+  /**
+   * Removes the request and its response, if any.
+   * @param id the ID of the request
+   */
+  void remove(String id);
+}
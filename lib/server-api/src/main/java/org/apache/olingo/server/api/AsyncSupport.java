@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Optional interface of an {@link ODataHttpHandler} that processes requests asynchronously;
+ * the handlers created by {@link OData#createHandler(ServiceMetadata)} implement it.
+ */
+public interface AsyncSupport {
+
+  /**
+   * <p>Enables asynchronous processing of requests with the preference <code>respond-async</code>.</p>
+   * <p>Such requests are processed by the executor; the client immediately gets the response
+   * <code>202 Accepted</code> with the URL of a status monitor resource in the <code>Location</code> header.
+   * The status monitor returns <code>202 Accepted</code> as long as the request is processed and afterwards
+   * the response of the request as <code>application/http</code> message, once.
+   * A <code>DELETE</code> request to the status monitor discards the response.</p>
+   * <p>The executor and the store have to be shared between all handlers of a service.
+   * If the executor rejects a request, the request is processed synchronously.
+   * The handler processes the request after
+   * {@link ODataHttpHandler#process(HttpServletRequest, HttpServletResponse)} has returned,
+   * so it must not be used for further requests.</p>
+   * @param executor the executor for the asynchronous processing
+   * @param store the store of the responses
+   */
+  void setAsyncSupport(ExecutorService executor, AsyncResponseStore store);
+}
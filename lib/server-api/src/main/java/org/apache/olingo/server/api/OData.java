@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.api;
 
+import java.io.File;
 import java.util.List;
 
 import org.apache.olingo.commons.api.ODataRuntimeException;
@@ -87,6 +88,15 @@ public abstract class OData {
    */
   public abstract ODataHttpHandler createHandler(ServiceMetadata serviceMetadata);
 
+  /**
+   * Creates a store for the responses of asynchronously processed requests.
+   * Completed responses that are not retrieved within one hour are discarded.
+   *
+   * @param directory the directory for the responses, or <code>null</code> to keep them in memory
+   * @see AsyncSupport#setAsyncSupport(java.util.concurrent.ExecutorService, AsyncResponseStore)
+   */
+  public abstract AsyncResponseStore createAsyncResponseStore(File directory);
+
   /**
    * Creates a metadata object for this service.
    *
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.api;
 
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 
 import java.io.InputStream;
@@ -97,6 +98,26 @@ public class ODataRequest {
     return values == null ? null : values.get(0);
   }
 
+  /**
+   * Checks whether the client has sent a preference in one of the <code>Prefer</code> headers.
+   * @param preference the name of the preference, case-insensitive
+   * @return whether the preference is contained in one of the <code>Prefer</code> headers
+   */
+  public boolean isPreferred(final String preference) {
+    final List<String> headers = getHeaders(HttpHeader.PREFER);
+    if (headers != null) {
+      for (final String header : headers) {
+        for (final String item : header.split(",")) {
+          final String name = item.split("[;=]", 2)[0].trim();
+          if (name.equalsIgnoreCase(preference)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * Gets the body of the request.
    * @return the request payload as {@link InputStream} or null
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.queryoption.QueryOption;
+
+/**
+ * <p>Entity count provider caching the counts of another provider.</p>
+ * <p>Counts of entity sets are cached per entity set, per text of the $filter and $search options,
+ * and per value of the parameter aliases used in these options;
+ * counts of other collections, e.g., of navigation targets, are always requested from the other provider.
+ * The service has to call {@link #invalidate(String)} whenever entities are created in or deleted from
+ * an entity set, and whenever properties used in filters change.
+ * Invalidated counts are no longer returned as exact counts but still serve as estimates.</p>
+ * <p>Instances can be used by several threads concurrently.</p>
+ */
+public class CachingEntityCountProvider implements EntityCountProvider {
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+  private static final Pattern ALIAS = Pattern.compile("@[A-Za-z_][A-Za-z_0-9]*");
+
+  private final EntityCountProvider provider;
+  private final int maxSize;
+  private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+  private final ConcurrentMap<String, CachedCount> counts = new ConcurrentHashMap<String, CachedCount>();
+
+  public CachingEntityCountProvider(final EntityCountProvider provider) {
+    this(provider, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param provider the provider of the counts
+   * @param maxSize the maximum number of cached counts; if it is reached, the cache is cleared
+   */
+  public CachingEntityCountProvider(final EntityCountProvider provider, final int maxSize) {
+    this.provider = provider;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public Integer count(final UriInfoResource uriInfo) throws ODataApplicationException {
+    final String entitySetName = getEntitySetName(uriInfo);
+    final String key = entitySetName == null ? null : getKey(entitySetName, uriInfo);
+    if (key == null) {
+      return provider.count(uriInfo);
+    }
+    final AtomicLong version = getVersion(entitySetName);
+    final CachedCount cached = counts.get(key);
+    if (cached != null && cached.version == version.get()) {
+      return cached.count;
+    }
+    // The version is read before counting so that an invalidation during counting is not lost.
+    final long currentVersion = version.get();
+    final Integer count = provider.count(uriInfo);
+    if (count != null) {
+      if (counts.size() >= maxSize) {
+        counts.clear();
+      }
+      counts.put(key, new CachedCount(count, currentVersion));
+    }
+    return count;
+  }
+
+  @Override
+  public Integer estimateCount(final UriInfoResource uriInfo) throws ODataApplicationException {
+    final String entitySetName = getEntitySetName(uriInfo);
+    final String key = entitySetName == null ? null : getKey(entitySetName, uriInfo);
+    final CachedCount cached = key == null ? null : counts.get(key);
+    return cached == null ? provider.estimateCount(uriInfo) : Integer.valueOf(cached.count);
+  }
+
+  /**
+   * Marks the cached counts of the entity set as outdated.
+   * @param entitySetName the name of the entity set
+   */
+  public void invalidate(final String entitySetName) {
+    getVersion(entitySetName).incrementAndGet();
+  }
+
+  /** Marks all cached counts as outdated. */
+  public void invalidateAll() {
+    for (final AtomicLong version : versions.values()) {
+      version.incrementAndGet();
+    }
+  }
+
+  private AtomicLong getVersion(final String entitySetName) {
+    final AtomicLong version = versions.get(entitySetName);
+    if (version == null) {
+      final AtomicLong newVersion = new AtomicLong();
+      final AtomicLong existingVersion = versions.putIfAbsent(entitySetName, newVersion);
+      return existingVersion == null ? newVersion : existingVersion;
+    }
+    return version;
+  }
+
+  /** @return the name of the entity set if the resource path addresses all entities of an entity set */
+  private String getEntitySetName(final UriInfoResource uriInfo) {
+    final List<UriResource> parts = uriInfo.getUriResourceParts();
+    if (parts.isEmpty()) {
+      return null;
+    }
+    final UriResource first = parts.get(0);
+    return first instanceof UriResourceEntitySet
+        && ((UriResourceEntitySet) first).getKeyPredicates().isEmpty()
+        && (parts.size() == 1 || parts.size() == 2 && parts.get(1).getKind() == UriResourceKind.count) ?
+        ((UriResourceEntitySet) first).getEntitySet().getName() :
+        null;
+  }
+
+  /** @return the key of the count in the cache, or <code>null</code> if the count cannot be cached */
+  private String getKey(final String entitySetName, final UriInfoResource uriInfo) {
+    StringBuilder key = new StringBuilder(entitySetName);
+    for (final QueryOption option : new QueryOption[] { uriInfo.getFilterOption(), uriInfo.getSearchOption() }) {
+      key.append('\n');
+      if (option != null) {
+        if (option.getText() == null) {
+          return null;
+        }
+        key.append(option.getText());
+      }
+    }
+    // The values of the parameter aliases are not part of the text of the options.
+    for (final QueryOption option : new QueryOption[] { uriInfo.getFilterOption(), uriInfo.getSearchOption() }) {
+      if (option != null) {
+        final Matcher matcher = ALIAS.matcher(option.getText());
+        while (matcher.find()) {
+          key.append('\n').append(matcher.group()).append('=').append(uriInfo.getValueForAlias(matcher.group()));
+        }
+      }
+    }
+    return key.toString();
+  }
+
+  private static final class CachedCount {
+    private final int count;
+    private final long version;
+
+    private CachedCount(final int count, final long version) {
+      this.count = count;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.http.HttpContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.UriInfo;
+
+/**
+ * <p>Processor implementation answering count requests for entity collections with the counts of an
+ * {@link EntityCountProvider}, so that the entities are not read.</p>
+ * <p>If the client sends the preference {@value #PREFERENCE_ESTIMATED_COUNT} in the <code>Prefer</code> header,
+ * an estimated count is returned if the provider has one; the response then contains the preference
+ * in the <code>Preference-Applied</code> header.</p>
+ */
+public class EntityCountProcessor implements CountEntityCollectionProcessor {
+
+  /** Preference allowing the service to return an estimated count. */
+  public static final String PREFERENCE_ESTIMATED_COUNT = "olingo.estimated-count";
+
+  private final EntityCountProvider provider;
+  private OData odata;
+
+  public EntityCountProcessor(final EntityCountProvider provider) {
+    this.provider = provider;
+  }
+
+  @Override
+  public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+    this.odata = odata;
+  }
+
+  @Override
+  public void countEntityCollection(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo)
+      throws ODataApplicationException, SerializerException {
+    Integer count = null;
+    boolean isEstimated = false;
+    if (request.isPreferred(PREFERENCE_ESTIMATED_COUNT)) {
+      count = provider.estimateCount(uriInfo);
+      isEstimated = count != null;
+    }
+    if (count == null) {
+      count = provider.count(uriInfo);
+    }
+    if (count == null) {
+      throw new ODataApplicationException("Counting is not supported for this collection.",
+          HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+    response.setContent(odata.createFixedFormatSerializer().count(count));
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, HttpContentType.TEXT_PLAIN);
+    if (isEstimated) {
+      response.setHeader(HttpHeader.PREFERENCE_APPLIED, PREFERENCE_ESTIMATED_COUNT);
+    }
+  }
+}
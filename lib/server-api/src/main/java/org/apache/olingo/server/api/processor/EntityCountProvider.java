@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+
+/**
+ * Counts the entities of a collection without reading them, for example with a count query
+ * in the persistence layer or from bookkeeping of the service.
+ * @see EntityCountProcessor
+ * @see CachingEntityCountProvider
+ */
+public interface EntityCountProvider {
+
+  /**
+   * Counts the entities of the collection addressed by the resource path,
+   * restricted by the system query options $filter and $search.
+   * @param uriInfo information of a parsed OData URI
+   * @return the exact number of entities, or <code>null</code> if the entities cannot be counted
+   * @throws ODataApplicationException if the service implementation encounters a failure
+   */
+  Integer count(UriInfoResource uriInfo) throws ODataApplicationException;
+
+  /**
+   * Estimates the number of entities of the collection addressed by the resource path,
+   * restricted by the system query options $filter and $search.
+   * An estimate is returned only if the client allows it; it should be cheaper to determine than the exact count.
+   * @param uriInfo information of a parsed OData URI
+   * @return the estimated number of entities, or <code>null</code> if no estimate is available
+   * @throws ODataApplicationException if the service implementation encounters a failure
+   */
+  Integer estimateCount(UriInfoResource uriInfo) throws ODataApplicationException;
+}
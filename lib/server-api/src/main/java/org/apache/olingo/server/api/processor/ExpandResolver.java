@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.domain.ODataLinkType;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+
+/**
+ * <p>Resolves the system query option $expand for a collection of entities with a {@link NavigationLoader}.</p>
+ * <p>The expand tree is processed level by level: for every expanded navigation property the loader is called
+ * once with all entities of the level, instead of once for every entity.
+ * Entities with the same key are passed to the loader only once and get the same related entities.
+ * The related entities are set as inline entities of the navigation links of the entities.</p>
+ * <p>If an executor is given, the expanded navigation properties of one level, including their nested expansions,
+ * are resolved concurrently; the loader must then be thread-safe. The number of concurrently running tasks of one
+ * {@link #resolve(List, EdmBindingTarget, ExpandOption)} call is limited; navigation properties beyond the limit are
+ * resolved in the calling thread. If one navigation property fails, the running tasks are interrupted and the
+ * remaining ones are not started.</p>
+ */
+public class ExpandResolver {
+
+  private final NavigationLoader loader;
+  private final ExecutorService executor;
+  private final int maxConcurrency;
+
+  /** Creates a resolver that resolves all navigation properties in the calling thread. */
+  public ExpandResolver(final NavigationLoader loader) {
+    this(loader, null, 0);
+  }
+
+  /**
+   * @param loader the loader of the navigation targets
+   * @param executor the executor for concurrent resolution, or <code>null</code> to use the calling thread only
+   * @param maxConcurrency the maximum number of tasks running on the executor for one call to
+   * {@link #resolve(List, EdmBindingTarget, ExpandOption)}
+   */
+  public ExpandResolver(final NavigationLoader loader, final ExecutorService executor, final int maxConcurrency) {
+    this.loader = loader;
+    this.executor = executor;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Sets the related entities requested by the expand option as inline entities of the given entities.
+   * @param entities the entities; their navigation links are modified
+   * @param bindingTarget the binding target of the entities
+   * @param expand the expand option; if <code>null</code> nothing is done
+   * @throws ODataApplicationException if the expand option is not supported or the loader fails
+   */
+  public void resolve(final List<Entity> entities, final EdmBindingTarget bindingTarget,
+      final ExpandOption expand) throws ODataApplicationException {
+    resolve(entities, bindingTarget, bindingTarget.getEntityType(), expand,
+        new Execution(executor == null ? 0 : maxConcurrency));
+  }
+
+  private void resolve(final List<Entity> entities, final EdmBindingTarget bindingTarget,
+      final EdmEntityType entityType, final ExpandOption expand, final Execution execution)
+      throws ODataApplicationException {
+    if (entities.isEmpty() || expand == null || expand.getExpandItems() == null
+        || expand.getExpandItems().isEmpty()) {
+      return;
+    }
+
+    final Map<Object, List<Entity>> entitiesByKey = groupByKey(entities, entityType);
+    final List<Entity> sources = new ArrayList<Entity>(entitiesByKey.size());
+    for (final List<Entity> group : entitiesByKey.values()) {
+      sources.add(group.get(0));
+    }
+
+    final Map<String, ExpandItem> expanded = getExpandedNavigationProperties(entityType, expand);
+    List<Branch> branches = new ArrayList<Branch>(expanded.size());
+    for (final Map.Entry<String, ExpandItem> entry : expanded.entrySet()) {
+      branches.add(new Branch(bindingTarget, entityType.getNavigationProperty(entry.getKey()), sources,
+          entry.getValue(), execution));
+    }
+    execution.run(branches);
+
+    // The links are set in the calling thread because the entities are shared between the branches.
+    for (final Branch branch : branches) {
+      final EdmNavigationProperty navigationProperty = branch.navigationProperty;
+      int index = 0;
+      for (final List<Entity> group : entitiesByKey.values()) {
+        final EntityCollection result = branch.results.get(index++);
+        for (final Entity entity : group) {
+          final Link link = getLink(entity, navigationProperty);
+          if (navigationProperty.isCollection()) {
+            link.setInlineEntitySet(result == null ? new EntityCollection() : result);
+          } else {
+            link.setInlineEntity(result == null || result.getEntities().isEmpty() ?
+                null : result.getEntities().get(0));
+          }
+        }
+      }
+    }
+  }
+
+  /** Resolution of one expanded navigation property for all entities of a level, including nested expansion. */
+  private class Branch implements Runnable {
+    private final EdmBindingTarget bindingTarget;
+    private final EdmNavigationProperty navigationProperty;
+    private final List<Entity> sources;
+    private final ExpandItem item;
+    private final Execution execution;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private List<EntityCollection> results;
+
+    private Branch(final EdmBindingTarget bindingTarget, final EdmNavigationProperty navigationProperty,
+        final List<Entity> sources, final ExpandItem item, final Execution execution) {
+      this.bindingTarget = bindingTarget;
+      this.navigationProperty = navigationProperty;
+      this.sources = sources;
+      this.item = item;
+      this.execution = execution;
+    }
+
+    /** Resolves the branch unless it has already been started by another thread. */
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        if (!execution.isFailed()) {
+          resolveBranch();
+        }
+      } catch (final ODataApplicationException e) {
+        execution.fail(e);
+      } catch (final RuntimeException e) {
+        execution.fail(e);
+      } finally {
+        done.countDown();
+      }
+    }
+
+    private void resolveBranch() throws ODataApplicationException {
+      results = loader.load(bindingTarget, navigationProperty, sources, item);
+      if (results == null || results.size() != sources.size()) {
+        throw new ODataApplicationException("The navigation loader returned a wrong number of results.",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+      }
+
+      if (item != null && item.getExpandOption() != null) {
+        // Related entities are collected by identity so that shared ones are processed only once.
+        final Map<Entity, Boolean> related = new IdentityHashMap<Entity, Boolean>();
+        final List<Entity> nextLevel = new ArrayList<Entity>();
+        for (final EntityCollection result : results) {
+          if (result != null) {
+            for (final Entity relatedEntity : result.getEntities()) {
+              if (related.put(relatedEntity, Boolean.TRUE) == null) {
+                nextLevel.add(relatedEntity);
+              }
+            }
+          }
+        }
+        final String name = navigationProperty.getName();
+        resolve(nextLevel,
+            bindingTarget == null ? null : bindingTarget.getRelatedBindingTarget(name),
+            navigationProperty.getType(),
+            item.getExpandOption(),
+            execution);
+      }
+    }
+  }
+
+  /** State of the branches of one call to {@link ExpandResolver#resolve(List, EdmBindingTarget, ExpandOption)}. */
+  private class Execution {
+    private final Semaphore permits;
+    private final List<Future<?>> futures = new ArrayList<Future<?>>();
+    private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+    private Execution(final int maxConcurrency) {
+      permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Runs the branches, as many as permitted on the executor and the others in the calling thread.
+     * Branches submitted to the executor but not yet started when the calling thread is idle are
+     * run in the calling thread, too, so that waiting threads never block the executor.
+     */
+    private void run(final List<Branch> branches) throws ODataApplicationException {
+      for (int i = 1; i < branches.size() && !isFailed() && permits.tryAcquire(); i++) {
+        final Branch branch = branches.get(i);
+        try {
+          submit(branch);
+        } catch (final RejectedExecutionException e) {
+          permits.release();
+        }
+      }
+      try {
+        for (final Branch branch : branches) {
+          branch.run();
+        }
+        for (final Branch branch : branches) {
+          branch.done.await();
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail(new ODataApplicationException("Expand processing interrupted",
+            HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), Locale.ROOT));
+      }
+
+      final Exception exception = failure.get();
+      if (exception instanceof ODataApplicationException) {
+        throw (ODataApplicationException) exception;
+      } else if (exception != null) {
+        throw (RuntimeException) exception;
+      }
+    }
+
+    private void submit(final Branch branch) {
+      synchronized (futures) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              branch.run();
+            } finally {
+              permits.release();
+            }
+          }
+        }));
+      }
+    }
+
+    private boolean isFailed() {
+      return failure.get() != null;
+    }
+
+    /** Records the first failure and interrupts the running branches. */
+    private void fail(final Exception exception) {
+      if (failure.compareAndSet(null, exception)) {
+        synchronized (futures) {
+          for (final Future<?> future : futures) {
+            future.cancel(true);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Determines the expanded navigation properties with their expand items;
+   * navigation properties expanded only by <code>*</code> have no expand item.
+   */
+  private Map<String, ExpandItem> getExpandedNavigationProperties(final EdmEntityType entityType,
+      final ExpandOption expand) throws ODataApplicationException {
+    Map<String, ExpandItem> expanded = new LinkedHashMap<String, ExpandItem>();
+    boolean star = false;
+    for (final ExpandItem item : expand.getExpandItems()) {
+      if (item.isStar()) {
+        star = true;
+      } else {
+        final List<UriResource> parts = item.getResourcePath() == null ? null :
+            item.getResourcePath().getUriResourceParts();
+        if (parts == null || parts.size() != 1 || !(parts.get(0) instanceof UriResourceNavigation)) {
+          throw new ODataApplicationException("Not supported resource part in expand system query option",
+              HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+        }
+        expanded.put(((UriResourceNavigation) parts.get(0)).getProperty().getName(), item);
+      }
+    }
+    if (star) {
+      for (final String name : entityType.getNavigationPropertyNames()) {
+        if (!expanded.containsKey(name)) {
+          expanded.put(name, null);
+        }
+      }
+    }
+    return expanded;
+  }
+
+  /** Groups the entities by their key values; entities without complete key are grouped alone. */
+  private Map<Object, List<Entity>> groupByKey(final List<Entity> entities, final EdmEntityType entityType) {
+    final List<String> keyNames = entityType.getKeyPredicateNames();
+    Map<Object, List<Entity>> groups = new LinkedHashMap<Object, List<Entity>>();
+    for (final Entity entity : entities) {
+      Object key = getKey(entity, keyNames);
+      if (key == null) {
+        key = entity;
+      }
+      List<Entity> group = groups.get(key);
+      if (group == null) {
+        group = new ArrayList<Entity>(1);
+        groups.put(key, group);
+      }
+      group.add(entity);
+    }
+    return groups;
+  }
+
+  private Object getKey(final Entity entity, final List<String> keyNames) {
+    List<Object> key = new ArrayList<Object>(keyNames.size());
+    for (final String name : keyNames) {
+      final Property property = entity.getProperty(name);
+      if (property == null || property.getValue() == null) {
+        return null;
+      }
+      key.add(property.getValue());
+    }
+    return key;
+  }
+
+  private Link getLink(final Entity entity, final EdmNavigationProperty navigationProperty) {
+    Link link = entity.getNavigationLink(navigationProperty.getName());
+    if (link == null) {
+      link = new Link();
+      link.setTitle(navigationProperty.getName());
+      link.setType(navigationProperty.isCollection() ?
+          ODataLinkType.ENTITY_SET_NAVIGATION.toString() :
+          ODataLinkType.ENTITY_NAVIGATION.toString());
+      entity.getNavigationLinks().add(link);
+    }
+    return link;
+  }
+}
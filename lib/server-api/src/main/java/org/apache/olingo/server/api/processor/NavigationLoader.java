@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.processor;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+
+/**
+ * Loads the targets of a navigation property for many source entities at once,
+ * for example with one query in the persistence layer restricted to the keys of all source entities.
+ * @see ExpandResolver
+ */
+public interface NavigationLoader {
+
+  /**
+   * Loads the entities related to the given source entities via the navigation property.
+   * <br/>
+   * The source entities have distinct keys; implementations usually read only their key properties.
+   * The system query options $filter, $orderby, $skip, and $top of the expand item have to be applied
+   * to the related entities of every source entity separately; nested expand options are handled by the caller.
+   * The returned entities are used as inline entities and get navigation links for the nested expansion,
+   * so they must not be shared with the data store.
+   * @param source the binding target of the source entities, or <code>null</code> if not known
+   * @param navigationProperty the navigation property
+   * @param sources the source entities
+   * @param item the expand item with the options for the navigation property,
+   * or <code>null</code> if the navigation property is expanded by <code>*</code>
+   * @return for every source entity in the same order the related entities,
+   * or <code>null</code> if there are none;
+   * for a single-valued navigation property the collection contains at most one entity
+   * @throws ODataApplicationException if the service implementation encounters a failure
+   */
+  List<EntityCollection> load(EdmBindingTarget source, EdmNavigationProperty navigationProperty,
+      List<Entity> sources, ExpandItem item) throws ODataApplicationException;
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.serializer;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+
+/** Options for the OData serializer. */
+public class CrossJoinSerializerOptions {
+
+  private ContextURL contextURL;
+
+  /** Gets the {@link ContextURL}. */
+  public ContextURL getContextURL() {
+    return contextURL;
+  }
+
+  private CrossJoinSerializerOptions() {}
+
+  /** Initializes the options builder. */
+  public static Builder with() {
+    return new Builder();
+  }
+
+  /** Builder of OData serializer options. */
+  public static final class Builder {
+
+    private CrossJoinSerializerOptions options;
+
+    private Builder() {
+      options = new CrossJoinSerializerOptions();
+    }
+
+    /** Sets the {@link ContextURL}. */
+    public Builder contextURL(final ContextURL contextURL) {
+      options.contextURL = contextURL;
+      return this;
+    }
+
+    /** Builds the OData serializer options. */
+    public CrossJoinSerializerOptions build() {
+      return options;
+    }
+  }
+}
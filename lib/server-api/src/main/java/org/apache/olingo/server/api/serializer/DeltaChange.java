@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.serializer;
+
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.DeltaLink;
+import org.apache.olingo.commons.api.data.Entity;
+
+/**
+ * A change written into a delta response:
+ * an added or changed entity, a deleted entity, an added link, or a deleted link.
+ */
+public final class DeltaChange {
+
+  /** The kind of a change. */
+  public enum Kind {
+    ENTITY, DELETED_ENTITY, ADDED_LINK, DELETED_LINK
+  }
+
+  private final Kind kind;
+  private final Entity entity;
+  private final DeletedEntity deletedEntity;
+  private final DeltaLink link;
+
+  private DeltaChange(final Kind kind, final Entity entity, final DeletedEntity deletedEntity,
+      final DeltaLink link) {
+    this.kind = kind;
+    this.entity = entity;
+    this.deletedEntity = deletedEntity;
+    this.link = link;
+  }
+
+  /** Creates the change of an added or changed entity. */
+  public static DeltaChange entity(final Entity entity) {
+    return new DeltaChange(Kind.ENTITY, entity, null, null);
+  }
+
+  /** Creates the change of a deleted entity. */
+  public static DeltaChange deletedEntity(final DeletedEntity deletedEntity) {
+    return new DeltaChange(Kind.DELETED_ENTITY, null, deletedEntity, null);
+  }
+
+  /** Creates the change of an added link. */
+  public static DeltaChange addedLink(final DeltaLink link) {
+    return new DeltaChange(Kind.ADDED_LINK, null, null, link);
+  }
+
+  /** Creates the change of a deleted link. */
+  public static DeltaChange deletedLink(final DeltaLink link) {
+    return new DeltaChange(Kind.DELETED_LINK, null, null, link);
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /** Gets the entity of a change of kind {@link Kind#ENTITY}; <code>null</code> otherwise. */
+  public Entity getEntity() {
+    return entity;
+  }
+
+  /** Gets the deleted entity of a change of kind {@link Kind#DELETED_ENTITY}; <code>null</code> otherwise. */
+  public DeletedEntity getDeletedEntity() {
+    return deletedEntity;
+  }
+
+  /**
+   * Gets the link of a change of kind {@link Kind#ADDED_LINK} or {@link Kind#DELETED_LINK};
+   * <code>null</code> otherwise.
+   */
+  public DeltaLink getLink() {
+    return link;
+  }
+}
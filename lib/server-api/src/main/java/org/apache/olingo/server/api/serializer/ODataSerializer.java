@@ -18,11 +18,17 @@
  */
 package org.apache.olingo.server.api.serializer;
 
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Delta;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.server.api.ODataServerError;
@@ -111,4 +117,44 @@ public interface ODataSerializer {
    */
   SerializerResult complexCollection(ServiceMetadata metadata, EdmComplexType type, Property property,
       ComplexSerializerOptions options) throws SerializerException;
+
+  /**
+   * Writes the result of a $crossjoin into an InputStream.
+   * <br/>
+   * The rows are read from the iterator while the InputStream is read,
+   * so they need not be kept in memory all at once.
+   * @param metadata    Metadata for the service
+   * @param entitySets  the entity sets of the cross join
+   * @param rows        the combinations of entities, one entity for each entity set in the same order
+   * @param options     options for the serializer
+   */
+  SerializerResult crossJoin(ServiceMetadata metadata, List<EdmEntitySet> entitySets, Iterator<List<Entity>> rows,
+      CrossJoinSerializerOptions options) throws SerializerException;
+
+  /**
+   * Writes delta information into an InputStream.
+   * <br/>
+   * The entities, deleted entities, added links, and deleted links of the delta are written in this order,
+   * followed by its next link or its delta link; they are serialized while the InputStream is read.
+   * @param metadata    Metadata for the service
+   * @param entityType  the {@link EdmEntityType} of the entities
+   * @param delta       the delta information
+   * @param options     options for the serializer
+   */
+  SerializerResult delta(ServiceMetadata metadata, EdmEntityType entityType, Delta delta,
+      DeltaSerializerOptions options) throws SerializerException;
+
+  /**
+   * Writes delta information read from an iterator into an InputStream.
+   * <br/>
+   * The changes are read from the iterator while the InputStream is read,
+   * so they need not be kept in memory all at once.
+   * @param metadata    Metadata for the service
+   * @param entityType  the {@link EdmEntityType} of the entities
+   * @param changes     the changes, in the order they are written
+   * @param deltaLink   the delta link written after the changes; may be <code>null</code>
+   * @param options     options for the serializer
+   */
+  SerializerResult delta(ServiceMetadata metadata, EdmEntityType entityType, Iterator<DeltaChange> changes,
+      URI deltaLink, DeltaSerializerOptions options) throws SerializerException;
 }
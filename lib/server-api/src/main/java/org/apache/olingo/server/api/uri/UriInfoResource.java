@@ -20,6 +20,7 @@ package org.apache.olingo.server.api.uri;
 
 import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.DeltaTokenOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.FilterOption;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
@@ -99,6 +100,11 @@ public interface UriInfoResource {
    */
   TopOption getTopOption();
 
+  /**
+   * @return Object containing information of the $deltatoken option
+   */
+  DeltaTokenOption getDeltaTokenOption();
+
   /**
    * The path segments behind the service root define which resources are
    * requested by that URI. This may be entities/functions/actions and more.
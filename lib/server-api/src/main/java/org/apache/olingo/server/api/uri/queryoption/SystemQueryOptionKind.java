@@ -82,7 +82,12 @@ public enum SystemQueryOptionKind {
   /**
    * See {@link LevelsExpandOption}<br>
    */
-  LEVELS("$level");
+  LEVELS("$level"),
+
+  /**
+   * See {@link DeltaTokenOption}<br>
+   */
+  DELTATOKEN("$deltatoken");
 
   String syntax;
 
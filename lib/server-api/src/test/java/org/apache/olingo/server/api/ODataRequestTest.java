@@ -23,6 +23,8 @@ import org.junit.Test;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ODataRequestTest {
 
@@ -67,4 +69,18 @@ public class ODataRequestTest {
     assertEquals("b", r.getHeaders("aA").get(1));
     assertEquals("c", r.getHeaders("aA").get(2));
   }
+
+  @Test
+  public void testPreference() {
+    ODataRequest r = new ODataRequest();
+    assertFalse(r.isPreferred("respond-async"));
+
+    r.addHeader("Prefer", Arrays.asList("return=minimal, Respond-Async", "wait=10"));
+
+    assertTrue(r.isPreferred("respond-async"));
+    assertTrue(r.isPreferred("return"));
+    assertTrue(r.isPreferred("wait"));
+    assertFalse(r.isPreferred("minimal"));
+    assertFalse(r.isPreferred("odata.track-changes"));
+  }
 }
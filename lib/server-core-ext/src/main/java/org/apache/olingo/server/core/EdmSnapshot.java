@@ -0,0 +1,739 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.ODataException;
+import org.apache.olingo.commons.api.edm.geo.Geospatial.Dimension;
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.Action;
+import org.apache.olingo.commons.api.edm.provider.ActionImport;
+import org.apache.olingo.commons.api.edm.provider.BindingTarget;
+import org.apache.olingo.commons.api.edm.provider.ComplexType;
+import org.apache.olingo.commons.api.edm.provider.EdmProvider;
+import org.apache.olingo.commons.api.edm.provider.EntityContainer;
+import org.apache.olingo.commons.api.edm.provider.EntitySet;
+import org.apache.olingo.commons.api.edm.provider.EntityType;
+import org.apache.olingo.commons.api.edm.provider.EnumMember;
+import org.apache.olingo.commons.api.edm.provider.EnumType;
+import org.apache.olingo.commons.api.edm.provider.Function;
+import org.apache.olingo.commons.api.edm.provider.FunctionImport;
+import org.apache.olingo.commons.api.edm.provider.NavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.NavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.OnDelete;
+import org.apache.olingo.commons.api.edm.provider.OnDeleteAction;
+import org.apache.olingo.commons.api.edm.provider.Operation;
+import org.apache.olingo.commons.api.edm.provider.Parameter;
+import org.apache.olingo.commons.api.edm.provider.Property;
+import org.apache.olingo.commons.api.edm.provider.PropertyRef;
+import org.apache.olingo.commons.api.edm.provider.ReferentialConstraint;
+import org.apache.olingo.commons.api.edm.provider.ReturnType;
+import org.apache.olingo.commons.api.edm.provider.Schema;
+import org.apache.olingo.commons.api.edm.provider.Singleton;
+import org.apache.olingo.commons.api.edm.provider.StructuralType;
+import org.apache.olingo.commons.api.edm.provider.Term;
+import org.apache.olingo.commons.api.edm.provider.TypeDefinition;
+
+/**
+ * Compact binary snapshot of the schemas of an {@link EdmProvider}.
+ * <br/>
+ * A snapshot is written once, e.g., at build time, from any provider or from a CSDL document
+ * read with the {@link MetadataParser}, and loaded at startup without calling the original provider
+ * and without parsing XML. The loaded {@link SchemaBasedEdmProvider} can be passed directly to
+ * {@link org.apache.olingo.server.api.OData#createServiceMetadata(EdmProvider, List)}.
+ * <br/>
+ * The format consists of a header, a table of all distinct strings, and the schemas,
+ * where strings are referenced by their index and numbers are stored as variable-length integers.
+ * Like the {@link MetadataParser}, the snapshot covers the CSDL structure of the schemas
+ * but neither annotations nor mappings.
+ */
+public final class EdmSnapshot {
+
+  private static final int MAGIC = 0x4F454446; // "OEDF"
+  private static final int VERSION = 1;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private EdmSnapshot() {}
+
+  /**
+   * Writes a snapshot of all schemas of the given provider.
+   * @param provider the EDM provider
+   * @param out the stream to write to; it is flushed but not closed
+   */
+  public static void write(final EdmProvider provider, final OutputStream out) throws ODataException, IOException {
+    final Writer writer = new Writer();
+    final List<Schema> schemas = provider.getSchemas();
+    if (writer.count(schemas)) {
+      for (final Schema schema : schemas) {
+        writer.schema(schema);
+      }
+    }
+    writer.writeTo(out);
+  }
+
+  /**
+   * Loads a snapshot from a file; the file is memory-mapped.
+   * @param file the snapshot file
+   * @return an EDM provider serving the schemas of the snapshot
+   */
+  public static SchemaBasedEdmProvider read(final File file) throws IOException {
+    final FileInputStream in = new FileInputStream(file);
+    try {
+      final FileChannel channel = in.getChannel();
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Loads a snapshot from a stream.
+   * @param in the stream to read from; it is read to its end but not closed
+   * @return an EDM provider serving the schemas of the snapshot
+   */
+  public static SchemaBasedEdmProvider read(final InputStream in) throws IOException {
+    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int count;
+    while ((count = in.read(buffer)) != -1) {
+      content.write(buffer, 0, count);
+    }
+    return read(ByteBuffer.wrap(content.toByteArray()));
+  }
+
+  /**
+   * Loads a snapshot from a buffer, starting at its current position.
+   * @param buffer the buffer containing the snapshot
+   * @return an EDM provider serving the schemas of the snapshot
+   */
+  public static SchemaBasedEdmProvider read(final ByteBuffer buffer) throws IOException {
+    try {
+      final Reader reader = new Reader(buffer);
+      final SchemaBasedEdmProvider provider = new SchemaBasedEdmProvider();
+      final int count = reader.count();
+      for (int i = 0; i < count; i++) {
+        provider.addSchema(reader.schema());
+      }
+      return provider;
+    } catch (final BufferUnderflowException e) {
+      throw new IOException("Unexpected end of EDM snapshot.");
+    } catch (final IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt EDM snapshot.");
+    }
+  }
+
+  private static void writeVarInt(final OutputStream out, final int value) throws IOException {
+    int rest = value;
+    while ((rest & ~0x7F) != 0) {
+      out.write((rest & 0x7F) | 0x80);
+      rest >>>= 7;
+    }
+    out.write(rest);
+  }
+
+  private static int flags(final boolean... flags) {
+    int result = 0;
+    for (int i = 0; i < flags.length; i++) {
+      if (flags[i]) {
+        result |= 1 << i;
+      }
+    }
+    return result;
+  }
+
+  private static boolean flag(final int flags, final int index) {
+    return (flags & 1 << index) != 0;
+  }
+
+  /** Writes the body into memory while collecting the string table, which has to precede the body. */
+  private static final class Writer {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+
+    void writeTo(final OutputStream out) throws IOException {
+      final ByteArrayOutputStream header = new ByteArrayOutputStream();
+      header.write(MAGIC >>> 24);
+      header.write(MAGIC >>> 16 & 0xFF);
+      header.write(MAGIC >>> 8 & 0xFF);
+      header.write(MAGIC & 0xFF);
+      writeVarInt(header, VERSION);
+      writeVarInt(header, strings.size());
+      for (final String string : strings.keySet()) {
+        final byte[] bytes = string.getBytes(UTF8);
+        writeVarInt(header, bytes.length);
+        header.write(bytes);
+      }
+      header.writeTo(out);
+      body.writeTo(out);
+      out.flush();
+    }
+
+    void varInt(final int value) {
+      try {
+        writeVarInt(body, value);
+      } catch (final IOException e) {
+        // cannot happen for in-memory streams
+        throw new IllegalStateException(e);
+      }
+    }
+
+    void string(final String value) {
+      if (value == null) {
+        varInt(0);
+      } else {
+        Integer index = strings.get(value);
+        if (index == null) {
+          index = strings.size();
+          strings.put(value, index);
+        }
+        varInt(index + 1);
+      }
+    }
+
+    void integer(final Integer value) {
+      // zig-zag encoding keeps small negative numbers short
+      varInt(value == null ? 0 : 1);
+      if (value != null) {
+        varInt(value << 1 ^ value >> 31);
+      }
+    }
+
+    /** Writes the size of a list; returns whether there are elements to write. */
+    boolean count(final List<?> list) {
+      varInt(list == null ? 0 : list.size() + 1);
+      return list != null && !list.isEmpty();
+    }
+
+    void facets(final Integer maxLength, final Integer precision, final Integer scale, final SRID srid) {
+      integer(maxLength);
+      integer(precision);
+      integer(scale);
+      if (srid == null) {
+        string(null);
+      } else {
+        string(srid.toString());
+        varInt(srid.getDimension().ordinal());
+      }
+    }
+
+    void schema(final Schema schema) {
+      string(schema.getNamespace());
+      string(schema.getAlias());
+      if (count(schema.getEnumTypes())) {
+        for (final EnumType enumType : schema.getEnumTypes()) {
+          string(enumType.getName());
+          string(enumType.getUnderlyingType());
+          varInt(flags(enumType.isFlags()));
+          if (count(enumType.getMembers())) {
+            for (final EnumMember member : enumType.getMembers()) {
+              string(member.getName());
+              string(member.getValue());
+            }
+          }
+        }
+      }
+      if (count(schema.getTypeDefinitions())) {
+        for (final TypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+          string(typeDefinition.getName());
+          string(typeDefinition.getUnderlyingType());
+          varInt(flags(typeDefinition.isUnicode()));
+          facets(typeDefinition.getMaxLength(), typeDefinition.getPrecision(), typeDefinition.getScale(),
+              typeDefinition.getSrid());
+        }
+      }
+      if (count(schema.getEntityTypes())) {
+        for (final EntityType entityType : schema.getEntityTypes()) {
+          structuralType(entityType, entityType.hasStream());
+          if (count(entityType.getKey())) {
+            for (final PropertyRef propertyRef : entityType.getKey()) {
+              string(propertyRef.getName());
+              string(propertyRef.getAlias());
+            }
+          }
+        }
+      }
+      if (count(schema.getComplexTypes())) {
+        for (final ComplexType complexType : schema.getComplexTypes()) {
+          structuralType(complexType, false);
+        }
+      }
+      if (count(schema.getActions())) {
+        for (final Action action : schema.getActions()) {
+          operation(action, false);
+        }
+      }
+      if (count(schema.getFunctions())) {
+        for (final Function function : schema.getFunctions()) {
+          operation(function, function.isComposable());
+        }
+      }
+      if (count(schema.getTerms())) {
+        for (final Term term : schema.getTerms()) {
+          string(term.getName());
+          string(term.getType());
+          string(term.getBaseTerm());
+          if (count(term.getAppliesTo())) {
+            for (final String appliesTo : term.getAppliesTo()) {
+              string(appliesTo);
+            }
+          }
+          string(term.getDefaultValue());
+          varInt(flags(term.isCollection(), term.isNullable()));
+          facets(term.getMaxLength(), term.getPrecision(), term.getScale(), term.getSrid());
+        }
+      }
+      final EntityContainer container = schema.getEntityContainer();
+      varInt(container == null ? 0 : 1);
+      if (container != null) {
+        entityContainer(container);
+      }
+    }
+
+    private void structuralType(final StructuralType type, final boolean hasStream) {
+      string(type.getName());
+      string(type.getBaseType());
+      varInt(flags(type.isOpenType(), type.isAbstract(), hasStream));
+      if (count(type.getProperties())) {
+        for (final Property property : type.getProperties()) {
+          string(property.getName());
+          string(property.getType());
+          string(property.getDefaultValue());
+          string(property.getMimeType());
+          varInt(flags(property.isCollection(), property.isNullable(), property.isUnicode()));
+          facets(property.getMaxLength(), property.getPrecision(), property.getScale(), property.getSrid());
+        }
+      }
+      if (count(type.getNavigationProperties())) {
+        for (final NavigationProperty navigationProperty : type.getNavigationProperties()) {
+          string(navigationProperty.getName());
+          string(navigationProperty.getType());
+          string(navigationProperty.getPartner());
+          final Boolean nullable = navigationProperty.isNullable();
+          varInt(flags(navigationProperty.isCollection(), navigationProperty.isContainsTarget(),
+              nullable != null, nullable != null && nullable));
+          if (count(navigationProperty.getReferentialConstraints())) {
+            for (final ReferentialConstraint constraint : navigationProperty.getReferentialConstraints()) {
+              string(constraint.getProperty());
+              string(constraint.getReferencedProperty());
+            }
+          }
+          final OnDelete onDelete = navigationProperty.getOnDelete();
+          string(onDelete == null ? null : onDelete.getAction() == null ? "" : onDelete.getAction().name());
+        }
+      }
+    }
+
+    private void operation(final Operation operation, final boolean composable) {
+      string(operation.getName());
+      string(operation.getEntitySetPath());
+      varInt(flags(operation.isBound(), composable));
+      if (count(operation.getParameters())) {
+        for (final Parameter parameter : operation.getParameters()) {
+          string(parameter.getName());
+          string(parameter.getType());
+          varInt(flags(parameter.isCollection(), parameter.isNullable()));
+          facets(parameter.getMaxLength(), parameter.getPrecision(), parameter.getScale(), parameter.getSrid());
+        }
+      }
+      final ReturnType returnType = operation.getReturnType();
+      varInt(returnType == null ? 0 : 1);
+      if (returnType != null) {
+        string(returnType.getType());
+        varInt(flags(returnType.isCollection(), returnType.isNullable()));
+        facets(returnType.getMaxLength(), returnType.getPrecision(), returnType.getScale(), returnType.getSrid());
+      }
+    }
+
+    private void entityContainer(final EntityContainer container) {
+      string(container.getName());
+      string(container.getExtendsContainer());
+      if (count(container.getEntitySets())) {
+        for (final EntitySet entitySet : container.getEntitySets()) {
+          bindingTarget(entitySet);
+          varInt(flags(entitySet.isIncludeInServiceDocument()));
+        }
+      }
+      if (count(container.getSingletons())) {
+        for (final Singleton singleton : container.getSingletons()) {
+          bindingTarget(singleton);
+        }
+      }
+      if (count(container.getActionImports())) {
+        for (final ActionImport actionImport : container.getActionImports()) {
+          string(actionImport.getName());
+          string(actionImport.getEntitySet());
+          string(actionImport.getAction());
+        }
+      }
+      if (count(container.getFunctionImports())) {
+        for (final FunctionImport functionImport : container.getFunctionImports()) {
+          string(functionImport.getName());
+          string(functionImport.getEntitySet());
+          string(functionImport.getFunction());
+          varInt(flags(functionImport.isIncludeInServiceDocument()));
+        }
+      }
+    }
+
+    private void bindingTarget(final BindingTarget bindingTarget) {
+      string(bindingTarget.getName());
+      string(bindingTarget.getType());
+      if (count(bindingTarget.getNavigationPropertyBindings())) {
+        for (final NavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+          string(binding.getPath());
+          string(binding.getTarget());
+        }
+      }
+    }
+  }
+
+  /** Reads the snapshot in the order the {@link Writer} has written it. */
+  private static final class Reader {
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+
+    Reader(final ByteBuffer buffer) throws IOException {
+      this.buffer = buffer;
+      if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+        throw new IOException("Not an EDM snapshot.");
+      }
+      final int version = varInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported EDM snapshot version " + version + ".");
+      }
+      strings = new String[varInt()];
+      final byte[] bytes = new byte[256];
+      for (int i = 0; i < strings.length; i++) {
+        final int length = varInt();
+        final byte[] target = length <= bytes.length ? bytes : new byte[length];
+        buffer.get(target, 0, length);
+        strings[i] = new String(target, 0, length, UTF8);
+      }
+    }
+
+    int varInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get();
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    String string() {
+      final int index = varInt();
+      return index == 0 ? null : strings[index - 1];
+    }
+
+    Integer integer() {
+      if (varInt() == 0) {
+        return null;
+      }
+      final int value = varInt();
+      return value >>> 1 ^ -(value & 1);
+    }
+
+    /** Reads the size of a list; <code>-1</code> stands for a <code>null</code> list. */
+    int count() {
+      return varInt() - 1;
+    }
+
+    SRID srid() {
+      final String value = string();
+      if (value == null) {
+        return null;
+      }
+      final SRID srid = SRID.valueOf(value);
+      srid.setDimension(Dimension.values()[varInt()]);
+      return srid;
+    }
+
+    Schema schema() {
+      final Schema schema = new Schema().setNamespace(string()).setAlias(string());
+
+      int count = count();
+      List<EnumType> enumTypes = count < 0 ? null : new ArrayList<EnumType>(count);
+      for (int i = 0; i < count; i++) {
+        final EnumType enumType = new EnumType().setName(string());
+        final String underlyingType = string();
+        if (underlyingType != null) {
+          enumType.setUnderlyingType(underlyingType);
+        }
+        enumType.setFlags(flag(varInt(), 0));
+        final int memberCount = count();
+        final List<EnumMember> members = memberCount < 0 ? null : new ArrayList<EnumMember>(memberCount);
+        for (int j = 0; j < memberCount; j++) {
+          members.add(new EnumMember().setName(string()).setValue(string()));
+        }
+        enumTypes.add(enumType.setMembers(members));
+      }
+      schema.setEnumTypes(enumTypes);
+
+      count = count();
+      final List<TypeDefinition> typeDefinitions = count < 0 ? null : new ArrayList<TypeDefinition>(count);
+      for (int i = 0; i < count; i++) {
+        final TypeDefinition typeDefinition = new TypeDefinition().setName(string());
+        final String underlyingType = string();
+        if (underlyingType != null) {
+          typeDefinition.setUnderlyingType(underlyingType);
+        }
+        typeDefinitions.add(typeDefinition.setUnicode(flag(varInt(), 0))
+            .setMaxLength(integer()).setPrecision(integer()).setScale(integer()).setSrid(srid()));
+      }
+      schema.setTypeDefinitions(typeDefinitions);
+
+      count = count();
+      final List<EntityType> entityTypes = count < 0 ? null : new ArrayList<EntityType>(count);
+      for (int i = 0; i < count; i++) {
+        final EntityType entityType = new EntityType();
+        entityType.setHasStream(structuralType(entityType));
+        final int keyCount = count();
+        final List<PropertyRef> key = keyCount < 0 ? null : new ArrayList<PropertyRef>(keyCount);
+        for (int j = 0; j < keyCount; j++) {
+          key.add(new PropertyRef().setName(string()).setAlias(string()));
+        }
+        entityTypes.add(entityType.setKey(key));
+      }
+      schema.setEntityTypes(entityTypes);
+
+      count = count();
+      final List<ComplexType> complexTypes = count < 0 ? null : new ArrayList<ComplexType>(count);
+      for (int i = 0; i < count; i++) {
+        final ComplexType complexType = new ComplexType();
+        structuralType(complexType);
+        complexTypes.add(complexType);
+      }
+      schema.setComplexTypes(complexTypes);
+
+      count = count();
+      final List<Action> actions = count < 0 ? null : new ArrayList<Action>(count);
+      for (int i = 0; i < count; i++) {
+        final Action action = new Action();
+        operation(action);
+        actions.add(action);
+      }
+      schema.setActions(actions);
+
+      count = count();
+      final List<Function> functions = count < 0 ? null : new ArrayList<Function>(count);
+      for (int i = 0; i < count; i++) {
+        final Function function = new Function();
+        function.setComposable(operation(function));
+        functions.add(function);
+      }
+      schema.setFunctions(functions);
+
+      count = count();
+      final List<Term> terms = count < 0 ? null : new ArrayList<Term>(count);
+      for (int i = 0; i < count; i++) {
+        final Term term = new Term().setName(string()).setType(string()).setBaseTerm(string());
+        final int appliesToCount = count();
+        final List<String> appliesTo = appliesToCount < 0 ? null : new ArrayList<String>(appliesToCount);
+        for (int j = 0; j < appliesToCount; j++) {
+          appliesTo.add(string());
+        }
+        term.setAppliesTo(appliesTo).setDefaultValue(string());
+        final int flags = varInt();
+        terms.add(term.setCollection(flag(flags, 0)).setNullable(flag(flags, 1))
+            .setMaxLength(integer()).setPrecision(integer()).setScale(integer()).setSrid(srid()));
+      }
+      schema.setTerms(terms);
+
+      if (varInt() != 0) {
+        schema.setEntityContainer(entityContainer());
+      }
+      return schema;
+    }
+
+    /** Reads the common part of entity and complex types; returns the has-stream flag. */
+    private boolean structuralType(final StructuralType type) {
+      type.setName(string());
+      final String baseType = string();
+      if (baseType != null) {
+        type.setBaseType(baseType);
+      }
+      final int flags = varInt();
+      type.setOpenType(flag(flags, 0)).setAbstract(flag(flags, 1));
+
+      int count = count();
+      final List<Property> properties = count < 0 ? null : new ArrayList<Property>(count);
+      for (int i = 0; i < count; i++) {
+        final Property property = new Property().setName(string()).setType(string())
+            .setDefaultValue(string()).setMimeType(string());
+        final int propertyFlags = varInt();
+        properties.add(property.setCollection(flag(propertyFlags, 0)).setNullable(flag(propertyFlags, 1))
+            .setUnicode(flag(propertyFlags, 2))
+            .setMaxLength(integer()).setPrecision(integer()).setScale(integer()).setSrid(srid()));
+      }
+      type.setProperties(properties);
+
+      count = count();
+      final List<NavigationProperty> navigationProperties =
+          count < 0 ? null : new ArrayList<NavigationProperty>(count);
+      for (int i = 0; i < count; i++) {
+        final NavigationProperty navigationProperty = new NavigationProperty().setName(string());
+        final String navigationType = string();
+        if (navigationType != null) {
+          navigationProperty.setType(navigationType);
+        }
+        navigationProperty.setPartner(string());
+        final int navigationFlags = varInt();
+        navigationProperty.setCollection(flag(navigationFlags, 0)).setContainsTarget(flag(navigationFlags, 1))
+            .setNullable(flag(navigationFlags, 2) ? flag(navigationFlags, 3) : null);
+        final int constraintCount = count();
+        final List<ReferentialConstraint> constraints =
+            constraintCount < 0 ? null : new ArrayList<ReferentialConstraint>(constraintCount);
+        for (int j = 0; j < constraintCount; j++) {
+          constraints.add(new ReferentialConstraint().setProperty(string()).setReferencedProperty(string()));
+        }
+        navigationProperty.setReferentialConstraints(constraints);
+        final String onDelete = string();
+        if (onDelete != null) {
+          navigationProperty.setOnDelete(new OnDelete()
+              .setAction(onDelete.length() == 0 ? null : OnDeleteAction.valueOf(onDelete)));
+        }
+        navigationProperties.add(navigationProperty);
+      }
+      type.setNavigationProperties(navigationProperties);
+
+      return flag(flags, 2);
+    }
+
+    /** Reads an action or function; returns the composable flag. */
+    private boolean operation(final Operation operation) {
+      operation.setName(string());
+      operation.setEntitySetPath(string());
+      final int flags = varInt();
+      operation.setBound(flag(flags, 0));
+
+      final int count = count();
+      final List<Parameter> parameters = count < 0 ? null : new ArrayList<Parameter>(count);
+      for (int i = 0; i < count; i++) {
+        final Parameter parameter = new Parameter().setName(string());
+        final String type = string();
+        if (type != null) {
+          parameter.setType(type);
+        }
+        final int parameterFlags = varInt();
+        parameters.add(parameter.setCollection(flag(parameterFlags, 0)).setNullable(flag(parameterFlags, 1))
+            .setMaxLength(integer()).setPrecision(integer()).setScale(integer()).setSrid(srid()));
+      }
+      operation.setParameters(parameters);
+
+      if (varInt() != 0) {
+        final ReturnType returnType = new ReturnType();
+        final String type = string();
+        if (type != null) {
+          returnType.setType(type);
+        }
+        final int returnFlags = varInt();
+        operation.setReturnType(returnType.setCollection(flag(returnFlags, 0)).setNullable(flag(returnFlags, 1))
+            .setMaxLength(integer()).setPrecision(integer()).setScale(integer()).setSrid(srid()));
+      }
+
+      return flag(flags, 1);
+    }
+
+    private EntityContainer entityContainer() {
+      final EntityContainer container = new EntityContainer().setName(string());
+      final String extendsContainer = string();
+      if (extendsContainer != null) {
+        container.setExtendsContainer(extendsContainer);
+      }
+
+      int count = count();
+      final List<EntitySet> entitySets = count < 0 ? null : new ArrayList<EntitySet>(count);
+      for (int i = 0; i < count; i++) {
+        final EntitySet entitySet = new EntitySet();
+        bindingTarget(entitySet);
+        entitySets.add(entitySet.setIncludeInServiceDocument(flag(varInt(), 0)));
+      }
+      container.setEntitySets(entitySets);
+
+      count = count();
+      final List<Singleton> singletons = count < 0 ? null : new ArrayList<Singleton>(count);
+      for (int i = 0; i < count; i++) {
+        final Singleton singleton = new Singleton();
+        bindingTarget(singleton);
+        singletons.add(singleton);
+      }
+      container.setSingletons(singletons);
+
+      count = count();
+      final List<ActionImport> actionImports = count < 0 ? null : new ArrayList<ActionImport>(count);
+      for (int i = 0; i < count; i++) {
+        final ActionImport actionImport = new ActionImport().setName(string()).setEntitySet(string());
+        final String action = string();
+        if (action != null) {
+          actionImport.setAction(action);
+        }
+        actionImports.add(actionImport);
+      }
+      container.setActionImports(actionImports);
+
+      count = count();
+      final List<FunctionImport> functionImports = count < 0 ? null : new ArrayList<FunctionImport>(count);
+      for (int i = 0; i < count; i++) {
+        final FunctionImport functionImport = new FunctionImport().setName(string()).setEntitySet(string());
+        final String function = string();
+        if (function != null) {
+          functionImport.setFunction(function);
+        }
+        functionImports.add(functionImport.setIncludeInServiceDocument(flag(varInt(), 0)));
+      }
+      container.setFunctionImports(functionImports);
+
+      return container;
+    }
+
+    private void bindingTarget(final BindingTarget bindingTarget) {
+      bindingTarget.setName(string());
+      final String type = string();
+      if (type != null) {
+        bindingTarget.setType(type);
+      }
+      final int count = count();
+      final List<NavigationPropertyBinding> bindings =
+          count < 0 ? null : new ArrayList<NavigationPropertyBinding>(count);
+      for (int i = 0; i < count; i++) {
+        bindings.add(new NavigationPropertyBinding().setPath(string()).setTarget(string()));
+      }
+      bindingTarget.setNavigationPropertyBindings(bindings);
+    }
+  }
+}
@@ -22,15 +22,17 @@ import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.provider.Action;
@@ -56,62 +58,160 @@ import org.apache.olingo.commons.api.edm.provider.ReferentialConstraint;
 import org.apache.olingo.commons.api.edm.provider.ReturnType;
 import org.apache.olingo.commons.api.edm.provider.Schema;
 import org.apache.olingo.commons.api.edm.provider.Singleton;
+import org.apache.olingo.commons.api.edm.provider.StructuralType;
 import org.apache.olingo.commons.api.edm.provider.Term;
 import org.apache.olingo.commons.api.edm.provider.TypeDefinition;
 
 /**
  * This class can convert a CSDL document into EDMProvider object
+ * <br/>
+ * The document is read in a single pass with a StAX cursor ({@link XMLStreamReader});
+ * each element is handled by the method for its parent, and elements not known
+ * to that method (e.g., annotations) are skipped including their content.
  */
 public class MetadataParser {
 
-  public EdmProvider buildEdmProvider(Reader csdl) throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+  private final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+  private final Lock xmlInputFactoryLock = new ReentrantLock();
 
+  public EdmProvider buildEdmProvider(Reader csdl) throws XMLStreamException {
     SchemaBasedEdmProvider provider = new SchemaBasedEdmProvider();
-    new ElementReader<SchemaBasedEdmProvider>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider provider,
-          String name) throws XMLStreamException {
-        String version = attr(element, "Version");
-        if (version.equals("4.0")) {
-          readDataServicesAndReference(reader, element, provider);
-        }
+    for (Schema schema : readSchemas(csdl)) {
+      provider.addSchema(schema);
+    }
+    return provider;
+  }
+
+  /**
+   * Builds one provider from the schemas of several CSDL documents,
+   * e.g., a service document and the vocabulary documents it references.
+   * The documents are independent of each other, so they are parsed in parallel if an executor is given;
+   * the schemas are added to the provider in the order of the documents.
+   * @param csdlDocuments the documents
+   * @param executor the executor for parsing the documents; if <code>null</code>,
+   * they are parsed in the calling thread
+   */
+  public EdmProvider buildEdmProvider(List<Reader> csdlDocuments, ExecutorService executor)
+      throws XMLStreamException {
+    List<List<Schema>> documentSchemas = new ArrayList<List<Schema>>(csdlDocuments.size());
+    if (executor == null) {
+      for (Reader csdl : csdlDocuments) {
+        documentSchemas.add(readSchemas(csdl));
+      }
+    } else {
+      List<Future<List<Schema>>> futures = new ArrayList<Future<List<Schema>>>(csdlDocuments.size());
+      for (final Reader csdl : csdlDocuments) {
+        futures.add(executor.submit(new Callable<List<Schema>>() {
+          @Override
+          public List<Schema> call() throws XMLStreamException {
+            return readSchemas(csdl);
+          }
+        }));
+      }
+      for (Future<List<Schema>> future : futures) {
+        documentSchemas.add(getSchemas(future));
       }
-    }.read(reader, null, provider, "Edmx");
+    }
 
+    SchemaBasedEdmProvider provider = new SchemaBasedEdmProvider();
+    for (List<Schema> schemas : documentSchemas) {
+      for (Schema schema : schemas) {
+        provider.addSchema(schema);
+      }
+    }
     return provider;
   }
 
-  private void readDataServicesAndReference(XMLEventReader reader, StartElement element,
-      SchemaBasedEdmProvider provider) throws XMLStreamException {
-    new ElementReader<SchemaBasedEdmProvider>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider provider,
-          String name) throws XMLStreamException {
-        if (name.equals("DataServices")) {
-          readSchema(reader, element, provider);
-        } else if (name.equals("Reference")) {
-          readReference(reader, element, provider, "Reference");
+  private List<Schema> getSchemas(Future<List<Schema>> future) throws XMLStreamException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new XMLStreamException("Interrupted while parsing metadata documents", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof XMLStreamException) {
+        throw (XMLStreamException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new XMLStreamException(e.getCause());
+    }
+  }
+
+  private XMLStreamReader createReader(Reader csdl) throws XMLStreamException {
+    // The factory is not guaranteed to be thread-safe; creating a reader may already read the prolog,
+    // so a lock is used instead of a monitor.
+    xmlInputFactoryLock.lock();
+    try {
+      return xmlInputFactory.createXMLStreamReader(csdl);
+    } finally {
+      xmlInputFactoryLock.unlock();
+    }
+  }
+
+  private List<Schema> readSchemas(Reader csdl) throws XMLStreamException {
+    List<Schema> schemas = new ArrayList<Schema>();
+    XMLStreamReader reader = createReader(csdl);
+    try {
+      if (nextChild(reader) && reader.getLocalName().equals("Edmx")
+          && "4.0".equals(attr(reader, "Version"))) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals("DataServices")) {
+            while (nextChild(reader)) {
+              if (reader.getLocalName().equals("Schema")) {
+                schemas.add(readSchema(reader));
+              } else {
+                skipElement(reader);
+              }
+            }
+          } else {
+            // TODO: Reference
+            skipElement(reader);
+          }
         }
       }
-    }.read(reader, element, provider, "DataServices", "Reference");
+    } finally {
+      reader.close();
+    }
+    return schemas;
   }
 
-  private void readReference(XMLEventReader reader, StartElement element,
-      SchemaBasedEdmProvider provider, String name) throws XMLStreamException {
-    new ElementReader<SchemaBasedEdmProvider>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, SchemaBasedEdmProvider t, String name)
-          throws XMLStreamException {
-        // TODO:
+  /**
+   * Moves the cursor to the next child element of the current element.
+   * The cursor must be on the start of the current element or on the end of its previous child.
+   * @return <code>true</code> if the cursor is on the start of a child element,
+   * <code>false</code> if it is on the end of the current element
+   */
+  private boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
       }
-    }.read(reader, element, provider, name);
+    }
+    return false;
   }
 
-  private void readSchema(XMLEventReader reader, StartElement element,
-      SchemaBasedEdmProvider provider) throws XMLStreamException {
+  /** Moves the cursor from the start of the current element to its end, skipping all content. */
+  private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0 && reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
 
+  private String attr(XMLStreamReader reader, String name) {
+    return reader.getAttributeValue(null, name);
+  }
+
+  private Schema readSchema(XMLStreamReader reader) throws XMLStreamException {
     Schema schema = new Schema();
     schema.setComplexTypes(new ArrayList<ComplexType>());
     schema.setActions(new ArrayList<Action>());
@@ -120,560 +220,370 @@ public class MetadataParser {
     schema.setFunctions(new ArrayList<Function>());
     schema.setTerms(new ArrayList<Term>());
     schema.setTypeDefinitions(new ArrayList<TypeDefinition>());
-
-    new ElementReader<Schema>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, Schema schema, String name)
-          throws XMLStreamException {
-        schema.setNamespace(attr(element, "Namespace"));
-        schema.setAlias(attr(element, "Alias"));
-        readSchemaContents(reader, schema);
+    schema.setNamespace(attr(reader, "Namespace"));
+    schema.setAlias(attr(reader, "Alias"));
+
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("Action")) {
+        schema.getActions().add(readAction(reader));
+      } else if (name.equals("ComplexType")) {
+        schema.getComplexTypes().add(readComplexType(reader));
+      } else if (name.equals("EntityContainer")) {
+        schema.setEntityContainer(readEntityContainer(reader));
+      } else if (name.equals("EntityType")) {
+        schema.getEntityTypes().add(readEntityType(reader));
+      } else if (name.equals("EnumType")) {
+        schema.getEnumTypes().add(readEnumType(reader));
+      } else if (name.equals("Function")) {
+        schema.getFunctions().add(readFunction(reader));
+      } else if (name.equals("Term")) {
+        schema.getTerms().add(readTerm(reader));
+      } else if (name.equals("TypeDefinition")) {
+        schema.getTypeDefinitions().add(readTypeDefinition(reader));
+      } else {
+        // TODO: Annotations, Annotation
+        skipElement(reader);
       }
-    }.read(reader, element, schema, "Schema");
-    provider.addSchema(schema);
-  }
-
-  private void readSchemaContents(XMLEventReader reader, Schema schema) throws XMLStreamException {
-    new ElementReader<Schema>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, Schema schema, String name)
-          throws XMLStreamException {
-        if (name.equals("Action")) {
-          readAction(reader, element, schema);
-        } else if (name.equals("Annotations")) {
-          // TODO:
-        } else if (name.equals("Annotation")) {
-          // TODO:
-        } else if (name.equals("ComplexType")) {
-          readComplexType(reader, element, schema);
-        } else if (name.equals("EntityContainer")) {
-          readEntityContainer(reader, element, schema);
-        } else if (name.equals("EntityType")) {
-          readEntityType(reader, element, schema);
-        } else if (name.equals("EnumType")) {
-          readEnumType(reader, element, schema);
-        } else if (name.equals("Function")) {
-          readFunction(reader, element, schema);
-        } else if (name.equals("Term")) {
-          schema.getTerms().add(readTerm(element));
-        } else if (name.equals("TypeDefinition")) {
-          schema.getTypeDefinitions().add(readTypeDefinition(element));
-        }
-      }
-    }.read(reader, null, schema, "Action", "Annotations", "Annotation", "ComplexType",
-        "EntityContainer", "EntityType", "EnumType", "Function", "Term", "TypeDefinition");
+    }
+    return schema;
   }
 
-  private void readAction(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
-
+  private Action readAction(XMLStreamReader reader) throws XMLStreamException {
     Action action = new Action();
     action.setParameters(new ArrayList<Parameter>());
-    action.setName(attr(element, "Name"));
-    action.setBound(Boolean.parseBoolean(attr(element, "IsBound")));
-    String entitySetPath = attr(element, "EntitySetPath");
+    action.setName(attr(reader, "Name"));
+    action.setBound(Boolean.parseBoolean(attr(reader, "IsBound")));
+    String entitySetPath = attr(reader, "EntitySetPath");
     if (entitySetPath != null) {
       // TODO: need to parse into binding and path.
       action.setEntitySetPath(entitySetPath);
     }
     readOperationParameters(reader, action);
-    schema.getActions().add(action);
+    return action;
   }
 
-  private FullQualifiedName readType(StartElement element) {
-    String type = attr(element, "Type");
-    if (type.startsWith("Collection(") && type.endsWith(")")) {
+  private Function readFunction(XMLStreamReader reader) throws XMLStreamException {
+    Function function = new Function();
+    function.setParameters(new ArrayList<Parameter>());
+    function.setName(attr(reader, "Name"));
+    function.setBound(Boolean.parseBoolean(attr(reader, "IsBound")));
+    function.setComposable(Boolean.parseBoolean(attr(reader, "IsComposable")));
+    String entitySetPath = attr(reader, "EntitySetPath");
+    if (entitySetPath != null) {
+      // TODO: need to parse into binding and path.
+      function.setEntitySetPath(entitySetPath);
+    }
+    readOperationParameters(reader, function);
+    return function;
+  }
+
+  private void readOperationParameters(XMLStreamReader reader, Operation operation)
+      throws XMLStreamException {
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("Parameter")) {
+        operation.getParameters().add(readParameter(reader));
+      } else if (name.equals("ReturnType")) {
+        operation.setReturnType(readReturnType(reader));
+      } else {
+        skipElement(reader);
+      }
+    }
+  }
+
+  private FullQualifiedName readType(XMLStreamReader reader) {
+    String type = attr(reader, "Type");
+    if (isCollectionType(type)) {
       return new FullQualifiedName(type.substring(11, type.length() - 1));
     }
     return new FullQualifiedName(type);
   }
 
-  private boolean isCollectionType(StartElement element) {
-    String type = attr(element, "Type");
-    if (type.startsWith("Collection(") && type.endsWith(")")) {
-      return true;
-    }
-    return false;
+  private boolean isCollectionType(String type) {
+    return type.startsWith("Collection(") && type.endsWith(")");
   }
 
-  private void readReturnType(StartElement element, Operation operation) {
-    ReturnType returnType = new ReturnType();
-    returnType.setType(readType(element));
-    returnType.setCollection(isCollectionType(element));
-    returnType.setNullable(Boolean.parseBoolean(attr(element, "Nullable")));
+  private Integer readInteger(XMLStreamReader reader, String name) {
+    String value = attr(reader, name);
+    return value == null ? null : Integer.valueOf(value);
+  }
 
-    String maxLength = attr(element, "MaxLength");
-    if (maxLength != null) {
-      returnType.setMaxLength(Integer.parseInt(maxLength));
-    }
-    String precision = attr(element, "Precision");
-    if (precision != null) {
-      returnType.setPrecision(Integer.parseInt(precision));
-    }
-    String scale = attr(element, "Scale");
-    if (scale != null) {
-      returnType.setScale(Integer.parseInt(scale));
-    }
-    String srid = attr(element, "SRID");
-    if (srid != null) {
-      // TODO: no olingo support yet.
-    }
-    operation.setReturnType(returnType);
+  private ReturnType readReturnType(XMLStreamReader reader) throws XMLStreamException {
+    ReturnType returnType = new ReturnType();
+    returnType.setType(readType(reader));
+    returnType.setCollection(isCollectionType(attr(reader, "Type")));
+    returnType.setNullable(Boolean.parseBoolean(attr(reader, "Nullable")));
+    returnType.setMaxLength(readInteger(reader, "MaxLength"));
+    returnType.setPrecision(readInteger(reader, "Precision"));
+    returnType.setScale(readInteger(reader, "Scale"));
+    // TODO: SRID, no olingo support yet.
+    skipElement(reader);
+    return returnType;
   }
 
-  private void readParameter(StartElement element, Operation operation) {
+  private Parameter readParameter(XMLStreamReader reader) throws XMLStreamException {
     Parameter parameter = new Parameter();
-    parameter.setName(attr(element, "Name"));
-    parameter.setType(readType(element));
-    parameter.setCollection(isCollectionType(element));
-    parameter.setNullable(Boolean.parseBoolean(attr(element, "Nullable")));
-
-    String maxLength = attr(element, "MaxLength");
-    if (maxLength != null) {
-      parameter.setMaxLength(Integer.parseInt(maxLength));
-    }
-    String precision = attr(element, "Precision");
-    if (precision != null) {
-      parameter.setPrecision(Integer.parseInt(precision));
-    }
-    String scale = attr(element, "Scale");
-    if (scale != null) {
-      parameter.setScale(Integer.parseInt(scale));
-    }
-    String srid = attr(element, "SRID");
-    if (srid != null) {
-      // TODO: no olingo support yet.
-    }
-    operation.getParameters().add(parameter);
+    parameter.setName(attr(reader, "Name"));
+    parameter.setType(readType(reader));
+    parameter.setCollection(isCollectionType(attr(reader, "Type")));
+    parameter.setNullable(Boolean.parseBoolean(attr(reader, "Nullable")));
+    parameter.setMaxLength(readInteger(reader, "MaxLength"));
+    parameter.setPrecision(readInteger(reader, "Precision"));
+    parameter.setScale(readInteger(reader, "Scale"));
+    // TODO: SRID, no olingo support yet.
+    skipElement(reader);
+    return parameter;
   }
 
-  private TypeDefinition readTypeDefinition(StartElement element) {
+  private TypeDefinition readTypeDefinition(XMLStreamReader reader) throws XMLStreamException {
     TypeDefinition td = new TypeDefinition();
-    td.setName(attr(element, "Name"));
-    td.setUnderlyingType(new FullQualifiedName(attr(element, "UnderlyingType")));
-    td.setUnicode(Boolean.parseBoolean(attr(element, "Unicode")));
-
-    String maxLength = attr(element, "MaxLength");
-    if (maxLength != null) {
-      td.setMaxLength(Integer.parseInt(maxLength));
-    }
-    String precision = attr(element, "Precision");
-    if (precision != null) {
-      td.setPrecision(Integer.parseInt(precision));
-    }
-    String scale = attr(element, "Scale");
-    if (scale != null) {
-      td.setScale(Integer.parseInt(scale));
-    }
-    String srid = attr(element, "SRID");
-    if (srid != null) {
-      // TODO: no olingo support yet.
-    }
+    td.setName(attr(reader, "Name"));
+    td.setUnderlyingType(new FullQualifiedName(attr(reader, "UnderlyingType")));
+    td.setUnicode(Boolean.parseBoolean(attr(reader, "Unicode")));
+    td.setMaxLength(readInteger(reader, "MaxLength"));
+    td.setPrecision(readInteger(reader, "Precision"));
+    td.setScale(readInteger(reader, "Scale"));
+    // TODO: SRID, no olingo support yet.
+    skipElement(reader);
     return td;
   }
 
-  private Term readTerm(StartElement element) {
+  private Term readTerm(XMLStreamReader reader) throws XMLStreamException {
     Term term = new Term();
-    term.setName(attr(element, "Name"));
-    term.setType(attr(element, "Type"));
-    if (attr(element, "BaseTerm") != null) {
-      term.setBaseTerm(attr(element, "BaseTerm"));
-    }
-    if (attr(element, "DefaultValue") != null) {
-      term.setDefaultValue(attr(element, "DefaultValue"));
-    }
-    if (attr(element, "AppliesTo") != null) {
-      term.setAppliesTo(Arrays.asList(attr(element, "AppliesTo")));
-    }
-    term.setNullable(Boolean.parseBoolean(attr(element, "Nullable")));
-    String maxLength = attr(element, "MaxLength");
-    if (maxLength != null) {
-      term.setMaxLength(Integer.parseInt(maxLength));
-    }
-    String precision = attr(element, "Precision");
-    if (precision != null) {
-      term.setPrecision(Integer.parseInt(precision));
-    }
-    String scale = attr(element, "Scale");
-    if (scale != null) {
-      term.setScale(Integer.parseInt(scale));
-    }
-    String srid = attr(element, "SRID");
-    if (srid != null) {
-      // TODO: no olingo support yet.
-    }
+    term.setName(attr(reader, "Name"));
+    term.setType(attr(reader, "Type"));
+    if (attr(reader, "BaseTerm") != null) {
+      term.setBaseTerm(attr(reader, "BaseTerm"));
+    }
+    if (attr(reader, "DefaultValue") != null) {
+      term.setDefaultValue(attr(reader, "DefaultValue"));
+    }
+    if (attr(reader, "AppliesTo") != null) {
+      term.setAppliesTo(Arrays.asList(attr(reader, "AppliesTo")));
+    }
+    term.setNullable(Boolean.parseBoolean(attr(reader, "Nullable")));
+    term.setMaxLength(readInteger(reader, "MaxLength"));
+    term.setPrecision(readInteger(reader, "Precision"));
+    term.setScale(readInteger(reader, "Scale"));
+    // TODO: SRID, no olingo support yet.
+    skipElement(reader);
     return term;
   }
 
-  private void readFunction(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
-    Function function = new Function();
-    function.setParameters(new ArrayList<Parameter>());
-    function.setName(attr(element, "Name"));
-    function.setBound(Boolean.parseBoolean(attr(element, "IsBound")));
-    function.setComposable(Boolean.parseBoolean(attr(element, "IsComposable")));
-    String entitySetPath = attr(element, "EntitySetPath");
-    if (entitySetPath != null) {
-      // TODO: need to parse into binding and path.
-      function.setEntitySetPath(entitySetPath);
-    }
-    readOperationParameters(reader, function);
-    schema.getFunctions().add(function);
-  }
-
-  private void readOperationParameters(XMLEventReader reader, final Operation operation)
-      throws XMLStreamException {
-    new ElementReader<Operation>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, Operation operation, String name)
-          throws XMLStreamException {
-        if (name.equals("Parameter")) {
-          readParameter(element, operation);
-        } else if (name.equals("ReturnType")) {
-          readReturnType(element, operation);
-        }
-      }
-    }.read(reader, null, operation, "Parameter", "ReturnType");
-  }
-
-  private void readEnumType(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
+  private EnumType readEnumType(XMLStreamReader reader) throws XMLStreamException {
     EnumType type = new EnumType();
     type.setMembers(new ArrayList<EnumMember>());
-    type.setName(attr(element, "Name"));
-    if (attr(element, "UnderlyingType") != null) {
-      type.setUnderlyingType(new FullQualifiedName(attr(element, "UnderlyingType")));
+    type.setName(attr(reader, "Name"));
+    if (attr(reader, "UnderlyingType") != null) {
+      type.setUnderlyingType(new FullQualifiedName(attr(reader, "UnderlyingType")));
     }
-    type.setFlags(Boolean.parseBoolean(attr(element, "IsFlags")));
+    type.setFlags(Boolean.parseBoolean(attr(reader, "IsFlags")));
 
-    readEnumMembers(reader, element, type);
-    schema.getEnumTypes().add(type);
-  }
-
-  private void readEnumMembers(XMLEventReader reader, StartElement element, EnumType type)
-      throws XMLStreamException {
-    new ElementReader<EnumType>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, EnumType type, String name)
-          throws XMLStreamException {
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("Member")) {
         EnumMember member = new EnumMember();
-        member.setName(attr(element, "Name"));
-        member.setValue(attr(element, "Value"));
+        member.setName(attr(reader, "Name"));
+        member.setValue(attr(reader, "Value"));
         type.getMembers().add(member);
       }
-    }.read(reader, element, type, "Member");
+      skipElement(reader);
+    }
+    return type;
   }
 
-  private void readEntityType(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
-    EntityType entityType = new EntityType();
-    entityType.setProperties(new ArrayList<Property>());
-    entityType.setNavigationProperties(new ArrayList<NavigationProperty>());
-    entityType.setKey(new ArrayList<PropertyRef>());
-    entityType.setName(attr(element, "Name"));
-    if (attr(element, "BaseType") != null) {
-      entityType.setBaseType(new FullQualifiedName(attr(element, "BaseType")));
+  private void readStructuralType(XMLStreamReader reader, StructuralType type) {
+    type.setProperties(new ArrayList<Property>());
+    type.setNavigationProperties(new ArrayList<NavigationProperty>());
+    type.setName(attr(reader, "Name"));
+    if (attr(reader, "BaseType") != null) {
+      type.setBaseType(new FullQualifiedName(attr(reader, "BaseType")));
     }
-    entityType.setAbstract(Boolean.parseBoolean(attr(element, "Abstract")));
-    entityType.setOpenType(Boolean.parseBoolean(attr(element, "OpenType")));
-    entityType.setHasStream(Boolean.parseBoolean(attr(element, "HasStream")));
-    readEntityProperties(reader, entityType);
-    schema.getEntityTypes().add(entityType);
+    type.setAbstract(Boolean.parseBoolean(attr(reader, "Abstract")));
+    type.setOpenType(Boolean.parseBoolean(attr(reader, "OpenType")));
   }
 
-  private void readEntityProperties(XMLEventReader reader, EntityType entityType)
-      throws XMLStreamException {
-    new ElementReader<EntityType>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, EntityType entityType, String name)
-          throws XMLStreamException {
-        if (name.equals("Property")) {
-          entityType.getProperties().add(readProperty(element));
-        } else if (name.equals("NavigationProperty")) {
-          entityType.getNavigationProperties().add(readNavigationProperty(reader, element));
-        } else if (name.equals("Key")) {
-          readKey(reader, element, entityType);
-        }
+  private EntityType readEntityType(XMLStreamReader reader) throws XMLStreamException {
+    EntityType entityType = new EntityType();
+    readStructuralType(reader, entityType);
+    entityType.setKey(new ArrayList<PropertyRef>());
+    entityType.setHasStream(Boolean.parseBoolean(attr(reader, "HasStream")));
+
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("Property")) {
+        entityType.getProperties().add(readProperty(reader));
+      } else if (name.equals("NavigationProperty")) {
+        entityType.getNavigationProperties().add(readNavigationProperty(reader));
+      } else if (name.equals("Key")) {
+        readKey(reader, entityType);
+      } else {
+        skipElement(reader);
       }
-    }.read(reader, null, entityType, "Property", "NavigationProperty", "Key");
+    }
+    return entityType;
   }
 
-  private void readKey(XMLEventReader reader, StartElement element, EntityType entityType)
-      throws XMLStreamException {
-    new ElementReader<EntityType>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, EntityType entityType, String name)
-          throws XMLStreamException {
+  private void readKey(XMLStreamReader reader, EntityType entityType) throws XMLStreamException {
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("PropertyRef")) {
         PropertyRef ref = new PropertyRef();
-        ref.setName(attr(element, "Name"));
-        ref.setAlias(attr(element, "Alias"));
+        ref.setName(attr(reader, "Name"));
+        ref.setAlias(attr(reader, "Alias"));
         entityType.getKey().add(ref);
       }
-    }.read(reader, element, entityType, "PropertyRef");
+      skipElement(reader);
+    }
   }
 
-  private NavigationProperty readNavigationProperty(XMLEventReader reader, StartElement element)
-      throws XMLStreamException {
-    NavigationProperty property = new NavigationProperty();
-    property.setReferentialConstraints(new ArrayList<ReferentialConstraint>());
-
-    property.setName(attr(element, "Name"));
-    property.setType(readType(element));
-    property.setCollection(isCollectionType(element));
-    property.setNullable(Boolean.parseBoolean(attr(element, "Nullable")));
-    property.setPartner(attr(element, "Partner"));
-    property.setContainsTarget(Boolean.parseBoolean(attr(element, "ContainsTarget")));
-
-    new ElementReader<NavigationProperty>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, NavigationProperty property,
-          String name) throws XMLStreamException {
-        if (name.equals("ReferentialConstraint")) {
-          ReferentialConstraint constraint = new ReferentialConstraint();
-          constraint.setProperty(attr(element, "Property"));
-          constraint.setReferencedProperty(attr(element, "ReferencedProperty"));
-          property.getReferentialConstraints().add(constraint);
-        } else if (name.equals("OnDelete")) {
-          property.setOnDelete(new OnDelete().setAction(OnDeleteAction.valueOf(attr(element, "Action"))));
-        }
+  private ComplexType readComplexType(XMLStreamReader reader) throws XMLStreamException {
+    ComplexType complexType = new ComplexType();
+    readStructuralType(reader, complexType);
+
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("Property")) {
+        complexType.getProperties().add(readProperty(reader));
+      } else if (name.equals("NavigationProperty")) {
+        complexType.getNavigationProperties().add(readNavigationProperty(reader));
+      } else {
+        skipElement(reader);
       }
-    }.read(reader, element, property, "ReferentialConstraint", "OnDelete");
-    return property;
-  }
-
-  private String attr(StartElement element, String name) {
-    Attribute attr = element.getAttributeByName(new QName(name));
-    if (attr != null) {
-      return attr.getValue();
     }
-    return null;
+    return complexType;
   }
 
-  private Property readProperty(StartElement element) {
+  private Property readProperty(XMLStreamReader reader) throws XMLStreamException {
     Property property = new Property();
-    property.setName(attr(element, "Name"));
-    property.setType(readType(element));
-    property.setCollection(isCollectionType(element));
-    property.setNullable(Boolean.parseBoolean(attr(element, "Nullable") == null ? "true" : attr(
-        element, "Nullable")));
-    property.setUnicode(Boolean.parseBoolean(attr(element, "Unicode")));
-
-    String maxLength = attr(element, "MaxLength");
-    if (maxLength != null) {
-      property.setMaxLength(Integer.parseInt(maxLength));
-    }
-    String precision = attr(element, "Precision");
-    if (precision != null) {
-      property.setPrecision(Integer.parseInt(precision));
-    }
-    String scale = attr(element, "Scale");
-    if (scale != null) {
-      property.setScale(Integer.parseInt(scale));
-    }
-    String srid = attr(element, "SRID");
-    if (srid != null) {
-      // TODO: no olingo support yet.
-    }
-    String defaultValue = attr(element, "DefaultValue");
+    property.setName(attr(reader, "Name"));
+    property.setType(readType(reader));
+    property.setCollection(isCollectionType(attr(reader, "Type")));
+    String nullable = attr(reader, "Nullable");
+    property.setNullable(nullable == null || Boolean.parseBoolean(nullable));
+    property.setUnicode(Boolean.parseBoolean(attr(reader, "Unicode")));
+    property.setMaxLength(readInteger(reader, "MaxLength"));
+    property.setPrecision(readInteger(reader, "Precision"));
+    property.setScale(readInteger(reader, "Scale"));
+    // TODO: SRID, no olingo support yet.
+    String defaultValue = attr(reader, "DefaultValue");
     if (defaultValue != null) {
       property.setDefaultValue(defaultValue);
     }
+    skipElement(reader);
     return property;
   }
 
-  private void readEntityContainer(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
-    final EntityContainer container = new EntityContainer();
-    container.setName(attr(element, "Name"));
-    if (attr(element, "Extends") != null) {
-      container.setExtendsContainer(attr(element, "Extends"));
+  private NavigationProperty readNavigationProperty(XMLStreamReader reader) throws XMLStreamException {
+    NavigationProperty property = new NavigationProperty();
+    property.setReferentialConstraints(new ArrayList<ReferentialConstraint>());
+    property.setName(attr(reader, "Name"));
+    property.setType(readType(reader));
+    property.setCollection(isCollectionType(attr(reader, "Type")));
+    property.setNullable(Boolean.parseBoolean(attr(reader, "Nullable")));
+    property.setPartner(attr(reader, "Partner"));
+    property.setContainsTarget(Boolean.parseBoolean(attr(reader, "ContainsTarget")));
+
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("ReferentialConstraint")) {
+        ReferentialConstraint constraint = new ReferentialConstraint();
+        constraint.setProperty(attr(reader, "Property"));
+        constraint.setReferencedProperty(attr(reader, "ReferencedProperty"));
+        property.getReferentialConstraints().add(constraint);
+      } else if (name.equals("OnDelete")) {
+        property.setOnDelete(new OnDelete().setAction(OnDeleteAction.valueOf(attr(reader, "Action"))));
+      }
+      skipElement(reader);
+    }
+    return property;
+  }
+
+  private EntityContainer readEntityContainer(XMLStreamReader reader) throws XMLStreamException {
+    EntityContainer container = new EntityContainer();
+    container.setName(attr(reader, "Name"));
+    if (attr(reader, "Extends") != null) {
+      container.setExtendsContainer(attr(reader, "Extends"));
     }
     container.setActionImports(new ArrayList<ActionImport>());
     container.setFunctionImports(new ArrayList<FunctionImport>());
     container.setEntitySets(new ArrayList<EntitySet>());
     container.setSingletons(new ArrayList<Singleton>());
 
-    new ElementReader<Schema>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, Schema schema, String name)
-          throws XMLStreamException {
-        if (name.equals("EntitySet")) {
-          readEntitySet(reader, element, container);
-        } else if (name.equals("Singleton")) {
-          readSingleton(reader, element, container);
-        } else if (name.equals("ActionImport")) {
-          readActionImport(element, container);
-        } else if (name.equals("FunctionImport")) {
-          readFunctionImport(element, container);
-        }
-      }
-
-      private void readFunctionImport(StartElement element, EntityContainer container) {
-        FunctionImport functionImport = new FunctionImport();
-        functionImport.setName(attr(element, "Name"));
-        functionImport.setFunction(new FullQualifiedName(attr(element, "Function")));
-        functionImport.setIncludeInServiceDocument(Boolean.parseBoolean(attr(element,
-            "IncludeInServiceDocument")));
-
-        String entitySet = attr(element, "EntitySet");
-        if (entitySet != null) {
-          functionImport.setEntitySet(entitySet);
-        }
-        container.getFunctionImports().add(functionImport);
-      }
-
-      private void readActionImport(StartElement element, EntityContainer container) {
-        ActionImport actionImport = new ActionImport();
-        actionImport.setName(attr(element, "Name"));
-        actionImport.setAction(new FullQualifiedName(attr(element, "Action")));
-
-        String entitySet = attr(element, "EntitySet");
-        if (entitySet != null) {
-          actionImport.setEntitySet(entitySet);
-        }
-        container.getActionImports().add(actionImport);
-      }
-
-      private void readSingleton(XMLEventReader reader, StartElement element,
-          EntityContainer container) throws XMLStreamException {
-        Singleton singleton = new Singleton();
-        singleton.setNavigationPropertyBindings(new ArrayList<NavigationPropertyBinding>());
-        singleton.setName(attr(element, "Name"));
-        singleton.setType(new FullQualifiedName(attr(element, "Type")));
-        singleton.setNavigationPropertyBindings(new ArrayList<NavigationPropertyBinding>());
-        readNavigationPropertyBindings(reader, element, singleton.getNavigationPropertyBindings());
-        container.getSingletons().add(singleton);
-      }
-
-      private void readEntitySet(XMLEventReader reader, StartElement element,
-          EntityContainer container) throws XMLStreamException {
-        EntitySet entitySet = new EntitySet();
-        entitySet.setName(attr(element, "Name"));
-        entitySet.setType(new FullQualifiedName(attr(element, "EntityType")));
-        entitySet.setIncludeInServiceDocument(Boolean.parseBoolean(attr(element,
-            "IncludeInServiceDocument")));
-        entitySet.setNavigationPropertyBindings(new ArrayList<NavigationPropertyBinding>());
-        readNavigationPropertyBindings(reader, element, entitySet.getNavigationPropertyBindings());
-        container.getEntitySets().add(entitySet);
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("EntitySet")) {
+        container.getEntitySets().add(readEntitySet(reader));
+      } else if (name.equals("Singleton")) {
+        container.getSingletons().add(readSingleton(reader));
+      } else if (name.equals("ActionImport")) {
+        container.getActionImports().add(readActionImport(reader));
+      } else if (name.equals("FunctionImport")) {
+        container.getFunctionImports().add(readFunctionImport(reader));
+      } else {
+        skipElement(reader);
       }
+    }
+    return container;
+  }
 
-      private void readNavigationPropertyBindings(XMLEventReader reader, StartElement element,
-          List<NavigationPropertyBinding> bindings) throws XMLStreamException {
-        new ElementReader<List<NavigationPropertyBinding>>() {
-          @Override
-          void build(XMLEventReader reader, StartElement element,
-              List<NavigationPropertyBinding> bindings, String name) throws XMLStreamException {
-            NavigationPropertyBinding binding = new NavigationPropertyBinding();
-            binding.setPath(attr(element, "Path"));
-            binding.setTarget(attr(element, "Target"));
-            bindings.add(binding);
-          }
+  private FunctionImport readFunctionImport(XMLStreamReader reader) throws XMLStreamException {
+    FunctionImport functionImport = new FunctionImport();
+    functionImport.setName(attr(reader, "Name"));
+    functionImport.setFunction(new FullQualifiedName(attr(reader, "Function")));
+    functionImport.setIncludeInServiceDocument(Boolean.parseBoolean(attr(reader,
+        "IncludeInServiceDocument")));
 
-        }.read(reader, element, bindings, "NavigationPropertyBinding");
-        ;
-      }
-    }.read(reader, element, schema, "EntitySet", "Singleton", "ActionImport", "FunctionImport");
-    schema.setEntityContainer(container);
+    String entitySet = attr(reader, "EntitySet");
+    if (entitySet != null) {
+      functionImport.setEntitySet(entitySet);
+    }
+    skipElement(reader);
+    return functionImport;
   }
 
-  private void readComplexType(XMLEventReader reader, StartElement element, Schema schema)
-      throws XMLStreamException {
-    ComplexType complexType = new ComplexType();
-    complexType.setProperties(new ArrayList<Property>());
-    complexType.setNavigationProperties(new ArrayList<NavigationProperty>());
-    complexType.setName(attr(element, "Name"));
-    if (attr(element, "BaseType") != null) {
-      complexType.setBaseType(new FullQualifiedName(attr(element, "BaseType")));
-    }
-    complexType.setAbstract(Boolean.parseBoolean(attr(element, "Abstract")));
-    complexType.setOpenType(Boolean.parseBoolean(attr(element, "OpenType")));
-    readProperties(reader, complexType);
+  private ActionImport readActionImport(XMLStreamReader reader) throws XMLStreamException {
+    ActionImport actionImport = new ActionImport();
+    actionImport.setName(attr(reader, "Name"));
+    actionImport.setAction(new FullQualifiedName(attr(reader, "Action")));
 
-    schema.getComplexTypes().add(complexType);
+    String entitySet = attr(reader, "EntitySet");
+    if (entitySet != null) {
+      actionImport.setEntitySet(entitySet);
+    }
+    skipElement(reader);
+    return actionImport;
   }
 
-  private void readProperties(XMLEventReader reader, ComplexType complexType)
-      throws XMLStreamException {
-    new ElementReader<ComplexType>() {
-      @Override
-      void build(XMLEventReader reader, StartElement element, ComplexType complexType, String name)
-          throws XMLStreamException {
-        if (name.equals("Property")) {
-          complexType.getProperties().add(readProperty(element));
-        } else if (name.equals("NavigationProperty")) {
-          complexType.getNavigationProperties().add(readNavigationProperty(reader, element));
-        }
-      }
-    }.read(reader, null, complexType, "Property", "NavigationProperty");
+  private Singleton readSingleton(XMLStreamReader reader) throws XMLStreamException {
+    Singleton singleton = new Singleton();
+    singleton.setName(attr(reader, "Name"));
+    singleton.setType(new FullQualifiedName(attr(reader, "Type")));
+    singleton.setNavigationPropertyBindings(readNavigationPropertyBindings(reader));
+    return singleton;
   }
 
-  abstract class ElementReader<T> {
-    void read(XMLEventReader reader, StartElement element, T t, String... names)
-        throws XMLStreamException {
-      while (reader.hasNext()) {
-        XMLEvent event = reader.peek();
-
-        event = skipAnnotations(reader, event);
-
-        if (!event.isStartElement() && !event.isEndElement()) {
-          reader.nextEvent();
-          continue;
-        }
-
-        boolean hit = false;
-
-        for (int i = 0; i < names.length; i++) {
-          if (event.isStartElement()) {
-            element = event.asStartElement();
-            if (element.getName().getLocalPart().equals(names[i])) {
-              reader.nextEvent(); // advance cursor
-              // System.out.println("reading = "+names[i]);
-              build(reader, element, t, names[i]);
-              hit = true;
-            }
-          }
-          if (event.isEndElement()) {
-            EndElement e = event.asEndElement();
-            if (e.getName().getLocalPart().equals(names[i])) {
-              reader.nextEvent(); // advance cursor
-              // System.out.println("done reading = "+names[i]);
-              hit = true;
-            }
-          }
-        }
-        if (!hit) {
-          break;
-        }
-      }
-    }
-
-    private XMLEvent skipAnnotations(XMLEventReader reader, XMLEvent event)
-        throws XMLStreamException {
-      boolean skip = false;
+  private EntitySet readEntitySet(XMLStreamReader reader) throws XMLStreamException {
+    EntitySet entitySet = new EntitySet();
+    entitySet.setName(attr(reader, "Name"));
+    entitySet.setType(new FullQualifiedName(attr(reader, "EntityType")));
+    entitySet.setIncludeInServiceDocument(Boolean.parseBoolean(attr(reader,
+        "IncludeInServiceDocument")));
+    entitySet.setNavigationPropertyBindings(readNavigationPropertyBindings(reader));
+    return entitySet;
+  }
 
-      while (reader.hasNext()) {
-        if (event.isStartElement()) {
-          StartElement element = event.asStartElement();
-          if (element.getName().getLocalPart().equals("Annotation")) {
-            skip = true;
-          }
-        }
-        if (event.isEndElement()) {
-          EndElement element = event.asEndElement();
-          if (element.getName().getLocalPart().equals("Annotation")) {
-            return reader.peek();
-          }
-        }
-        if (skip) {
-          event = reader.nextEvent();
-        } else {
-          return event;
-        }
+  private List<NavigationPropertyBinding> readNavigationPropertyBindings(XMLStreamReader reader)
+      throws XMLStreamException {
+    List<NavigationPropertyBinding> bindings = new ArrayList<NavigationPropertyBinding>();
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("NavigationPropertyBinding")) {
+        NavigationPropertyBinding binding = new NavigationPropertyBinding();
+        binding.setPath(attr(reader, "Path"));
+        binding.setTarget(attr(reader, "Target"));
+        bindings.add(binding);
       }
-      return event;
+      skipElement(reader);
     }
-
-    abstract void build(XMLEventReader reader, StartElement element, T t, String name)
-        throws XMLStreamException;
+    return bindings;
   }
 }
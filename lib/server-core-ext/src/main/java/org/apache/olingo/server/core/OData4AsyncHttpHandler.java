@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP handler that processes requests outside the container thread with the asynchronous
+ * processing and the non-blocking I/O of Servlet 3.1.
+ * <br/>
+ * The request body is read with a {@link ReadListener} as the container delivers it; when it is complete,
+ * the request is handed over to the executor, which dispatches it. The response is written with a
+ * {@link WriteListener} as the client accepts it. So neither the number of threads of the container nor the
+ * number of threads of the executor limits the number of requests in progress, and no thread waits for a
+ * slow client.
+ * The servlet must be registered with async support; otherwise requests are processed in the container thread.
+ * If the executor rejects a request, the response is <code>503 Service Unavailable</code>;
+ * if the request times out, the response is <code>503 Service Unavailable</code> unless it has been committed.
+ * The request body is held in memory until the request is processed; a maximum size can be set,
+ * above which the response is <code>413 Request Entity Too Large</code>.
+ * <br/>
+ * Processors blocking on databases or remote services are best run with a thread per request,
+ * e.g., an executor creating a virtual thread per task on Java 21 or later. The library does not
+ * hold monitors while it calls the EDM provider or reads the request, so such threads are not pinned
+ * to their carrier threads by the library itself.
+ */
+public class OData4AsyncHttpHandler extends OData4HttpHandler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OData4AsyncHttpHandler.class);
+
+  private final ExecutorService executor;
+  private long timeout = 0;
+  private long maxBodySize = 0;
+
+  /**
+   * @param odata the OData instance
+   * @param serviceMetadata the metadata of the service
+   * @param executor the executor processing the requests; it is shared between the handlers of a service
+   */
+  public OData4AsyncHttpHandler(final OData odata, final ServiceMetadata serviceMetadata,
+      final ExecutorService executor) {
+    super(odata, serviceMetadata);
+    this.executor = executor;
+  }
+
+  /**
+   * Sets the time after which the container completes a request that is still in progress.
+   * @param timeout the timeout in milliseconds; zero or less means no timeout, which is the default
+   */
+  public void setTimeout(final long timeout) {
+    this.timeout = timeout;
+  }
+
+  /**
+   * Sets the maximum size of a request body; larger requests are answered with
+   * <code>413 Request Entity Too Large</code> without being processed.
+   * @param maxBodySize the maximum size in bytes; zero or less means no limit, which is the default
+   */
+  public void setMaxBodySize(final long maxBodySize) {
+    this.maxBodySize = maxBodySize;
+  }
+
+  @Override
+  public void process(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse) {
+    if (!httpRequest.isAsyncSupported()) {
+      super.process(httpRequest, httpResponse);
+      return;
+    }
+
+    final AsyncContext context = httpRequest.startAsync(httpRequest, httpResponse);
+    context.setTimeout(timeout);
+    final Exchange exchange = new Exchange(context, httpRequest, httpResponse);
+    context.addListener(exchange);
+    if (exceedsMaxBodySize(httpRequest.getContentLengthLong())) {
+      exchange.rejectBody();
+      return;
+    }
+    try {
+      httpRequest.getInputStream().setReadListener(exchange);
+    } catch (final IOException e) {
+      exchange.onError(e);
+    }
+  }
+
+  private boolean exceedsMaxBodySize(final long size) {
+    return maxBodySize > 0 && size > maxBodySize;
+  }
+
+  /**
+   * State of one request: reads the request body, processes the request on the executor,
+   * and writes the response; completes the asynchronous context exactly once.
+   */
+  private final class Exchange implements ReadListener, WriteListener, AsyncListener {
+    private final AsyncContext context;
+    private final HttpServletRequest httpRequest;
+    private final HttpServletResponse httpResponse;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final byte[] buffer = new byte[8192];
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private volatile InputStream content;
+
+    private Exchange(final AsyncContext context, final HttpServletRequest httpRequest,
+        final HttpServletResponse httpResponse) {
+      this.context = context;
+      this.httpRequest = httpRequest;
+      this.httpResponse = httpResponse;
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+      final ServletInputStream input = httpRequest.getInputStream();
+      int count;
+      while (input.isReady() && (count = input.read(buffer)) != -1) {
+        body.write(buffer, 0, count);
+        if (exceedsMaxBodySize(body.size())) {
+          rejectBody();
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void onAllDataRead() {
+      if (completed.get()) {
+        return;
+      }
+      try {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            respond();
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        if (!completed.get()) {
+          httpResponse.setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+        }
+        complete();
+      }
+    }
+
+    /** Answers a request whose body is too large; the rest of the body is not read. */
+    private void rejectBody() {
+      if (!completed.get()) {
+        httpResponse.setStatus(HttpStatusCode.REQUEST_ENTITY_TOO_LARGE.getStatusCode());
+        httpResponse.setHeader("Connection", "close");
+      }
+      complete();
+    }
+
+    /** Processes the request and starts writing the response; runs on the executor. */
+    private void respond() {
+      final ODataResponse response;
+      try {
+        response = handle(httpRequest, new ByteArrayInputStream(body.toByteArray()));
+      } catch (final RuntimeException e) {
+        LOG.error(e.getMessage(), e);
+        if (!completed.get()) {
+          httpResponse.setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+        }
+        complete();
+        return;
+      }
+      content = response.getContent();
+      if (completed.get()) {
+        // The request has timed out in the meantime.
+        close();
+        return;
+      }
+      httpResponse.setStatus(response.getStatusCode());
+      for (final Entry<String, String> header : response.getHeaders().entrySet()) {
+        httpResponse.setHeader(header.getKey(), header.getValue());
+      }
+      if (content == null) {
+        complete();
+      } else {
+        try {
+          httpResponse.getOutputStream().setWriteListener(this);
+        } catch (final IOException e) {
+          onError(e);
+        }
+      }
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      final ServletOutputStream output = httpResponse.getOutputStream();
+      while (output.isReady()) {
+        final int count = content.read(buffer);
+        if (count == -1) {
+          complete();
+          return;
+        }
+        output.write(buffer, 0, count);
+      }
+    }
+
+    /** Called if reading the request or writing the response fails. */
+    @Override
+    public void onError(final Throwable throwable) {
+      LOG.error(throwable.getMessage(), throwable);
+      complete();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+      if (completed.compareAndSet(false, true)) {
+        if (!httpResponse.isCommitted()) {
+          httpResponse.setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+        }
+        context.complete();
+      }
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+      onError(event.getThrowable());
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+      completed.set(true);
+      close();
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+      // The context is not restarted.
+    }
+
+    /** Completes the context unless it has already been completed, e.g., by the container after a timeout. */
+    private void complete() {
+      if (completed.compareAndSet(false, true)) {
+        context.complete();
+      }
+    }
+
+    private void close() {
+      final InputStream input = content;
+      if (input != null) {
+        try {
+          input.close();
+        } catch (final IOException e) {
+          LOG.error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+}
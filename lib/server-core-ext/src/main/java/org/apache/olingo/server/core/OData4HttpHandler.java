@@ -19,6 +19,7 @@
 package org.apache.olingo.server.core;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -53,11 +54,22 @@ public class OData4HttpHandler extends ODataHttpHandlerImpl {
 
   @Override
   public void process(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse) {
+    convertToHttp(httpResponse, handle(httpRequest, null));
+  }
+
+  /**
+   * Processes the request without writing the response.
+   * @param body the content of the request, or <code>null</code> to read it from the HTTP request
+   */
+  ODataResponse handle(final HttpServletRequest httpRequest, final InputStream body) {
     ODataRequest request = null;
     ODataResponse response = new ODataResponse();
 
     try {
       request = createODataRequest(httpRequest, 0);
+      if (body != null) {
+        request.setBody(body);
+      }
       validateODataVersion(request, response);
 
       ServiceDispatcher dispatcher = new ServiceDispatcher(this.odata, this.serviceMetadata,
@@ -69,7 +81,7 @@ public class OData4HttpHandler extends ODataHttpHandlerImpl {
           this.customContentTypeSupport);
       handler.handleException(e, request, response);
     }
-    convertToHttp(httpResponse, response);
+    return response;
   }
 
 
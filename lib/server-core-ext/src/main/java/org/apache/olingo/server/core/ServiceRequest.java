@@ -38,7 +38,9 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataTranslatedException;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ComplexSerializerOptions;
+import org.apache.olingo.server.api.serializer.CrossJoinSerializerOptions;
 import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
+import org.apache.olingo.server.api.serializer.DeltaSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
@@ -161,6 +163,11 @@ public abstract class ServiceRequest {
     } else if (serilizerOptions.isAssignableFrom(PrimitiveSerializerOptions.class)) {
       return (T) PrimitiveSerializerOptions.with().contextURL(contextUrl)
           .build();
+    } else if (serilizerOptions.isAssignableFrom(CrossJoinSerializerOptions.class)) {
+      return (T) CrossJoinSerializerOptions.with()
+          .contextURL(format == ODataFormat.JSON_NO_METADATA ? null : contextUrl).build();
+    } else if (serilizerOptions.isAssignableFrom(DeltaSerializerOptions.class)) {
+      return (T) DeltaSerializerOptions.with().contextURL(contextUrl).build();
     }
     return null;
   }
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.changeset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.server.api.batch.exception.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.core.ServiceHandler;
+
+/**
+ * Executes the change sets of a batch request in transactions of a {@link ServiceHandler}.
+ * <br/>
+ * If the handler implements {@link GroupCommitSupport}, consecutive change sets are grouped into
+ * one transaction, up to {@link GroupCommitSupport#getMaxChangeSetsPerCommit()} change sets; each
+ * change set is executed after a savepoint and rolled back to it if it fails. A group ends when it
+ * is full or when {@link #flush()} is called, e.g., before a request outside of change sets that
+ * has to see the changes. Otherwise each change set is executed in its own transaction.
+ * <br/>
+ * The responses of the change sets are added to the list of response parts of the batch request.
+ * If the processing of a change set throws a runtime exception, the change set is rolled back to its
+ * savepoint and gets an error response; the other change sets of its group are kept.
+ * If the commit of a group fails, or the batch request cannot be processed further, the transaction
+ * is rolled back and the responses of the change sets in the group are replaced with error responses.
+ * <br/>
+ * The change sets are recorded to the {@link GroupCommitSupport#getChangeSetMetrics() metrics} of the handler,
+ * if it has any.
+ * <br/>
+ * An executor is used for a single batch request and is not safe for concurrent use.
+ */
+public class ChangeSetExecutor {
+
+  /**
+   * Processes the requests of a change set.
+   */
+  public interface Processor {
+
+    /**
+     * Processes the requests of a change set.
+     * @param changeSet the change set
+     * @return the responses; a single response with an error status code if the change set failed
+     * @throws BatchDeserializerException
+     */
+    ODataResponsePart process(BatchRequestPart changeSet) throws BatchDeserializerException;
+
+    /**
+     * Creates the error response of a change set that could not be processed,
+     * or whose transaction could not be committed.
+     * @param changeSet the change set
+     * @param e the exception of the processing or of the commit
+     * @return the error response
+     */
+    ODataResponsePart failed(BatchRequestPart changeSet, Exception e);
+  }
+
+  private static class Pending {
+    private final BatchRequestPart changeSet;
+    private final int index;
+    private final long start;
+    private boolean failed;
+
+    Pending(final BatchRequestPart changeSet, final int index, final long start, final boolean failed) {
+      this.changeSet = changeSet;
+      this.index = index;
+      this.start = start;
+      this.failed = failed;
+    }
+  }
+
+  private final ServiceHandler handler;
+  private final GroupCommitSupport groupCommit;
+  private final int maxGroupSize;
+  private final ChangeSetMetrics metrics;
+  private final Processor processor;
+  private final List<ODataResponsePart> responseParts;
+  private final List<Pending> group = new ArrayList<Pending>();
+  private String txnId;
+
+  /**
+   * Creates an executor.
+   * @param handler the service handler
+   * @param processor the processor of the change sets
+   * @param responseParts the response parts of the batch request
+   */
+  public ChangeSetExecutor(final ServiceHandler handler, final Processor processor,
+      final List<ODataResponsePart> responseParts) {
+    this.handler = handler;
+    this.processor = processor;
+    this.responseParts = responseParts;
+    if (handler instanceof GroupCommitSupport) {
+      groupCommit = (GroupCommitSupport) handler;
+      maxGroupSize = Math.max(groupCommit.getMaxChangeSetsPerCommit(), 1);
+      metrics = groupCommit.getChangeSetMetrics();
+    } else {
+      groupCommit = null;
+      maxGroupSize = 1;
+      metrics = null;
+    }
+  }
+
+  /**
+   * Executes a change set and adds its response to the response parts.
+   * @param changeSet the change set
+   * @return the response of the change set; if the group was completed by this change set and its commit
+   * failed, the error response that replaced it in the response parts
+   * @throws BatchDeserializerException if the batch request cannot be processed further;
+   * the current group is rolled back then
+   */
+  public ODataResponsePart execute(final BatchRequestPart changeSet) throws BatchDeserializerException {
+    final long start = System.nanoTime();
+    if (group.isEmpty()) {
+      txnId = handler.startTransaction();
+    }
+    final String savepoint = groupCommit == null ? null : groupCommit.setSavepoint(txnId);
+
+    ODataResponsePart response;
+    boolean failed;
+    try {
+      response = processor.process(changeSet);
+      failed = response.getResponses().get(0).getStatusCode() >= 400;
+    } catch (final BatchDeserializerException e) {
+      abort(start, e);
+      throw e;
+    } catch (final RuntimeException e) {
+      response = processor.failed(changeSet, e);
+      failed = true;
+    }
+
+    if (groupCommit != null) {
+      if (failed) {
+        groupCommit.rollbackToSavepoint(txnId, savepoint);
+      } else {
+        groupCommit.releaseSavepoint(txnId, savepoint);
+      }
+    }
+    final int index = responseParts.size();
+    group.add(new Pending(changeSet, index, start, failed));
+    responseParts.add(response);
+
+    if (group.size() >= maxGroupSize) {
+      flush();
+    }
+    return responseParts.get(index);
+  }
+
+  /**
+   * Ends the current group of change sets: its transaction is committed if a change set
+   * in it succeeded and rolled back otherwise.
+   * @return <code>true</code> if the commit failed, so that the responses of the change sets
+   * in the group have been replaced with error responses
+   */
+  public boolean flush() {
+    if (group.isEmpty()) {
+      return false;
+    }
+    boolean commitFailed = false;
+    boolean succeeded = false;
+    for (final Pending pending : group) {
+      succeeded |= !pending.failed;
+    }
+    if (succeeded) {
+      try {
+        handler.commit(txnId);
+        if (metrics != null) {
+          metrics.committed();
+        }
+      } catch (final RuntimeException e) {
+        rollback(e);
+        commitFailed = true;
+      }
+    } else {
+      rollback(null);
+    }
+    complete();
+    return commitFailed;
+  }
+
+  /** Rolls back the current group, e.g., if the batch request cannot be processed further. */
+  private void abort(final long start, final Exception e) {
+    group.add(new Pending(null, -1, start, true));
+    rollback(e);
+    complete();
+  }
+
+  /**
+   * Rolls back the transaction of the current group.
+   * @param e the cause; the responses of the change sets that succeeded are replaced with error responses for it
+   */
+  private void rollback(final Exception e) {
+    handler.rollback(txnId);
+    if (metrics != null) {
+      metrics.rolledBack();
+    }
+    for (final Pending pending : group) {
+      if (!pending.failed) {
+        responseParts.set(pending.index, processor.failed(pending.changeSet, e));
+        pending.failed = true;
+      }
+    }
+  }
+
+  private void complete() {
+    if (metrics != null) {
+      final long end = System.nanoTime();
+      for (final Pending pending : group) {
+        metrics.changeSetCompleted(end - pending.start, !pending.failed);
+      }
+    }
+    group.clear();
+    txnId = null;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.changeset;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the change sets executed in batch requests: the number of change sets, commits, and
+ * rollbacks, and the latency of the change sets.
+ * <br/>
+ * The latency of a change set is the time from the start of its execution until its transaction
+ * is committed or rolled back; with grouped commits it includes the time waiting for the later
+ * change sets of its group. The metrics are safe for concurrent use.
+ */
+public class ChangeSetMetrics {
+
+  private final AtomicLong changeSets = new AtomicLong();
+  private final AtomicLong failedChangeSets = new AtomicLong();
+  private final AtomicLong commits = new AtomicLong();
+  private final AtomicLong rollbacks = new AtomicLong();
+  private final AtomicLong totalLatency = new AtomicLong();
+  private final AtomicLong maxLatency = new AtomicLong();
+
+  void changeSetCompleted(final long latency, final boolean succeeded) {
+    changeSets.incrementAndGet();
+    if (!succeeded) {
+      failedChangeSets.incrementAndGet();
+    }
+    totalLatency.addAndGet(latency);
+    long max = maxLatency.get();
+    while (latency > max && !maxLatency.compareAndSet(max, latency)) {
+      max = maxLatency.get();
+    }
+  }
+
+  void committed() {
+    commits.incrementAndGet();
+  }
+
+  void rolledBack() {
+    rollbacks.incrementAndGet();
+  }
+
+  /**
+   * Gets the number of executed change sets.
+   * @return the number of change sets
+   */
+  public long getChangeSetCount() {
+    return changeSets.get();
+  }
+
+  /**
+   * Gets the number of change sets whose changes have been rolled back.
+   * @return the number of failed change sets
+   */
+  public long getFailedChangeSetCount() {
+    return failedChangeSets.get();
+  }
+
+  /**
+   * Gets the number of committed transactions.
+   * @return the number of commits
+   */
+  public long getCommitCount() {
+    return commits.get();
+  }
+
+  /**
+   * Gets the number of transactions rolled back as a whole.
+   * @return the number of rollbacks
+   */
+  public long getRollbackCount() {
+    return rollbacks.get();
+  }
+
+  /**
+   * Gets the sum of the latencies of all executed change sets.
+   * @param unit the time unit of the result
+   * @return the total latency
+   */
+  public long getTotalLatency(final TimeUnit unit) {
+    return unit.convert(totalLatency.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the average latency of the executed change sets.
+   * @param unit the time unit of the result
+   * @return the average latency or zero if no change set has been executed
+   */
+  public long getAverageLatency(final TimeUnit unit) {
+    final long count = changeSets.get();
+    return count == 0 ? 0 : unit.convert(totalLatency.get() / count, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the maximum latency of the executed change sets.
+   * @param unit the time unit of the result
+   * @return the maximum latency
+   */
+  public long getMaxLatency(final TimeUnit unit) {
+    return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.changeset;
+
+import org.apache.olingo.server.core.ServiceHandler;
+
+/**
+ * Optional interface of a {@link ServiceHandler} whose transactions support savepoints.
+ * <br/>
+ * The change sets of a batch request are executed in one transaction each, unless the handler
+ * implements this interface: then consecutive change sets are grouped into one transaction that is
+ * committed once. Each change set is executed after a savepoint, and a failing change set is rolled
+ * back to its savepoint, so that it remains atomic while the other change sets of the group are
+ * committed.
+ */
+public interface GroupCommitSupport {
+
+  /**
+   * Gets the maximum number of change sets grouped into one transaction.
+   * @return the maximum number of change sets per commit, at least one
+   */
+  int getMaxChangeSetsPerCommit();
+
+  /**
+   * Sets a savepoint in a transaction.
+   * @param txnId the transaction id returned from {@link ServiceHandler#startTransaction()}
+   * @return an id of the savepoint
+   */
+  String setSavepoint(String txnId);
+
+  /**
+   * Rolls back all changes made in a transaction after a savepoint.
+   * @param txnId the transaction id returned from {@link ServiceHandler#startTransaction()}
+   * @param savepoint the savepoint id returned from {@link #setSavepoint(String)}
+   */
+  void rollbackToSavepoint(String txnId, String savepoint);
+
+  /**
+   * Releases a savepoint that is no longer needed; the changes made after it are kept.
+   * @param txnId the transaction id returned from {@link ServiceHandler#startTransaction()}
+   * @param savepoint the savepoint id returned from {@link #setSavepoint(String)}
+   */
+  void releaseSavepoint(String txnId, String savepoint);
+
+  /**
+   * Gets the metrics to which the change sets executed with this handler are recorded.
+   * @return the change-set metrics, or <code>null</code> if they are not recorded
+   */
+  ChangeSetMetrics getChangeSetMetrics();
+}
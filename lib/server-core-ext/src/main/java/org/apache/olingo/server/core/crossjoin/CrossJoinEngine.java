@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.crossjoin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.olingo.commons.api.ODataRuntimeException;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.Method;
+import org.apache.olingo.server.api.uri.queryoption.expression.Unary;
+import org.apache.olingo.server.core.crossjoin.RowEvaluator.MemberPath;
+
+/**
+ * Executes a $crossjoin with its $filter on entities read from the entity sets.
+ * <br/>
+ * The $filter is split into its conjuncts (operands of <code>and</code>):
+ * <ul>
+ * <li>an equality between properties of two entity sets is executed as hash join,</li>
+ * <li>a condition on one entity set only is applied while reading that entity set,</li>
+ * <li>any other condition is applied as soon as all entity sets it refers to are part of a combination.</li>
+ * </ul>
+ * The entities of all but the first entity set are read when the cross join is executed and kept in
+ * hash tables keyed by their join properties. The entities of the first entity set are read while the
+ * combinations are consumed, and each combination is produced only when it is requested; so the full
+ * Cartesian product is never materialized. The first entity set should therefore be the largest one.
+ * <br/>
+ * Member expressions must consist of an entity set of the cross join followed by complex properties
+ * and a primitive property; navigation, lambda expressions, aliases, and enumerations are not supported.
+ * An engine can be executed any number of times, also concurrently.
+ */
+public class CrossJoinEngine {
+
+  /** Reads the entities of the entity sets of a cross join. */
+  public interface EntitySource {
+
+    /**
+     * Reads all entities of an entity set; it is called once for each entity set of the cross join
+     * in every execution.
+     * @param entitySet the entity set
+     * @return an iterator over the entities
+     */
+    Iterator<Entity> read(EdmEntitySet entitySet) throws ODataApplicationException;
+  }
+
+  /** Types tried in this order to determine the type of a literal the parser has not typed. */
+  private static final EdmPrimitiveTypeKind[] LITERAL_TYPES = new EdmPrimitiveTypeKind[] {
+      EdmPrimitiveTypeKind.String, EdmPrimitiveTypeKind.Boolean,
+      EdmPrimitiveTypeKind.DateTimeOffset, EdmPrimitiveTypeKind.Date, EdmPrimitiveTypeKind.TimeOfDay,
+      EdmPrimitiveTypeKind.Guid, EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Decimal,
+      EdmPrimitiveTypeKind.Double };
+
+  /** An equality between a property of an earlier entity set and a property of a later one. */
+  private static class JoinCondition {
+    final MemberPath probe;
+    final MemberPath build;
+
+    JoinCondition(final MemberPath probe, final MemberPath build) {
+      this.probe = probe;
+      this.build = build;
+    }
+  }
+
+  private final List<EdmEntitySet> entitySets = new ArrayList<EdmEntitySet>();
+  private final Map<UriInfoResource, MemberPath> members = new IdentityHashMap<UriInfoResource, MemberPath>();
+  private final Map<String, Object> literals = new HashMap<String, Object>();
+  /** For each entity set, the conditions on this entity set only. */
+  private final List<List<Expression>> scanFilters = new ArrayList<List<Expression>>();
+  /** For each entity set, the conditions on this and earlier entity sets. */
+  private final List<List<Expression>> rowFilters = new ArrayList<List<Expression>>();
+  /** For each entity set, the equalities with properties of earlier entity sets. */
+  private final List<List<JoinCondition>> joinConditions = new ArrayList<List<JoinCondition>>();
+
+  /**
+   * Analyzes a cross join.
+   * @param container the entity container of the entity sets
+   * @param entitySetNames the names of the entity sets in the order of the $crossjoin
+   * @param filter the $filter system query option; may be <code>null</code>
+   */
+  public CrossJoinEngine(final EdmEntityContainer container, final List<String> entitySetNames,
+      final FilterOption filter) throws ODataApplicationException {
+    for (final String name : entitySetNames) {
+      final EdmEntitySet entitySet = container.getEntitySet(name);
+      if (entitySet == null) {
+        throw new ODataApplicationException("Entity set '" + name + "' not found.",
+            HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
+      } else if (entitySets.contains(entitySet)) {
+        throw new ODataApplicationException("Entity set '" + name + "' is used more than once.",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+      }
+      entitySets.add(entitySet);
+      scanFilters.add(new ArrayList<Expression>());
+      rowFilters.add(new ArrayList<Expression>());
+      joinConditions.add(new ArrayList<JoinCondition>());
+    }
+
+    if (filter != null && filter.getExpression() != null) {
+      List<Expression> conjuncts = new ArrayList<Expression>();
+      addConjuncts(filter.getExpression(), conjuncts);
+      for (final Expression conjunct : conjuncts) {
+        final BitSet referenced = analyze(conjunct);
+        final JoinCondition joinCondition = getJoinCondition(conjunct);
+        if (joinCondition != null) {
+          joinConditions.get(joinCondition.build.entitySet).add(joinCondition);
+        } else if (referenced.cardinality() == 1) {
+          scanFilters.get(referenced.nextSetBit(0)).add(conjunct);
+        } else {
+          rowFilters.get(Math.max(referenced.length() - 1, 0)).add(conjunct);
+        }
+      }
+    }
+  }
+
+  /** Gets the entity sets of the cross join in the order of the $crossjoin. */
+  public List<EdmEntitySet> getEntitySets() {
+    return Collections.unmodifiableList(entitySets);
+  }
+
+  /**
+   * Executes the cross join.
+   * <br/>
+   * All entity sets but the first one are read before this method returns.
+   * The entities of the first entity set are read while the returned iterator is consumed;
+   * errors occurring then are thrown as {@link ODataRuntimeException} with the original exception as cause.
+   * @param source the source of the entities
+   * @return the combinations of entities matching the $filter, with one entity for each entity set
+   * in the order of {@link #getEntitySets()}
+   */
+  public Iterator<List<Entity>> execute(final EntitySource source) throws ODataApplicationException {
+    final RowEvaluator evaluator = new RowEvaluator(members, literals);
+    final List<Map<List<Object>, List<Entity>>> hashTables = new ArrayList<Map<List<Object>, List<Entity>>>();
+    hashTables.add(null);
+    for (int index = 1; index < entitySets.size(); index++) {
+      hashTables.add(buildHashTable(index, source, evaluator));
+    }
+    return new Rows(read(source, 0), hashTables, evaluator);
+  }
+
+  private Map<List<Object>, List<Entity>> buildHashTable(final int index, final EntitySource source,
+      final RowEvaluator evaluator) throws ODataApplicationException {
+    Map<List<Object>, List<Entity>> hashTable = new HashMap<List<Object>, List<Entity>>();
+    final List<JoinCondition> conditions = joinConditions.get(index);
+    final Entity[] row = new Entity[entitySets.size()];
+    final Iterator<Entity> entities = read(source, index);
+    while (entities.hasNext()) {
+      row[index] = entities.next();
+      if (evaluator.matches(scanFilters.get(index), row)) {
+        final Object[] key = new Object[conditions.size()];
+        for (int condition = 0; condition < key.length; condition++) {
+          key[condition] = conditions.get(condition).build.value(row);
+        }
+        List<Entity> bucket = hashTable.get(Arrays.asList(key));
+        if (bucket == null) {
+          bucket = new ArrayList<Entity>(1);
+          hashTable.put(Arrays.asList(key), bucket);
+        }
+        bucket.add(row[index]);
+      }
+    }
+    return hashTable;
+  }
+
+  private Iterator<Entity> read(final EntitySource source, final int index) throws ODataApplicationException {
+    final Iterator<Entity> entities = source.read(entitySets.get(index));
+    return entities == null ? Collections.<Entity> emptyList().iterator() : entities;
+  }
+
+  /** Produces the combinations depth-first, probing the hash table of each further entity set. */
+  private class Rows implements Iterator<List<Entity>> {
+    private final Iterator<Entity> first;
+    private final List<Map<List<Object>, List<Entity>>> hashTables;
+    private final RowEvaluator evaluator;
+    private final List<Iterator<Entity>> candidates = new ArrayList<Iterator<Entity>>();
+    private final Entity[] row = new Entity[entitySets.size()];
+    private int level = 0;
+    private List<Entity> next;
+
+    Rows(final Iterator<Entity> first, final List<Map<List<Object>, List<Entity>>> hashTables,
+        final RowEvaluator evaluator) {
+      this.first = first;
+      this.hashTables = hashTables;
+      this.evaluator = evaluator;
+      candidates.add(first);
+      for (int index = 1; index < row.length; index++) {
+        candidates.add(null);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && level >= 0) {
+        try {
+          next = advance();
+        } catch (final ODataApplicationException e) {
+          throw new ODataRuntimeException(e.getMessage(), e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public List<Entity> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final List<Entity> result = next;
+      next = null;
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private List<Entity> advance() throws ODataApplicationException {
+      while (level >= 0) {
+        final Iterator<Entity> current = candidates.get(level);
+        if (!current.hasNext()) {
+          level--;
+          continue;
+        }
+        row[level] = current.next();
+        if (current == first && !evaluator.matches(scanFilters.get(0), row)
+            || !evaluator.matches(rowFilters.get(level), row)) {
+          continue;
+        }
+        if (level == row.length - 1) {
+          return Arrays.asList(row.clone());
+        }
+        level++;
+        candidates.set(level, probe(level));
+      }
+      return null;
+    }
+
+    private Iterator<Entity> probe(final int index) {
+      final List<JoinCondition> conditions = joinConditions.get(index);
+      final Object[] key = new Object[conditions.size()];
+      for (int condition = 0; condition < key.length; condition++) {
+        key[condition] = conditions.get(condition).probe.value(row);
+      }
+      final List<Entity> bucket = hashTables.get(index).get(Arrays.asList(key));
+      return bucket == null ? Collections.<Entity> emptyList().iterator() : bucket.iterator();
+    }
+  }
+
+  private static void addConjuncts(final Expression expression, final List<Expression> conjuncts) {
+    if (expression instanceof Binary && ((Binary) expression).getOperator() == BinaryOperatorKind.AND) {
+      addConjuncts(((Binary) expression).getLeftOperand(), conjuncts);
+      addConjuncts(((Binary) expression).getRightOperand(), conjuncts);
+    } else {
+      conjuncts.add(expression);
+    }
+  }
+
+  /** Resolves members and literals of the expression; returns the positions of the entity sets referred to. */
+  private BitSet analyze(final Expression expression) throws ODataApplicationException {
+    BitSet referenced = new BitSet();
+    if (expression instanceof Binary) {
+      referenced.or(analyze(((Binary) expression).getLeftOperand()));
+      referenced.or(analyze(((Binary) expression).getRightOperand()));
+    } else if (expression instanceof Unary) {
+      referenced.or(analyze(((Unary) expression).getOperand()));
+    } else if (expression instanceof Method) {
+      for (final Expression parameter : ((Method) expression).getParameters()) {
+        referenced.or(analyze(parameter));
+      }
+    } else if (expression instanceof Member) {
+      final MemberPath path = resolve(((Member) expression).getResourcePath());
+      members.put(((Member) expression).getResourcePath(), path);
+      referenced.set(path.entitySet);
+    } else if (expression instanceof Literal) {
+      final Literal literal = (Literal) expression;
+      literals.put(literal.getText(), valueOfLiteral(literal));
+    } else {
+      throw RowEvaluator.notSupported("Expression " + expression);
+    }
+    return referenced;
+  }
+
+  private MemberPath resolve(final UriInfoResource member) throws ODataApplicationException {
+    final List<UriResource> parts = member.getUriResourceParts();
+    if (parts.size() < 2 || !(parts.get(0) instanceof UriResourceEntitySet)) {
+      throw RowEvaluator.notSupported("Member " + parts);
+    }
+    final int entitySet = entitySets.indexOf(((UriResourceEntitySet) parts.get(0)).getEntitySet());
+    if (entitySet < 0) {
+      throw new ODataApplicationException("Entity set '" + parts.get(0) + "' is not part of the cross join.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    String[] propertyNames = new String[parts.size() - 1];
+    for (int index = 1; index < parts.size(); index++) {
+      final UriResource part = parts.get(index);
+      final boolean last = index == parts.size() - 1;
+      if (!last && part instanceof UriResourceComplexProperty
+          && !((UriResourceComplexProperty) part).isCollection()) {
+        propertyNames[index - 1] = ((UriResourceComplexProperty) part).getProperty().getName();
+      } else if (last && part instanceof UriResourcePrimitiveProperty
+          && !((UriResourcePrimitiveProperty) part).isCollection()) {
+        propertyNames[index - 1] = ((UriResourcePrimitiveProperty) part).getProperty().getName();
+      } else {
+        throw RowEvaluator.notSupported("Member " + parts);
+      }
+    }
+    return new MemberPath(entitySet, propertyNames);
+  }
+
+  private JoinCondition getJoinCondition(final Expression conjunct) {
+    if (conjunct instanceof Binary && ((Binary) conjunct).getOperator() == BinaryOperatorKind.EQ
+        && ((Binary) conjunct).getLeftOperand() instanceof Member
+        && ((Binary) conjunct).getRightOperand() instanceof Member) {
+      final MemberPath left = members.get(((Member) ((Binary) conjunct).getLeftOperand()).getResourcePath());
+      final MemberPath right = members.get(((Member) ((Binary) conjunct).getRightOperand()).getResourcePath());
+      if (left.entitySet < right.entitySet) {
+        return new JoinCondition(left, right);
+      } else if (left.entitySet > right.entitySet) {
+        return new JoinCondition(right, left);
+      }
+    }
+    return null;
+  }
+
+  private static Object valueOfLiteral(final Literal literal) throws ODataApplicationException {
+    final String text = literal.getText();
+    if ("null".equals(text)) {
+      return null;
+    }
+    if (literal.getType() instanceof EdmPrimitiveType) {
+      try {
+        return valueOfLiteral((EdmPrimitiveType) literal.getType(), text);
+      } catch (final EdmPrimitiveTypeException e) {
+        // Try the other types.
+      }
+    }
+    for (final EdmPrimitiveTypeKind kind : LITERAL_TYPES) {
+      try {
+        return valueOfLiteral(EdmPrimitiveTypeFactory.getInstance(kind), text);
+      } catch (final EdmPrimitiveTypeException e) {
+        // Try the next type.
+      }
+    }
+    throw RowEvaluator.notSupported("Literal " + text);
+  }
+
+  private static Object valueOfLiteral(final EdmPrimitiveType type, final String text)
+      throws EdmPrimitiveTypeException {
+    return RowEvaluator.normalize(
+        type.valueOfString(type.fromUriLiteral(text), null, null, null, null, null, type.getDefaultType()));
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.crossjoin;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Evaluates a $filter expression on a combination of entities of a $crossjoin.
+ * <br/>
+ * Members and literals have been resolved by the {@link CrossJoinEngine} before,
+ * so that evaluating an expression does not parse anything.
+ * Values are normalized with {@link #normalize(Object)}: numbers become {@link BigDecimal}s
+ * and points in time become {@link Date}s, so that values of different types can be compared.
+ * As the normalized numbers do not keep their types, a division of whole numbers is an integer division.
+ * An instance is used by one thread at a time.
+ */
+class RowEvaluator implements ExpressionVisitor<Object> {
+
+  /** A member path resolved to the position of its entity set and the names of its properties. */
+  static class MemberPath {
+    final int entitySet;
+    final String[] propertyNames;
+
+    MemberPath(final int entitySet, final String[] propertyNames) {
+      this.entitySet = entitySet;
+      this.propertyNames = propertyNames;
+    }
+
+    /** Gets the normalized value of the member in the given combination of entities. */
+    Object value(final Entity[] row) {
+      Property property = row[entitySet].getProperty(propertyNames[0]);
+      for (int index = 1; index < propertyNames.length && property != null; index++) {
+        property = property.isNull() ? null : find(property.asComplex(), propertyNames[index]);
+      }
+      return property == null || property.isNull() ? null : normalize(property.getValue());
+    }
+
+    private static Property find(final ComplexValue complexValue, final String name) {
+      for (final Property property : complexValue.getValue()) {
+        if (name.equals(property.getName())) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final Map<UriInfoResource, MemberPath> members;
+  private final Map<String, Object> literals;
+  private Entity[] row;
+
+  RowEvaluator(final Map<UriInfoResource, MemberPath> members, final Map<String, Object> literals) {
+    this.members = members;
+    this.literals = literals;
+  }
+
+  /** Evaluates the conditions on the given combination of entities; they must all be true. */
+  boolean matches(final List<Expression> conditions, final Entity[] row) throws ODataApplicationException {
+    this.row = row;
+    try {
+      for (final Expression condition : conditions) {
+        if (!Boolean.TRUE.equals(condition.accept(this))) {
+          return false;
+        }
+      }
+      return true;
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException(e.getMessage(),
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    } finally {
+      this.row = null;
+    }
+  }
+
+  @Override
+  public Object visitBinaryOperator(final BinaryOperatorKind operator, final Object left, final Object right)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case AND:
+      return Boolean.TRUE.equals(left) && Boolean.TRUE.equals(right);
+    case OR:
+      return Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right);
+    case EQ:
+      return equal(left, right);
+    case NE:
+      return !equal(left, right);
+    case GT:
+      return left != null && right != null && compare(left, right) > 0;
+    case GE:
+      return left != null && right != null && compare(left, right) >= 0;
+    case LT:
+      return left != null && right != null && compare(left, right) < 0;
+    case LE:
+      return left != null && right != null && compare(left, right) <= 0;
+    case ADD:
+    case SUB:
+    case MUL:
+    case DIV:
+    case MOD:
+      return left == null || right == null ? null : arithmetic(operator, number(left), number(right));
+    default:
+      throw notSupported("Operator " + operator);
+    }
+  }
+
+  @Override
+  public Object visitUnaryOperator(final UnaryOperatorKind operator, final Object operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (operand == null) {
+      return null;
+    }
+    return operator == UnaryOperatorKind.NOT ? !Boolean.TRUE.equals(operand) : number(operand).negate();
+  }
+
+  @Override
+  public Object visitMethodCall(final MethodKind methodCall, final List<Object> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    for (final Object parameter : parameters) {
+      if (parameter == null) {
+        return null;
+      }
+    }
+    switch (methodCall) {
+    case CONTAINS:
+      return string(parameters.get(0)).contains(string(parameters.get(1)));
+    case STARTSWITH:
+      return string(parameters.get(0)).startsWith(string(parameters.get(1)));
+    case ENDSWITH:
+      return string(parameters.get(0)).endsWith(string(parameters.get(1)));
+    case INDEXOF:
+      return new BigDecimal(string(parameters.get(0)).indexOf(string(parameters.get(1))));
+    case LENGTH:
+      return new BigDecimal(string(parameters.get(0)).length());
+    case TOLOWER:
+      return string(parameters.get(0)).toLowerCase(Locale.ROOT);
+    case TOUPPER:
+      return string(parameters.get(0)).toUpperCase(Locale.ROOT);
+    case TRIM:
+      return string(parameters.get(0)).trim();
+    case CONCAT:
+      return string(parameters.get(0)) + string(parameters.get(1));
+    case SUBSTRING:
+      final String value = string(parameters.get(0));
+      final int start = Math.min(Math.max(number(parameters.get(1)).intValue(), 0), value.length());
+      return parameters.size() < 3 ? value.substring(start) :
+          value.substring(start, Math.min(start + Math.max(number(parameters.get(2)).intValue(), 0), value.length()));
+    default:
+      throw notSupported("Method " + methodCall);
+    }
+  }
+
+  @Override
+  public Object visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Lambda expressions are");
+  }
+
+  @Override
+  public Object visitLiteral(final String literal) throws ExpressionVisitException, ODataApplicationException {
+    return literals.get(literal);
+  }
+
+  @Override
+  public Object visitMember(final UriInfoResource member) throws ExpressionVisitException, ODataApplicationException {
+    return members.get(member).value(row);
+  }
+
+  @Override
+  public Object visitAlias(final String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Aliases are");
+  }
+
+  @Override
+  public Object visitTypeLiteral(final EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Type literals are");
+  }
+
+  @Override
+  public Object visitLambdaReference(final String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Lambda expressions are");
+  }
+
+  @Override
+  public Object visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Enumerations are");
+  }
+
+  /**
+   * Converts a value into the form used for comparisons and hash keys:
+   * numbers into {@link BigDecimal}s without trailing zeros, calendars and timestamps into {@link Date}s.
+   */
+  static Object normalize(final Object value) {
+    if (value instanceof BigDecimal) {
+      final BigDecimal decimal = (BigDecimal) value;
+      return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+    } else if (value instanceof Double || value instanceof Float) {
+      final double number = ((Number) value).doubleValue();
+      return Double.isNaN(number) || Double.isInfinite(number) ? value : normalize(BigDecimal.valueOf(number));
+    } else if (value instanceof BigInteger) {
+      return normalize(new BigDecimal((BigInteger) value));
+    } else if (value instanceof Number) {
+      return normalize(BigDecimal.valueOf(((Number) value).longValue()));
+    } else if (value instanceof Calendar) {
+      return new Date(((Calendar) value).getTimeInMillis());
+    } else if (value instanceof Date) {
+      return new Date(((Date) value).getTime());
+    } else {
+      return value;
+    }
+  }
+
+  /** Compares two normalized values for equality; <code>null</code> is equal to <code>null</code> only. */
+  static boolean equal(final Object left, final Object right) {
+    if (left == null || right == null) {
+      return left == right;
+    } else if (left instanceof byte[] && right instanceof byte[]) {
+      return Arrays.equals((byte[]) left, (byte[]) right);
+    } else {
+      return left.equals(right);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compare(final Object left, final Object right) throws ODataApplicationException {
+    if (left.getClass() == right.getClass() && left instanceof Comparable) {
+      return ((Comparable<Object>) left).compareTo(right);
+    }
+    throw new ODataApplicationException("Values of types " + left.getClass().getSimpleName()
+        + " and " + right.getClass().getSimpleName() + " cannot be compared.",
+        HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  private static BigDecimal arithmetic(final BinaryOperatorKind operator, final BigDecimal left,
+      final BigDecimal right) throws ODataApplicationException {
+    if ((operator == BinaryOperatorKind.DIV || operator == BinaryOperatorKind.MOD) && right.signum() == 0) {
+      throw new ODataApplicationException("Division by zero.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    switch (operator) {
+    case ADD:
+      return (BigDecimal) normalize(left.add(right));
+    case SUB:
+      return (BigDecimal) normalize(left.subtract(right));
+    case MUL:
+      return (BigDecimal) normalize(left.multiply(right));
+    case DIV:
+      return (BigDecimal) normalize(isIntegral(left) && isIntegral(right)
+          ? left.divideToIntegralValue(right)
+          : left.divide(right, MathContext.DECIMAL64));
+    default:
+      return (BigDecimal) normalize(left.remainder(right));
+    }
+  }
+
+  /** Tells whether a normalized number has no fractional digits. */
+  private static boolean isIntegral(final BigDecimal number) {
+    return number.scale() <= 0;
+  }
+
+  private static BigDecimal number(final Object value) throws ODataApplicationException {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    throw new ODataApplicationException("A number is expected instead of " + value + ".",
+        HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  private static String string(final Object value) throws ODataApplicationException {
+    if (value instanceof String) {
+      return (String) value;
+    }
+    throw new ODataApplicationException("A string is expected instead of " + value + ".",
+        HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  static ODataApplicationException notSupported(final String what) {
+    return new ODataApplicationException(what + " not supported in cross joins.",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.delta;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.olingo.commons.api.data.Entity;
+
+/**
+ * Append-only log of the changes of one entity set.
+ * <br/>
+ * Changes are appended in the order of their sequence numbers, so the changes since a delta token
+ * are found by binary search. Compaction removes changes superseded by a later change of the same
+ * entity, which keeps all delta tokens valid, and removes expired deletions, which invalidates the
+ * delta tokens issued before them.
+ */
+class ChangeLog {
+
+  enum Kind {
+    CREATED, UPDATED, DELETED
+  }
+
+  static class Change {
+    final long sequence;
+    final long time;
+    final Kind kind;
+    final URI id;
+    final Entity entity;
+
+    Change(final long sequence, final long time, final Kind kind, final URI id, final Entity entity) {
+      this.sequence = sequence;
+      this.time = time;
+      this.kind = kind;
+      this.id = id;
+      this.entity = entity;
+    }
+  }
+
+  /** The log is compacted when it holds more than this many times the number of changed entities. */
+  private static final int COMPACTION_FACTOR = 2;
+  private static final int MINIMUM_COMPACTION_SIZE = 64;
+
+  private final AtomicLong sequence;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private List<Change> changes = new ArrayList<Change>();
+  /** The most recent change of each entity in the log. */
+  private final Map<URI, Change> latest = new HashMap<URI, Change>();
+  /** Delta tokens with a lower sequence number may miss deletions removed by compaction. */
+  private long horizon = 0;
+
+  /**
+   * @param sequence the source of sequence numbers, which may be shared with other logs
+   */
+  ChangeLog(final AtomicLong sequence) {
+    this.sequence = sequence;
+  }
+
+  void append(final Kind kind, final URI id, final Entity entity, final long time) {
+    lock.writeLock().lock();
+    try {
+      final Change change = new Change(sequence.incrementAndGet(), time, kind, id, entity);
+      changes.add(change);
+      latest.put(change.id, change);
+      if (changes.size() > Math.max(COMPACTION_FACTOR * latest.size(), MINIMUM_COMPACTION_SIZE)) {
+        compact(Long.MIN_VALUE);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Gets the sequence number all changes of this log are covered by. */
+  long currentSequence() {
+    lock.readLock().lock();
+    try {
+      return sequence.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the latest change of each entity changed after the given sequence number to the result,
+   * ordered by the sequence numbers of these changes.
+   * @return the sequence number up to which the result is complete,
+   * or -1 if the changes after the given sequence number are no longer known
+   */
+  long getChangesAfter(final long after, final Collection<Change> result) {
+    lock.readLock().lock();
+    try {
+      if (after < horizon) {
+        return -1;
+      }
+      Map<URI, Change> changed = new LinkedHashMap<URI, Change>();
+      for (int index = firstIndexAfter(after); index < changes.size(); index++) {
+        final Change change = changes.get(index);
+        changed.remove(change.id);
+        changed.put(change.id, change);
+      }
+      result.addAll(changed.values());
+      return sequence.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Removes superseded changes and the deletions recorded up to the given time.
+   * @param expiry time in milliseconds since the epoch; deletions recorded up to it are removed
+   */
+  void compact(final long expiry) {
+    lock.writeLock().lock();
+    try {
+      List<Change> kept = new ArrayList<Change>(latest.size());
+      for (final Change change : changes) {
+        if (latest.get(change.id) != change) {
+          continue;
+        } else if (change.kind == Kind.DELETED && change.time <= expiry) {
+          latest.remove(change.id);
+          horizon = Math.max(horizon, change.sequence);
+        } else {
+          kept.add(change);
+        }
+      }
+      changes = kept;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Gets the number of changes currently in the log. */
+  int size() {
+    lock.readLock().lock();
+    try {
+      return changes.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int firstIndexAfter(final long after) {
+    int low = 0;
+    int high = changes.size();
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (changes.get(middle).sequence <= after) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.delta;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.core.delta.ChangeLog.Change;
+import org.apache.olingo.server.core.delta.ChangeLog.Kind;
+
+/**
+ * Tracks the changes of entity sets so that delta requests can be answered with the entities
+ * created, updated, or deleted since a delta token.
+ * <br/>
+ * The service records each change of an entity through {@link #entityCreated(String, Entity)},
+ * {@link #entityUpdated(String, Entity)}, and {@link #entityDeleted(String, Entity)}; entities are
+ * identified by their ids. A client that requests change tracking (with the preference
+ * <code>odata.track-changes</code>) receives the entity set together with a delta link containing
+ * the token from {@link #getDeltaToken(String)}; a later request for that delta link is answered
+ * with {@link #getChanges(String, String)}, which contains the next delta link.
+ * <br/>
+ * Each entity set has its own append-only change log. The log is compacted automatically when it
+ * is dominated by superseded changes; {@link #compact()} additionally removes deletions older than
+ * the retention time and should be called periodically. Delta tokens issued before a removed
+ * deletion are rejected with status 410 (Gone), as are delta tokens of another tracker instance,
+ * e.g., from before a restart of the service; the client then has to read the entity set again.
+ * <br/>
+ * The tracker keeps references to the recorded entities and returns the most recently recorded
+ * one for each entity; it is safe for concurrent use.
+ */
+public class ChangeTracker {
+
+  private static final long DEFAULT_RETENTION = TimeUnit.DAYS.toMillis(7);
+  private static final char TOKEN_SEPARATOR = '.';
+
+  private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final long retention;
+  private final AtomicLong sequence = new AtomicLong();
+  private final ConcurrentMap<String, ChangeLog> logs = new ConcurrentHashMap<String, ChangeLog>();
+
+  /**
+   * Creates a change tracker that keeps deletions for seven days.
+   */
+  public ChangeTracker() {
+    this(DEFAULT_RETENTION);
+  }
+
+  /**
+   * Creates a change tracker.
+   * @param retention the time in milliseconds deletions are kept by {@link #compact()}
+   */
+  public ChangeTracker(final long retention) {
+    this.retention = retention;
+  }
+
+  /**
+   * Records the creation of an entity.
+   * @param entitySetName the name of the entity set
+   * @param entity the created entity; it must have an id
+   */
+  public void entityCreated(final String entitySetName, final Entity entity) {
+    getLog(entitySetName).append(Kind.CREATED, getId(entity), entity, System.currentTimeMillis());
+  }
+
+  /**
+   * Records the update of an entity.
+   * @param entitySetName the name of the entity set
+   * @param entity the updated entity; it must have an id
+   */
+  public void entityUpdated(final String entitySetName, final Entity entity) {
+    getLog(entitySetName).append(Kind.UPDATED, getId(entity), entity, System.currentTimeMillis());
+  }
+
+  /**
+   * Records the deletion of an entity.
+   * @param entitySetName the name of the entity set
+   * @param entity the deleted entity; it must have an id
+   */
+  public void entityDeleted(final String entitySetName, final Entity entity) {
+    getLog(entitySetName).append(Kind.DELETED, getId(entity), null, System.currentTimeMillis());
+  }
+
+  /**
+   * Gets a delta token for the current state of an entity set.
+   * @param entitySetName the name of the entity set
+   * @return the delta token
+   */
+  public String getDeltaToken(final String entitySetName) {
+    return createToken(getLog(entitySetName).currentSequence());
+  }
+
+  /**
+   * Gets the changes of an entity set since a delta token.
+   * <br/>
+   * The result contains the current state of each entity created or updated since the delta token
+   * and a deleted entity for each entity deleted since the delta token, each entity only once; its
+   * delta link, relative to the service root, contains the delta token for the next delta request.
+   * @param entitySetName the name of the entity set
+   * @param deltaToken the delta token of the previous delta link
+   * @return the changes
+   * @throws ODataApplicationException if the delta token is malformed (400) or no longer valid (410)
+   */
+  public Delta getChanges(final String entitySetName, final String deltaToken) throws ODataApplicationException {
+    final long after = parseToken(deltaToken);
+    List<Change> changes = new ArrayList<Change>();
+    final long current = getLog(entitySetName).getChangesAfter(after, changes);
+    if (current < 0) {
+      throw expired();
+    }
+
+    Delta delta = new Delta();
+    for (final Change change : changes) {
+      if (change.kind == Kind.DELETED) {
+        DeletedEntity deletedEntity = new DeletedEntity();
+        deletedEntity.setId(change.id);
+        deletedEntity.setReason(DeletedEntity.Reason.deleted);
+        delta.getDeletedEntities().add(deletedEntity);
+      } else {
+        delta.getEntities().add(change.entity);
+      }
+    }
+    delta.setDeltaLink(URI.create(entitySetName + '?' + SystemQueryOptionKind.DELTATOKEN + '='
+        + createToken(current)));
+    return delta;
+  }
+
+  /**
+   * Compacts the change logs of all entity sets, removing superseded changes and
+   * deletions older than the retention time.
+   */
+  public void compact() {
+    final long expiry = System.currentTimeMillis() - retention;
+    for (final ChangeLog log : logs.values()) {
+      log.compact(expiry);
+    }
+  }
+
+  private ChangeLog getLog(final String entitySetName) {
+    ChangeLog log = logs.get(entitySetName);
+    if (log == null) {
+      final ChangeLog created = new ChangeLog(sequence);
+      log = logs.putIfAbsent(entitySetName, created);
+      if (log == null) {
+        log = created;
+      }
+    }
+    return log;
+  }
+
+  private URI getId(final Entity entity) {
+    if (entity.getId() == null) {
+      throw new IllegalArgumentException("Changes can be tracked only for entities with an id.");
+    }
+    return entity.getId();
+  }
+
+  private String createToken(final long tokenSequence) {
+    return instance + TOKEN_SEPARATOR + Long.toString(tokenSequence, Character.MAX_RADIX);
+  }
+
+  private long parseToken(final String deltaToken) throws ODataApplicationException {
+    final int separator = deltaToken == null ? -1 : deltaToken.indexOf(TOKEN_SEPARATOR);
+    long tokenSequence = -1;
+    if (separator > 0) {
+      try {
+        tokenSequence = Long.parseLong(deltaToken.substring(separator + 1), Character.MAX_RADIX);
+      } catch (final NumberFormatException e) {
+        tokenSequence = -1;
+      }
+    }
+    if (tokenSequence < 0) {
+      throw new ODataApplicationException("The delta token '" + deltaToken + "' is malformed.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    } else if (!instance.equals(deltaToken.substring(0, separator)) || tokenSequence > sequence.get()) {
+      throw expired();
+    }
+    return tokenSequence;
+  }
+
+  private ODataApplicationException expired() {
+    return new ODataApplicationException("The delta token is no longer valid; read the entity set again.",
+        HttpStatusCode.GONE.getStatusCode(), Locale.ROOT);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.delta;
+
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataTranslatedException;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+
+/**
+ * Optional interface of a {@link ServiceHandler} that tracks the changes of entity sets.
+ * <br/>
+ * Requests for an entity set with the system query option <code>$deltatoken</code> are passed to
+ * {@link #readDelta(DataRequest, String, EntitySetResponse)} instead of
+ * {@link ServiceHandler#read(DataRequest, org.apache.olingo.server.core.responses.ServiceResponse)};
+ * if the handler does not implement this interface, they are answered with status 501 (Not Implemented).
+ * The changes are usually recorded with a {@link ChangeTracker}.
+ */
+public interface DeltaSupport {
+
+  /**
+   * Reads the changes of an entity set since a delta token and writes them with
+   * {@link EntitySetResponse#writeDelta(EdmEntityType, Delta)}.
+   * @param request the request for the entity set
+   * @param deltaToken the delta token of the request
+   * @param response the response
+   * @throws ODataTranslatedException
+   * @throws ODataApplicationException if the delta token is not valid, see {@link ChangeTracker#getChanges}
+   */
+  void readDelta(DataRequest request, String deltaToken, EntitySetResponse response)
+      throws ODataTranslatedException, ODataApplicationException;
+}
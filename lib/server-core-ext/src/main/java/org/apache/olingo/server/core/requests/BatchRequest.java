@@ -43,6 +43,7 @@ import org.apache.olingo.server.core.ServiceDispatcher;
 import org.apache.olingo.server.core.ServiceHandler;
 import org.apache.olingo.server.core.ServiceRequest;
 import org.apache.olingo.server.core.batchhandler.referenceRewriting.BatchReferenceRewriter;
+import org.apache.olingo.server.core.changeset.ChangeSetExecutor;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchRequest extends ServiceRequest {
@@ -55,7 +56,7 @@ public class BatchRequest extends ServiceRequest {
   }
 
   @Override
-  public void execute(ServiceHandler handler, ODataResponse response)
+  public void execute(final ServiceHandler handler, ODataResponse response)
       throws ODataTranslatedException, ODataApplicationException {
 
     if (!allowedMethod()) {
@@ -74,21 +75,36 @@ public class BatchRequest extends ServiceRequest {
 
     ODataResponsePart partResponse = null;
     final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
+    final ChangeSetExecutor changeSets = new ChangeSetExecutor(handler, new ChangeSetExecutor.Processor() {
+      @Override
+      public ODataResponsePart process(BatchRequestPart changeSet) throws BatchDeserializerException {
+        return processChangeSet(changeSet, handler);
+      }
+
+      @Override
+      public ODataResponsePart failed(BatchRequestPart changeSet, Exception e) {
+        ODataRequest partRequest = changeSet.getRequests().get(0);
+        ODataResponse partResponse = new ODataResponse();
+        new ErrorHandler(odata, serviceMetadata, getCustomContentTypeSupport())
+            .handleException(e, partRequest, partResponse);
+        addContentID(partRequest, partResponse);
+        return new ODataResponsePart(partResponse, false);
+      }
+    }, responseParts);
 
     for (BatchRequestPart part : parts) {
       if (part.isChangeSet()) {
-        String txnId = handler.startTransaction();
-        partResponse = processChangeSet(part, handler);
-        if (partResponse.getResponses().get(0).getStatusCode() > 400) {
-          handler.rollback(txnId);
-        }
-        handler.commit(txnId);
+        // change sets may be committed together, see ChangeSetExecutor
+        partResponse = changeSets.execute(part);
       } else {
-        // single request, a static request
+        // single request, a static request; it must see the changes of preceding change sets
+        if (changeSets.flush() && !continueOnError) {
+          break;
+        }
         ODataRequest partRequest = part.getRequests().get(0);
         partResponse = process(partRequest, handler);
+        responseParts.add(partResponse);
       }
-      responseParts.add(partResponse);
 
       // on error, should we continue?
       final int statusCode = partResponse.getResponses().get(0).getStatusCode();
@@ -96,6 +112,7 @@ public class BatchRequest extends ServiceRequest {
         break;
       }
     }
+    changeSets.flush();
 
     // send response
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
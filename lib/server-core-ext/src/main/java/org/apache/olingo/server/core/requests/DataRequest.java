@@ -25,6 +25,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.data.ContextURL;
@@ -43,6 +44,7 @@ import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.format.ODataFormat;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmStream;
 import org.apache.olingo.server.api.OData;
@@ -73,6 +75,7 @@ import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ReturnRepresentation;
 import org.apache.olingo.server.core.ServiceHandler;
 import org.apache.olingo.server.core.ServiceRequest;
+import org.apache.olingo.server.core.delta.DeltaSupport;
 import org.apache.olingo.server.core.responses.CountResponse;
 import org.apache.olingo.server.core.responses.EntityResponse;
 import org.apache.olingo.server.core.responses.EntitySetResponse;
@@ -139,6 +142,11 @@ public class DataRequest extends ServiceRequest {
     return this.uriResourceEntitySet.getEntitySet();
   }
 
+  /** @return whether the request asks for the changes of an entity set since a delta token */
+  public boolean isDeltaRequest() {
+    return isCollection() && this.uriInfo.getDeltaTokenOption() != null;
+  }
+
   public boolean isCountRequest() {
     return countRequest;
   }
@@ -291,7 +299,14 @@ public class DataRequest extends ServiceRequest {
           getContextURL(odata), false, response);
 
       if (isGET()) {
-        if (isCollection()) {
+        if (isDeltaRequest()) {
+          if (!(handler instanceof DeltaSupport)) {
+            throw new ODataApplicationException("Delta requests are not supported.",
+                HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+          }
+          ((DeltaSupport) handler).readDelta(DataRequest.this, uriInfo.getDeltaTokenOption().getValue(),
+              EntitySetResponse.getInstance(DataRequest.this, getContextURL(odata), false, response));
+        } else if (isCollection()) {
           handler.read(DataRequest.this,
               EntitySetResponse.getInstance(DataRequest.this, getContextURL(odata), false, response));
         } else {
@@ -688,7 +703,8 @@ public class DataRequest extends ServiceRequest {
 
     @Override
     public ContextURL getContextURL(OData odata) throws SerializerException {
-      ContextURL.Builder builder = ContextURL.with().asCollection();
+      // each combination is an instance of a complex type with one property per entity set
+      ContextURL.Builder builder = ContextURL.with().asCollection().entitySetOrSingletonOrType("Edm.ComplexType");
       return builder.build();
     }
   }
@@ -21,6 +21,7 @@ package org.apache.olingo.server.core.responses;
 import java.util.Map;
 
 import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Delta;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -29,6 +30,7 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ODataTranslatedException;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.DeltaSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
@@ -38,14 +40,16 @@ import org.apache.olingo.server.core.ServiceRequest;
 public class EntitySetResponse extends ServiceResponse {
   private final ODataSerializer serializer;
   private final EntityCollectionSerializerOptions options;
+  private final DeltaSerializerOptions deltaOptions;
   private final ContentType responseContentType;
 
   private EntitySetResponse(ServiceMetadata metadata, ODataResponse response, ODataSerializer serializer,
-      EntityCollectionSerializerOptions options,
+      EntityCollectionSerializerOptions options, DeltaSerializerOptions deltaOptions,
       ContentType responseContentType, Map<String, String> preferences) {
     super(metadata, response, preferences);
     this.serializer = serializer;
     this.options = options;
+    this.deltaOptions = deltaOptions;
     this.responseContentType = responseContentType;
   }
 
@@ -53,7 +57,10 @@ public class EntitySetResponse extends ServiceResponse {
       boolean referencesOnly, ODataResponse response) throws ContentNegotiatorException, SerializerException {
     EntityCollectionSerializerOptions options = request.getSerializerOptions(
         EntityCollectionSerializerOptions.class, contextURL, referencesOnly);
+    DeltaSerializerOptions deltaOptions = request.getSerializerOptions(
+        DeltaSerializerOptions.class, contextURL, referencesOnly);
     return new EntitySetResponse(request.getServiceMetaData(),response, request.getSerializer(), options,
+        deltaOptions,
         request.getResponseContentType(), request.getPreferences());
   }
 
@@ -76,6 +83,22 @@ public class EntitySetResponse extends ServiceResponse {
     close();
   }
 
+  // write the changes of the entity set since a delta token
+  public void writeDelta(EdmEntityType entityType, Delta delta) throws SerializerException {
+
+    assert (!isClosed());
+
+    if (delta == null) {
+      writeNotFound(true);
+      return;
+    }
+
+    this.response.setContent(this.serializer.delta(metadata, entityType, delta, this.deltaOptions)
+                                            .getContent());
+    writeOK(this.responseContentType.toContentTypeString());
+    close();
+  }
+
   @Override
   public void accepts(ServiceResponseVisior visitor) throws ODataTranslatedException,
       ODataApplicationException {
@@ -67,4 +67,9 @@ public class ServiceResponseVisior {
       ODataApplicationException {
     response.writeServerError(true);
   }
+
+  public void visit(CrossJoinResponse response) throws ODataTranslatedException,
+      ODataApplicationException {
+    response.writeServerError(true);
+  }
 }
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataTranslatedException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.requests.ActionRequest;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.requests.FunctionRequest;
+import org.apache.olingo.server.core.requests.MediaRequest;
+import org.apache.olingo.server.core.requests.MetadataRequest;
+import org.apache.olingo.server.core.requests.ServiceDocumentRequest;
+import org.apache.olingo.server.core.responses.CountResponse;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+import org.apache.olingo.server.core.responses.MetadataResponse;
+import org.apache.olingo.server.core.responses.NoContentResponse;
+import org.apache.olingo.server.core.responses.PrimitiveValueResponse;
+import org.apache.olingo.server.core.responses.PropertyResponse;
+import org.apache.olingo.server.core.responses.ServiceDocumentResponse;
+import org.apache.olingo.server.core.responses.ServiceResponse;
+import org.apache.olingo.server.core.responses.ServiceResponseVisior;
+import org.apache.olingo.server.core.responses.StreamResponse;
+
+/**
+ * Generic service handler reading entity sets from tables of a relational database through JDBC.
+ * <br/>
+ * Requests on entity sets, on single entities, on their primitive properties, and on counts are translated
+ * by a {@link SqlTranslator}, so that filtering, ordering, and paging are done by the database and only
+ * the requested rows and columns are loaded.
+ * Navigation, singletons, operations, media, and modifying requests are answered with
+ * "501 Not Implemented"; subclasses can implement them by overriding the corresponding methods.
+ */
+public class JdbcServiceHandler implements ServiceHandler {
+
+  private final DataSource dataSource;
+  private final SqlTranslator translator;
+  private OData odata;
+
+  public JdbcServiceHandler(final DataSource dataSource, final SqlDialect dialect, final SqlMapping mapping) {
+    this.dataSource = dataSource;
+    translator = new SqlTranslator(dialect, mapping);
+  }
+
+  @Override
+  public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+    this.odata = odata;
+  }
+
+  @Override
+  public void readMetadata(final MetadataRequest request, final MetadataResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    response.writeMetadata();
+  }
+
+  @Override
+  public void readServiceDocument(final ServiceDocumentRequest request, final ServiceDocumentResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    response.writeServiceDocument(request.getODataRequest().getRawBaseUri());
+  }
+
+  @Override
+  public <T extends ServiceResponse> void read(final DataRequest request, final T response)
+      throws ODataTranslatedException, ODataApplicationException {
+    final EdmEntitySet entitySet = request.getEntitySet();
+    if (request.isSingleton() || entitySet == null || !request.getNavigations().isEmpty()) {
+      throw notImplemented();
+    }
+    final EdmEntityType entityType = entitySet.getEntityType();
+    final UriInfoResource uriInfo = request.getUriInfo();
+    final List<UriParameter> keys = request.getKeyPredicates();
+
+    response.accepts(new ServiceResponseVisior() {
+      @Override
+      public void visit(final CountResponse response) throws ODataTranslatedException, ODataApplicationException {
+        response.writeCount(count(translator.count(entitySet, null, uriInfo)));
+      }
+
+      @Override
+      public void visit(final EntitySetResponse response)
+          throws ODataTranslatedException, ODataApplicationException {
+        EntityCollection entities = new EntityCollection();
+        entities.getEntities().addAll(readEntities(entitySet, translator.select(entitySet, null, uriInfo),
+            uriInfo));
+        if (uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue()) {
+          entities.setCount(count(translator.count(entitySet, null, uriInfo)));
+        }
+        response.writeReadEntitySet(entityType, entities);
+      }
+
+      @Override
+      public void visit(final EntityResponse response) throws ODataTranslatedException, ODataApplicationException {
+        final Entity entity = readEntity();
+        if (entity == null) {
+          response.writeNotFound(true);
+        } else {
+          response.writeReadEntity(entityType, entity);
+        }
+      }
+
+      @Override
+      public void visit(final PropertyResponse response)
+          throws ODataTranslatedException, ODataApplicationException {
+        final Property property = readProperty();
+        if (property == null) {
+          response.writeNotFound(true);
+        } else {
+          response.writeProperty(request.getUriResourceProperty().getProperty().getType(), property);
+        }
+      }
+
+      @Override
+      public void visit(final PrimitiveValueResponse response)
+          throws ODataTranslatedException, ODataApplicationException {
+        final Property property = readProperty();
+        if (property == null) {
+          response.writeNotFound(true);
+        } else {
+          response.write(property.getValue());
+        }
+      }
+
+      private Entity readEntity() throws ODataTranslatedException, ODataApplicationException {
+        final List<Entity> entities = readEntities(entitySet, translator.select(entitySet, keys, uriInfo), uriInfo);
+        return entities.isEmpty() ? null : entities.get(0);
+      }
+
+      private Property readProperty() throws ODataTranslatedException, ODataApplicationException {
+        final EdmProperty edmProperty = request.getUriResourceProperty().getProperty();
+        if (!edmProperty.isPrimitive() || edmProperty.isCollection()) {
+          throw notImplemented();
+        }
+        final Entity entity = readEntity();
+        return entity == null ? null : entity.getProperty(edmProperty.getName());
+      }
+    });
+  }
+
+  /** Executes the query and creates an entity from every row. */
+  protected List<Entity> readEntities(final EdmEntitySet entitySet, final SqlQuery query,
+      final UriInfoResource uriInfo) throws ODataTranslatedException, ODataApplicationException {
+    final EdmEntityType entityType = entitySet.getEntityType();
+    final String typeName = entityType.getFullQualifiedName().getFullQualifiedNameAsString();
+    final List<EdmProperty> properties = translator.getColumnProperties(entityType, uriInfo.getSelectOption());
+    List<Entity> entities = new ArrayList<Entity>();
+    try {
+      final Connection connection = dataSource.getConnection();
+      try {
+        final PreparedStatement statement = query.prepare(connection);
+        try {
+          final ResultSet resultSet = statement.executeQuery();
+          while (resultSet.next()) {
+            Entity entity = new Entity();
+            entity.setType(typeName);
+            for (int i = 0; i < properties.size(); i++) {
+              final EdmProperty property = properties.get(i);
+              final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+              entity.addProperty(new Property(type.getFullQualifiedName().getFullQualifiedNameAsString(),
+                  property.getName(), ValueType.PRIMITIVE, SqlTypes.readValue(resultSet, i + 1, type)));
+            }
+            entity.setId(URI.create(odata.createUriHelper().buildCanonicalURL(entitySet, entity)));
+            entities.add(entity);
+          }
+          resultSet.close();
+        } finally {
+          statement.close();
+        }
+      } finally {
+        connection.close();
+      }
+    } catch (final SQLException e) {
+      throw databaseError(e);
+    }
+    return entities;
+  }
+
+  /** Executes a query returning a single number. */
+  protected int count(final SqlQuery query) throws ODataApplicationException {
+    try {
+      final Connection connection = dataSource.getConnection();
+      try {
+        final PreparedStatement statement = query.prepare(connection);
+        try {
+          final ResultSet resultSet = statement.executeQuery();
+          final int count = resultSet.next() ? resultSet.getInt(1) : 0;
+          resultSet.close();
+          return count;
+        } finally {
+          statement.close();
+        }
+      } finally {
+        connection.close();
+      }
+    } catch (final SQLException e) {
+      throw databaseError(e);
+    }
+  }
+
+  @Override
+  public void createEntity(final DataRequest request, final Entity entity, final EntityResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void updateEntity(final DataRequest request, final Entity entity, final boolean merge,
+      final String entityETag, final EntityResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void deleteEntity(final DataRequest request, final String entityETag, final EntityResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void updateProperty(final DataRequest request, final Property property, final boolean merge,
+      final String entityETag, final PropertyResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void upsertStreamProperty(final DataRequest request, final String entityETag,
+      final InputStream streamContent, final NoContentResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(final FunctionRequest request, final HttpMethod method,
+      final T response) throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public <T extends ServiceResponse> void invoke(final ActionRequest request, final String eTag, final T response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void readMediaStream(final MediaRequest request, final StreamResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void upsertMediaStream(final MediaRequest request, final String entityETag,
+      final InputStream mediaContent, final NoContentResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void anyUnsupported(final ODataRequest request, final ODataResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void addReference(final DataRequest request, final String entityETag, final URI referenceId,
+      final NoContentResponse response) throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void updateReference(final DataRequest request, final String entityETag, final URI referenceId,
+      final NoContentResponse response) throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public void deleteReference(final DataRequest request, final URI deleteId, final String entityETag,
+      final NoContentResponse response) throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  @Override
+  public String startTransaction() {
+    return null;
+  }
+
+  @Override
+  public void commit(final String txnId) {
+  }
+
+  @Override
+  public void rollback(final String txnId) {
+  }
+
+  @Override
+  public void crossJoin(final DataRequest dataRequest, final List<String> entitySetNames,
+      final ODataResponse response) throws ODataTranslatedException, ODataApplicationException {
+    throw notImplemented();
+  }
+
+  protected ODataApplicationException notImplemented() {
+    return new ODataApplicationException("Not supported by the JDBC service handler.",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  private ODataApplicationException databaseError(final SQLException e) {
+    return new ODataApplicationException("Database access failed.",
+        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.util.List;
+
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+
+/**
+ * Renders the parts of SQL statements that differ between database systems.
+ * <br/>
+ * The default implementation produces ANSI SQL:2008, using <code>OFFSET ... FETCH</code> for paging;
+ * {@link #LIMIT_OFFSET} uses <code>LIMIT ... OFFSET</code> instead.
+ * Other database systems can be supported by overriding the methods of this class.
+ */
+public class SqlDialect {
+
+  /** ANSI SQL:2008, as understood for example by Derby, H2, Oracle 12c, and PostgreSQL. */
+  public static final SqlDialect ANSI = new SqlDialect();
+
+  /** Paging with <code>LIMIT ... OFFSET</code>, as understood for example by H2, HSQLDB, PostgreSQL, and SQLite. */
+  public static final SqlDialect LIMIT_OFFSET = new SqlDialect() {
+    @Override
+    public void appendPaging(final StringBuilder sql, final Integer skip, final Integer top) {
+      if (top != null) {
+        sql.append(" LIMIT ").append(top.intValue());
+      }
+      if (skip != null) {
+        sql.append(" OFFSET ").append(skip.intValue());
+      }
+    }
+  };
+
+  /** @return the identifier as delimited identifier */
+  public String quote(final String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * Appends the clauses restricting the result to a range of rows.
+   * @param skip the number of rows to skip, or <code>null</code>
+   * @param top the maximum number of rows to return, or <code>null</code>
+   */
+  public void appendPaging(final StringBuilder sql, final Integer skip, final Integer top) {
+    if (skip != null) {
+      sql.append(" OFFSET ").append(skip.intValue()).append(" ROWS");
+    }
+    if (top != null) {
+      sql.append(" FETCH FIRST ").append(top.intValue()).append(" ROWS ONLY");
+    }
+  }
+
+  /** @return the remainder of the integer division of the operands */
+  public String modulo(final String left, final String right) {
+    return "MOD(" + left + ", " + right + ")";
+  }
+
+  /**
+   * Renders a call of an OData method; <code>contains</code>, <code>startswith</code>, and <code>endswith</code>
+   * are only rendered with this method if the search string is not a literal.
+   * @param method the OData method
+   * @param parameters the rendered parameters of the method call
+   * @return the SQL expression or <code>null</code> if the method is not supported
+   */
+  public String method(final MethodKind method, final List<String> parameters) {
+    final String first = parameters.isEmpty() ? null : parameters.get(0);
+    final String second = parameters.size() < 2 ? null : parameters.get(1);
+    switch (method) {
+    case CONTAINS:
+      return "(POSITION(" + second + " IN " + first + ") > 0)";
+    case STARTSWITH:
+      return "(POSITION(" + second + " IN " + first + ") = 1)";
+    case ENDSWITH:
+      return "(SUBSTRING(" + first + " FROM CHAR_LENGTH(" + first + ") - CHAR_LENGTH(" + second + ") + 1) = "
+          + second + ")";
+    case LENGTH:
+      return "CHAR_LENGTH(" + first + ")";
+    case INDEXOF:
+      return "(POSITION(" + second + " IN " + first + ") - 1)";
+    case SUBSTRING:
+      return "SUBSTRING(" + first + " FROM " + second + " + 1"
+          + (parameters.size() > 2 ? " FOR " + parameters.get(2) : "") + ")";
+    case TOLOWER:
+      return "LOWER(" + first + ")";
+    case TOUPPER:
+      return "UPPER(" + first + ")";
+    case TRIM:
+      return "TRIM(" + first + ")";
+    case CONCAT:
+      return "(" + first + " || " + second + ")";
+    case YEAR:
+    case MONTH:
+    case DAY:
+    case HOUR:
+    case MINUTE:
+    case SECOND:
+      return "EXTRACT(" + method.name() + " FROM " + first + ")";
+    case NOW:
+      return "CURRENT_TIMESTAMP";
+    case ROUND:
+      return "ROUND(" + first + ")";
+    case FLOOR:
+      return "FLOOR(" + first + ")";
+    case CEILING:
+      return "CEILING(" + first + ")";
+    default:
+      return null;
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Renders a $filter or $orderby expression as SQL expression.
+ * <br/>
+ * Literals become statement parameters which are collected in the list given to the constructor,
+ * in the order of their placeholders. Only primitive properties of the entity type itself
+ * can be used; navigation, lambda expressions, aliases, and enumerations are not supported.
+ */
+public class SqlExpressionVisitor implements ExpressionVisitor<String> {
+
+  private static final String NULL = "NULL";
+  private static final String PARAMETER = "?";
+  private static final char LIKE_ESCAPE = '!';
+  private static final String MARKER = "\u0000";
+
+  /** Types tried in this order to determine the type of a literal. */
+  private static final EdmPrimitiveTypeKind[] LITERAL_TYPES = new EdmPrimitiveTypeKind[] {
+      EdmPrimitiveTypeKind.String, EdmPrimitiveTypeKind.Boolean,
+      EdmPrimitiveTypeKind.DateTimeOffset, EdmPrimitiveTypeKind.Date, EdmPrimitiveTypeKind.TimeOfDay,
+      EdmPrimitiveTypeKind.Guid, EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Decimal,
+      EdmPrimitiveTypeKind.Double };
+
+  private final SqlDialect dialect;
+  private final SqlMapping mapping;
+  private final EdmEntityType entityType;
+  private final List<Object> parameters;
+
+  /**
+   * @param entityType the entity type the members of the expression belong to
+   * @param parameters the list the values of the statement parameters are added to
+   */
+  public SqlExpressionVisitor(final SqlDialect dialect, final SqlMapping mapping, final EdmEntityType entityType,
+      final List<Object> parameters) {
+    this.dialect = dialect;
+    this.mapping = mapping;
+    this.entityType = entityType;
+    this.parameters = parameters;
+  }
+
+  @Override
+  public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final String right)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case EQ:
+      return NULL.equals(right) ? "(" + left + " IS NULL)" :
+          NULL.equals(left) ? "(" + right + " IS NULL)" :
+              "(" + left + " = " + right + ")";
+    case NE:
+      return NULL.equals(right) ? "(" + left + " IS NOT NULL)" :
+          NULL.equals(left) ? "(" + right + " IS NOT NULL)" :
+              "(" + left + " <> " + right + ")";
+    case GT:
+      return "(" + left + " > " + right + ")";
+    case GE:
+      return "(" + left + " >= " + right + ")";
+    case LT:
+      return "(" + left + " < " + right + ")";
+    case LE:
+      return "(" + left + " <= " + right + ")";
+    case AND:
+      return "(" + left + " AND " + right + ")";
+    case OR:
+      return "(" + left + " OR " + right + ")";
+    case ADD:
+      return "(" + left + " + " + right + ")";
+    case SUB:
+      return "(" + left + " - " + right + ")";
+    case MUL:
+      return "(" + left + " * " + right + ")";
+    case DIV:
+      return "(" + left + " / " + right + ")";
+    case MOD:
+      return dialect.modulo(left, right);
+    default:
+      throw notSupported("Operator " + operator);
+    }
+  }
+
+  @Override
+  public String visitUnaryOperator(final UnaryOperatorKind operator, final String operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    return operator == UnaryOperatorKind.NOT ? "(NOT " + operand + ")" : "(-" + operand + ")";
+  }
+
+  @Override
+  public String visitMethodCall(final MethodKind methodCall, final List<String> parameterList)
+      throws ExpressionVisitException, ODataApplicationException {
+    if ((methodCall == MethodKind.CONTAINS || methodCall == MethodKind.STARTSWITH
+        || methodCall == MethodKind.ENDSWITH)
+        && PARAMETER.equals(parameterList.get(1))
+        && parameters.get(parameters.size() - 1) instanceof String) {
+      // The search string is the last parameter added; it is turned into a pattern
+      // so that the database can use an index for a prefix search.
+      final String pattern = escapeLike((String) parameters.get(parameters.size() - 1));
+      parameters.set(parameters.size() - 1,
+          methodCall == MethodKind.CONTAINS ? '%' + pattern + '%' :
+              methodCall == MethodKind.STARTSWITH ? pattern + '%' :
+                  '%' + pattern);
+      return "(" + parameterList.get(0) + " LIKE ? ESCAPE '" + LIKE_ESCAPE + "')";
+    }
+    return renderMethod(methodCall, parameterList);
+  }
+
+  /**
+   * Renders a method call with the dialect. The dialect may use an operand more than once, e.g.,
+   * for <code>endswith</code>, or not at all; so operands with statement parameters are given to it
+   * as markers, and the parameters are added again in the order their operands occur in the result.
+   */
+  private String renderMethod(final MethodKind methodCall, final List<String> operands)
+      throws ODataApplicationException {
+    // The operands have been visited from left to right, so their parameters are the last ones in this order.
+    final List<List<Object>> operandParameters = new ArrayList<List<Object>>(operands.size());
+    int start = parameters.size();
+    for (int i = operands.size() - 1; i >= 0; i--) {
+      final int end = start;
+      start -= countParameters(operands.get(i));
+      operandParameters.add(0, new ArrayList<Object>(parameters.subList(start, end)));
+    }
+    parameters.subList(start, parameters.size()).clear();
+
+    final List<String> markedOperands = new ArrayList<String>(operands.size());
+    for (int i = 0; i < operands.size(); i++) {
+      markedOperands.add(operandParameters.get(i).isEmpty() ? operands.get(i) : MARKER + i + MARKER);
+    }
+    final String result = dialect.method(methodCall, markedOperands);
+    if (result == null) {
+      throw notSupported("Method " + methodCall);
+    }
+
+    StringBuilder sql = new StringBuilder(result.length());
+    int position = 0;
+    int markerStart;
+    while ((markerStart = result.indexOf(MARKER, position)) >= 0) {
+      final int markerEnd = result.indexOf(MARKER, markerStart + 1);
+      final int operand = Integer.parseInt(result.substring(markerStart + 1, markerEnd));
+      sql.append(result, position, markerStart).append(operands.get(operand));
+      parameters.addAll(operandParameters.get(operand));
+      position = markerEnd + 1;
+    }
+    return sql.append(result, position, result.length()).toString();
+  }
+
+  /** @return the number of parameter placeholders in the SQL expression, outside of quoted text */
+  private static int countParameters(final String sql) {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        quote = c == quote ? 0 : quote;
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public String visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Lambda expressions are");
+  }
+
+  @Override
+  public String visitLiteral(final String literal) throws ExpressionVisitException, ODataApplicationException {
+    if (NULL.equalsIgnoreCase(literal)) {
+      return NULL;
+    }
+    for (final EdmPrimitiveTypeKind kind : LITERAL_TYPES) {
+      try {
+        parameters.add(SqlTypes.valueOfLiteral(EdmPrimitiveTypeFactory.getInstance(kind), literal, null));
+        return PARAMETER;
+      } catch (final EdmPrimitiveTypeException e) {
+        // Try the next type.
+      }
+    }
+    throw notSupported("Literal " + literal);
+  }
+
+  @Override
+  public String visitMember(final UriInfoResource member) throws ExpressionVisitException, ODataApplicationException {
+    final List<UriResource> parts = member.getUriResourceParts();
+    if (parts.size() == 1 && parts.get(0) instanceof UriResourcePrimitiveProperty) {
+      final EdmProperty property = ((UriResourcePrimitiveProperty) parts.get(0)).getProperty();
+      if (property.isPrimitive() && !property.isCollection()
+          && SqlTypes.isSupported((EdmPrimitiveType) property.getType())) {
+        return dialect.quote(mapping.getColumnName(entityType, property));
+      }
+    }
+    throw notSupported("Member " + member.getUriResourceParts());
+  }
+
+  @Override
+  public String visitAlias(final String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Aliases are");
+  }
+
+  @Override
+  public String visitTypeLiteral(final EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Type literals are");
+  }
+
+  @Override
+  public String visitLambdaReference(final String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Lambda expressions are");
+  }
+
+  @Override
+  public String visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    throw notSupported("Enumerations are");
+  }
+
+  private static String escapeLike(final String value) {
+    StringBuilder result = new StringBuilder(value.length() + 2);
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        result.append(LIKE_ESCAPE);
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+
+  private static ODataApplicationException notSupported(final String what) {
+    return new ODataApplicationException(what + " not supported in SQL translation.",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+}
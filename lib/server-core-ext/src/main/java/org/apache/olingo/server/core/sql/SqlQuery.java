@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** A SQL statement with the values of its parameters. */
+public class SqlQuery {
+
+  private final String sql;
+  private final List<Object> parameters;
+
+  public SqlQuery(final String sql, final List<Object> parameters) {
+    this.sql = sql;
+    this.parameters = Collections.unmodifiableList(new ArrayList<Object>(parameters));
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  /** Prepares the statement and binds all parameters; the caller has to close the statement. */
+  public PreparedStatement prepare(final Connection connection) throws SQLException {
+    final PreparedStatement statement = connection.prepareStatement(sql);
+    try {
+      for (int i = 0; i < parameters.size(); i++) {
+        statement.setObject(i + 1, parameters.get(i));
+      }
+    } catch (final SQLException e) {
+      statement.close();
+      throw e;
+    }
+    return statement;
+  }
+
+  @Override
+  public String toString() {
+    return sql + " " + parameters;
+  }
+}
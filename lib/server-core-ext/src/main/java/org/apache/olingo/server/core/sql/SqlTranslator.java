@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+
+/**
+ * Translates the resource path and the system query options of a request on an entity set
+ * into parameterized SQL queries on the table of the entity set.
+ * <br/>
+ * Key predicates and $filter become the <code>WHERE</code> clause, $orderby the <code>ORDER BY</code> clause,
+ * $select the column list, and $skip and $top the paging clauses of the dialect.
+ * If the result is ordered or paged, the key columns are appended to the <code>ORDER BY</code> clause
+ * so that the order and therefore the pages are deterministic.
+ * Only primitive, non-collection properties are mapped to columns.
+ */
+public class SqlTranslator {
+
+  private final SqlDialect dialect;
+  private final SqlMapping mapping;
+
+  public SqlTranslator(final SqlDialect dialect, final SqlMapping mapping) {
+    this.dialect = dialect;
+    this.mapping = mapping;
+  }
+
+  /**
+   * Creates the query reading entities.
+   * @param keys the key predicates selecting a single entity, or <code>null</code>
+   * @param uriInfo the system query options, or <code>null</code>
+   */
+  public SqlQuery select(final EdmEntitySet entitySet, final List<UriParameter> keys, final UriInfoResource uriInfo)
+      throws ODataApplicationException {
+    final EdmEntityType entityType = entitySet.getEntityType();
+    List<Object> parameters = new ArrayList<Object>();
+    StringBuilder sql = new StringBuilder("SELECT ");
+    boolean first = true;
+    for (final EdmProperty property : getColumnProperties(entityType,
+        uriInfo == null ? null : uriInfo.getSelectOption())) {
+      sql.append(first ? "" : ", ").append(column(entityType, property));
+      first = false;
+    }
+    sql.append(" FROM ").append(dialect.quote(mapping.getTableName(entitySet)));
+    appendWhere(sql, entitySet, keys, uriInfo, parameters);
+
+    if (uriInfo != null && (keys == null || keys.isEmpty())) {
+      final Integer skip = uriInfo.getSkipOption() == null ? null : uriInfo.getSkipOption().getValue();
+      final Integer top = uriInfo.getTopOption() == null ? null : uriInfo.getTopOption().getValue();
+      List<String> orderBy = new ArrayList<String>();
+      if (uriInfo.getOrderByOption() != null) {
+        for (final OrderByItem item : uriInfo.getOrderByOption().getOrders()) {
+          orderBy.add(translate(item.getExpression(), entityType, parameters)
+              + (item.isDescending() ? " DESC" : ""));
+        }
+      }
+      if (!orderBy.isEmpty() || skip != null || top != null) {
+        for (final String keyName : entityType.getKeyPredicateNames()) {
+          final String keyColumn = column(entityType, entityType.getStructuralProperty(keyName));
+          if (!orderBy.contains(keyColumn) && !orderBy.contains(keyColumn + " DESC")) {
+            orderBy.add(keyColumn);
+          }
+        }
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < orderBy.size(); i++) {
+          sql.append(i == 0 ? "" : ", ").append(orderBy.get(i));
+        }
+        dialect.appendPaging(sql, skip, top);
+      }
+    }
+    return new SqlQuery(sql.toString(), parameters);
+  }
+
+  /**
+   * Creates the query counting the entities matching the key predicates and the $filter option.
+   * @param keys the key predicates, or <code>null</code>
+   * @param uriInfo the system query options, or <code>null</code>
+   */
+  public SqlQuery count(final EdmEntitySet entitySet, final List<UriParameter> keys, final UriInfoResource uriInfo)
+      throws ODataApplicationException {
+    List<Object> parameters = new ArrayList<Object>();
+    StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ")
+        .append(dialect.quote(mapping.getTableName(entitySet)));
+    appendWhere(sql, entitySet, keys, uriInfo, parameters);
+    return new SqlQuery(sql.toString(), parameters);
+  }
+
+  /**
+   * Determines the properties read from the database: the key properties followed by
+   * the selected properties, or by all properties that can be stored in columns.
+   */
+  public List<EdmProperty> getColumnProperties(final EdmEntityType entityType, final SelectOption select)
+      throws ODataApplicationException {
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (final String keyName : entityType.getKeyPredicateNames()) {
+      properties.add(entityType.getStructuralProperty(keyName));
+    }
+    boolean all = select == null;
+    List<EdmProperty> selected = new ArrayList<EdmProperty>();
+    if (select != null) {
+      for (final SelectItem item : select.getSelectItems()) {
+        if (item.isStar()) {
+          all = true;
+        } else if (!item.isAllOperationsInSchema()) {
+          final List<UriResource> parts = item.getResourcePath().getUriResourceParts();
+          if (parts.size() != 1 || !(parts.get(0) instanceof UriResourcePrimitiveProperty)
+              || !isColumn(((UriResourcePrimitiveProperty) parts.get(0)).getProperty())) {
+            throw new ODataApplicationException("Only primitive properties can be selected.",
+                HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+          }
+          selected.add(((UriResourcePrimitiveProperty) parts.get(0)).getProperty());
+        }
+      }
+    }
+    for (final String name : entityType.getPropertyNames()) {
+      final EdmProperty property = entityType.getStructuralProperty(name);
+      if (!properties.contains(property) && isColumn(property) && (all || selected.contains(property))) {
+        properties.add(property);
+      }
+    }
+    return properties;
+  }
+
+  private void appendWhere(final StringBuilder sql, final EdmEntitySet entitySet, final List<UriParameter> keys,
+      final UriInfoResource uriInfo, final List<Object> parameters) throws ODataApplicationException {
+    final EdmEntityType entityType = entitySet.getEntityType();
+    List<String> conditions = new ArrayList<String>();
+    if (keys != null) {
+      for (final UriParameter key : keys) {
+        final EdmProperty property = entityType.getStructuralProperty(key.getName());
+        if (key.getText() == null) {
+          throw new ODataApplicationException("Only literal key values are supported.",
+              HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+        }
+        try {
+          parameters.add(SqlTypes.valueOfLiteral((EdmPrimitiveType) property.getType(), key.getText(), property));
+        } catch (final EdmPrimitiveTypeException e) {
+          throw new ODataApplicationException("Wrong key value.",
+              HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+        }
+        conditions.add(column(entityType, property) + " = ?");
+      }
+    }
+    if (uriInfo != null && uriInfo.getFilterOption() != null) {
+      conditions.add(translate(uriInfo.getFilterOption().getExpression(), entityType, parameters));
+    }
+    for (int i = 0; i < conditions.size(); i++) {
+      sql.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+    }
+  }
+
+  private String translate(final Expression expression, final EdmEntityType entityType,
+      final List<Object> parameters) throws ODataApplicationException {
+    try {
+      return expression.accept(new SqlExpressionVisitor(dialect, mapping, entityType, parameters));
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Expression cannot be translated.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  private String column(final EdmEntityType entityType, final EdmProperty property) {
+    return dialect.quote(mapping.getColumnName(entityType, property));
+  }
+
+  private boolean isColumn(final EdmProperty property) {
+    return property.isPrimitive() && !property.isCollection()
+        && SqlTypes.isSupported((EdmPrimitiveType) property.getType());
+  }
+}
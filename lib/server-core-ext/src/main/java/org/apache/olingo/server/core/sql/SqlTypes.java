@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+
+/**
+ * Conversion between the Java values of OData primitive types and the values exchanged with JDBC.
+ * <br/>
+ * Dates and times of day are local values in JDBC but values in GMT in OData,
+ * so their fields are copied instead of their milliseconds.
+ */
+public final class SqlTypes {
+
+  private SqlTypes() {}
+
+  /** @return whether values of the type can be stored in a column */
+  public static boolean isSupported(final EdmPrimitiveType type) {
+    final EdmPrimitiveTypeKind kind = kindOf(type);
+    return kind != null && kind != EdmPrimitiveTypeKind.Stream && !kind.isGeospatial();
+  }
+
+  /**
+   * Converts a literal as used in URIs into the value of a statement parameter.
+   * @param property the property compared with the literal, used for its facets, or <code>null</code>
+   */
+  public static Object valueOfLiteral(final EdmPrimitiveType type, final String literal, final EdmProperty property)
+      throws EdmPrimitiveTypeException {
+    final EdmPrimitiveTypeKind kind = kindOf(type);
+    final Class<?> returnType = kind == EdmPrimitiveTypeKind.Date || kind == EdmPrimitiveTypeKind.TimeOfDay ?
+        Calendar.class : type.getDefaultType();
+    final Object value = property == null ?
+        type.valueOfString(type.fromUriLiteral(literal), null, null, null, null, null, returnType) :
+        type.valueOfString(type.fromUriLiteral(literal), property.isNullable(), property.getMaxLength(),
+            property.getPrecision(), property.getScale(), property.isUnicode(), returnType);
+    if (kind == EdmPrimitiveTypeKind.Date) {
+      return new java.sql.Date(convert((Calendar) value, Calendar.getInstance()).getTimeInMillis());
+    } else if (kind == EdmPrimitiveTypeKind.TimeOfDay) {
+      return new java.sql.Time(convert((Calendar) value, Calendar.getInstance()).getTimeInMillis());
+    } else {
+      return value;
+    }
+  }
+
+  /** Reads a column value of the current row and converts it into a value of the given type. */
+  public static Object readValue(final ResultSet resultSet, final int column, final EdmPrimitiveType type)
+      throws SQLException {
+    Object value;
+    switch (kindOf(type)) {
+    case Boolean:
+      value = resultSet.getBoolean(column);
+      break;
+    case SByte:
+      value = resultSet.getByte(column);
+      break;
+    case Byte:
+    case Int16:
+      value = resultSet.getShort(column);
+      break;
+    case Int32:
+      value = resultSet.getInt(column);
+      break;
+    case Int64:
+      value = resultSet.getLong(column);
+      break;
+    case Single:
+      value = resultSet.getFloat(column);
+      break;
+    case Double:
+      value = resultSet.getDouble(column);
+      break;
+    case Decimal:
+    case Duration:
+      value = resultSet.getBigDecimal(column);
+      break;
+    case Binary:
+      value = resultSet.getBytes(column);
+      break;
+    case DateTimeOffset:
+      value = resultSet.getTimestamp(column);
+      break;
+    case Date:
+      final java.sql.Date date = resultSet.getDate(column);
+      value = date == null ? null : toGmt(date);
+      break;
+    case TimeOfDay:
+      final java.sql.Time time = resultSet.getTime(column);
+      value = time == null ? null : toGmt(time);
+      break;
+    case Guid:
+      value = resultSet.getObject(column);
+      if (value != null && !(value instanceof UUID)) {
+        value = UUID.fromString(value.toString());
+      }
+      break;
+    default:
+      value = resultSet.getString(column);
+      break;
+    }
+    return resultSet.wasNull() ? null : value;
+  }
+
+  private static Calendar toGmt(final java.util.Date localValue) {
+    Calendar local = Calendar.getInstance();
+    local.setTime(localValue);
+    return convert(local, Calendar.getInstance(TimeZone.getTimeZone("GMT")));
+  }
+
+  private static Calendar convert(final Calendar from, final Calendar to) {
+    to.clear();
+    to.set(from.get(Calendar.YEAR), from.get(Calendar.MONTH), from.get(Calendar.DAY_OF_MONTH),
+        from.get(Calendar.HOUR_OF_DAY), from.get(Calendar.MINUTE), from.get(Calendar.SECOND));
+    to.set(Calendar.MILLISECOND, from.get(Calendar.MILLISECOND));
+    return to;
+  }
+
+  private static EdmPrimitiveTypeKind kindOf(final EdmPrimitiveType type) {
+    return EdmPrimitiveTypeKind.valueOfFQN(type.getFullQualifiedName());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.EdmProvider;
+import org.apache.olingo.commons.api.edm.provider.EntityType;
+import org.apache.olingo.commons.api.format.ODataFormat;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EdmSnapshotTest {
+  private static final String NS = "Microsoft.OData.SampleService.Models.TripPin";
+
+  private EdmProvider provider;
+  private byte[] snapshot;
+
+  @Before
+  public void setUp() throws Exception {
+    provider = new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    EdmSnapshot.write(provider, out);
+    snapshot = out.toByteArray();
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    final EdmProvider loaded = EdmSnapshot.read(new ByteArrayInputStream(snapshot));
+
+    final EntityType person = loaded.getEntityType(new FullQualifiedName(NS, "Person"));
+    assertEquals("UserName", person.getKey().get(0).getName());
+    assertTrue(person.isOpenType());
+    assertEquals("Edm.String", person.getProperty("UserName").getType());
+    assertEquals(NS + ".Trip", person.getNavigationProperty("Trips").getType());
+    assertTrue(person.getNavigationProperty("Trips").isContainsTarget());
+    assertNull(loaded.getEntityType(new FullQualifiedName(NS, "Unknown")));
+
+    // Writing the loaded model again results in the same snapshot.
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    EdmSnapshot.write(loaded, out);
+    assertArrayEquals(snapshot, out.toByteArray());
+
+    assertEquals(metadataDocument(provider), metadataDocument(loaded));
+  }
+
+  @Test
+  public void memoryMapped() throws Exception {
+    final File file = File.createTempFile("trippin", ".edm");
+    try {
+      final FileOutputStream out = new FileOutputStream(file);
+      try {
+        out.write(snapshot);
+      } finally {
+        out.close();
+      }
+      assertEquals(metadataDocument(provider), metadataDocument(EdmSnapshot.read(file)));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void wrongFormat() throws Exception {
+    EdmSnapshot.read(new ByteArrayInputStream("<edmx:Edmx/>".getBytes("UTF-8")));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncated() throws Exception {
+    EdmSnapshot.read(new ByteArrayInputStream(snapshot, 0, snapshot.length - 10));
+  }
+
+  private String metadataDocument(final EdmProvider edmProvider) throws Exception {
+    final OData odata = OData.newInstance();
+    return IOUtils.toString(odata.createSerializer(ODataFormat.XML)
+        .metadataDocument(odata.createServiceMetadata(edmProvider, Collections.<EdmxReference> emptyList()))
+        .getContent());
+  }
+}
@@ -25,7 +25,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.olingo.commons.api.ODataException;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -41,6 +46,7 @@ import org.apache.olingo.commons.api.edm.provider.FunctionImport;
 import org.apache.olingo.commons.api.edm.provider.NavigationPropertyBinding;
 import org.apache.olingo.commons.api.edm.provider.Parameter;
 import org.apache.olingo.commons.api.edm.provider.Property;
+import org.apache.olingo.commons.api.edm.provider.Schema;
 import org.apache.olingo.commons.api.edm.provider.Singleton;
 import org.junit.Before;
 import org.junit.Test;
@@ -182,4 +188,48 @@ public class MetadataParserTest {
     assertEquals("Airports", bindings.get(2).getTarget());
 
   }
+
+  @Test
+  public void testMultipleSchemas() throws Exception {
+    EdmProvider multiple = new MetadataParser().buildEdmProvider(new StringReader(
+        "<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">"
+            + "<edmx:DataServices>"
+            + "<Schema Namespace=\"First\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">"
+            + "<ComplexType Name=\"CT\"><Property Name=\"P\" Type=\"Edm.String\">"
+            + "<Annotation Term=\"Core.Description\"><String>text</String></Annotation></Property></ComplexType>"
+            + "</Schema>"
+            + "<Schema Namespace=\"Second\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">"
+            + "<Annotations Target=\"First.CT\"><Annotation Term=\"Core.Description\" String=\"x\"/></Annotations>"
+            + "<ComplexType Name=\"CT\" BaseType=\"First.CT\"/>"
+            + "</Schema>"
+            + "</edmx:DataServices></edmx:Edmx>"));
+    List<Schema> schemas = multiple.getSchemas();
+    assertEquals(2, schemas.size());
+    assertEquals("First", schemas.get(0).getNamespace());
+    assertEquals("Second", schemas.get(1).getNamespace());
+    assertEquals(1, multiple.getComplexType(new FullQualifiedName("First", "CT")).getProperties().size());
+    assertEquals("First.CT", multiple.getComplexType(new FullQualifiedName("Second", "CT")).getBaseType());
+  }
+
+  @Test
+  public void testParallelDocuments() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Reader> documents = Arrays.<Reader> asList(
+          new FileReader("src/test/resources/trippin.xml"),
+          new StringReader("<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">"
+              + "<edmx:DataServices>"
+              + "<Schema Namespace=\"Vocabulary\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">"
+              + "<Term Name=\"Description\" Type=\"Edm.String\"/>"
+              + "</Schema>"
+              + "</edmx:DataServices></edmx:Edmx>"));
+      EdmProvider combined = new MetadataParser().buildEdmProvider(documents, executor);
+      assertEquals(2, combined.getSchemas().size());
+      assertEquals(NS, combined.getSchemas().get(0).getNamespace());
+      assertNotNull(combined.getEntityType(new FullQualifiedName(NS, "Person")));
+      assertEquals("Edm.String", combined.getTerm(new FullQualifiedName("Vocabulary", "Description")).getType());
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
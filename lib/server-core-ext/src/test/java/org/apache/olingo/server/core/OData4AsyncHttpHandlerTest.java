@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.provider.EdmProvider;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.requests.MetadataRequest;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.MetadataResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class OData4AsyncHttpHandlerTest {
+  private static final int TOMCAT_PORT = 9901;
+
+  private final Tomcat tomcat = new Tomcat();
+  private final ExecutorService executor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "odata-worker");
+      thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(final Thread thread, final Throwable throwable) {
+          workerFailures.add(throwable);
+        }
+      });
+      return thread;
+    }
+  });
+  private final List<String> processingThreads = new CopyOnWriteArrayList<String>();
+  private final List<Throwable> workerFailures = new CopyOnWriteArrayList<Throwable>();
+  private final CountDownLatch metadataRequested = new CountDownLatch(1);
+  private volatile CountDownLatch metadataReleased = new CountDownLatch(0);
+  private volatile long timeout = 0;
+  private volatile long maxBodySize = 0;
+  private final ServiceHandler serviceHandler = Mockito.mock(ServiceHandler.class);
+
+  public class AsyncODataServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private final EdmProvider provider;
+
+    public AsyncODataServlet(final EdmProvider provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    public void service(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+      OData odata = OData4Impl.newInstance();
+      ServiceMetadata metadata = odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList());
+      final OData4AsyncHttpHandler handler = new OData4AsyncHttpHandler(odata, metadata, executor);
+      handler.setTimeout(timeout);
+      handler.setMaxBodySize(maxBodySize);
+      handler.register(serviceHandler);
+      handler.process(request, response);
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        processingThreads.add(Thread.currentThread().getName());
+        metadataRequested.countDown();
+        metadataReleased.await(10, TimeUnit.SECONDS);
+        ((MetadataResponse) invocation.getArguments()[1]).writeMetadata();
+        return null;
+      }
+    }).when(serviceHandler).readMetadata(Matchers.any(MetadataRequest.class), Matchers.any(MetadataResponse.class));
+    final EdmProvider edmProvider = new MetadataParser().buildEdmProvider(
+        new FileReader("src/test/resources/trippin.xml"));
+    final File baseDir = new File(System.getProperty("java.io.tmpdir"));
+    tomcat.setBaseDir(baseDir.getAbsolutePath());
+    tomcat.getHost().setAppBase(baseDir.getAbsolutePath());
+    final Context context = tomcat.addContext("/trippin", baseDir.getAbsolutePath());
+    final Wrapper wrapper = Tomcat.addServlet(context, "trippin", new AsyncODataServlet(edmProvider));
+    wrapper.setAsyncSupported(true);
+    context.addServletMapping("/*", "trippin");
+    tomcat.setPort(TOMCAT_PORT);
+    tomcat.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    tomcat.stop();
+    tomcat.destroy();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void processedByExecutor() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      final HttpResponse response = get("$metadata");
+      assertEquals(200, response.getStatusLine().getStatusCode());
+      assertTrue(EntityUtils.toString(response.getEntity()).contains("<EntityType Name=\"Person\""));
+    }
+    assertEquals(Arrays.asList("odata-worker", "odata-worker", "odata-worker"), processingThreads);
+    Mockito.verify(serviceHandler, Mockito.times(3))
+        .readMetadata(Matchers.any(MetadataRequest.class), Matchers.any(MetadataResponse.class));
+  }
+
+  @Test
+  public void rejected() throws Exception {
+    executor.shutdown();
+    assertEquals(503, get("$metadata").getStatusLine().getStatusCode());
+    Mockito.verify(serviceHandler, Mockito.never())
+        .readMetadata(Matchers.any(MetadataRequest.class), Matchers.any(MetadataResponse.class));
+  }
+
+  @Test
+  public void bodyReadWithoutBlocking() throws Exception {
+    final List<String> userNames = new CopyOnWriteArrayList<String>();
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        userNames.add((String) ((Entity) invocation.getArguments()[1]).getProperty("UserName").getValue());
+        ((EntityResponse) invocation.getArguments()[2]).writeUpdatedEntity();
+        return null;
+      }
+    }).when(serviceHandler).createEntity(Matchers.any(DataRequest.class), Matchers.any(Entity.class),
+        Matchers.any(EntityResponse.class));
+
+    // The body is larger than the buffers of the container, so it arrives in several parts.
+    final char[] firstName = new char[200000];
+    Arrays.fill(firstName, 'x');
+    final HttpPost post = new HttpPost("http://localhost:" + TOMCAT_PORT + "/trippin/People");
+    post.setEntity(new StringEntity("{\"UserName\":\"russellwhyte\",\"FirstName\":\""
+        + new String(firstName) + "\",\"LastName\":\"Whyte\"}", ContentType.APPLICATION_JSON));
+    final HttpResponse response = new DefaultHttpClient().execute(post);
+
+    assertEquals(204, response.getStatusLine().getStatusCode());
+    assertEquals(Arrays.asList("russellwhyte"), userNames);
+  }
+
+  @Test
+  public void bodyTooLarge() throws Exception {
+    maxBodySize = 100000;
+    final char[] firstName = new char[200000];
+    Arrays.fill(firstName, 'x');
+    final String body = "{\"UserName\":\"russellwhyte\",\"FirstName\":\"" + new String(firstName) + "\"}";
+
+    // The declared length is checked before reading.
+    HttpPost post = new HttpPost("http://localhost:" + TOMCAT_PORT + "/trippin/People");
+    post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+    assertEquals(413, new DefaultHttpClient().execute(post).getStatusLine().getStatusCode());
+
+    // Without a declared length, reading stops at the limit.
+    post = new HttpPost("http://localhost:" + TOMCAT_PORT + "/trippin/People");
+    final StringEntity chunked = new StringEntity(body, ContentType.APPLICATION_JSON);
+    chunked.setChunked(true);
+    post.setEntity(chunked);
+    assertEquals(413, new DefaultHttpClient().execute(post).getStatusLine().getStatusCode());
+
+    Mockito.verify(serviceHandler, Mockito.never()).createEntity(Matchers.any(DataRequest.class),
+        Matchers.any(Entity.class), Matchers.any(EntityResponse.class));
+  }
+
+  @Test
+  public void timedOut() throws Exception {
+    timeout = 200;
+    metadataReleased = new CountDownLatch(1);
+
+    assertEquals(503, get("$metadata").getStatusLine().getStatusCode());
+    assertTrue(metadataRequested.await(10, TimeUnit.SECONDS));
+    // The worker finishes after the container has completed the request.
+    metadataReleased.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(Collections.emptyList(), workerFailures);
+  }
+
+  private HttpResponse get(final String path) throws Exception {
+    return new DefaultHttpClient().execute(
+        new HttpGet("http://localhost:" + TOMCAT_PORT + "/trippin/" + path));
+  }
+}
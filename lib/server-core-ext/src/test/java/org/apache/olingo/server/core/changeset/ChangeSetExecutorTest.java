@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.changeset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.exception.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ChangeSetExecutorTest {
+
+  /** Status codes making the processor throw a runtime exception or a batch deserializer exception */
+  private static final int THROW = -1;
+  private static final int INVALID = -2;
+
+  private final ChangeSetMetrics metrics = new ChangeSetMetrics();
+  private final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
+
+  @Test
+  public void groupedCommits() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(2);
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    executor.execute(changeSet(201));
+    executor.execute(changeSet(400));
+    executor.execute(changeSet(204));
+    executor.flush();
+
+    final GroupCommitSupport groupCommit = (GroupCommitSupport) handler;
+    InOrder order = inOrder(handler, groupCommit);
+    order.verify(handler).startTransaction();
+    order.verify(groupCommit).setSavepoint("txn");
+    order.verify(groupCommit).releaseSavepoint("txn", "savepoint");
+    order.verify(groupCommit).setSavepoint("txn");
+    order.verify(groupCommit).rollbackToSavepoint("txn", "savepoint");
+    order.verify(handler).commit("txn");
+    order.verify(handler).startTransaction();
+    order.verify(groupCommit).setSavepoint("txn");
+    order.verify(groupCommit).releaseSavepoint("txn", "savepoint");
+    order.verify(handler).commit("txn");
+    verify(handler, never()).rollback("txn");
+
+    assertEquals(3, responseParts.size());
+    assertEquals(3, metrics.getChangeSetCount());
+    assertEquals(1, metrics.getFailedChangeSetCount());
+    assertEquals(2, metrics.getCommitCount());
+    assertEquals(0, metrics.getRollbackCount());
+    assertEquals(metrics.getTotalLatency(TimeUnit.NANOSECONDS) / 3, metrics.getAverageLatency(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  public void failedGroupIsRolledBack() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(10);
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    executor.execute(changeSet(400));
+    executor.execute(changeSet(404));
+    executor.flush();
+    // nothing to do
+    executor.flush();
+
+    verify(handler, times(1)).startTransaction();
+    verify(handler, never()).commit("txn");
+    verify(handler).rollback("txn");
+    assertEquals(2, metrics.getFailedChangeSetCount());
+    assertEquals(1, metrics.getRollbackCount());
+  }
+
+  @Test
+  public void failedCommit() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(10);
+    doThrow(new IllegalStateException()).when(handler).commit("txn");
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    final ODataResponsePart failed = executor.execute(changeSet(400));
+    executor.execute(changeSet(201));
+    executor.flush();
+
+    verify(handler).rollback("txn");
+    assertSame(failed, responseParts.get(0));
+    assertEquals(500, responseParts.get(1).getResponses().get(0).getStatusCode());
+    assertEquals(2, metrics.getFailedChangeSetCount());
+    assertEquals(0, metrics.getCommitCount());
+    assertEquals(1, metrics.getRollbackCount());
+  }
+
+  @Test
+  public void failedCommitOfFullGroup() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(2);
+    doThrow(new IllegalStateException()).when(handler).commit("txn");
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    assertEquals(201, executor.execute(changeSet(201)).getResponses().get(0).getStatusCode());
+    // The second change set completes the group, so its commit failure is returned at once.
+    assertEquals(500, executor.execute(changeSet(204)).getResponses().get(0).getStatusCode());
+    assertEquals(500, responseParts.get(0).getResponses().get(0).getStatusCode());
+    assertFalse(executor.flush());
+
+    executor.execute(changeSet(201));
+    assertTrue(executor.flush());
+  }
+
+  @Test
+  public void exceptionInGroup() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(10);
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    final ODataResponsePart created = executor.execute(changeSet(201));
+    executor.execute(changeSet(THROW));
+    executor.execute(changeSet(204));
+    executor.flush();
+
+    final GroupCommitSupport groupCommit = (GroupCommitSupport) handler;
+    InOrder order = inOrder(handler, groupCommit);
+    order.verify(groupCommit).releaseSavepoint("txn", "savepoint");
+    order.verify(groupCommit).rollbackToSavepoint("txn", "savepoint");
+    order.verify(groupCommit).releaseSavepoint("txn", "savepoint");
+    order.verify(handler).commit("txn");
+    verify(handler, times(1)).startTransaction();
+    verify(handler, never()).rollback("txn");
+
+    assertSame(created, responseParts.get(0));
+    assertEquals(500, responseParts.get(1).getResponses().get(0).getStatusCode());
+    assertEquals(204, responseParts.get(2).getResponses().get(0).getStatusCode());
+    assertEquals(3, metrics.getChangeSetCount());
+    assertEquals(1, metrics.getFailedChangeSetCount());
+    assertEquals(1, metrics.getCommitCount());
+  }
+
+  @Test
+  public void abortedGroup() throws Exception {
+    final ServiceHandler handler = groupCommitHandler(10);
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    executor.execute(changeSet(201));
+    executor.execute(changeSet(404));
+    try {
+      executor.execute(changeSet(INVALID));
+      fail("Expected BatchDeserializerException");
+    } catch (final BatchDeserializerException e) {
+      assertEquals(BatchDeserializerException.MessageKeys.INVALID_CONTENT, e.getMessageKey());
+    }
+
+    verify(handler).rollback("txn");
+    verify(handler, never()).commit("txn");
+    // The rolled-back change set must not keep its success response.
+    assertEquals(2, responseParts.size());
+    assertEquals(500, responseParts.get(0).getResponses().get(0).getStatusCode());
+    assertEquals(404, responseParts.get(1).getResponses().get(0).getStatusCode());
+    assertEquals(3, metrics.getFailedChangeSetCount());
+    assertEquals(1, metrics.getRollbackCount());
+  }
+
+  @Test
+  public void transactionPerChangeSet() throws Exception {
+    final ServiceHandler handler = mock(ServiceHandler.class);
+    when(handler.startTransaction()).thenReturn("txn");
+    final ChangeSetExecutor executor = new ChangeSetExecutor(handler, new StatusProcessor(), responseParts);
+    executor.execute(changeSet(201));
+    executor.execute(changeSet(400));
+    executor.execute(changeSet(THROW));
+    executor.execute(changeSet(204));
+    executor.flush();
+
+    verify(handler, times(4)).startTransaction();
+    verify(handler, times(2)).commit("txn");
+    verify(handler, times(2)).rollback("txn");
+    assertEquals(4, responseParts.size());
+    assertEquals(500, responseParts.get(2).getResponses().get(0).getStatusCode());
+  }
+
+  private ServiceHandler groupCommitHandler(final int maxChangeSetsPerCommit) {
+    final ServiceHandler handler = mock(ServiceHandler.class, withSettings().extraInterfaces(GroupCommitSupport.class));
+    when(handler.startTransaction()).thenReturn("txn");
+    final GroupCommitSupport groupCommit = (GroupCommitSupport) handler;
+    when(groupCommit.getMaxChangeSetsPerCommit()).thenReturn(maxChangeSetsPerCommit);
+    when(groupCommit.setSavepoint("txn")).thenReturn("savepoint");
+    when(groupCommit.getChangeSetMetrics()).thenReturn(metrics);
+    return handler;
+  }
+
+  private BatchRequestPart changeSet(final int statusCode) {
+    ODataRequest request = new ODataRequest();
+    request.addHeader("X-Status", Arrays.asList(String.valueOf(statusCode)));
+    return new BatchRequestPart(true, request);
+  }
+
+  private static class StatusProcessor implements ChangeSetExecutor.Processor {
+    @Override
+    public ODataResponsePart process(final BatchRequestPart changeSet) throws BatchDeserializerException {
+      final int statusCode = Integer.parseInt(changeSet.getRequests().get(0).getHeader("X-Status"));
+      if (statusCode == THROW) {
+        throw new IllegalStateException();
+      } else if (statusCode == INVALID) {
+        throw new BatchDeserializerException("Invalid change set",
+            BatchDeserializerException.MessageKeys.INVALID_CONTENT, "0");
+      }
+      return response(statusCode);
+    }
+
+    @Override
+    public ODataResponsePart failed(final BatchRequestPart changeSet, final Exception e) {
+      return response(500);
+    }
+
+    private ODataResponsePart response(final int statusCode) {
+      ODataResponse response = new ODataResponse();
+      response.setStatusCode(statusCode);
+      return new ODataResponsePart(response, statusCode < 400);
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.crossjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CrossJoinEngineTest {
+
+  private Edm edm;
+  private final Map<String, List<Entity>> data = new HashMap<String, List<Entity>>();
+  private final Map<String, Integer> readCounts = new HashMap<String, Integer>();
+
+  private final CrossJoinEngine.EntitySource source = new CrossJoinEngine.EntitySource() {
+    @Override
+    public Iterator<Entity> read(final EdmEntitySet entitySet) {
+      final Iterator<Entity> entities = data.get(entitySet.getName()).iterator();
+      readCounts.put(entitySet.getName(), 0);
+      return new Iterator<Entity>() {
+        @Override
+        public boolean hasNext() {
+          return entities.hasNext();
+        }
+
+        @Override
+        public Entity next() {
+          readCounts.put(entitySet.getName(), readCounts.get(entitySet.getName()) + 1);
+          return entities.next();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    edm = OData.newInstance().createServiceMetadata(
+        new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml")),
+        Collections.<EdmxReference> emptyList()).getEdm();
+    data.put("People", Arrays.asList(
+        person("u1", "Cal", "Alpha"), person("u2", "Tex", "Beta"), person("u3", "Cal", "Gamma")));
+    data.put("Airlines", Arrays.asList(
+        airline("A1", "Alpha"), airline("B1", "Beta"), airline("A2", "Alpha")));
+    data.put("Airports", Arrays.asList(
+        airport("SFO", "Cal"), airport("DFW", "Tex"), airport("LAX", "Cal")));
+  }
+
+  @Test
+  public void cartesianProduct() throws Exception {
+    assertEquals(9, execute("$crossjoin(People,Airlines)", null).size());
+    assertEquals(Arrays.asList("u1,A1", "u1,B1", "u1,A2"),
+        execute("$crossjoin(People,Airlines)", "People/UserName eq 'u1'"));
+  }
+
+  @Test
+  public void hashJoins() throws Exception {
+    assertEquals(Arrays.asList("u1,A1,SFO", "u1,A1,LAX", "u1,A2,SFO", "u1,A2,LAX", "u2,B1,DFW"),
+        execute("$crossjoin(People,Airlines,Airports)",
+            "People/LastName eq Airlines/Name and Airports/Location/City/Region eq People/FirstName"));
+    assertEquals(Arrays.asList("A1,u1,SFO", "A1,u1,LAX", "A2,u1,SFO", "A2,u1,LAX"),
+        execute("$crossjoin(Airlines,People,Airports)",
+            "Airlines/Name eq People/LastName and People/FirstName eq Airports/Location/City/Region"
+            + " and Airlines/AirlineCode ne 'B1'"));
+  }
+
+  @Test
+  public void rowFilters() throws Exception {
+    assertEquals(Arrays.asList("u1,A1", "u1,B1", "u1,A2", "u3,A1", "u3,B1", "u3,A2"),
+        execute("$crossjoin(People,Airlines)",
+            "Airlines/AirlineCode ne People/UserName and length(People/LastName) gt 4"));
+    assertEquals(Arrays.asList("u1,A1", "u1,A2", "u2,B1"),
+        execute("$crossjoin(People,Airlines)",
+            "startswith(Airlines/Name, People/LastName) or Airlines/AirlineCode eq People/UserName"));
+    assertEquals(Collections.emptyList(),
+        execute("$crossjoin(People,Airlines)", "People/FirstName eq null or 1 eq 2"));
+  }
+
+  @Test
+  public void division() throws Exception {
+    assertEquals(Arrays.asList("u1,A1"),
+        execute("$crossjoin(People,Airlines)", "People/UserName eq 'u1' and Airlines/AirlineCode eq 'A1'"
+            + " and 5 div 2 eq 2 and -5 div 2 eq -2 and 1 div 0.4 eq 2.5 and 5 mod 2 eq 1"));
+  }
+
+  @Test
+  public void firstEntitySetIsReadLazily() throws Exception {
+    final CrossJoinEngine engine = engine("$crossjoin(People,Airlines)", "People/LastName eq Airlines/Name");
+    final Iterator<List<Entity>> rows = engine.execute(source);
+    assertEquals(Integer.valueOf(0), readCounts.get("People"));
+    assertEquals(Integer.valueOf(3), readCounts.get("Airlines"));
+    rows.next();
+    assertEquals(Integer.valueOf(1), readCounts.get("People"));
+    rows.next();
+    assertEquals(Integer.valueOf(1), readCounts.get("People"));
+    rows.next();
+    assertEquals(Integer.valueOf(2), readCounts.get("People"));
+    assertFalse(rows.hasNext());
+    assertEquals(Integer.valueOf(3), readCounts.get("People"));
+  }
+
+  @Test
+  public void unknownEntitySet() throws Exception {
+    try {
+      new CrossJoinEngine(edm.getEntityContainer(null), Arrays.asList("People", "Unknown"), null);
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private List<String> execute(final String path, final String filter) throws Exception {
+    List<String> result = new ArrayList<String>();
+    final Iterator<List<Entity>> rows = engine(path, filter).execute(source);
+    while (rows.hasNext()) {
+      StringBuilder row = new StringBuilder();
+      for (final Entity entity : rows.next()) {
+        row.append(row.length() == 0 ? "" : ",").append(entity.getProperties().get(0).getValue());
+      }
+      result.add(row.toString());
+    }
+    return result;
+  }
+
+  private CrossJoinEngine engine(final String path, final String filter) throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri(path, filter == null ? null : "$filter=" + filter, null, edm);
+    return new CrossJoinEngine(edm.getEntityContainer(null), uriInfo.asUriInfoCrossjoin().getEntitySetNames(),
+        uriInfo.getFilterOption());
+  }
+
+  private static Entity person(final String userName, final String firstName, final String lastName) {
+    return new Entity()
+        .addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, userName))
+        .addProperty(new Property(null, "FirstName", ValueType.PRIMITIVE, firstName))
+        .addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName));
+  }
+
+  private static Entity airline(final String airlineCode, final String name) {
+    return new Entity()
+        .addProperty(new Property(null, "AirlineCode", ValueType.PRIMITIVE, airlineCode))
+        .addProperty(new Property(null, "Name", ValueType.PRIMITIVE, name));
+  }
+
+  private static Entity airport(final String iataCode, final String region) {
+    ComplexValue city = new ComplexValue();
+    city.getValue().add(new Property(null, "Region", ValueType.PRIMITIVE, region));
+    ComplexValue location = new ComplexValue();
+    location.getValue().add(new Property(null, "City", ValueType.COMPLEX, city));
+    return new Entity()
+        .addProperty(new Property(null, "IataCode", ValueType.PRIMITIVE, iataCode))
+        .addProperty(new Property(null, "Location", ValueType.COMPLEX, location));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.delta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.junit.Test;
+
+public class ChangeTrackerTest {
+
+  private final ChangeTracker tracker = new ChangeTracker();
+
+  @Test
+  public void changesSinceToken() throws Exception {
+    tracker.entityCreated("People", entity("People('old')"));
+    final String token = tracker.getDeltaToken("People");
+    final Entity created = entity("People('new')");
+    final Entity updated = entity("People('old')");
+    tracker.entityCreated("People", created);
+    tracker.entityUpdated("People", updated);
+    tracker.entityCreated("Airlines", entity("Airlines('AA')"));
+
+    Delta delta = tracker.getChanges("People", token);
+    assertEquals(Arrays.asList(created, updated), delta.getEntities());
+    assertTrue(delta.getDeletedEntities().isEmpty());
+    assertTrue(delta.getDeltaLink().toString().startsWith("People?$deltatoken="));
+
+    delta = tracker.getChanges("People", nextToken(delta));
+    assertTrue(delta.getEntities().isEmpty());
+    assertTrue(delta.getDeletedEntities().isEmpty());
+  }
+
+  @Test
+  public void latestChangeOnly() throws Exception {
+    final String token = tracker.getDeltaToken("People");
+    final Entity first = entity("People('a')");
+    final Entity second = entity("People('b')");
+    final Entity last = entity("People('a')");
+    tracker.entityCreated("People", first);
+    tracker.entityCreated("People", second);
+    tracker.entityUpdated("People", last);
+    tracker.entityCreated("People", entity("People('c')"));
+    tracker.entityDeleted("People", entity("People('c')"));
+
+    final Delta delta = tracker.getChanges("People", token);
+    assertEquals(Arrays.asList(second, last), delta.getEntities());
+    assertEquals(1, delta.getDeletedEntities().size());
+    final DeletedEntity deleted = delta.getDeletedEntities().get(0);
+    assertEquals(URI.create("People('c')"), deleted.getId());
+    assertEquals(DeletedEntity.Reason.deleted, deleted.getReason());
+  }
+
+  @Test
+  public void compactionKeepsTokensValid() throws Exception {
+    final String token = tracker.getDeltaToken("People");
+    Entity entity = null;
+    for (int i = 0; i < 1000; i++) {
+      entity = entity("People('" + (i % 3) + "')");
+      tracker.entityUpdated("People", entity);
+    }
+    tracker.compact();
+    final Delta delta = tracker.getChanges("People", token);
+    assertEquals(3, delta.getEntities().size());
+    assertSame(entity, delta.getEntities().get(2));
+  }
+
+  @Test
+  public void logSize() {
+    ChangeLog log = new ChangeLog(new AtomicLong());
+    for (int i = 0; i < 1000; i++) {
+      log.append(ChangeLog.Kind.UPDATED, URI.create("People('" + (i % 10) + "')"), null, 0);
+    }
+    assertTrue(log.size() <= 64);
+    log.compact(Long.MIN_VALUE);
+    assertEquals(10, log.size());
+    log.append(ChangeLog.Kind.DELETED, URI.create("People('0')"), null, 0);
+    log.compact(0);
+    assertEquals(9, log.size());
+  }
+
+  @Test
+  public void expiredDeletion() throws Exception {
+    final ChangeTracker tracker = new ChangeTracker(0);
+    final String token = tracker.getDeltaToken("People");
+    tracker.entityDeleted("People", entity("People('a')"));
+    final String tokenAfterDeletion = tracker.getDeltaToken("People");
+    tracker.compact();
+    expectError(tracker, token, HttpStatusCode.GONE);
+    assertTrue(tracker.getChanges("People", tokenAfterDeletion).getDeletedEntities().isEmpty());
+  }
+
+  @Test
+  public void invalidTokens() throws Exception {
+    expectError(tracker, "abc", HttpStatusCode.BAD_REQUEST);
+    expectError(tracker, "abc.-1", HttpStatusCode.BAD_REQUEST);
+    expectError(tracker, "x.1", HttpStatusCode.GONE);
+    tracker.entityCreated("People", entity("People('a')"));
+    final String token = tracker.getDeltaToken("People");
+    expectError(tracker, token + "0", HttpStatusCode.GONE);
+  }
+
+  private void expectError(final ChangeTracker tracker, final String token, final HttpStatusCode status) {
+    try {
+      tracker.getChanges("People", token);
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(status.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private static String nextToken(final Delta delta) {
+    final String link = delta.getDeltaLink().toString();
+    return link.substring(link.indexOf('=') + 1);
+  }
+
+  private static Entity entity(final String id) {
+    Entity entity = new Entity();
+    entity.setId(URI.create(id));
+    return entity;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.delta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.net.URI;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.OData4Impl;
+import org.apache.olingo.server.core.ServiceDispatcher;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.requests.DataRequest;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class DeltaRequestTest {
+
+  private final ChangeTracker tracker = new ChangeTracker();
+
+  @Test
+  public void deltaRoundTrip() throws Exception {
+    final ServiceHandler handler = deltaHandler();
+    tracker.entityCreated("People", person("russellwhyte", "Whyte"));
+    final String token = tracker.getDeltaToken("People");
+    tracker.entityCreated("People", person("scottketchum", "Ketchum"));
+    tracker.entityUpdated("People", person("russellwhyte", "White"));
+    tracker.entityDeleted("People", person("ronaldmundy", "Mundy"));
+
+    ODataResponse response = execute(handler, "$deltatoken=" + token);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"LastName\":\"Ketchum\""));
+    assertTrue(content, content.contains("\"LastName\":\"White\""));
+    assertFalse(content, content.contains("\"LastName\":\"Whyte\""));
+    assertTrue(content, content.contains("$deletedEntity"));
+    assertTrue(content, content.contains("ronaldmundy"));
+    Mockito.verify(handler, Mockito.never()).read(Matchers.any(DataRequest.class),
+        Matchers.any(EntitySetResponse.class));
+
+    // Following the delta link returns no changes.
+    final String link = "$deltatoken=";
+    final int start = content.indexOf(link, content.indexOf("@odata.deltaLink"));
+    final String nextToken = content.substring(start + link.length(), content.indexOf('"', start));
+    response = execute(handler, link + nextToken);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"value\":[]"));
+  }
+
+  @Test
+  public void expiredToken() throws Exception {
+    try {
+      execute(deltaHandler(), "$deltatoken=x.1");
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.GONE.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void notSupported() throws Exception {
+    final ServiceHandler handler = Mockito.mock(ServiceHandler.class);
+    try {
+      execute(handler, "$deltatoken=1");
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+    Mockito.verify(handler, Mockito.never()).read(Matchers.any(DataRequest.class),
+        Matchers.any(EntitySetResponse.class));
+  }
+
+  private ServiceHandler deltaHandler() throws Exception {
+    final ServiceHandler handler = Mockito.mock(ServiceHandler.class,
+        Mockito.withSettings().extraInterfaces(DeltaSupport.class));
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Exception {
+        final DataRequest request = (DataRequest) invocation.getArguments()[0];
+        ((EntitySetResponse) invocation.getArguments()[2]).writeDelta(request.getEntitySet().getEntityType(),
+            tracker.getChanges(request.getEntitySet().getName(), (String) invocation.getArguments()[1]));
+        return null;
+      }
+    }).when((DeltaSupport) handler).readDelta(Matchers.any(DataRequest.class), Matchers.anyString(),
+        Matchers.any(EntitySetResponse.class));
+    return handler;
+  }
+
+  private ODataResponse execute(final ServiceHandler handler, final String query) throws Exception {
+    final OData odata = OData4Impl.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml")),
+        Collections.<EdmxReference> emptyList());
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri("http://localhost/trippin");
+    request.setRawODataPath("/People");
+    request.setRawQueryPath(query);
+    request.setRawRequestUri("http://localhost/trippin/People?" + query);
+    ODataResponse response = new ODataResponse();
+    new ServiceDispatcher(odata, metadata, handler, null).execute(request, response);
+    return response;
+  }
+
+  private static Entity person(final String userName, final String lastName) {
+    Entity entity = new Entity();
+    entity.setId(URI.create("People('" + userName + "')"));
+    entity.addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, userName));
+    entity.addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName));
+    entity.addProperty(new Property(null, "Concurrency", ValueType.PRIMITIVE, 1L));
+    return entity;
+  }
+}
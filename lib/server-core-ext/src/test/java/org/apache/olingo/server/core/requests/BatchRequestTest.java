@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.requests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.OData4Impl;
+import org.apache.olingo.server.core.ServiceDispatcher;
+import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.changeset.ChangeSetMetrics;
+import org.apache.olingo.server.core.changeset.GroupCommitSupport;
+import org.apache.olingo.server.core.responses.EntityResponse;
+import org.apache.olingo.server.core.responses.EntitySetResponse;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BatchRequestTest {
+
+  private static final String CRLF = "\r\n";
+
+  @Test
+  public void failedGroupCommitStopsBatch() throws Exception {
+    final ServiceHandler handler = groupCommitHandler();
+    final String response = executeBatch(handler, null);
+
+    // Both change sets of the group get the error of the commit; the following request is not executed.
+    assertEquals(2, response.split("HTTP/1.1 500").length - 1);
+    assertFalse(response, response.contains("HTTP/1.1 204"));
+    Mockito.verify(handler, Mockito.times(2)).deleteEntity(Matchers.any(DataRequest.class),
+        Matchers.anyString(), Matchers.any(EntityResponse.class));
+    Mockito.verify(handler).rollback("txn");
+    Mockito.verify(handler, Mockito.never()).read(Matchers.any(DataRequest.class),
+        Matchers.any(EntitySetResponse.class));
+  }
+
+  @Test
+  public void failedGroupCommitWithContinueOnError() throws Exception {
+    final ServiceHandler handler = groupCommitHandler();
+    executeBatch(handler, "odata.continue-on-error");
+
+    Mockito.verify(handler).read(Matchers.any(DataRequest.class), Matchers.any(EntitySetResponse.class));
+  }
+
+  private ServiceHandler groupCommitHandler() throws Exception {
+    final ServiceHandler handler = Mockito.mock(ServiceHandler.class,
+        Mockito.withSettings().extraInterfaces(GroupCommitSupport.class));
+    Mockito.when(handler.startTransaction()).thenReturn("txn");
+    Mockito.doThrow(new IllegalStateException("commit failed")).when(handler).commit("txn");
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) {
+        ((EntityResponse) invocation.getArguments()[2]).writeDeletedEntityOrReference();
+        return null;
+      }
+    }).when(handler).deleteEntity(Matchers.any(DataRequest.class), Matchers.anyString(),
+        Matchers.any(EntityResponse.class));
+    final GroupCommitSupport groupCommit = (GroupCommitSupport) handler;
+    Mockito.when(groupCommit.getMaxChangeSetsPerCommit()).thenReturn(2);
+    Mockito.when(groupCommit.setSavepoint("txn")).thenReturn("savepoint");
+    Mockito.when(groupCommit.getChangeSetMetrics()).thenReturn(new ChangeSetMetrics());
+    return handler;
+  }
+
+  private String executeBatch(final ServiceHandler handler, final String preference) throws Exception {
+    final OData odata = OData4Impl.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml")),
+        Collections.<EdmxReference> emptyList());
+
+    final String body = changeSet("People('russellwhyte')")
+        + changeSet("People('scottketchum')")
+        + "--batch_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + CRLF
+        + "GET People HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--batch_1--" + CRLF;
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.POST);
+    request.setRawBaseUri("http://localhost/trippin");
+    request.setRawODataPath("/$batch");
+    request.setRawRequestUri("http://localhost/trippin/$batch");
+    request.addHeader(HttpHeader.CONTENT_TYPE, Arrays.asList("multipart/mixed;boundary=batch_1"));
+    if (preference != null) {
+      request.addHeader(HttpHeader.PREFER, Arrays.asList(preference));
+    }
+    request.setBody(new ByteArrayInputStream(body.getBytes("UTF-8")));
+    ODataResponse response = new ODataResponse();
+    new ServiceDispatcher(odata, metadata, handler, null).execute(request, response);
+    assertEquals(202, response.getStatusCode());
+    final String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("HTTP/1.1"));
+    return content;
+  }
+
+  private String changeSet(final String path) {
+    return "--batch_1" + CRLF
+        + "Content-Type: multipart/mixed; boundary=changeset_1" + CRLF
+        + CRLF
+        + "--changeset_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + "Content-ID: 1" + CRLF
+        + CRLF
+        + "DELETE " + path + " HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--changeset_1--" + CRLF;
+  }
+}
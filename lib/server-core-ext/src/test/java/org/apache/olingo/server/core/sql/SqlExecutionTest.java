@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.FileReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.crossjoin.CrossJoinEngine;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Executes translated queries on an embedded H2 database and compares the results with the
+ * in-memory evaluation of the same $filter expressions by the {@link CrossJoinEngine}.
+ */
+public class SqlExecutionTest {
+
+  private static final String[] FILTERS = {
+      "{}FirstName eq 'Russell'",
+      "{}Concurrency gt 5 and {}LastName ne 'White'",
+      "{}FirstName eq null",
+      "null ne {}FirstName",
+      "contains({}LastName,'50%25_off!')",
+      "startswith({}LastName,'Wh') or endswith({}FirstName,'ll')",
+      "length(toupper({}FirstName)) add 1 ge 5 and not({}Concurrency mod 2 eq 0)",
+      "indexof({}LastName,'h') eq 1",
+      "substring({}LastName,1,2) eq 'hy'",
+      "concat({}FirstName,{}LastName) eq 'RussellWhyte'",
+      "tolower({}LastName) eq 'whyte'",
+      "trim({}FirstName) eq 'Scott'",
+      "{}Concurrency sub 1 mul 2 le 4 or {}Concurrency div 5 eq 2",
+      // search strings that are not literals
+      "startswith({}LastName,substring({}UserName,6,2)) or contains({}UserName,tolower({}LastName))",
+      "endswith(concat('Mr ',{}LastName),substring({}LastName,2))"
+  };
+
+  private final List<Entity> people = Arrays.asList(
+      person("russellwhyte", "Russell", "Whyte", 1),
+      person("scottketchum", " Scott ", "Ketchum", 2),
+      person("ronaldmundy", "Ronald", "Mundy", 3),
+      person("javieralfred", "Javier", "50%_off!", 6),
+      person("nofirstname", null, "White", 8),
+      person("willieashmore", "Willie", "Ashmore", 10));
+
+  private Edm edm;
+  private EdmEntitySet entitySet;
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    edm = OData.newInstance().createServiceMetadata(
+        new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml")),
+        Collections.<EdmxReference> emptyList()).getEdm();
+    entitySet = edm.getEntityContainer(null).getEntitySet("People");
+
+    connection = DriverManager.getConnection("jdbc:h2:mem:");
+    final Statement statement = connection.createStatement();
+    statement.execute("CREATE TABLE \"People\" (\"UserName\" VARCHAR(100) PRIMARY KEY,"
+        + " \"FirstName\" VARCHAR(100), \"LastName\" VARCHAR(100), \"Concurrency\" BIGINT)");
+    statement.close();
+    final PreparedStatement insert = connection.prepareStatement("INSERT INTO \"People\" VALUES (?, ?, ?, ?)");
+    for (final Entity person : people) {
+      for (int i = 0; i < 4; i++) {
+        insert.setObject(i + 1, person.getProperties().get(i).getValue());
+      }
+      insert.executeUpdate();
+    }
+    insert.close();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @Test
+  public void filterAnsi() throws Exception {
+    assertFilters(SqlDialect.ANSI);
+  }
+
+  @Test
+  public void filterLimitOffset() throws Exception {
+    assertFilters(SqlDialect.LIMIT_OFFSET);
+  }
+
+  @Test
+  public void pagingAnsi() throws Exception {
+    assertPaging(SqlDialect.ANSI);
+  }
+
+  @Test
+  public void pagingLimitOffset() throws Exception {
+    assertPaging(SqlDialect.LIMIT_OFFSET);
+  }
+
+  @Test
+  public void count() throws Exception {
+    final SqlQuery query = new SqlTranslator(SqlDialect.ANSI, new SqlMapping())
+        .count(entitySet, null, parse("$filter=Concurrency ge 3"));
+    assertEquals(Collections.singletonList("4"), execute(query));
+  }
+
+  private void assertFilters(final SqlDialect dialect) throws Exception {
+    final SqlTranslator translator = new SqlTranslator(dialect, new SqlMapping());
+    for (final String filter : FILTERS) {
+      final List<String> expected = evaluate(filter.replace("{}", "People/"));
+      final List<String> actual =
+          execute(translator.select(entitySet, null, parse("$filter=" + filter.replace("{}", ""))));
+      Collections.sort(actual);
+      assertEquals(filter, expected, actual);
+    }
+    // The filters are not trivial.
+    assertFalse(evaluate("People/FirstName eq 'Russell'").isEmpty());
+  }
+
+  private void assertPaging(final SqlDialect dialect) throws Exception {
+    final List<Entity> sorted = new ArrayList<Entity>(people);
+    Collections.sort(sorted, new Comparator<Entity>() {
+      @Override
+      public int compare(final Entity person1, final Entity person2) {
+        return ((String) person2.getProperty("LastName").getValue())
+            .compareTo((String) person1.getProperty("LastName").getValue());
+      }
+    });
+    final List<String> expected = new ArrayList<String>();
+    for (final Entity person : sorted.subList(1, 4)) {
+      expected.add((String) person.getProperty("UserName").getValue());
+    }
+    assertEquals(expected, execute(new SqlTranslator(dialect, new SqlMapping())
+        .select(entitySet, null, parse("$orderby=LastName desc&$skip=1&$top=3"))));
+  }
+
+  /** @return the first column of the result rows, in the order of the result */
+  private List<String> execute(final SqlQuery query) throws Exception {
+    final List<String> result = new ArrayList<String>();
+    final PreparedStatement statement = query.prepare(connection);
+    try {
+      final ResultSet resultSet = statement.executeQuery();
+      while (resultSet.next()) {
+        result.add(resultSet.getString(1));
+      }
+      resultSet.close();
+    } finally {
+      statement.close();
+    }
+    return result;
+  }
+
+  /** @return the sorted user names of the people matching the filter, evaluated in memory */
+  private List<String> evaluate(final String filter) throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri("$crossjoin(People)", "$filter=" + filter, null, edm);
+    final Iterator<List<Entity>> rows = new CrossJoinEngine(edm.getEntityContainer(null),
+        uriInfo.asUriInfoCrossjoin().getEntitySetNames(), uriInfo.getFilterOption())
+        .execute(new CrossJoinEngine.EntitySource() {
+          @Override
+          public Iterator<Entity> read(final EdmEntitySet entitySet) {
+            return people.iterator();
+          }
+        });
+    final List<String> result = new ArrayList<String>();
+    while (rows.hasNext()) {
+      result.add((String) rows.next().get(0).getProperty("UserName").getValue());
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private UriInfo parse(final String query) throws Exception {
+    return new Parser().parseUri("People", query, null, edm);
+  }
+
+  private static Entity person(final String userName, final String firstName, final String lastName,
+      final long concurrency) {
+    return new Entity()
+        .addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, userName))
+        .addProperty(new Property(null, "FirstName", ValueType.PRIMITIVE, firstName))
+        .addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName))
+        .addProperty(new Property(null, "Concurrency", ValueType.PRIMITIVE, concurrency));
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SqlTranslatorTest {
+
+  private Edm edm;
+  private EdmEntitySet people;
+  private SqlTranslator translator;
+
+  @Before
+  public void setUp() throws Exception {
+    edm = OData.newInstance().createServiceMetadata(
+        new MetadataParser().buildEdmProvider(new FileReader("src/test/resources/trippin.xml")),
+        Collections.<EdmxReference> emptyList()).getEdm();
+    people = edm.getEntityContainer(null).getEntitySet("People");
+    translator = new SqlTranslator(SqlDialect.ANSI, new SqlMapping());
+  }
+
+  @Test
+  public void allColumns() throws Exception {
+    assertEquals("SELECT \"UserName\", \"FirstName\", \"LastName\", \"Concurrency\" FROM \"People\" []",
+        select("").toString());
+  }
+
+  @Test
+  public void queryOptions() throws Exception {
+    final SqlQuery query = select("$filter=FirstName eq 'Russell' and Concurrency gt 5"
+        + "&$orderby=LastName desc&$top=10&$skip=20&$select=FirstName");
+    assertEquals("SELECT \"UserName\", \"FirstName\" FROM \"People\""
+        + " WHERE ((\"FirstName\" = ?) AND (\"Concurrency\" > ?))"
+        + " ORDER BY \"LastName\" DESC, \"UserName\" OFFSET 20 ROWS FETCH FIRST 10 ROWS ONLY",
+        query.getSql());
+    assertEquals(Arrays.<Object> asList("Russell", 5L), query.getParameters());
+  }
+
+  @Test
+  public void limitOffset() throws Exception {
+    final SqlQuery query = new SqlTranslator(SqlDialect.LIMIT_OFFSET, new SqlMapping())
+        .select(people, null, parse("$top=3&$skip=6"));
+    assertEquals("SELECT \"UserName\", \"FirstName\", \"LastName\", \"Concurrency\" FROM \"People\""
+        + " ORDER BY \"UserName\" LIMIT 3 OFFSET 6", query.getSql());
+  }
+
+  @Test
+  public void nullComparison() throws Exception {
+    assertEquals("SELECT COUNT(*) FROM \"People\" WHERE (\"FirstName\" IS NULL) []",
+        count("$filter=FirstName eq null").toString());
+    assertEquals("SELECT COUNT(*) FROM \"People\" WHERE (\"FirstName\" IS NOT NULL) []",
+        count("$filter=null ne FirstName").toString());
+  }
+
+  @Test
+  public void like() throws Exception {
+    SqlQuery query = count("$filter=contains(LastName,'50%25_off!')");
+    assertEquals("SELECT COUNT(*) FROM \"People\" WHERE (\"LastName\" LIKE ? ESCAPE '!')", query.getSql());
+    assertEquals(Collections.<Object> singletonList("%50!%!_off!!%"), query.getParameters());
+
+    query = count("$filter=startswith(LastName,'Wh') or endswith(FirstName,'ll')");
+    assertEquals("SELECT COUNT(*) FROM \"People\""
+        + " WHERE ((\"LastName\" LIKE ? ESCAPE '!') OR (\"FirstName\" LIKE ? ESCAPE '!'))", query.getSql());
+    assertEquals(Arrays.<Object> asList("Wh%", "%ll"), query.getParameters());
+  }
+
+  @Test
+  public void methods() throws Exception {
+    final SqlQuery query = count("$filter=length(toupper(FirstName)) add 1 ge 5 and not(Concurrency mod 2 eq 0)");
+    assertEquals("SELECT COUNT(*) FROM \"People\""
+        + " WHERE (((CHAR_LENGTH(UPPER(\"FirstName\")) + ?) >= ?) AND (NOT (MOD(\"Concurrency\", ?) = ?)))",
+        query.getSql());
+    assertEquals(Arrays.<Object> asList(1L, 5L, 2L, 0L), query.getParameters());
+  }
+
+  @Test
+  public void key() throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri("People('russellwhyte')", "$select=LastName", null, edm);
+    final SqlQuery query = translator.select(people,
+        ((UriResourceEntitySet) uriInfo.getUriResourceParts().get(0)).getKeyPredicates(), uriInfo);
+    assertEquals("SELECT \"UserName\", \"LastName\" FROM \"People\" WHERE \"UserName\" = ? [russellwhyte]",
+        query.toString());
+  }
+
+  @Test
+  public void quotedIdentifier() throws Exception {
+    final SqlQuery query = new SqlTranslator(SqlDialect.ANSI, new SqlMapping() {
+      @Override
+      public String getTableName(final EdmEntitySet entitySet) {
+        return "Trip\"Pin";
+      }
+    }).count(people, null, null);
+    assertEquals("SELECT COUNT(*) FROM \"Trip\"\"Pin\"", query.getSql());
+  }
+
+  @Test
+  public void notSupported() throws Exception {
+    expectNotImplemented("$select=Emails");
+    expectNotImplemented("$filter=Emails/any(e:e eq 'a')");
+    expectNotImplemented("$filter=Gender eq Microsoft.OData.SampleService.Models.TripPin.PersonGender'Male'");
+  }
+
+  private void expectNotImplemented(final String query) throws Exception {
+    try {
+      select(query);
+      fail("Expected exception for " + query);
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private SqlQuery select(final String query) throws Exception {
+    return translator.select(people, null, parse(query));
+  }
+
+  private SqlQuery count(final String query) throws Exception {
+    return translator.count(people, null, parse(query));
+  }
+
+  private UriInfo parse(final String query) throws Exception {
+    return new Parser().parseUri("People", query, null, edm);
+  }
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Random;
@@ -47,6 +48,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.apache.olingo.server.core.ServiceHandler;
+import org.apache.olingo.server.core.crossjoin.CrossJoinEngine;
 import org.apache.olingo.server.core.requests.ActionRequest;
 import org.apache.olingo.server.core.requests.DataRequest;
 import org.apache.olingo.server.core.requests.FunctionRequest;
@@ -54,6 +56,7 @@ import org.apache.olingo.server.core.requests.MediaRequest;
 import org.apache.olingo.server.core.requests.MetadataRequest;
 import org.apache.olingo.server.core.requests.ServiceDocumentRequest;
 import org.apache.olingo.server.core.responses.CountResponse;
+import org.apache.olingo.server.core.responses.CrossJoinResponse;
 import org.apache.olingo.server.core.responses.EntityResponse;
 import org.apache.olingo.server.core.responses.EntitySetResponse;
 import org.apache.olingo.server.core.responses.MetadataResponse;
@@ -525,7 +528,17 @@ public class TripPinHandler implements ServiceHandler {
   }
 
   @Override
-  public void crossJoin(DataRequest dataRequest, List<String> entitySetNames, ODataResponse response) {
-    response.setStatusCode(200);
+  public void crossJoin(DataRequest dataRequest, List<String> entitySetNames, ODataResponse response)
+      throws ODataTranslatedException, ODataApplicationException {
+    final CrossJoinEngine engine = new CrossJoinEngine(this.serviceMetadata.getEdm().getEntityContainer(null),
+        entitySetNames, dataRequest.getUriInfo().getFilterOption());
+    CrossJoinResponse.getInstance(dataRequest, dataRequest.getContextURL(this.odata), response)
+        .writeCrossJoin(engine.getEntitySets(), engine.execute(new CrossJoinEngine.EntitySource() {
+          @Override
+          public Iterator<Entity> read(EdmEntitySet entitySet) {
+            final EntityCollection entities = dataModel.getEntitySet(entitySet.getName());
+            return entities == null ? null : entities.getEntities().iterator();
+          }
+        }));
   }
 }
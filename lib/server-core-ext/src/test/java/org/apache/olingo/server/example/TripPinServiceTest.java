@@ -701,8 +701,21 @@ public class TripPinServiceTest {
 
   @Test
   public void testCrossJoin() throws Exception {
-    String editUrl = baseURL + "/$crossjoin(People,Airlines)";
+    String editUrl = baseURL + "/$crossjoin(Airlines,People)?$filter="
+        + Encoder.encode("People/UserName eq 'russellwhyte'");
     HttpResponse response = httpGET(editUrl, 200);
-    EntityUtils.consumeQuietly(response.getEntity());
+    JsonNode node = getJSONNode(response);
+    assertEquals("$metadata#Collection(Edm.ComplexType)", node.get("@odata.context").asText());
+    assertEquals(15, ((ArrayNode) node.get("value")).size());
+
+    editUrl = baseURL + "/$crossjoin(People,Airlines)?$filter=" + Encoder.encode(
+        "People/UserName eq 'russellwhyte' "
+        + "and (Airlines/AirlineCode eq 'AA' or startswith(Airlines/Name, People/LastName))");
+    response = httpGET(editUrl, 200);
+    node = getJSONNode(response);
+    assertEquals(1, ((ArrayNode) node.get("value")).size());
+    JsonNode row = node.get("value").get(0);
+    assertEquals("russellwhyte", row.get("People").get("UserName").asText());
+    assertEquals("American Airlines", row.get("Airlines").get("Name").asText());
   }
 }
@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmActionImport;
+import org.apache.olingo.commons.api.edm.EdmAnnotations;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmElement;
+import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.commons.api.edm.EdmFunctionImport;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.EdmOperation;
+import org.apache.olingo.commons.api.edm.EdmSchema;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
+
+/**
+ * Resolves every element of an entity data model once, so that errors in the model are detected
+ * at startup instead of in the first request that touches the broken element, and so that later
+ * requests find all lazily built types, properties, and bindings already in the caches.
+ * <br/>
+ * Each schema element is resolved by its own task; if an executor is given, the tasks run in parallel.
+ * All errors are collected and reported together.
+ */
+public class EdmWarmUp {
+
+  private final Edm edm;
+
+  public EdmWarmUp(final Edm edm) {
+    this.edm = edm;
+  }
+
+  /**
+   * Resolves all elements of the entity data model.
+   * @param executor executor running the resolution tasks;
+   * if <code>null</code> all elements are resolved in the calling thread
+   * @return the report with all errors found
+   */
+  public Report run(final ExecutorService executor) {
+    final long start = System.nanoTime();
+    final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+    final List<Check> checks = new ArrayList<Check>();
+    try {
+      // The schema list is built lazily and not thread-safe, so it is retrieved before any task is started.
+      for (final EdmSchema schema : edm.getSchemas()) {
+        addChecks(schema, checks);
+      }
+    } catch (final RuntimeException e) {
+      errors.add(message("Schemas", e));
+    }
+
+    if (executor == null) {
+      for (final Check check : checks) {
+        check.call();
+      }
+    } else {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>(checks.size());
+      for (final Check check : checks) {
+        futures.add(executor.submit(check));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          errors.add(message(checks.get(i).name, e));
+          break;
+        } catch (final ExecutionException e) {
+          errors.add(message(checks.get(i).name, e.getCause()));
+        }
+      }
+    }
+    for (final Check check : checks) {
+      errors.addAll(check.errors);
+    }
+
+    return new Report(checks.size(), (System.nanoTime() - start) / 1000000, errors);
+  }
+
+  private void addChecks(final EdmSchema schema, final List<Check> checks) {
+    final String namespace = schema.getNamespace();
+    for (final EdmEntityType entityType : schema.getEntityTypes()) {
+      checks.add(new Check(namespace + '.' + entityType.getName()) {
+        @Override
+        protected void resolve() {
+          resolveStructuredType(this, entityType);
+          for (final EdmKeyPropertyRef keyPropertyRef : entityType.getKeyPropertyRefs()) {
+            if (keyPropertyRef.getProperty() == null) {
+              error("Key property '" + keyPropertyRef.getName() + "' not found.");
+            }
+          }
+        }
+      });
+    }
+    for (final EdmComplexType complexType : schema.getComplexTypes()) {
+      checks.add(new Check(namespace + '.' + complexType.getName()) {
+        @Override
+        protected void resolve() {
+          resolveStructuredType(this, complexType);
+        }
+      });
+    }
+    for (final EdmEnumType enumType : schema.getEnumTypes()) {
+      checks.add(new Check(namespace + '.' + enumType.getName()) {
+        @Override
+        protected void resolve() {
+          for (final String memberName : enumType.getMemberNames()) {
+            enumType.getMember(memberName);
+          }
+        }
+      });
+    }
+    for (final EdmTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+      checks.add(new Check(namespace + '.' + typeDefinition.getName()) {
+        @Override
+        protected void resolve() {
+          typeDefinition.getUnderlyingType();
+        }
+      });
+    }
+    for (final EdmAction action : schema.getActions()) {
+      checks.add(new Check(namespace + '.' + action.getName()) {
+        @Override
+        protected void resolve() {
+          resolveOperation(this, action);
+        }
+      });
+    }
+    for (final EdmFunction function : schema.getFunctions()) {
+      checks.add(new Check(namespace + '.' + function.getName()) {
+        @Override
+        protected void resolve() {
+          resolveOperation(this, function);
+        }
+      });
+    }
+    for (final EdmTerm term : schema.getTerms()) {
+      checks.add(new Check(namespace + '.' + term.getName()) {
+        @Override
+        protected void resolve() {
+          term.getType();
+          term.getBaseTerm();
+        }
+      });
+    }
+    for (final EdmAnnotations annotations : schema.getAnnotationGroups()) {
+      checks.add(new Check(namespace + " annotations") {
+        @Override
+        protected void resolve() {
+          annotations.getTarget();
+          annotations.getAnnotations();
+        }
+      });
+    }
+    final EdmEntityContainer container = schema.getEntityContainer();
+    if (container != null) {
+      addChecks(container, checks);
+    }
+  }
+
+  private void addChecks(final EdmEntityContainer container, final List<Check> checks) {
+    final String containerName = container.getFullQualifiedName().getFullQualifiedNameAsString();
+    final List<EdmBindingTarget> bindingTargets = new ArrayList<EdmBindingTarget>();
+    bindingTargets.addAll(container.getEntitySets());
+    bindingTargets.addAll(container.getSingletons());
+    for (final EdmBindingTarget bindingTarget : bindingTargets) {
+      checks.add(new Check(containerName + '/' + bindingTarget.getName()) {
+        @Override
+        protected void resolve() {
+          if (bindingTarget.getEntityType() == null) {
+            error("Entity type not found.");
+          }
+          for (final EdmNavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+            if (bindingTarget.getRelatedBindingTarget(binding.getPath()) == null) {
+              error("Target of navigation-property binding '" + binding.getPath() + "' not found.");
+            }
+          }
+        }
+      });
+    }
+    for (final EdmActionImport actionImport : container.getActionImports()) {
+      checks.add(new Check(containerName + '/' + actionImport.getName()) {
+        @Override
+        protected void resolve() {
+          if (actionImport.getUnboundAction() == null) {
+            error("Action not found.");
+          }
+        }
+      });
+    }
+    for (final EdmFunctionImport functionImport : container.getFunctionImports()) {
+      checks.add(new Check(containerName + '/' + functionImport.getName()) {
+        @Override
+        protected void resolve() {
+          if (functionImport.getUnboundFunctions().isEmpty()) {
+            error("Function not found.");
+          }
+        }
+      });
+    }
+  }
+
+  private void resolveStructuredType(final Check check, final EdmStructuredType type) {
+    type.getBaseType();
+    // Properties are resolved one by one so that one broken property does not hide errors in others.
+    for (final String propertyName : type.getPropertyNames()) {
+      try {
+        final EdmElement property = type.getProperty(propertyName);
+        if (property == null || property.getType() == null) {
+          check.error("Type of property '" + propertyName + "' not found.");
+        }
+      } catch (final RuntimeException e) {
+        check.error(e);
+      }
+    }
+    for (final String navigationPropertyName : type.getNavigationPropertyNames()) {
+      try {
+        final EdmNavigationProperty navigationProperty = type.getNavigationProperty(navigationPropertyName);
+        if (navigationProperty == null || navigationProperty.getType() == null) {
+          check.error("Type of navigation property '" + navigationPropertyName + "' not found.");
+        } else {
+          navigationProperty.getPartner();
+          navigationProperty.getReferentialConstraints();
+        }
+      } catch (final RuntimeException e) {
+        check.error(e);
+      }
+    }
+  }
+
+  private void resolveOperation(final Check check, final EdmOperation operation) {
+    for (final String parameterName : operation.getParameterNames()) {
+      if (operation.getParameter(parameterName).getType() == null) {
+        check.error("Type of parameter '" + parameterName + "' not found.");
+      }
+    }
+    if (operation.getReturnType() != null && operation.getReturnType().getType() == null) {
+      check.error("Return type not found.");
+    }
+  }
+
+  private static String message(final String name, final Throwable e) {
+    return name + ": " + (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+  }
+
+  /** Resolution of one schema element; errors are collected instead of thrown. */
+  private abstract static class Check implements Callable<Void> {
+
+    private final String name;
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+
+    protected Check(final String name) {
+      this.name = name;
+    }
+
+    protected abstract void resolve();
+
+    protected void error(final String message) {
+      errors.add(name + ": " + message);
+    }
+
+    protected void error(final Throwable e) {
+      errors.add(message(name, e));
+    }
+
+    @Override
+    public Void call() {
+      try {
+        resolve();
+      } catch (final RuntimeException e) {
+        error(e);
+      }
+      return null;
+    }
+  }
+
+  /** Result of resolving an entity data model. */
+  public static class Report {
+
+    private final int elementCount;
+    private final long duration;
+    private final List<String> errors;
+
+    protected Report(final int elementCount, final long duration, final List<String> errors) {
+      this.elementCount = elementCount;
+      this.duration = duration;
+      this.errors = Collections.unmodifiableList(new ArrayList<String>(errors));
+    }
+
+    /** @return the number of resolved schema elements */
+    public int getElementCount() {
+      return elementCount;
+    }
+
+    /** @return the time in milliseconds needed to resolve all elements */
+    public long getDuration() {
+      return duration;
+    }
+
+    /** @return the errors found, each starting with the name of the erroneous element */
+    public List<String> getErrors() {
+      return errors;
+    }
+
+    /** @return <code>true</code> if no error has been found */
+    public boolean isValid() {
+      return errors.isEmpty();
+    }
+  }
+}
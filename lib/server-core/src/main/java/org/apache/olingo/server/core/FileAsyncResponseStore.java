@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.server.api.AsyncResponseStore;
+import org.apache.olingo.server.api.ODataResponse;
+
+/**
+ * Keeps the responses of asynchronously processed requests in files of a local directory,
+ * so that large responses do not occupy memory until they are retrieved.
+ * <br/>
+ * The requests whose processing has not been completed yet are known only in memory.
+ * <br/>
+ * Response files that have not been retrieved within the time to live are deleted;
+ * they are swept out when new requests are registered, including files left over from earlier runs.
+ */
+public class FileAsyncResponseStore implements AsyncResponseStore {
+
+  private static final Pattern ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+  private static final String SUFFIX = ".response";
+
+  private final File directory;
+  private final ConcurrentMap<String, Boolean> pending = new ConcurrentHashMap<String, Boolean>();
+  private final long timeToLive;
+  private final AtomicLong nextSweep = new AtomicLong();
+
+  /**
+   * Creates a store keeping response files for one hour.
+   * @param directory the directory for the files; it is created if it does not exist
+   */
+  public FileAsyncResponseStore(final File directory) {
+    this(directory, MemoryAsyncResponseStore.DEFAULT_TIME_TO_LIVE, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param directory the directory for the files; it is created if it does not exist
+   * @param timeToLive how long response files are kept if they are not retrieved
+   * @param unit the unit of the time to live
+   */
+  public FileAsyncResponseStore(final File directory, final long timeToLive, final TimeUnit unit) {
+    this.directory = directory;
+    this.timeToLive = unit.toMillis(timeToLive);
+  }
+
+  @Override
+  public String create() {
+    sweep();
+    final String id = UUID.randomUUID().toString();
+    pending.put(id, Boolean.TRUE);
+    return id;
+  }
+
+  @Override
+  public void complete(final String id, final ODataResponse response) throws IOException {
+    if (!pending.containsKey(id)) {
+      if (response.getContent() != null) {
+        response.getContent().close();
+      }
+      return;
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create directory " + directory);
+    }
+    final File temporary = new File(directory, id + ".tmp");
+    final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+    try {
+      output.writeInt(response.getStatusCode());
+      output.writeInt(response.getHeaders().size());
+      for (final Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+        output.writeUTF(header.getKey());
+        output.writeUTF(header.getValue());
+      }
+      MemoryAsyncResponseStore.copy(response.getContent(), output);
+    } finally {
+      output.close();
+    }
+    final File file = file(id);
+    if (!temporary.renameTo(file)) {
+      temporary.delete();
+      throw new IOException("Cannot store response in " + file);
+    }
+    // The request could have been removed while its response was written.
+    if (pending.remove(id) == null) {
+      file.delete();
+    }
+  }
+
+  @Override
+  public boolean contains(final String id) {
+    return pending.containsKey(id) || isValid(id) && isAvailable(file(id));
+  }
+
+  @Override
+  public ODataResponse get(final String id) throws IOException {
+    if (!isValid(id) || pending.containsKey(id) || !isAvailable(file(id))) {
+      return null;
+    }
+    final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file(id))));
+    try {
+      ODataResponse response = new ODataResponse();
+      response.setStatusCode(input.readInt());
+      final int headerCount = input.readInt();
+      for (int i = 0; i < headerCount; i++) {
+        response.setHeader(input.readUTF(), input.readUTF());
+      }
+      // The rest of the file is the content; the stream is closed by the consumer of the response.
+      response.setContent(input);
+      return response;
+    } catch (final IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void remove(final String id) {
+    pending.remove(id);
+    if (isValid(id)) {
+      file(id).delete();
+    }
+  }
+
+  /** @return whether the response file exists and has not expired; an expired file is deleted */
+  private boolean isAvailable(final File file) {
+    if (!file.isFile()) {
+      return false;
+    }
+    if (isExpired(file, System.currentTimeMillis())) {
+      file.delete();
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isExpired(final File file, final long now) {
+    return now - file.lastModified() > timeToLive;
+  }
+
+  /** Deletes the expired response files, at most once per time to live. */
+  private void sweep() {
+    final long now = System.currentTimeMillis();
+    final long next = nextSweep.get();
+    if (now < next || !nextSweep.compareAndSet(next, now + timeToLive)) {
+      return;
+    }
+    final File[] files = directory.listFiles();
+    if (files != null) {
+      for (final File file : files) {
+        final String name = file.getName();
+        if (name.endsWith(SUFFIX) && isValid(name.substring(0, name.length() - SUFFIX.length()))
+            && isExpired(file, now)) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  /** IDs are checked before they are used in file names because they are taken from request URLs. */
+  private boolean isValid(final String id) {
+    return id != null && ID.matcher(id).matches();
+  }
+
+  private File file(final String id) {
+    return new File(directory, id + SUFFIX);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.server.api.AsyncResponseStore;
+import org.apache.olingo.server.api.ODataResponse;
+
+/**
+ * Keeps the responses of asynchronously processed requests in memory.
+ * <br/>
+ * Completed responses that have not been retrieved within the time to live are discarded;
+ * they are swept out when new requests are registered.
+ */
+public class MemoryAsyncResponseStore implements AsyncResponseStore {
+
+  /** Default time to live of completed responses, in milliseconds. */
+  static final long DEFAULT_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(1);
+
+  private static final StoredResponse PENDING = new StoredResponse(0, null, null);
+
+  private final ConcurrentMap<String, StoredResponse> responses = new ConcurrentHashMap<String, StoredResponse>();
+  private final long timeToLive;
+  private final AtomicLong nextSweep;
+
+  /** Creates a store keeping completed responses for one hour. */
+  public MemoryAsyncResponseStore() {
+    this(DEFAULT_TIME_TO_LIVE, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param timeToLive how long completed responses are kept if they are not retrieved
+   * @param unit the unit of the time to live
+   */
+  public MemoryAsyncResponseStore(final long timeToLive, final TimeUnit unit) {
+    this.timeToLive = unit.toNanos(timeToLive);
+    nextSweep = new AtomicLong(System.nanoTime() + this.timeToLive);
+  }
+
+  @Override
+  public String create() {
+    sweep();
+    final String id = UUID.randomUUID().toString();
+    responses.put(id, PENDING);
+    return id;
+  }
+
+  @Override
+  public void complete(final String id, final ODataResponse response) throws IOException {
+    final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    copy(response.getContent(), content);
+    responses.replace(id, PENDING, new StoredResponse(response.getStatusCode(),
+        new LinkedHashMap<String, String>(response.getHeaders()), content.toByteArray()));
+  }
+
+  @Override
+  public boolean contains(final String id) {
+    return lookup(id) != null;
+  }
+
+  @Override
+  public ODataResponse get(final String id) {
+    final StoredResponse stored = lookup(id);
+    if (stored == null || stored == PENDING) {
+      return null;
+    }
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(stored.statusCode);
+    for (final Map.Entry<String, String> header : stored.headers.entrySet()) {
+      response.setHeader(header.getKey(), header.getValue());
+    }
+    response.setContent(new ByteArrayInputStream(stored.content));
+    return response;
+  }
+
+  @Override
+  public void remove(final String id) {
+    responses.remove(id);
+  }
+
+  /** @return the stored response, or <code>null</code> if the request is unknown or its response has expired */
+  private StoredResponse lookup(final String id) {
+    final StoredResponse stored = responses.get(id);
+    if (stored != null && stored != PENDING && isExpired(stored, System.nanoTime())) {
+      responses.remove(id, stored);
+      return null;
+    }
+    return stored;
+  }
+
+  private boolean isExpired(final StoredResponse stored, final long now) {
+    return now - stored.completed > timeToLive;
+  }
+
+  /** Removes the expired responses, at most once per time to live. */
+  private void sweep() {
+    final long now = System.nanoTime();
+    final long next = nextSweep.get();
+    if (now - next < 0 || !nextSweep.compareAndSet(next, now + timeToLive)) {
+      return;
+    }
+    for (final Map.Entry<String, StoredResponse> entry : responses.entrySet()) {
+      if (entry.getValue() != PENDING && isExpired(entry.getValue(), now)) {
+        responses.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /** Copies the content, if any, and closes it. */
+  static void copy(final InputStream content, final OutputStream output) throws IOException {
+    if (content == null) {
+      return;
+    }
+    try {
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = content.read(buffer)) != -1) {
+        output.write(buffer, 0, count);
+      }
+    } finally {
+      content.close();
+    }
+  }
+
+  private static final class StoredResponse {
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final byte[] content;
+    private final long completed = System.nanoTime();
+
+    private StoredResponse(final int statusCode, final Map<String, String> headers, final byte[] content) {
+      this.statusCode = statusCode;
+      this.headers = headers;
+      this.content = content;
+    }
+  }
+}
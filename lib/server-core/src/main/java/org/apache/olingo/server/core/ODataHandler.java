@@ -570,6 +570,11 @@ public class ODataHandler {
     final HttpMethod method = request.getMethod();
     if (isCollection) {
       if (method == HttpMethod.GET) {
+        if (uriInfo.getDeltaTokenOption() != null) {
+          // There is no processor interface for the changes of an entity set.
+          throw new ODataHandlerException("Delta requests are not supported.",
+              ODataHandlerException.MessageKeys.FUNCTIONALITY_NOT_IMPLEMENTED);
+        }
         final ContentType requestedContentType = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
             request, customContentTypeSupport, RepresentationType.COLLECTION_ENTITY);
         selectProcessor(EntityCollectionProcessor.class)
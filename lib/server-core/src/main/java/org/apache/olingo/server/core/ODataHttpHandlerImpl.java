@@ -18,21 +18,31 @@
  */
 package org.apache.olingo.server.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.olingo.commons.api.ODataRuntimeException;
+import org.apache.olingo.commons.api.http.HttpContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.AsyncResponseStore;
+import org.apache.olingo.server.api.AsyncSupport;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataHttpHandler;
 import org.apache.olingo.server.api.ODataRequest;
@@ -43,15 +53,22 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ODataHttpHandlerImpl implements ODataHttpHandler {
+public class ODataHttpHandlerImpl implements ODataHttpHandler, AsyncSupport {
 
   private static final Logger LOG = LoggerFactory.getLogger(ODataHttpHandlerImpl.class);
 
+  /** Path of the status monitor resources of asynchronously processed requests, relative to the service root */
+  static final String ASYNC_MONITOR_PATH = "/$async/";
+  static final String PREFERENCE_RESPOND_ASYNC = "respond-async";
+
   private ODataHandler handler;
   private int split = 0;
+  private ExecutorService asyncExecutor;
+  private AsyncResponseStore asyncStore;
 
   public ODataHttpHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
     handler = new ODataHandler(odata, serviceMetadata);
@@ -64,7 +81,14 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     try {
       odRequest = new ODataRequest();
           fillODataRequest(odRequest, request, split);
-      odResponse = handler.process(odRequest);
+      if (asyncStore != null && odRequest.getRawODataPath().startsWith(ASYNC_MONITOR_PATH)) {
+        odResponse = processStatusMonitor(odRequest);
+      } else if (asyncExecutor != null && asyncStore != null
+          && odRequest.isPreferred(PREFERENCE_RESPOND_ASYNC)) {
+        odResponse = processAsync(odRequest);
+      } else {
+        odResponse = handler.process(odRequest);
+      }
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
       odResponse = handleException(odRequest, e);
@@ -78,6 +102,114 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     this.split = split;
   }
 
+  @Override
+  public void setAsyncSupport(final ExecutorService executor, final AsyncResponseStore store) {
+    asyncExecutor = executor;
+    asyncStore = store;
+  }
+
+  /**
+   * Submits the request to the executor and returns the response pointing to the status monitor.
+   * If the executor does not accept the request, the request is processed immediately.
+   */
+  private ODataResponse processAsync(final ODataRequest odRequest) throws IOException {
+    // The body of the HTTP request cannot be read after the HTTP response has been sent.
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    MemoryAsyncResponseStore.copy(odRequest.getBody(), body);
+    odRequest.setBody(new ByteArrayInputStream(body.toByteArray()));
+
+    final String id = asyncStore.create();
+    try {
+      asyncExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          completeAsync(id, odRequest);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      asyncStore.remove(id);
+      return handler.process(odRequest);
+    }
+
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+    response.setHeader(HttpHeader.LOCATION, odRequest.getRawBaseUri() + ASYNC_MONITOR_PATH + id);
+    response.setHeader(HttpHeader.PREFERENCE_APPLIED, PREFERENCE_RESPOND_ASYNC);
+    return response;
+  }
+
+  private void completeAsync(final String id, final ODataRequest odRequest) {
+    ODataResponse odResponse;
+    try {
+      odResponse = handler.process(odRequest);
+    } catch (final RuntimeException e) {
+      odResponse = handleException(odRequest, e);
+    }
+    try {
+      asyncStore.complete(id, odResponse);
+    } catch (final IOException e) {
+      LOG.error(e.getMessage(), e);
+      asyncStore.remove(id);
+    }
+  }
+
+  /**
+   * Serves the status monitor resource of an asynchronously processed request:
+   * GET returns 202 Accepted while the request is processed and the response of the request afterwards;
+   * DELETE discards the request.
+   */
+  private ODataResponse processStatusMonitor(final ODataRequest odRequest) throws IOException {
+    final String id = odRequest.getRawODataPath().substring(ASYNC_MONITOR_PATH.length());
+    ODataResponse response = new ODataResponse();
+    if (!asyncStore.contains(id)) {
+      response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+    } else if (odRequest.getMethod() == HttpMethod.DELETE) {
+      asyncStore.remove(id);
+      response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    } else if (odRequest.getMethod() == HttpMethod.GET) {
+      final ODataResponse result = asyncStore.get(id);
+      if (result == null) {
+        response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+        response.setHeader(HttpHeader.LOCATION, odRequest.getRawBaseUri() + ASYNC_MONITOR_PATH + id);
+      } else {
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, HttpContentType.APPLICATION_HTTP);
+        response.setHeader(BatchParserCommon.HTTP_CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING);
+        response.setContent(getHttpMessage(id, result));
+      }
+    } else {
+      response.setStatusCode(HttpStatusCode.METHOD_NOT_ALLOWED.getStatusCode());
+    }
+    return response;
+  }
+
+  /**
+   * Returns the response as HTTP message.
+   * The response is removed from the store when the message has been read and closed.
+   */
+  private InputStream getHttpMessage(final String id, final ODataResponse result) throws IOException {
+    final HttpStatusCode status = HttpStatusCode.fromStatusCode(result.getStatusCode());
+    StringBuilder head = new StringBuilder("HTTP/1.1 ").append(result.getStatusCode())
+        .append(' ').append(status == null ? "" : status.getInfo()).append("\r\n");
+    for (final Entry<String, String> header : result.getHeaders().entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    head.append("\r\n");
+    final InputStream content = result.getContent() == null ?
+        new ByteArrayInputStream(new byte[0]) : result.getContent();
+    return new FilterInputStream(new SequenceInputStream(
+        new ByteArrayInputStream(head.toString().getBytes("UTF-8")), content)) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          asyncStore.remove(id);
+        }
+      }
+    };
+  }
+
   private ODataResponse handleException(ODataRequest odRequest, Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
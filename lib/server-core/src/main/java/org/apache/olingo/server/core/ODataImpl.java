@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.core;
 
+import java.io.File;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -25,6 +26,7 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edm.provider.EdmProvider;
 import org.apache.olingo.commons.api.format.ODataFormat;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.AsyncResponseStore;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataHttpHandler;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -75,6 +77,11 @@ public class ODataImpl extends OData {
     return new ODataHttpHandlerImpl(this, edm);
   }
 
+  @Override
+  public AsyncResponseStore createAsyncResponseStore(final File directory) {
+    return directory == null ? new MemoryAsyncResponseStore() : new FileAsyncResponseStore(directory);
+  }
+
   @Override
   public ServiceMetadata createServiceMetadata(EdmProvider edmProvider, List<EdmxReference> references) {
     return new ServiceMetadataImpl(edmProvider, references);
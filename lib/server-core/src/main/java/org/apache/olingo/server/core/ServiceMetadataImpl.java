@@ -28,6 +28,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  */
@@ -55,4 +56,15 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   public List<EdmxReference> getReferences() {
     return Collections.unmodifiableList(references);
   }
+
+  /**
+   * Resolves all elements of the entity data model, e.g., at service startup.
+   * Errors in the model are collected and reported together instead of surfacing in single requests.
+   * @param executor executor for resolving the elements in parallel; may be <code>null</code>
+   * @return report with the number of resolved elements, the time needed, and all errors found
+   * @see EdmWarmUp
+   */
+  public EdmWarmUp.Report warmUp(final ExecutorService executor) {
+    return new EdmWarmUp(edm).run(executor);
+  }
 }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
+
+/**
+ * Content of a $crossjoin response that is serialized while it is read;
+ * the rows are taken from the iterator as the content is read.
+ */
+class CrossJoinContent extends StreamedContent {
+
+  private final ODataJsonSerializer serializer;
+  private final ServiceMetadata metadata;
+  private final List<EdmEntitySet> entitySets;
+  private final Iterator<List<Entity>> rows;
+
+  CrossJoinContent(final ODataJsonSerializer serializer, final ServiceMetadata metadata,
+      final List<EdmEntitySet> entitySets, final Iterator<List<Entity>> rows, final ContextURL contextURL)
+      throws IOException {
+    this.serializer = serializer;
+    this.metadata = metadata;
+    this.entitySets = entitySets;
+    this.rows = rows;
+    json.writeStartObject();
+    if (contextURL != null) {
+      json.writeStringField(Constants.JSON_CONTEXT, ContextURLBuilder.create(contextURL).toASCIIString());
+    }
+    json.writeFieldName(Constants.VALUE);
+    json.writeStartArray();
+  }
+
+  @Override
+  protected boolean writeNext() throws IOException {
+    if (!rows.hasNext()) {
+      return false;
+    }
+    final List<Entity> row = rows.next();
+    json.writeStartObject();
+    for (int index = 0; index < entitySets.size(); index++) {
+      final EdmEntitySet entitySet = entitySets.get(index);
+      json.writeFieldName(entitySet.getName());
+      try {
+        serializer.writeEntity(metadata, entitySet.getEntityType(), row.get(index), null, null, null, false, json);
+      } catch (final SerializerException e) {
+        throw new IOException(e);
+      }
+    }
+    json.writeEndObject();
+    return true;
+  }
+
+  @Override
+  protected void writeEnd() throws IOException {
+    json.writeEndArray();
+    json.writeEndObject();
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.ContextURL.Suffix;
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.DeltaLink;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.DeltaChange;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
+
+/**
+ * Content of a delta response that is serialized while it is read;
+ * the changes are taken from the iterator as the content is read.
+ * <br/>
+ * Deleted entities, added links, and deleted links are written with their own context URLs
+ * (with the suffixes <code>$deletedEntity</code>, <code>$link</code>, and <code>$deletedLink</code>),
+ * also without metadata, because only the context URLs distinguish them from entities.
+ */
+class DeltaContent extends StreamedContent {
+
+  private final ODataJsonSerializer serializer;
+  private final ServiceMetadata metadata;
+  private final EdmEntityType entityType;
+  private final Iterator<DeltaChange> changes;
+  private final URI nextLink;
+  private final URI deltaLink;
+  private final String deletedEntityContext;
+  private final String linkContext;
+  private final String deletedLinkContext;
+
+  DeltaContent(final ODataJsonSerializer serializer, final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Iterator<DeltaChange> changes, final ContextURL contextURL, final boolean writeContext,
+      final URI nextLink, final URI deltaLink) throws IOException {
+    this.serializer = serializer;
+    this.metadata = metadata;
+    this.entityType = entityType;
+    this.changes = changes;
+    this.nextLink = nextLink;
+    this.deltaLink = deltaLink;
+    deletedEntityContext = createContextURL(contextURL, Suffix.DELTA_DELETED_ENTITY);
+    linkContext = createContextURL(contextURL, Suffix.DELTA_LINK);
+    deletedLinkContext = createContextURL(contextURL, Suffix.DELTA_DELETED_LINK);
+    json.writeStartObject();
+    if (writeContext) {
+      json.writeStringField(Constants.JSON_CONTEXT, createContextURL(contextURL, Suffix.DELTA));
+    }
+    json.writeFieldName(Constants.VALUE);
+    json.writeStartArray();
+  }
+
+  /** Gets the changes of a delta in the order they are written. */
+  static Iterator<DeltaChange> getChanges(final Delta delta) {
+    List<DeltaChange> changes = new ArrayList<DeltaChange>(delta.getEntities().size()
+        + delta.getDeletedEntities().size() + delta.getAddedLinks().size() + delta.getDeletedLinks().size());
+    for (final Entity entity : delta.getEntities()) {
+      changes.add(DeltaChange.entity(entity));
+    }
+    for (final DeletedEntity deletedEntity : delta.getDeletedEntities()) {
+      changes.add(DeltaChange.deletedEntity(deletedEntity));
+    }
+    for (final DeltaLink link : delta.getAddedLinks()) {
+      changes.add(DeltaChange.addedLink(link));
+    }
+    for (final DeltaLink link : delta.getDeletedLinks()) {
+      changes.add(DeltaChange.deletedLink(link));
+    }
+    return changes.iterator();
+  }
+
+  @Override
+  protected boolean writeNext() throws IOException {
+    if (!changes.hasNext()) {
+      return false;
+    }
+    final DeltaChange change = changes.next();
+    switch (change.getKind()) {
+    case ENTITY:
+      try {
+        serializer.writeEntity(metadata, entityType, change.getEntity(), null, null, null, false, json);
+      } catch (final SerializerException e) {
+        throw new IOException(e);
+      }
+      break;
+    case DELETED_ENTITY:
+      writeDeletedEntity(change.getDeletedEntity());
+      break;
+    case ADDED_LINK:
+      writeLink(change.getLink(), linkContext);
+      break;
+    case DELETED_LINK:
+      writeLink(change.getLink(), deletedLinkContext);
+      break;
+    }
+    return true;
+  }
+
+  @Override
+  protected void writeEnd() throws IOException {
+    json.writeEndArray();
+    if (nextLink != null) {
+      json.writeStringField(Constants.JSON_NEXT_LINK, nextLink.toASCIIString());
+    } else if (deltaLink != null) {
+      json.writeStringField(Constants.JSON_DELTA_LINK, deltaLink.toASCIIString());
+    }
+    json.writeEndObject();
+  }
+
+  private void writeDeletedEntity(final DeletedEntity deletedEntity) throws IOException {
+    json.writeStartObject();
+    json.writeStringField(Constants.JSON_CONTEXT, deletedEntityContext);
+    json.writeStringField("id", deletedEntity.getId().toASCIIString());
+    if (deletedEntity.getReason() != null) {
+      json.writeStringField("reason", deletedEntity.getReason().name());
+    }
+    json.writeEndObject();
+  }
+
+  private void writeLink(final DeltaLink link, final String context) throws IOException {
+    json.writeStartObject();
+    json.writeStringField(Constants.JSON_CONTEXT, context);
+    json.writeStringField("source", link.getSource().toASCIIString());
+    json.writeStringField("relationship", link.getRelationship());
+    json.writeStringField("target", link.getTarget().toASCIIString());
+    json.writeEndObject();
+  }
+
+  private static String createContextURL(final ContextURL contextURL, final Suffix suffix) {
+    return ContextURLBuilder.create(ContextURL.with()
+        .serviceRoot(contextURL.getServiceRoot())
+        .entitySetOrSingletonOrType(contextURL.getEntitySetOrSingletonOrType())
+        .suffix(suffix)
+        .build()).toASCIIString();
+  }
+}
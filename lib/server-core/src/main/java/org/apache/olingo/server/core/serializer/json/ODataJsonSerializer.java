@@ -19,13 +19,16 @@
 package org.apache.olingo.server.core.serializer.json;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Delta;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
@@ -33,6 +36,7 @@ import org.apache.olingo.commons.api.data.Linked;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -46,6 +50,9 @@ import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ComplexSerializerOptions;
+import org.apache.olingo.server.api.serializer.CrossJoinSerializerOptions;
+import org.apache.olingo.server.api.serializer.DeltaChange;
+import org.apache.olingo.server.api.serializer.DeltaSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
@@ -184,6 +191,51 @@ public class ODataJsonSerializer implements ODataSerializer {
     return SerializerResultImpl.with().content(buffer.getInputStream()).build();
   }
 
+  @Override
+  public SerializerResult crossJoin(final ServiceMetadata metadata, final List<EdmEntitySet> entitySets,
+      final Iterator<List<Entity>> rows, final CrossJoinSerializerOptions options) throws SerializerException {
+    final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
+    try {
+      return SerializerResultImpl.with()
+          .content(new CrossJoinContent(this, metadata, entitySets, rows, contextURL))
+          .build();
+    } catch (final IOException e) {
+      throw new SerializerException("An I/O exception occurred.", e,
+          SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+  }
+
+  @Override
+  public SerializerResult delta(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Delta delta, final DeltaSerializerOptions options) throws SerializerException {
+    return delta(metadata, entityType, DeltaContent.getChanges(delta), delta.getNext(), delta.getDeltaLink(),
+        options);
+  }
+
+  @Override
+  public SerializerResult delta(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Iterator<DeltaChange> changes, final URI deltaLink, final DeltaSerializerOptions options)
+      throws SerializerException {
+    return delta(metadata, entityType, changes, null, deltaLink, options);
+  }
+
+  private SerializerResult delta(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Iterator<DeltaChange> changes, final URI nextLink, final URI deltaLink,
+      final DeltaSerializerOptions options) throws SerializerException {
+    if (options == null || options.getContextURL() == null) {
+      throw new SerializerException("ContextURL null!", SerializerException.MessageKeys.NO_CONTEXT_URL);
+    }
+    try {
+      return SerializerResultImpl.with()
+          .content(new DeltaContent(this, metadata, entityType, changes, options.getContextURL(),
+              format != ODataFormat.JSON_NO_METADATA, nextLink, deltaLink))
+          .build();
+    } catch (final IOException e) {
+      throw new SerializerException("An I/O exception occurred.", e,
+          SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+  }
+
   private ContextURL checkContextURL(final ContextURL contextURL) throws SerializerException {
     if (format == ODataFormat.JSON_NO_METADATA) {
       return null;
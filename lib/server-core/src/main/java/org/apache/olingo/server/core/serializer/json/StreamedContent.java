@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * JSON content that is serialized while it is read.
+ * <br/>
+ * Each time the buffered part has been read, the next items are written into the buffer,
+ * so only a few items are held in memory at any time. Subclasses write the start of the
+ * content in their constructor.
+ */
+abstract class StreamedContent extends InputStream {
+
+  /** Number of bytes after which no further items are written into the buffer. */
+  private static final int CHUNK_SIZE = 8192;
+
+  private final Buffer buffer = new Buffer();
+  protected final JsonGenerator json;
+  private int position = 0;
+  private boolean finished = false;
+
+  protected StreamedContent() throws IOException {
+    json = new JsonFactory().createGenerator(buffer);
+  }
+
+  /**
+   * Writes the next item.
+   * @return <code>false</code> if there are no more items
+   */
+  protected abstract boolean writeNext() throws IOException;
+
+  /** Writes the end of the content after the last item. */
+  protected abstract void writeEnd() throws IOException;
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer.byteAt(position++) & 0xFF : -1;
+  }
+
+  @Override
+  public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    final int count = Math.min(length, buffer.size() - position);
+    System.arraycopy(buffer.bytes(), position, bytes, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.size() - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    finished = true;
+    json.close();
+  }
+
+  /** Makes sure that unread content is in the buffer; returns <code>false</code> at the end of the content. */
+  private boolean fill() throws IOException {
+    while (position == buffer.size()) {
+      if (finished) {
+        return false;
+      }
+      buffer.reset();
+      position = 0;
+      json.flush();
+      boolean more = true;
+      while (buffer.size() < CHUNK_SIZE && more) {
+        more = writeNext();
+        json.flush();
+      }
+      if (!more) {
+        writeEnd();
+        json.close();
+        finished = true;
+      }
+    }
+    return true;
+  }
+
+  /** Output buffer that gives access to its content without copying it. */
+  private static class Buffer extends ByteArrayOutputStream {
+
+    Buffer() {
+      super(CHUNK_SIZE + CHUNK_SIZE / 2);
+    }
+
+    byte byteAt(final int index) {
+      return buf[index];
+    }
+
+    byte[] bytes() {
+      return buf;
+    }
+  }
+}
@@ -18,20 +18,29 @@
  */
 package org.apache.olingo.server.core.serializer.xml;
 
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.apache.olingo.commons.api.data.Delta;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ComplexSerializerOptions;
+import org.apache.olingo.server.api.serializer.CrossJoinSerializerOptions;
+import org.apache.olingo.server.api.serializer.DeltaChange;
+import org.apache.olingo.server.api.serializer.DeltaSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
@@ -134,4 +143,26 @@ public class ODataXmlSerializerImpl implements ODataSerializer {
     throw new SerializerException("Serialization not implemented for XML format.",
         SerializerException.MessageKeys.NOT_IMPLEMENTED);
   }
+
+  @Override
+  public SerializerResult crossJoin(final ServiceMetadata metadata, final List<EdmEntitySet> entitySets,
+      final Iterator<List<Entity>> rows, final CrossJoinSerializerOptions options) throws SerializerException {
+    throw new SerializerException("Serialization not implemented for XML format.",
+        SerializerException.MessageKeys.NOT_IMPLEMENTED);
+  }
+
+  @Override
+  public SerializerResult delta(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Delta delta, final DeltaSerializerOptions options) throws SerializerException {
+    throw new SerializerException("Serialization not implemented for XML format.",
+        SerializerException.MessageKeys.NOT_IMPLEMENTED);
+  }
+
+  @Override
+  public SerializerResult delta(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Iterator<DeltaChange> changes, final URI deltaLink, final DeltaSerializerOptions options)
+      throws SerializerException {
+    throw new SerializerException("Serialization not implemented for XML format.",
+        SerializerException.MessageKeys.NOT_IMPLEMENTED);
+  }
 }
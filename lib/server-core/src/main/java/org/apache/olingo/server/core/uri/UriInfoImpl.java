@@ -32,6 +32,7 @@ import org.apache.olingo.server.api.uri.UriInfoService;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.DeltaTokenOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.FilterOption;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
@@ -221,6 +222,11 @@ public class UriInfoImpl implements UriInfo {
     return (TopOption) systemQueryOptions.get(SystemQueryOptionKind.TOP);
   }
 
+  @Override
+  public DeltaTokenOption getDeltaTokenOption() {
+    return (DeltaTokenOption) systemQueryOptions.get(SystemQueryOptionKind.DELTATOKEN);
+  }
+
   public UriInfoImpl setQueryOptions(final List<QueryOptionImpl> list) {
 
     for (QueryOptionImpl item : list) {
@@ -261,6 +267,7 @@ public class UriInfoImpl implements UriInfo {
     case SKIPTOKEN:
     case TOP:
     case LEVELS:
+    case DELTATOKEN:
       if (systemQueryOptions.containsKey(kind)) {
         throw new ODataRuntimeException("Double System Query Option: " + systemOption.getName());
       } else {
@@ -51,14 +51,17 @@ import org.apache.olingo.server.core.uri.antlr.UriParserParser.PathSegmentEOFCon
 import org.apache.olingo.server.core.uri.antlr.UriParserParser.SelectEOFContext;
 import org.apache.olingo.server.core.uri.queryoption.CountOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.CustomQueryOptionImpl;
+import org.apache.olingo.server.core.uri.queryoption.DeltaTokenOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.FilterOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.FormatOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.IdOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.OrderByOptionImpl;
+import org.apache.olingo.server.core.uri.queryoption.SearchOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.SelectOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.SkipOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.SkipTokenOptionImpl;
+import org.apache.olingo.server.core.uri.queryoption.SystemQueryOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.TopOptionImpl;
 
 import java.util.ArrayList;
@@ -200,7 +203,11 @@ public class Parser {
 
             systemOption = (OrderByOptionImpl) uriParseTreeVisitor.visitOrderByEOF(ctxOrderByExpression);
           } else if (option.name.equals(SystemQueryOptionKind.SEARCH.toString())) {
-            throw new RuntimeException("System query option '$search' not implemented!");
+            SearchOptionImpl searchOption = new SearchOptionImpl();
+            searchOption.setName(option.name);
+            searchOption.setText(option.value);
+            searchOption.setSearchExpression(new SearchParser().parse(option.value));
+            systemOption = searchOption;
           } else if (option.name.equals(SystemQueryOptionKind.SELECT.toString())) {
             SelectEOFContext ctxSelectEOF =
                 (SelectEOFContext) parseRule(option.value, ParserEntryRules.Select);
@@ -248,10 +255,20 @@ public class Parser {
                   option.name, option.value);
             }
             systemOption = inlineCountOption;
+          } else if (option.name.equals(SystemQueryOptionKind.DELTATOKEN.toString())) {
+            DeltaTokenOptionImpl deltaTokenOption = new DeltaTokenOptionImpl();
+            deltaTokenOption.setName(option.name);
+            deltaTokenOption.setText(option.value);
+            deltaTokenOption.setValue(option.value);
+            systemOption = deltaTokenOption;
           } else {
             throw new UriParserSyntaxException("Unknown system query option!",
                 UriParserSyntaxException.MessageKeys.UNKNOWN_SYSTEM_QUERY_OPTION, option.name);
           }
+          if (systemOption.getText() == null) {
+            // Keep the decoded text of all options so that URIs can be rebuilt from the URI info.
+            ((SystemQueryOptionImpl) systemOption).setText(option.value);
+          }
           try {
             context.contextUriInfo.setSystemQueryOption(systemOption);
           } catch (final ODataRuntimeException e) {
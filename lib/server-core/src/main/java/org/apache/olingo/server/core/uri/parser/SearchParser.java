@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.core.uri.queryoption.search.SearchBinaryImpl;
+import org.apache.olingo.server.core.uri.queryoption.search.SearchTermImpl;
+import org.apache.olingo.server.core.uri.queryoption.search.SearchUnaryImpl;
+
+/**
+ * Parses the value of the system query option $search into a search-expression tree.
+ * <br/>
+ * Search words and phrases are combined with the operators <code>NOT</code>, <code>AND</code>,
+ * and <code>OR</code>, in that order of precedence; two search expressions separated only by
+ * whitespace are combined with <code>AND</code>. Parentheses can be used for grouping.
+ */
+public class SearchParser {
+
+  private enum TokenKind { OPEN, CLOSE, NOT, AND, OR, WORD, PHRASE }
+
+  private static class Token {
+    private final TokenKind kind;
+    private final String text;
+
+    private Token(final TokenKind kind, final String text) {
+      this.kind = kind;
+      this.text = text;
+    }
+  }
+
+  private String value;
+  private List<Token> tokens;
+  private int index;
+
+  public SearchExpression parse(final String searchValue) throws UriParserSyntaxException {
+    value = searchValue;
+    tokens = tokenize(searchValue);
+    index = 0;
+    if (tokens.isEmpty()) {
+      throw error();
+    }
+    final SearchExpression expression = parseOr();
+    if (index < tokens.size()) {
+      throw error();
+    }
+    return expression;
+  }
+
+  private SearchExpression parseOr() throws UriParserSyntaxException {
+    SearchExpression left = parseAnd();
+    while (is(TokenKind.OR)) {
+      index++;
+      left = new SearchBinaryImpl(left, SearchBinaryOperatorKind.OR, parseAnd());
+    }
+    return left;
+  }
+
+  private SearchExpression parseAnd() throws UriParserSyntaxException {
+    SearchExpression left = parseNot();
+    while (index < tokens.size() && !is(TokenKind.OR) && !is(TokenKind.CLOSE)) {
+      if (is(TokenKind.AND)) {
+        index++;
+      }
+      left = new SearchBinaryImpl(left, SearchBinaryOperatorKind.AND, parseNot());
+    }
+    return left;
+  }
+
+  private SearchExpression parseNot() throws UriParserSyntaxException {
+    if (is(TokenKind.NOT)) {
+      index++;
+      // Only search words and phrases can be negated.
+      if (is(TokenKind.WORD) || is(TokenKind.PHRASE)) {
+        return new SearchUnaryImpl(new SearchTermImpl(tokens.get(index++).text));
+      }
+      throw error();
+    }
+    return parsePrimary();
+  }
+
+  private SearchExpression parsePrimary() throws UriParserSyntaxException {
+    if (is(TokenKind.OPEN)) {
+      index++;
+      final SearchExpression expression = parseOr();
+      if (!is(TokenKind.CLOSE)) {
+        throw error();
+      }
+      index++;
+      return expression;
+    } else if (is(TokenKind.WORD) || is(TokenKind.PHRASE)) {
+      return new SearchTermImpl(tokens.get(index++).text);
+    } else {
+      throw error();
+    }
+  }
+
+  private boolean is(final TokenKind kind) {
+    return index < tokens.size() && tokens.get(index).kind == kind;
+  }
+
+  private List<Token> tokenize(final String searchValue) throws UriParserSyntaxException {
+    List<Token> result = new ArrayList<Token>();
+    int position = 0;
+    while (position < searchValue.length()) {
+      final char c = searchValue.charAt(position);
+      if (Character.isWhitespace(c)) {
+        position++;
+      } else if (c == '(') {
+        result.add(new Token(TokenKind.OPEN, null));
+        position++;
+      } else if (c == ')') {
+        result.add(new Token(TokenKind.CLOSE, null));
+        position++;
+      } else if (c == '"') {
+        // A search phrase extends to the next unescaped double quote;
+        // double quotes and backslashes inside are escaped with a backslash.
+        StringBuilder phrase = new StringBuilder();
+        position++;
+        while (position < searchValue.length() && searchValue.charAt(position) != '"') {
+          if (searchValue.charAt(position) == '\\') {
+            position++;
+            if (position == searchValue.length()
+                || searchValue.charAt(position) != '"' && searchValue.charAt(position) != '\\') {
+              throw error();
+            }
+          }
+          phrase.append(searchValue.charAt(position++));
+        }
+        if (position == searchValue.length() || phrase.length() == 0) {
+          throw error();
+        }
+        position++;
+        result.add(new Token(TokenKind.PHRASE, phrase.toString()));
+      } else {
+        final int start = position;
+        while (position < searchValue.length() && !isDelimiter(searchValue.charAt(position))) {
+          position++;
+        }
+        final String word = searchValue.substring(start, position);
+        result.add(new Token(
+            word.equals("NOT") ? TokenKind.NOT :
+              word.equals("AND") ? TokenKind.AND :
+                word.equals("OR") ? TokenKind.OR :
+                  TokenKind.WORD,
+            word));
+      }
+    }
+    return result;
+  }
+
+  private boolean isDelimiter(final char c) {
+    return Character.isWhitespace(c) || c == '(' || c == ')' || c == '"';
+  }
+
+  private UriParserSyntaxException error() {
+    return new UriParserSyntaxException("Illegal value of $search option!",
+        UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION,
+        SystemQueryOptionKind.SEARCH.toString(), value);
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.olingo.server.core.uri.parser.UriParseTreeVisitor.TypeInformat
 import org.apache.olingo.server.core.uri.queryoption.ExpandItemImpl;
 import org.apache.olingo.server.core.uri.queryoption.SelectItemImpl;
 
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -84,6 +85,14 @@ public class UriContext {
    */
   public UriInfoImpl contextUriInfo;
   public boolean contextReadingFunctionParameters;
+  /**
+   * Set within method
+   * {@link org.apache.olingo.server.core.uri.antlr.UriParserBaseVisitor#visitCrossjoinEOF(
+   * org.apache.olingo.server.core.uri.antlr.UriParserParser.CrossjoinEOFContext ctx)}
+   * to the entity sets of a $crossjoin; member expressions in $filter and $orderby then start
+   * with one of these entity sets, which addresses a single entity of each combination.
+   */
+  public List<String> contextCrossjoinEntitySetNames;
 
   public UriContext() {
 
@@ -280,6 +280,15 @@ public class UriParseTreeVisitor extends UriParserBaseVisitor<Object> {
     return typeInformation;
   }
 
+  private boolean isCrossjoinEntitySet(final UriResource lastResourcePart) {
+    return context.contextCrossjoinEntitySetNames != null
+        && lastResourcePart instanceof UriResourceEntitySetImpl
+        && context.contextUriInfo.getUriResourceParts().size() == 1
+        && ((UriResourceEntitySetImpl) lastResourcePart).getKeyPredicates().isEmpty()
+        && context.contextCrossjoinEntitySetNames.contains(
+            ((UriResourceEntitySetImpl) lastResourcePart).getEntitySet().getName());
+  }
+
   public UriResourceTypedImpl readResourcePathSegment(final PathSegmentContext ctx) {
 
     final boolean checkFirst =
@@ -377,6 +386,10 @@ public class UriParseTreeVisitor extends UriParserBaseVisitor<Object> {
             UriParserSemanticException.MessageKeys.RESOURCE_PART_ONLY_FOR_TYPED_PARTS, odi));
       }
       source = context.contextTypes.peek();
+    } else if (isCrossjoinEntitySet(lastResourcePart)) {
+      // Within a $crossjoin the entity set stands for one entity of the current combination.
+      source = getTypeInformation(lastResourcePart);
+      source.isCollection = false;
     } else {
       source = getTypeInformation(lastResourcePart);
 
@@ -1067,6 +1080,7 @@ public class UriParseTreeVisitor extends UriParserBaseVisitor<Object> {
     }
 
     context.contextUriInfo = crossJoin;
+    context.contextCrossjoinEntitySetNames = crossJoin.getEntitySetNames();
     return null;
   }
 
@@ -1378,12 +1392,12 @@ public class UriParseTreeVisitor extends UriParserBaseVisitor<Object> {
     UriInfoImpl uriInfoImplpath = new UriInfoImpl().setKind(UriInfoKind.resource);
 
     if (context.contextTypes.isEmpty()) {
-      throw wrap(new UriParserSemanticException("Expression '" + ctx.getText() + "' is not allowed as key value.",
-          UriParserSemanticException.MessageKeys.INVALID_KEY_VALUE, ctx.getText()));
-    }
-    TypeInformation lastTypeInfo = context.contextTypes.peek();
-
-    if (ctx.vIt != null || ctx.vIts != null) {
+      if (context.contextCrossjoinEntitySetNames == null || ctx.vIt != null || ctx.vIts != null) {
+        throw wrap(new UriParserSemanticException("Expression '" + ctx.getText() + "' is not allowed as key value.",
+            UriParserSemanticException.MessageKeys.INVALID_KEY_VALUE, ctx.getText()));
+      }
+    } else if (ctx.vIt != null || ctx.vIts != null) {
+      TypeInformation lastTypeInfo = context.contextTypes.peek();
       UriResourceItImpl pathInfoIT = new UriResourceItImpl();
       pathInfoIT.setType(lastTypeInfo.type);
       pathInfoIT.setCollection(lastTypeInfo.isCollection);
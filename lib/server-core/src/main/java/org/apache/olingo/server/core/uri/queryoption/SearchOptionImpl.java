@@ -24,13 +24,20 @@ import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
 
 public class SearchOptionImpl extends SystemQueryOptionImpl implements SearchOption {
 
+  private SearchExpression searchExpression;
+
   public SearchOptionImpl() {
     setKind(SystemQueryOptionKind.SEARCH);
   }
 
+  public SearchOptionImpl setSearchExpression(final SearchExpression searchExpression) {
+    this.searchExpression = searchExpression;
+    return this;
+  }
+
   @Override
   public SearchExpression getSearchExpression() {
-    return null;
+    return searchExpression;
   }
 
 }
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.commons.api.edm.provider.AbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.Schema;
+import org.apache.olingo.commons.api.http.HttpContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.AsyncResponseStore;
+import org.apache.olingo.server.api.AsyncSupport;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class AsyncProcessingTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+  private static final String PREFERENCE = "odata.allow-entityreferences, respond-async; wait=10";
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata serviceMetadata = odata.createServiceMetadata(new AbstractEdmProvider() {
+    @Override
+    public List<Schema> getSchemas() {
+      return Collections.singletonList(new Schema().setNamespace("Namespace"));
+    }
+  }, Collections.<EdmxReference> emptyList());
+
+  @Test
+  public void respondAsync() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final AsyncResponseStore store = odata.createAsyncResponseStore(null);
+    final Response accepted = process(executor, store, "GET", "/$metadata", PREFERENCE);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), accepted.status);
+    assertEquals("respond-async", accepted.headers.get(HttpHeader.PREFERENCE_APPLIED));
+    final String monitor = accepted.headers.get(HttpHeader.LOCATION);
+    assertTrue(monitor, monitor.startsWith(BASE_URI + "/$async/"));
+    awaitTermination(executor);
+
+    final Response result = process(executor, store, "GET", monitor.substring(BASE_URI.length()), null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), result.status);
+    assertEquals(HttpContentType.APPLICATION_HTTP, result.headers.get(HttpHeader.CONTENT_TYPE));
+    assertTrue(result.body, result.body.startsWith("HTTP/1.1 200 OK\r\n"));
+    assertTrue(result.body, result.body.contains("\r\n\r\n<?xml"));
+
+    // The response is delivered only once.
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        process(executor, store, "GET", monitor.substring(BASE_URI.length()), null).status);
+  }
+
+  @Test
+  public void pendingAndDeleted() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch blocked = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          blocked.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    final AsyncResponseStore store = odata.createAsyncResponseStore(null);
+    final String monitor = process(executor, store, "GET", "/$metadata", PREFERENCE).headers
+        .get(HttpHeader.LOCATION).substring(BASE_URI.length());
+
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), process(executor, store, "GET", monitor, null).status);
+    assertEquals(HttpStatusCode.NO_CONTENT.getStatusCode(), process(executor, store, "DELETE", monitor, null).status);
+    blocked.countDown();
+    awaitTermination(executor);
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), process(executor, store, "GET", monitor, null).status);
+  }
+
+  @Test
+  public void storedInFiles() throws Exception {
+    final File directory = File.createTempFile("async", "");
+    directory.delete();
+    try {
+      final ExecutorService executor = Executors.newSingleThreadExecutor();
+      final AsyncResponseStore store = odata.createAsyncResponseStore(directory);
+      final String monitor = process(executor, store, "GET", "/$metadata", PREFERENCE).headers
+          .get(HttpHeader.LOCATION).substring(BASE_URI.length());
+      awaitTermination(executor);
+      assertEquals(1, directory.list().length);
+
+      final Response result = process(executor, store, "GET", monitor, null);
+      assertEquals(HttpStatusCode.OK.getStatusCode(), result.status);
+      assertTrue(result.body, result.body.contains("\r\n\r\n<?xml"));
+      assertEquals(0, directory.list().length);
+
+      assertNull(store.get("../" + monitor));
+      assertFalse(store.contains("../" + monitor));
+    } finally {
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void expiredInMemory() throws Exception {
+    final AsyncResponseStore store = new MemoryAsyncResponseStore(50, TimeUnit.MILLISECONDS);
+    final String expired = store.create();
+    store.complete(expired, createResponse());
+    final String pending = store.create();
+    assertTrue(store.contains(expired));
+    assertNotNull(store.get(expired));
+
+    Thread.sleep(100);
+    final String fresh = store.create();
+    store.complete(fresh, createResponse());
+    assertFalse(store.contains(expired));
+    assertNull(store.get(expired));
+    assertTrue(store.contains(pending));
+    assertNotNull(store.get(fresh));
+  }
+
+  @Test
+  public void expiredInFiles() throws Exception {
+    final File directory = File.createTempFile("async", "");
+    directory.delete();
+    try {
+      final AsyncResponseStore store = new FileAsyncResponseStore(directory, 50, TimeUnit.MILLISECONDS);
+      final String expired = store.create();
+      store.complete(expired, createResponse());
+      final String pending = store.create();
+      assertEquals(1, directory.list().length);
+
+      final File leftOver = new File(directory, UUID.randomUUID() + ".response");
+      assertTrue(leftOver.createNewFile());
+      assertTrue(leftOver.setLastModified(System.currentTimeMillis() - 60000));
+
+      // Registering a new request sweeps out the expired files, including those of earlier runs.
+      Thread.sleep(100);
+      store.create();
+      assertEquals(0, directory.list().length);
+      assertFalse(store.contains(expired));
+      assertNull(store.get(expired));
+      assertTrue(store.contains(pending));
+    } finally {
+      for (final File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void synchronousIfRejected() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    final Response response = process(executor, odata.createAsyncResponseStore(null), "GET", "/$metadata",
+        PREFERENCE);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.status);
+    assertNull(response.headers.get(HttpHeader.PREFERENCE_APPLIED));
+    assertTrue(response.body, response.body.startsWith("<?xml"));
+  }
+
+  private static ODataResponse createResponse() {
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, HttpContentType.TEXT_PLAIN);
+    response.setContent(new ByteArrayInputStream(new byte[] { '1' }));
+    return response;
+  }
+
+  private static class Response {
+    private int status;
+    private final Map<String, String> headers = new HashMap<String, String>();
+    private String body;
+  }
+
+  private Response process(final ExecutorService executor, final AsyncResponseStore store, final String method,
+      final String path, final String prefer) throws IOException {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn(method);
+    when(request.getRequestURL()).thenReturn(new StringBuffer(BASE_URI + path));
+    when(request.getServletPath()).thenReturn("/odata");
+    when(request.getContextPath()).thenReturn("");
+    when(request.getHeaderNames()).thenReturn(Collections.enumeration(prefer == null ?
+        Collections.<String> emptyList() : Collections.singletonList(HttpHeader.PREFER)));
+    when(request.getHeaders(HttpHeader.PREFER)).thenReturn(Collections.enumeration(Collections.singletonList(prefer)));
+    final ByteArrayInputStream input = new ByteArrayInputStream(new byte[0]);
+    when(request.getInputStream()).thenReturn(new ServletInputStream() {
+      @Override
+      public int read() {
+        return input.read();
+      }
+    });
+
+    final Response result = new Response();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) {
+        result.status = (Integer) invocation.getArguments()[0];
+        return null;
+      }
+    }).when(response).setStatus(anyInt());
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) {
+        result.headers.put((String) invocation.getArguments()[0], (String) invocation.getArguments()[1]);
+        return null;
+      }
+    }).when(response).setHeader(anyString(), anyString());
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) {
+        output.write(b);
+      }
+    });
+
+    final ODataHttpHandler handler = odata.createHandler(serviceMetadata);
+    ((AsyncSupport) handler).setAsyncSupport(executor, store);
+    handler.process(request, response);
+    result.body = output.toString("UTF-8");
+    return result;
+  }
+
+  private void awaitTermination(final ExecutorService executor) throws InterruptedException {
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.commons.api.ODataException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.AbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.EntityContainer;
+import org.apache.olingo.commons.api.edm.provider.EntitySet;
+import org.apache.olingo.commons.api.edm.provider.EntityType;
+import org.apache.olingo.commons.api.edm.provider.NavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.Property;
+import org.apache.olingo.commons.api.edm.provider.PropertyRef;
+import org.apache.olingo.commons.api.edm.provider.Schema;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.junit.Test;
+
+public class EdmWarmUpTest {
+
+  private static final String NAMESPACE = "Namespace";
+
+  @Test
+  public void validModel() {
+    final EdmWarmUp.Report report = new ServiceMetadataImpl(new LocalProvider(false),
+        Collections.<EdmxReference> emptyList()).warmUp(null);
+    assertTrue(report.getErrors().toString(), report.isValid());
+    assertEquals(2, report.getElementCount());
+  }
+
+  @Test
+  public void allErrorsReported() {
+    final EdmWarmUp.Report report = new ServiceMetadataImpl(new LocalProvider(true),
+        Collections.<EdmxReference> emptyList()).warmUp(null);
+    assertFalse(report.isValid());
+    assertEquals(4, report.getElementCount());
+    final List<String> errors = report.getErrors();
+    assertEquals(errors.toString(), 3, errors.size());
+    assertTrue(errors.toString(), errors.get(0).startsWith(NAMESPACE + ".ETBroken: "));
+    assertTrue(errors.toString(), errors.get(1).startsWith(NAMESPACE + ".ETBroken: "));
+    assertTrue(errors.toString(), errors.get(2).startsWith(NAMESPACE + ".Container/ESBroken: "));
+  }
+
+  @Test
+  public void parallel() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final EdmWarmUp.Report report = new ServiceMetadataImpl(new LocalProvider(true),
+          Collections.<EdmxReference> emptyList()).warmUp(executor);
+      assertEquals(4, report.getElementCount());
+      assertEquals(report.getErrors().toString(), 3, report.getErrors().size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private class LocalProvider extends AbstractEdmProvider {
+
+    private final boolean broken;
+
+    public LocalProvider(final boolean broken) {
+      this.broken = broken;
+    }
+
+    @Override
+    public List<Schema> getSchemas() throws ODataException {
+      final EntityType entityType = new EntityType().setName("ETKey")
+          .setKey(Arrays.asList(new PropertyRef().setName("PropertyInt16")))
+          .setProperties(Arrays.asList(new Property().setName("PropertyInt16")
+              .setType(EdmPrimitiveTypeKind.Int16.getFullQualifiedName())))
+          .setNavigationProperties(Arrays.asList(new NavigationProperty().setName("NavPropertyETKey")
+              .setType(new FullQualifiedName(NAMESPACE, "ETKey"))));
+      final EntityContainer container = new EntityContainer().setName("Container")
+          .setEntitySets(Arrays.asList(new EntitySet().setName("ESKey")
+              .setType(new FullQualifiedName(NAMESPACE, "ETKey"))));
+      final Schema schema = new Schema().setNamespace(NAMESPACE).setEntityContainer(container);
+      if (broken) {
+        schema.setEntityTypes(Arrays.asList(entityType,
+            new EntityType().setName("ETBroken")
+                .setKey(Arrays.asList(new PropertyRef().setName("PropertyInt16")))
+                .setProperties(Arrays.asList(
+                    new Property().setName("PropertyInt16")
+                        .setType(EdmPrimitiveTypeKind.Int16.getFullQualifiedName()),
+                    new Property().setName("PropertyComp").setType(new FullQualifiedName(NAMESPACE, "CTWrong"))))
+                .setNavigationProperties(Arrays.asList(new NavigationProperty().setName("NavPropertyETWrong")
+                    .setType(new FullQualifiedName(NAMESPACE, "ETWrong"))))));
+        container.setEntitySets(Arrays.asList(container.getEntitySets().get(0),
+            new EntitySet().setName("ESBroken").setType(new FullQualifiedName(NAMESPACE, "ETWrong"))));
+      } else {
+        schema.setEntityTypes(Arrays.asList(entityType));
+      }
+      return Arrays.asList(schema);
+    }
+  }
+}
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -29,6 +31,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.apache.olingo.server.api.AsyncResponseStore;
+import org.apache.olingo.server.api.AsyncSupport;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataHttpHandler;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -46,6 +50,21 @@ public class TechnicalServlet extends HttpServlet {
 
   private static final long serialVersionUID = 1L;
   private static final Logger LOG = LoggerFactory.getLogger(TechnicalServlet.class);
+  private static final int ASYNC_THREADS = 4;
+
+  private transient ExecutorService asyncExecutor;
+  private transient AsyncResponseStore asyncStore;
+
+  @Override
+  public void init() throws ServletException {
+    asyncExecutor = Executors.newFixedThreadPool(ASYNC_THREADS);
+    asyncStore = OData.newInstance().createAsyncResponseStore(null);
+  }
+
+  @Override
+  public void destroy() {
+    asyncExecutor.shutdownNow();
+  }
 
   @Override
   protected void service(final HttpServletRequest req, final HttpServletResponse resp)
@@ -69,6 +88,7 @@ public class TechnicalServlet extends HttpServlet {
       handler.register(new TechnicalEntityProcessor(dataProvider, serviceMetadata));
       handler.register(new TechnicalPrimitiveComplexProcessor(dataProvider, serviceMetadata));
       handler.register(new TechnicalBatchProcessor(dataProvider));
+      ((AsyncSupport) handler).setAsyncSupport(asyncExecutor, asyncStore);
       handler.process(req, resp);
     } catch (RuntimeException e) {
       LOG.error("Server Error", e);
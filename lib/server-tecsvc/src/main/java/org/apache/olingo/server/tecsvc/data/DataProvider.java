@@ -50,13 +50,23 @@ import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.processor.CachingEntityCountProvider;
+import org.apache.olingo.server.api.processor.EntityCountProvider;
 import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate.IndexSource;
 
 public class DataProvider {
 
   protected static final String MEDIA_PROPERTY_NAME = "$value";
 
   final private Map<String, EntityCollection> data;
+  final private Map<String, KeyIndex> keyIndexes = new HashMap<String, KeyIndex>();
+  final private Map<String, PropertyIndex> propertyIndexes = new HashMap<String, PropertyIndex>();
+  final private Map<String, SearchIndex> searchIndexes = new HashMap<String, SearchIndex>();
+  final private Map<String, List<String>> searchPropertyNames = new HashMap<String, List<String>>();
+  private int modificationCount;
+  private int indexedModificationCount;
+  private volatile CachingEntityCountProvider countCache;
   private Edm edm;
   private OData odata;
 
@@ -70,23 +80,48 @@ public class DataProvider {
 
   public Entity read(final EdmEntitySet edmEntitySet, final List<UriParameter> keys) throws DataProviderException {
     final EntityCollection entitySet = readAll(edmEntitySet);
-    return entitySet == null ? null : read(edmEntitySet.getEntityType(), entitySet, keys);
+    if (entitySet == null) {
+      return null;
+    }
+    final KeyIndex keyIndex = getKeyIndex(edmEntitySet);
+    if (keyIndex != null && keyIndex.isComplete(keys)) {
+      try {
+        final Entity entity = keyIndex.get(keys);
+        if (entity != null || keyIndex.isExhaustive()) {
+          return entity;
+        }
+      } catch (final EdmPrimitiveTypeException e) {
+        // The sequential search reports keys that are not valid.
+      }
+    }
+    return read(edmEntitySet.getEntityType(), entitySet, keys);
   }
 
   public Entity
       read(final EdmEntityType edmEntityType, final EntityCollection entitySet, final List<UriParameter> keys)
           throws DataProviderException {
+    // The key literals are parsed once for every Java type of the stored key values.
+    final List<Map<Class<?>, Object>> keyValues = new ArrayList<Map<Class<?>, Object>>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      keyValues.add(new HashMap<Class<?>, Object>());
+    }
     try {
       for (final Entity entity : entitySet.getEntities()) {
         boolean found = true;
-        for (final UriParameter key : keys) {
-          final EdmProperty property = (EdmProperty) edmEntityType.getProperty(key.getName());
-          final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+        for (int i = 0; i < keys.size(); i++) {
+          final UriParameter key = keys.get(i);
           final Object value = entity.getProperty(key.getName()).getValue();
-          final Object keyValue = type.valueOfString(type.fromUriLiteral(key.getText()),
-              property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
-              property.isUnicode(),
-              Calendar.class.isAssignableFrom(value.getClass()) ? Calendar.class : value.getClass());
+          final Class<?> valueClass =
+              Calendar.class.isAssignableFrom(value.getClass()) ? Calendar.class : value.getClass();
+          Object keyValue = keyValues.get(i).get(valueClass);
+          if (keyValue == null) {
+            final EdmProperty property = (EdmProperty) edmEntityType.getProperty(key.getName());
+            final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+            keyValue = type.valueOfString(type.fromUriLiteral(key.getText()),
+                property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+                property.isUnicode(), valueClass);
+            keyValues.get(i).put(valueClass, keyValue);
+          }
           if (!value.equals(keyValue)) {
             found = false;
             break;
@@ -102,9 +137,171 @@ public class DataProvider {
     }
   }
 
+  /**
+   * Returns a sorted index on an integer property of the entities in an entity set.
+   * The index is built on first use and rebuilt after changes.
+   * @param path names of the complex properties leading to the property, and the name of the property
+   * @param min minimum value of the property type
+   * @param max maximum value of the property type
+   * @see PropertyIndex#createIntegerIndex(List, List, long, long)
+   */
+  public PropertyIndex getIntegerIndex(final EdmEntitySet edmEntitySet, final List<String> path,
+      final long min, final long max) {
+    final String name = edmEntitySet.getName() + '/' + path + ':' + min + ':' + max;
+    synchronized (propertyIndexes) {
+      final List<Entity> entities = getIndexedEntities(edmEntitySet, name);
+      PropertyIndex index = propertyIndexes.get(name);
+      if (index == null && entities != null) {
+        index = PropertyIndex.createIntegerIndex(entities, path, min, max);
+        propertyIndexes.put(name, index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Returns a hash index on a property of the entities in an entity set.
+   * The index is built on first use and rebuilt after changes.
+   * @param path names of the complex properties leading to the property, and the name of the property
+   * @param valueClass the Java class of the values to be indexed
+   * @see PropertyIndex#createValueIndex(List, List, Class)
+   */
+  public PropertyIndex getValueIndex(final EdmEntitySet edmEntitySet, final List<String> path,
+      final Class<?> valueClass) {
+    final String name = edmEntitySet.getName() + '/' + path + ':' + valueClass.getName();
+    synchronized (propertyIndexes) {
+      final List<Entity> entities = getIndexedEntities(edmEntitySet, name);
+      PropertyIndex index = propertyIndexes.get(name);
+      if (index == null && entities != null) {
+        index = PropertyIndex.createValueIndex(entities, path, valueClass);
+        propertyIndexes.put(name, index);
+      }
+      return index;
+    }
+  }
+
+  /** Returns the secondary indexes on the entities of an entity set, for the evaluation of filters. */
+  public IndexSource getIndexSource(final EdmEntitySet edmEntitySet) {
+    return new IndexSource() {
+      @Override
+      public PropertyIndex getIntegerIndex(final List<String> path, final long min, final long max) {
+        return DataProvider.this.getIntegerIndex(edmEntitySet, path, min, max);
+      }
+
+      @Override
+      public PropertyIndex getValueIndex(final List<String> path, final Class<?> valueClass) {
+        return DataProvider.this.getValueIndex(edmEntitySet, path, valueClass);
+      }
+    };
+  }
+
+  /** Drops outdated property indexes. */
+  private List<Entity> getIndexedEntities(final EdmEntitySet edmEntitySet, final String indexName) {
+    if (indexedModificationCount != modificationCount) {
+      propertyIndexes.clear();
+      indexedModificationCount = modificationCount;
+    }
+    final EntityCollection entitySet = data.get(edmEntitySet.getName());
+    final PropertyIndex index = propertyIndexes.get(indexName);
+    if (index != null && (entitySet == null || index.size() != entitySet.getEntities().size())) {
+      // The collection has been changed without the data provider.
+      propertyIndexes.remove(indexName);
+    }
+    return entitySet == null ? null : entitySet.getEntities();
+  }
+
+  private void modified() {
+    synchronized (propertyIndexes) {
+      modificationCount++;
+    }
+    final CachingEntityCountProvider counts = countCache;
+    if (counts != null) {
+      counts.invalidateAll();
+    }
+  }
+
+  /**
+   * Returns the cache for counts of entity sets.
+   * All cached counts are invalidated with every change made through the data provider.
+   * @param provider the provider of the counts, used if the cache does not exist yet
+   */
+  public synchronized CachingEntityCountProvider getCountCache(final EntityCountProvider provider) {
+    if (countCache == null) {
+      countCache = new CachingEntityCountProvider(provider);
+    }
+    return countCache;
+  }
+
+  /**
+   * Sets the properties used for $search on an entity set.
+   * Without this configuration all string properties of the entity type are used.
+   * @param propertyNames names of (non-collection) string properties of the entity type
+   */
+  public void setSearchProperties(final EdmEntitySet edmEntitySet, final List<String> propertyNames) {
+    synchronized (searchIndexes) {
+      searchPropertyNames.put(edmEntitySet.getName(), propertyNames);
+      searchIndexes.remove(edmEntitySet.getName());
+    }
+  }
+
+  /**
+   * Returns the full-text index of an entity set.
+   * The index is built on first use and updated with every change made through the data provider.
+   */
+  public SearchIndex getSearchIndex(final EdmEntitySet edmEntitySet) {
+    final String name = edmEntitySet.getName();
+    final EntityCollection entitySet = data.get(name);
+    if (entitySet == null) {
+      return null;
+    }
+    synchronized (searchIndexes) {
+      SearchIndex index = searchIndexes.get(name);
+      if (index == null || index.size() != entitySet.getEntities().size()) {
+        // The collection has been changed without the data provider.
+        final List<String> propertyNames = searchPropertyNames.get(name);
+        index = SearchIndex.create(entitySet.getEntities(), propertyNames == null ?
+            SearchIndex.getStringPropertyNames(edmEntitySet.getEntityType()) :
+            propertyNames);
+        searchIndexes.put(name, index);
+      }
+      return index;
+    }
+  }
+
+  private void searchPropertyChanged(final Property property) {
+    synchronized (searchIndexes) {
+      for (final SearchIndex index : searchIndexes.values()) {
+        index.changed(property);
+      }
+    }
+  }
+
+  private KeyIndex getKeyIndex(final EdmEntitySet edmEntitySet) {
+    synchronized (keyIndexes) {
+      final String name = edmEntitySet.getName();
+      if (!keyIndexes.containsKey(name)) {
+        keyIndexes.put(name, KeyIndex.create(edmEntitySet.getEntityType(), data.get(name)));
+      }
+      return keyIndexes.get(name);
+    }
+  }
+
   public void delete(final EdmEntitySet edmEntitySet, final Entity entity) throws DataProviderException {
     deleteLinksTo(entity);
-    readAll(edmEntitySet).getEntities().remove(entity);
+    final boolean removed = readAll(edmEntitySet).getEntities().remove(entity);
+    modified();
+    if (removed) {
+      final KeyIndex keyIndex = getKeyIndex(edmEntitySet);
+      if (keyIndex != null) {
+        keyIndex.removed(entity);
+      }
+      synchronized (searchIndexes) {
+        final SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+        if (searchIndex != null) {
+          searchIndex.remove(entity);
+        }
+      }
+    }
   }
 
   public void deleteLinksTo(final Entity to) throws DataProviderException {
@@ -142,6 +339,17 @@ public class DataProvider {
 
     createProperties(edmEntityType, newEntity.getProperties());
     entities.add(newEntity);
+    modified();
+    final KeyIndex keyIndex = getKeyIndex(edmEntitySet);
+    if (keyIndex != null) {
+      keyIndex.added(newEntity);
+    }
+    synchronized (searchIndexes) {
+      final SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+      if (searchIndex != null) {
+        searchIndex.add(newEntity);
+      }
+    }
 
     return newEntity;
   }
@@ -228,6 +436,7 @@ public class DataProvider {
 
   public void update(final String rawBaseUri, final EdmEntitySet edmEntitySet, Entity entity,
       final Entity changedEntity, final boolean patch, final boolean isInsert) throws DataProviderException {
+    modified();
 
     final EdmEntityType entityType = edmEntitySet.getEntityType();
     final List<String> keyNames = entityType.getKeyPredicateNames();
@@ -388,13 +597,22 @@ public class DataProvider {
     }
   }
 
+  /** Sets the value of a property to <code>null</code> or, for a collection property, to an empty collection. */
+  public void deletePropertyValue(final EdmProperty edmProperty, final Property property) {
+    modified();
+    property.setValue(property.getValueType(), edmProperty.isCollection() ? Collections.emptyList() : null);
+    searchPropertyChanged(property);
+  }
+
   @SuppressWarnings({ "unchecked" })
   public void updateProperty(final EdmProperty edmProperty, Property property, final Property newProperty,
       final boolean patch) throws DataProviderException {
+    modified();
     if (edmProperty.isPrimitive()) {
       if (newProperty != null || !patch) {
         final Object value = newProperty == null ? null : newProperty.getValue();
         property.setValue(property.getValueType(), value);
+        searchPropertyChanged(property);
       }
     } else if (edmProperty.isCollection()) {
       // Updating collection properties mean replacing all entites with the given ones
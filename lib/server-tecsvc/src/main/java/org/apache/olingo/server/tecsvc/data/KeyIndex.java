@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmElement;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.server.api.uri.UriParameter;
+
+/**
+ * Hash index on the key properties of the entities in one entity collection.
+ * <br/>
+ * Key values are compared in their canonical literal form, formatted with the facets of their
+ * key properties, so that for example an Int16 key stored as {@link Integer} is found with the
+ * key predicate <code>-0</code>. Entities whose key cannot be formatted are not indexed; as long
+ * as there are such entities, the index is not exhaustive, and a key not found in it has to be
+ * searched sequentially, see {@link #isExhaustive()}.
+ * The index is maintained by the data provider on create and delete; if the collection has been
+ * changed in other ways, the index notices the changed size or the changed key of the found entity
+ * and is rebuilt.
+ */
+final class KeyIndex {
+
+  private final EntityCollection entityCollection;
+  private final String[] keyNames;
+  private final EdmProperty[] keyProperties;
+  private final Map<Object, Entity> index = new HashMap<Object, Entity>();
+  private int indexedCount = -1;
+  private boolean duplicates;
+  private boolean partial;
+
+  private KeyIndex(final EntityCollection entityCollection, final String[] keyNames,
+      final EdmProperty[] keyProperties) {
+    this.entityCollection = entityCollection;
+    this.keyNames = keyNames;
+    this.keyProperties = keyProperties;
+  }
+
+  /**
+   * Creates a key index for the entities of the given type.
+   * @return the index, or <code>null</code> if the key contains properties not directly in the entity type
+   */
+  static KeyIndex create(final EdmEntityType entityType, final EntityCollection entityCollection) {
+    final List<String> names = entityType.getKeyPredicateNames();
+    final String[] keyNames = names.toArray(new String[names.size()]);
+    final EdmProperty[] keyProperties = new EdmProperty[keyNames.length];
+    for (int i = 0; i < keyNames.length; i++) {
+      final EdmElement property = entityType.getProperty(keyNames[i]);
+      if (!(property instanceof EdmProperty) || !((EdmProperty) property).isPrimitive()) {
+        return null;
+      }
+      keyProperties[i] = (EdmProperty) property;
+    }
+    return new KeyIndex(entityCollection, keyNames, keyProperties);
+  }
+
+  /** @return <code>true</code> if the key predicates contain exactly the key properties of the index */
+  boolean isComplete(final List<UriParameter> keys) {
+    if (keys.size() != keyNames.length) {
+      return false;
+    }
+    for (final UriParameter key : keys) {
+      if (position(key.getName()) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses the key predicates once and looks the key up.
+   * @param keys complete key predicates, see {@link #isComplete(List)}
+   * @return the entity with the given key, or <code>null</code> if there is none
+   * @throws EdmPrimitiveTypeException if a key predicate is not a valid literal of its property's type
+   */
+  synchronized Entity get(final List<UriParameter> keys) throws EdmPrimitiveTypeException {
+    final String[] values = new String[keyNames.length];
+    for (final UriParameter key : keys) {
+      final int position = position(key.getName());
+      final EdmProperty property = keyProperties[position];
+      final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+      values[position] = format(property,
+          type.valueOfString(type.fromUriLiteral(key.getText()),
+              property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+              property.isUnicode(), type.getDefaultType()));
+    }
+    final Object key = key(values);
+
+    if (indexedCount != entityCollection.getEntities().size()) {
+      rebuild();
+    }
+    Entity entity = index.get(key);
+    if (entity != null && !key.equals(keyOf(entity))) {
+      // The key of the entity has been changed since it has been indexed.
+      rebuild();
+      entity = index.get(key);
+    }
+    return entity;
+  }
+
+  /**
+   * @return <code>true</code> if all entities have been indexed at the last lookup,
+   *         so that a key not found in the index does not exist in the collection
+   */
+  synchronized boolean isExhaustive() {
+    return !partial;
+  }
+
+  /** Adds an entity that has just been added to the end of the collection. */
+  synchronized void added(final Entity entity) {
+    if (indexedCount >= 0 && indexedCount + 1 == entityCollection.getEntities().size()) {
+      index(entity);
+      indexedCount++;
+    } else {
+      indexedCount = -1;
+    }
+  }
+
+  /** Removes an entity that has just been removed from the collection. */
+  synchronized void removed(final Entity entity) {
+    final Object key = keyOf(entity);
+    if (indexedCount >= 0 && !duplicates && key != null && index.get(key) == entity) {
+      index.remove(key);
+      indexedCount--;
+    } else {
+      // The entity could have hidden another one with the same key.
+      indexedCount = -1;
+    }
+  }
+
+  private void rebuild() {
+    index.clear();
+    duplicates = false;
+    partial = false;
+    for (final Entity entity : entityCollection.getEntities()) {
+      index(entity);
+    }
+    indexedCount = entityCollection.getEntities().size();
+  }
+
+  private void index(final Entity entity) {
+    final Object key = keyOf(entity);
+    if (key == null) {
+      partial = true;
+      return;
+    }
+    // The first entity with a given key wins, as in a sequential search.
+    if (index.containsKey(key)) {
+      duplicates = true;
+    } else {
+      index.put(key, entity);
+    }
+  }
+
+  private int position(final String name) {
+    for (int i = 0; i < keyNames.length; i++) {
+      if (keyNames[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** @return the canonical key of the entity, or <code>null</code> if it has no complete valid key */
+  private Object keyOf(final Entity entity) {
+    final String[] values = new String[keyNames.length];
+    for (int i = 0; i < keyNames.length; i++) {
+      final Property property = entity.getProperty(keyNames[i]);
+      if (property == null || property.getValue() == null) {
+        return null;
+      }
+      try {
+        values[i] = format(keyProperties[i], property.getValue());
+      } catch (final EdmPrimitiveTypeException e) {
+        return null;
+      }
+    }
+    return key(values);
+  }
+
+  private static String format(final EdmProperty property, final Object value) throws EdmPrimitiveTypeException {
+    return ((EdmPrimitiveType) property.getType()).valueToString(value,
+        property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+        property.isUnicode());
+  }
+
+  private Object key(final String[] values) {
+    return values.length == 1 ? values[0] : Arrays.asList(values);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+
+/**
+ * Secondary index on a primitive property of the entities in an entity collection.
+ * <br/>
+ * The index maps property values to the positions of the entities in the collection, in ascending order.
+ * An integer index is sorted and supports range queries; a value index supports equality only.
+ * Entities without a value are not in the index; entities whose value is not of the indexed kind,
+ * or where the property path cannot be followed, are returned as candidates of every lookup, so
+ * that the caller can evaluate its original condition on them.
+ * <br/>
+ * An index is immutable; it must be rebuilt when the entity collection changes.
+ */
+public final class PropertyIndex {
+
+  private static final Object UNRESOLVED = new Object();
+
+  private final int size;
+  private final Map<Object, Positions> values;
+  private final int[] unindexed;
+
+  private PropertyIndex(final int size, final Map<Object, Positions> values, final int[] unindexed) {
+    this.size = size;
+    this.values = values;
+    this.unindexed = unindexed;
+  }
+
+  /**
+   * Creates a sorted index on an integer property; values are indexed as {@link Long}.
+   * @param path names of the complex properties leading to the property, and the name of the property
+   * @param min minimum value of the property type; smaller values are not indexed
+   * @param max maximum value of the property type; greater values are not indexed
+   */
+  public static PropertyIndex createIntegerIndex(final List<Entity> entities, final List<String> path,
+      final long min, final long max) {
+    final Map<Object, Positions> values = new TreeMap<Object, Positions>();
+    final Positions unindexed = new Positions();
+    for (int position = 0; position < entities.size(); position++) {
+      final Object value = getValue(entities.get(position), path);
+      if (value == null) {
+        continue;
+      }
+      final Long number = toLong(value);
+      if (number == null || number < min || number > max) {
+        unindexed.add(position);
+      } else {
+        add(values, number, position);
+      }
+    }
+    return new PropertyIndex(entities.size(), values, unindexed.toArray());
+  }
+
+  /**
+   * Creates a hash index on a property with values of the given Java class.
+   * @param path names of the complex properties leading to the property, and the name of the property
+   */
+  public static PropertyIndex createValueIndex(final List<Entity> entities, final List<String> path,
+      final Class<?> valueClass) {
+    final Map<Object, Positions> values = new HashMap<Object, Positions>();
+    final Positions unindexed = new Positions();
+    for (int position = 0; position < entities.size(); position++) {
+      final Object value = getValue(entities.get(position), path);
+      if (value == null) {
+        continue;
+      }
+      if (value.getClass() == valueClass) {
+        add(values, value, position);
+      } else {
+        unindexed.add(position);
+      }
+    }
+    return new PropertyIndex(entities.size(), values, unindexed.toArray());
+  }
+
+  /** @return the number of entities in the indexed collection */
+  public int size() {
+    return size;
+  }
+
+  /** @return the ascending positions of the entities with the given value, and of the unindexed entities */
+  public int[] getEqual(final Object value) {
+    final Positions positions = values.get(value);
+    return merge(positions == null ? Collections.<Positions> emptyList() : Arrays.asList(positions));
+  }
+
+  /**
+   * Range lookup in an integer index.
+   * @param from lower bound or <code>null</code>
+   * @param to upper bound or <code>null</code>
+   * @return the ascending positions of the entities in the range, and of the unindexed entities
+   */
+  public int[] getRange(final Long from, final boolean fromInclusive, final Long to, final boolean toInclusive) {
+    if (!(values instanceof NavigableMap)) {
+      throw new UnsupportedOperationException("Range lookup in a value index");
+    }
+    NavigableMap<Object, Positions> range = (NavigableMap<Object, Positions>) values;
+    if (from != null) {
+      range = range.tailMap(from, fromInclusive);
+    }
+    if (to != null) {
+      range = range.headMap(to, toInclusive);
+    }
+    return merge(range.values());
+  }
+
+  private int[] merge(final Collection<Positions> selected) {
+    int count = unindexed.length;
+    for (final Positions positions : selected) {
+      count += positions.size;
+    }
+    final int[] result = new int[count];
+    int index = 0;
+    for (final Positions positions : selected) {
+      System.arraycopy(positions.positions, 0, result, index, positions.size);
+      index += positions.size;
+    }
+    System.arraycopy(unindexed, 0, result, index, unindexed.length);
+    if (selected.size() > 1 || unindexed.length > 0) {
+      Arrays.sort(result);
+    }
+    return result;
+  }
+
+  /**
+   * Follows the property path strictly.
+   * @return the value of the primitive property, or {@link #UNRESOLVED}
+   */
+  private static Object getValue(final Entity entity, final List<String> path) {
+    Property property = entity.getProperty(path.get(0));
+    for (int i = 1; i < path.size() && property != null; i++) {
+      if (property.isNull() || !property.isComplex()) {
+        return UNRESOLVED;
+      }
+      Property innerProperty = null;
+      for (final Property candidate : property.asComplex().getValue()) {
+        if (candidate.getName().equals(path.get(i))) {
+          innerProperty = candidate;
+          break;
+        }
+      }
+      property = innerProperty;
+    }
+    return property == null || !property.isPrimitive() ? UNRESOLVED : property.getValue();
+  }
+
+  private static Long toLong(final Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Long || value instanceof Byte) {
+      return ((Number) value).longValue();
+    } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+      return ((BigInteger) value).longValue();
+    }
+    return null;
+  }
+
+  private static void add(final Map<Object, Positions> values, final Object value, final int position) {
+    Positions positions = values.get(value);
+    if (positions == null) {
+      positions = new Positions();
+      values.put(value, positions);
+    }
+    positions.add(position);
+  }
+
+  /** Growable array of ascending positions. */
+  private static final class Positions {
+    private int[] positions = new int[2];
+    private int size;
+
+    private void add(final int position) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+      positions[size++] = position;
+    }
+
+    private int[] toArray() {
+      return Arrays.copyOf(positions, size);
+    }
+  }
+}
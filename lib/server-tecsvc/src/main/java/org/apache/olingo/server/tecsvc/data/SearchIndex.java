@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchTerm;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchUnary;
+
+/**
+ * Inverted index on the words in string properties of entities, used to evaluate $search expressions.
+ * <br/>
+ * Every indexed entity is a document with a number that does not change while the entity is indexed.
+ * The numbers are assigned in the order the entities are added, so search results are in the order
+ * of the indexed list as long as new entities are appended to it.
+ * The posting list of a word is a bit set of document numbers; search expressions are evaluated
+ * by intersecting, uniting, and subtracting these bit sets.
+ * <br/>
+ * Words are the maximal sequences of letters and digits, compared case-insensitively.
+ * A search term consisting of several words matches documents containing these words
+ * consecutively in the same property.
+ */
+public final class SearchIndex {
+
+  private final List<String> propertyNames;
+  private final List<Entity> documents = new ArrayList<Entity>();
+  /** The words of each document; properties are separated by <code>null</code>. */
+  private final List<String[]> documentWords = new ArrayList<String[]>();
+  private final Map<Entity, Integer> documentNumbers = new IdentityHashMap<Entity, Integer>();
+  private final Map<Property, Integer> propertyDocuments = new IdentityHashMap<Property, Integer>();
+  private final Map<String, BitSet> postings = new HashMap<String, BitSet>();
+  private final BitSet live = new BitSet();
+
+  private SearchIndex(final List<String> propertyNames) {
+    this.propertyNames = propertyNames;
+  }
+
+  /**
+   * Creates an index on the given properties of a list of entities.
+   * @param entities the entities
+   * @param propertyNames names of the (non-collection) string properties to index
+   */
+  public static SearchIndex create(final List<Entity> entities, final List<String> propertyNames) {
+    SearchIndex index = new SearchIndex(new ArrayList<String>(propertyNames));
+    for (final Entity entity : entities) {
+      index.add(entity);
+    }
+    return index;
+  }
+
+  /** @return the names of the properties of the given type that can be indexed */
+  public static List<String> getStringPropertyNames(final EdmStructuredType type) {
+    List<String> names = new ArrayList<String>();
+    for (final String name : type.getPropertyNames()) {
+      final EdmProperty property = type.getStructuralProperty(name);
+      if (property.isPrimitive() && !property.isCollection()
+          && property.getType().getFullQualifiedName().equals(EdmPrimitiveTypeKind.String.getFullQualifiedName())) {
+        names.add(name);
+      }
+    }
+    return Collections.unmodifiableList(names);
+  }
+
+  /** @return the number of indexed entities */
+  public synchronized int size() {
+    return documentNumbers.size();
+  }
+
+  /** Adds an entity to the index; an entity already in the index is indexed again. */
+  public synchronized void add(final Entity entity) {
+    final Integer number = documentNumbers.get(entity);
+    if (number == null) {
+      documentNumbers.put(entity, documents.size());
+      documents.add(entity);
+      documentWords.add(null);
+      index(documents.size() - 1);
+    } else {
+      unindex(number);
+      index(number);
+    }
+  }
+
+  /** Removes an entity from the index. */
+  public synchronized void remove(final Entity entity) {
+    final Integer number = documentNumbers.remove(entity);
+    if (number != null) {
+      unindex(number);
+      documents.set(number, null);
+      live.clear(number);
+    }
+  }
+
+  /**
+   * Indexes again the entity containing the given property if the property is indexed.
+   * Changes of properties not in the index are ignored.
+   */
+  public synchronized void changed(final Property property) {
+    final Integer number = propertyDocuments.get(property);
+    if (number != null) {
+      unindex(number);
+      index(number);
+    }
+  }
+
+  /** @return the indexed entities matching the search expression, in the order they have been added */
+  public synchronized List<Entity> search(final SearchExpression expression) {
+    final BitSet result = evaluate(expression);
+    List<Entity> entities = new ArrayList<Entity>(result.cardinality());
+    for (int number = result.nextSetBit(0); number >= 0; number = result.nextSetBit(number + 1)) {
+      entities.add(documents.get(number));
+    }
+    return entities;
+  }
+
+  /** @return a new bit set with the numbers of the matching documents */
+  private BitSet evaluate(final SearchExpression expression) {
+    if (expression instanceof SearchBinary) {
+      final SearchBinary binary = (SearchBinary) expression;
+      if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
+        BitSet result = evaluate(binary.getLeftOperand());
+        result.or(evaluate(binary.getRightOperand()));
+        return result;
+      }
+      // "a AND NOT b" is evaluated as the difference of both posting lists, without complement.
+      final SearchExpression left = binary.getLeftOperand();
+      final SearchExpression right = binary.getRightOperand();
+      final SearchExpression first = left instanceof SearchUnary && !(right instanceof SearchUnary) ? right : left;
+      final SearchExpression second = first == left ? right : left;
+      BitSet result = evaluate(first);
+      if (!result.isEmpty()) {
+        if (second instanceof SearchUnary) {
+          result.andNot(evaluate(((SearchUnary) second).getOperand()));
+        } else {
+          result.and(evaluate(second));
+        }
+      }
+      return result;
+    } else if (expression instanceof SearchUnary) {
+      BitSet result = (BitSet) live.clone();
+      result.andNot(evaluate(((SearchUnary) expression).getOperand()));
+      return result;
+    } else if (expression instanceof SearchTerm) {
+      return evaluate(words(((SearchTerm) expression).getSearchTerm()));
+    } else {
+      throw new IllegalArgumentException("Unknown search expression " + expression);
+    }
+  }
+
+  private BitSet evaluate(final String[] words) {
+    BitSet result = new BitSet();
+    if (words.length == 0 || !postings.containsKey(words[0])) {
+      return result;
+    }
+    result.or(postings.get(words[0]));
+    for (int i = 1; i < words.length && !result.isEmpty(); i++) {
+      final BitSet posting = postings.get(words[i]);
+      if (posting == null) {
+        result.clear();
+      } else {
+        result.and(posting);
+      }
+    }
+    if (words.length > 1) {
+      for (int number = result.nextSetBit(0); number >= 0; number = result.nextSetBit(number + 1)) {
+        if (!containsSequence(documentWords.get(number), words)) {
+          result.clear(number);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean containsSequence(final String[] documentWords, final String[] words) {
+    for (int start = 0; start + words.length <= documentWords.length; start++) {
+      int i = 0;
+      while (i < words.length && words[i].equals(documentWords[start + i])) {
+        i++;
+      }
+      if (i == words.length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void index(final int number) {
+    final Entity entity = documents.get(number);
+    List<String> words = new ArrayList<String>();
+    for (final String name : propertyNames) {
+      final Property property = entity.getProperty(name);
+      if (property != null) {
+        propertyDocuments.put(property, number);
+        if (property.getValue() instanceof String) {
+          Collections.addAll(words, words((String) property.getValue()));
+          words.add(null);
+        }
+      }
+    }
+    for (final String word : words) {
+      if (word != null) {
+        BitSet posting = postings.get(word);
+        if (posting == null) {
+          posting = new BitSet();
+          postings.put(word, posting);
+        }
+        posting.set(number);
+      }
+    }
+    documentWords.set(number, words.toArray(new String[words.size()]));
+    live.set(number);
+  }
+
+  private void unindex(final int number) {
+    for (final String word : documentWords.get(number)) {
+      final BitSet posting = word == null ? null : postings.get(word);
+      if (posting != null) {
+        posting.clear(number);
+        if (posting.isEmpty()) {
+          postings.remove(word);
+        }
+      }
+    }
+    documentWords.set(number, null);
+    for (final Property property : documents.get(number).getProperties()) {
+      if (Integer.valueOf(number).equals(propertyDocuments.get(property))) {
+        propertyDocuments.remove(property);
+      }
+    }
+  }
+
+  /** @return the words of a text, in lower case */
+  private static String[] words(final String text) {
+    List<String> words = new ArrayList<String>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words.toArray(new String[words.size()]);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.processor.EntityCountProvider;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
+
+/**
+ * Counts the entities of entity sets, using the indexes of the data provider for $filter and $search.
+ * The entity set is not copied; only the results of $search and of $filter lookups in indexes are collected.
+ * Other collections, e.g., navigation targets, are not counted.
+ */
+public class TechnicalCountProvider implements EntityCountProvider {
+
+  private final DataProvider dataProvider;
+
+  public TechnicalCountProvider(final DataProvider dataProvider) {
+    this.dataProvider = dataProvider;
+  }
+
+  @Override
+  public Integer count(final UriInfoResource uriInfo) throws ODataApplicationException {
+    final EdmEntitySet edmEntitySet = getCountedEntitySet(uriInfo);
+    if (edmEntitySet == null) {
+      return null;
+    }
+    final EntityCollection entitySet = dataProvider.readAll(edmEntitySet);
+    if (entitySet == null) {
+      throw new ODataApplicationException("Nothing found.", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
+    }
+    if (uriInfo.getSearchOption() == null) {
+      return FilterHandler.countFilterSystemQuery(uriInfo.getFilterOption(), entitySet.getEntities(),
+          dataProvider.getIndexSource(edmEntitySet));
+    }
+    // The secondary indexes are on the whole entity set, so they cannot be used for the search result.
+    return FilterHandler.countFilterSystemQuery(uriInfo.getFilterOption(),
+        SearchHandler.search(uriInfo.getSearchOption(), entitySet.getEntities(), edmEntitySet.getEntityType(),
+            dataProvider.getSearchIndex(edmEntitySet)),
+        null);
+  }
+
+  @Override
+  public Integer estimateCount(final UriInfoResource uriInfo) throws ODataApplicationException {
+    // Only counts of complete entity sets are cheaper than reading the entities.
+    return uriInfo.getSearchOption() == null && uriInfo.getFilterOption() == null ? count(uriInfo) : null;
+  }
+
+  /** @return the entity set if the resource path addresses all its entities, otherwise <code>null</code> */
+  static EdmEntitySet getCountedEntitySet(final UriInfoResource uriInfo) {
+    final List<UriResource> parts = uriInfo.getUriResourceParts();
+    return parts.get(0) instanceof UriResourceEntitySet
+        && ((UriResourceEntitySet) parts.get(0)).getKeyPredicates().isEmpty()
+        && ((UriResourceEntitySet) parts.get(0)).getTypeFilterOnCollection() == null
+        && (parts.size() == 1 || parts.size() == 2 && parts.get(1).getKind() == UriResourceKind.count) ?
+        ((UriResourceEntitySet) parts.get(0)).getEntitySet() :
+        null;
+  }
+}
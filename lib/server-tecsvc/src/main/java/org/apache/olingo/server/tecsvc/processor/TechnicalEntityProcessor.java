@@ -19,6 +19,7 @@
 package org.apache.olingo.server.tecsvc.processor;
 
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.ContextURL.Builder;
@@ -46,6 +47,7 @@ import org.apache.olingo.server.api.processor.ActionEntityProcessor;
 import org.apache.olingo.server.api.processor.ActionVoidProcessor;
 import org.apache.olingo.server.api.processor.CountEntityCollectionProcessor;
 import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.processor.EntityCountProcessor;
 import org.apache.olingo.server.api.processor.EntityProcessor;
 import org.apache.olingo.server.api.processor.MediaEntityProcessor;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
@@ -61,9 +63,11 @@ import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.tecsvc.data.DataProvider;
 import org.apache.olingo.server.tecsvc.data.RequestValidator;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.ExpandSystemQueryOptionHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate.IndexSource;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.ServerSidePagingHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
@@ -76,14 +80,27 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     EntityProcessor, ActionEntityProcessor, MediaEntityProcessor,
     ActionVoidProcessor {
 
+  private final ExecutorService executor;
+
   public TechnicalEntityProcessor(final DataProvider dataProvider, ServiceMetadata serviceMetadata) {
+    this(dataProvider, serviceMetadata, null);
+  }
+
+  /**
+   * Creates a processor that filters and sorts large entity collections in parallel.
+   * @param executor the executor for the parallel work, or <code>null</code> to work in the calling thread;
+   *                 it is not shut down by the processor
+   */
+  public TechnicalEntityProcessor(final DataProvider dataProvider, ServiceMetadata serviceMetadata,
+      final ExecutorService executor) {
     super(dataProvider, serviceMetadata);
+    this.executor = executor;
   }
 
   @Override
   public void readEntityCollection(final ODataRequest request, ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, SerializerException {
-    validateOptions(uriInfo.asUriInfoResource());
+    validateOptions(uriInfo.asUriInfoResource(), true);
 
     final EdmEntitySet edmEntitySet = getEdmEntitySet(uriInfo.asUriInfoResource());
     final EdmEntityType edmEntityType = edmEntitySet == null ?
@@ -101,16 +118,20 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
       entitySet.getEntities().addAll(entitySetInitial.getEntities());
 
       // Apply system query options
-      FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, edmEntitySet);
+      SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet, edmEntityType,
+          isEntitySetRead(uriInfo, edmEntitySet) ? dataProvider.getSearchIndex(edmEntitySet) : null);
+      FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, edmEntitySet,
+          getIndexSource(uriInfo, edmEntitySet), executor);
       CountHandler.applyCountSystemQueryOption(uriInfo.getCountOption(), entitySet);
-      OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), entitySet, edmEntitySet);
-      SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
-      TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
-
-      ServerSidePagingHandler.applyServerSidePaging(uriInfo.getSkipTokenOption(),
-          entitySet,
-          edmEntitySet,
-          request.getRawRequestUri());
+      if (ServerSidePagingHandler.isPaged(edmEntitySet)) {
+        ServerSidePagingHandler.applyServerSidePaging(uriInfo, entitySet, edmEntitySet,
+            request.getRawBaseUri() + request.getRawODataPath());
+      } else {
+        OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), uriInfo.getSkipOption(),
+            uriInfo.getTopOption(), entitySet, edmEntitySet, executor);
+        SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
+        TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
+      }
 
       // Apply expand system query option
       final ODataFormat format = ODataFormat.fromContentType(requestedContentType);
@@ -119,13 +140,11 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
       final SelectOption select = uriInfo.getSelectOption();
       
       // Transform the entity graph to a tree. The construction is controlled by the expand tree.
-      // Apply all expand system query options to the tree.So the expanded navigation properties can be modified 
-      // for serialization,without affecting the data stored in the database.
+      // All expand system query options are applied to the tree. So the expanded navigation properties can be
+      // modified for serialization, without affecting the data stored in the database.
       final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-      final EntityCollection entitySetSerialization = expandHandler.transformEntitySetGraphToTree(entitySet, 
-                                                                                           edmEntitySet, 
-                                                                                           expand);
-      expandHandler.applyExpandQueryOptions(entitySetSerialization, edmEntitySet, expand);
+      final EntityCollection entitySetSerialization = expandHandler.transformEntitySetGraphToTree(entitySet,
+          edmEntitySet, expand);
 
       // Serialize
       response.setContent(serializer.entityCollection(
@@ -151,15 +170,50 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
         HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
   }
 
+  /**
+   * @return the secondary indexes of the data provider if the entity collection is the content of an entity set,
+   * otherwise <code>null</code>
+   */
+  private IndexSource getIndexSource(final UriInfo uriInfo, final EdmEntitySet edmEntitySet) {
+    if (!isEntitySetRead(uriInfo, edmEntitySet)) {
+      return null;
+    }
+    return dataProvider.getIndexSource(edmEntitySet);
+  }
+
+  /** @return whether the entity collection is the content of an entity set */
+  private boolean isEntitySetRead(final UriInfo uriInfo, final EdmEntitySet edmEntitySet) {
+    return edmEntitySet != null && uriInfo.getUriResourceParts().size() == 1
+        && uriInfo.getUriResourceParts().get(0) instanceof UriResourceEntitySet;
+  }
+
   @Override
   public void countEntityCollection(final ODataRequest request, ODataResponse response, final UriInfo uriInfo)
       throws ODataApplicationException, SerializerException {
-    validateOptions(uriInfo.asUriInfoResource());
-    getEdmEntitySet(uriInfo); // including checks
+    validateOptions(uriInfo.asUriInfoResource(), true);
+    final EdmEntitySet edmEntitySet = getEdmEntitySet(uriInfo); // including checks
+    if (TechnicalCountProvider.getCountedEntitySet(uriInfo) != null) {
+      final EntityCountProcessor countProcessor = new EntityCountProcessor(
+          dataProvider.getCountCache(new TechnicalCountProvider(dataProvider)));
+      countProcessor.init(odata, serviceMetadata);
+      countProcessor.countEntityCollection(request, response, uriInfo);
+      return;
+    }
     EntityCollection entitySet = readEntityCollection(uriInfo);
     if (entitySet == null) {
       throw new ODataApplicationException("Nothing found.", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
     } else {
+      if (uriInfo.getSearchOption() != null) {
+        final EntityCollection entitySetInitial = entitySet;
+        entitySet = new EntityCollection();
+        entitySet.getEntities().addAll(entitySetInitial.getEntities());
+        SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet,
+            edmEntitySet == null ?
+                (EdmEntityType) ((UriResourceFunction) uriInfo.getUriResourceParts()
+                    .get(uriInfo.getUriResourceParts().size() - 1)).getType() :
+                edmEntitySet.getEntityType(),
+            isEntitySetRead(uriInfo, edmEntitySet) ? dataProvider.getSearchIndex(edmEntitySet) : null);
+      }
       setCount(entitySet);
       response.setContent(odata.createFixedFormatSerializer().count(entitySet.getCount()));
       response.setStatusCode(HttpStatusCode.OK.getStatusCode());
@@ -186,7 +240,6 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
 
     final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
     final Entity entitySerialization = expandHandler.transformEntityGraphToTree(entity, edmEntitySet, expand);
-    expandHandler.applyExpandQueryOptions(entitySerialization, edmEntitySet, expand);
 
     response.setContent(serializer.entity(
         this.serviceMetadata,
@@ -18,7 +18,6 @@
  */
 package org.apache.olingo.server.tecsvc.processor;
 
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -353,7 +352,7 @@ public class TechnicalPrimitiveComplexProcessor extends TechnicalProcessor
         .getProperty();
 
     if (edmProperty.isNullable()) {
-      property.setValue(property.getValueType(), edmProperty.isCollection() ? Collections.emptyList() : null);
+      dataProvider.deletePropertyValue(edmProperty, property);
       response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
     } else {
       throw new ODataApplicationException("Not nullable.", HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
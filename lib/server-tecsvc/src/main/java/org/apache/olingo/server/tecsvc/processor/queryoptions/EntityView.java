@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.net.URI;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Annotation;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.domain.ODataOperation;
+
+/**
+ * Read-only view of an entity with its own navigation links.
+ * <br/>
+ * All data except the navigation links are read from the viewed entity, so that the expanded navigation
+ * targets of a request can be set without copying the entity and without modifying the viewed entity.
+ * The setters have no effect on the view.
+ */
+final class EntityView extends Entity {
+
+  private final Entity entity;
+
+  EntityView(final Entity entity) {
+    this.entity = entity;
+  }
+
+  /** @return the viewed entity */
+  Entity getEntity() {
+    return entity;
+  }
+
+  @Override
+  public String getETag() {
+    return entity.getETag();
+  }
+
+  @Override
+  public String getType() {
+    return entity.getType();
+  }
+
+  @Override
+  public Link getSelfLink() {
+    return entity.getSelfLink();
+  }
+
+  @Override
+  public Link getEditLink() {
+    return entity.getEditLink();
+  }
+
+  @Override
+  public List<Link> getMediaEditLinks() {
+    return entity.getMediaEditLinks();
+  }
+
+  @Override
+  public List<ODataOperation> getOperations() {
+    return entity.getOperations();
+  }
+
+  @Override
+  public List<Property> getProperties() {
+    return entity.getProperties();
+  }
+
+  @Override
+  public Property getProperty(final String name) {
+    return entity.getProperty(name);
+  }
+
+  @Override
+  public String getMediaContentType() {
+    return entity.getMediaContentType();
+  }
+
+  @Override
+  public URI getMediaContentSource() {
+    return entity.getMediaContentSource();
+  }
+
+  @Override
+  public String getMediaETag() {
+    return entity.getMediaETag();
+  }
+
+  @Override
+  public boolean isMediaEntity() {
+    return entity.isMediaEntity();
+  }
+
+  @Override
+  public Link getAssociationLink(final String name) {
+    return entity.getAssociationLink(name);
+  }
+
+  @Override
+  public List<Link> getAssociationLinks() {
+    return entity.getAssociationLinks();
+  }
+
+  @Override
+  public Link getNavigationBinding(final String name) {
+    return entity.getNavigationBinding(name);
+  }
+
+  @Override
+  public List<Link> getNavigationBindings() {
+    return entity.getNavigationBindings();
+  }
+
+  @Override
+  public URI getBaseURI() {
+    return entity.getBaseURI();
+  }
+
+  @Override
+  public URI getId() {
+    return entity.getId();
+  }
+
+  @Override
+  public String getTitle() {
+    return entity.getTitle();
+  }
+
+  @Override
+  public List<Annotation> getAnnotations() {
+    return entity.getAnnotations();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  @Override
+  public String toString() {
+    return "View of " + entity;
+  }
+}
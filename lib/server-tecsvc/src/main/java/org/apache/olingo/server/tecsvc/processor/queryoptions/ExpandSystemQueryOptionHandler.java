@@ -18,148 +18,102 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
-import org.apache.olingo.commons.api.edm.EdmEntitySet;
-import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
-import org.apache.olingo.server.api.uri.UriResource;
-import org.apache.olingo.server.api.uri.UriResourceNavigation;
-import org.apache.olingo.server.api.uri.queryoption.CountOption;
+import org.apache.olingo.server.api.processor.ExpandResolver;
+import org.apache.olingo.server.api.processor.NavigationLoader;
 import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
-import org.apache.olingo.server.api.uri.queryoption.FilterOption;
-import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
-import org.apache.olingo.server.api.uri.queryoption.SkipOption;
-import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
 
-public class ExpandSystemQueryOptionHandler {
-
-  public void applyExpandQueryOptions(final EntityCollection entitySet, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
-
-    for (final Entity entity : entitySet.getEntities()) {
-      applyExpandOptionToEntity(entity, edmEntitySet, expandOption);
-    }
-  }
-
-  public void applyExpandQueryOptions(Entity entity, EdmEntitySet edmEntitySet, ExpandOption expandOption)
-      throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
-
-    applyExpandOptionToEntity(entity, edmEntitySet, expandOption);
-  }
-
-  private void applyExpandOptionToEntity(final Entity entity, final EdmBindingTarget edmBindingTarget,
-      final ExpandOption expandOption) throws ODataApplicationException {
-    final EdmEntityType entityType = edmBindingTarget.getEntityType();
+/**
+ * Transforms the entity graph of the data provider into a tree for serialization.
+ * The construction is controlled by the expand tree; the system query options of the expand items
+ * are applied to new collections of the navigation targets, without affecting the data stored in the data provider.
+ * Entities are not copied: entities with expanded navigation properties are represented by views
+ * with their own navigation links, all other entities are shared with the data provider.
+ * Navigation targets are loaded level by level for all entities of a level at once with an {@link ExpandResolver}.
+ */
+public class ExpandSystemQueryOptionHandler implements NavigationLoader {
 
-    for (ExpandItem item : expandOption.getExpandItems()) {
-      final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
-      if (uriResourceParts.size() == 1 && uriResourceParts.get(0) instanceof UriResourceNavigation) {
-        final String navPropertyName = ((UriResourceNavigation) uriResourceParts.get(0)).getProperty().getName();
-        final EdmBindingTarget targetEdmEntitySet = edmBindingTarget.getRelatedBindingTarget(navPropertyName);
+  private final ExpandResolver resolver;
 
-        final Link link = entity.getNavigationLink(navPropertyName);
-        if (link != null && entityType.getNavigationProperty(navPropertyName).isCollection()) {
-          applyOptionsToEntityCollection(link.getInlineEntitySet(),
-              targetEdmEntitySet,
-              item.getFilterOption(),
-              item.getOrderByOption(),
-              item.getCountOption(),
-              item.getSkipOption(),
-              item.getTopOption(),
-              item.getExpandOption());
-        }
-      } else {
-        throw new ODataApplicationException("Not supported resource part in expand system query option",
-            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
-      }
-    }
+  public ExpandSystemQueryOptionHandler() {
+    resolver = new ExpandResolver(this);
   }
 
-  private void applyOptionsToEntityCollection(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget,
-      final FilterOption filterOption, final OrderByOption orderByOption, final CountOption countOption,
-      final SkipOption skipOption, final TopOption topOption, final ExpandOption expandOption)
-      throws ODataApplicationException {
-
-    FilterHandler.applyFilterSystemQuery(filterOption, entitySet, edmBindingTarget);
-    OrderByHandler.applyOrderByOption(orderByOption, entitySet, edmBindingTarget);
-    // TODO Add CountHandler
-    SkipHandler.applySkipSystemQueryHandler(skipOption, entitySet);
-    TopHandler.applyTopSystemQueryOption(topOption, entitySet);
-
-    // Apply nested expand system query options to remaining entities
-    if (expandOption != null) {
-      for (final Entity entity : entitySet.getEntities()) {
-        applyExpandOptionToEntity(entity, edmBindingTarget, expandOption);
-      }
-    }
+  /**
+   * Creates a handler that resolves the expanded navigation properties of one level concurrently.
+   * @param executor the executor
+   * @param maxConcurrency the maximum number of concurrently running tasks per transformation
+   */
+  public ExpandSystemQueryOptionHandler(final ExecutorService executor, final int maxConcurrency) {
+    resolver = new ExpandResolver(this, executor, maxConcurrency);
   }
 
   public EntityCollection transformEntitySetGraphToTree(final EntityCollection entitySet,
       final EdmBindingTarget edmBindingTarget, final ExpandOption expand) throws ODataApplicationException {
-
     final EntityCollection newEntitySet = newEntitySet(entitySet);
-
-    for (final Entity entity : entitySet.getEntities()) {
-      newEntitySet.getEntities().add(transformEntityGraphToTree(entity, edmBindingTarget, expand));
-    }
-
+    newEntitySet.getEntities().addAll(view(entitySet.getEntities(), expand));
+    resolver.resolve(newEntitySet.getEntities(), edmBindingTarget, expand);
     return newEntitySet;
   }
 
-  public Entity transformEntityGraphToTree(final Entity entity, EdmBindingTarget edmEntitySet,
+  public Entity transformEntityGraphToTree(final Entity entity, final EdmBindingTarget edmEntitySet,
       final ExpandOption expand) throws ODataApplicationException {
-    final Entity newEntity = newEntity(entity);
-    if (hasExpandItems(expand)) {
-      final boolean expandAll = expandAll(expand);
-      final Set<String> expanded = expandAll ? null : getExpandedPropertyNames(expand.getExpandItems());
-      final EdmEntityType edmType = edmEntitySet.getEntityType();
-
-      for (final Link link : entity.getNavigationLinks()) {
-        final String propertyName = link.getTitle();
-
-        if (expandAll || expanded.contains(propertyName)) {
-          final EdmNavigationProperty edmNavigationProperty = edmType.getNavigationProperty(propertyName);
-          final EdmBindingTarget edmBindingTarget = edmEntitySet.getRelatedBindingTarget(propertyName);
-          final Link newLink = newLink(link);
-          newEntity.getNavigationLinks().add(newLink);
-          final ExpandOption innerExpandOption = getInnerExpandOption(expand, propertyName);
+    final List<Entity> newEntities = view(Collections.singletonList(entity), expand);
+    resolver.resolve(newEntities, edmEntitySet, expand);
+    return newEntities.get(0);
+  }
 
-          if (edmNavigationProperty.isCollection()) {
-            newLink.setInlineEntitySet(transformEntitySetGraphToTree(link.getInlineEntitySet(),
-                edmBindingTarget,
-                innerExpandOption));
-          } else {
-            newLink.setInlineEntity(transformEntityGraphToTree(link.getInlineEntity(),
-                edmBindingTarget,
-                innerExpandOption));
+  @Override
+  public List<EntityCollection> load(final EdmBindingTarget source, final EdmNavigationProperty navigationProperty,
+      final List<Entity> sources, final ExpandItem item) throws ODataApplicationException {
+    final EdmBindingTarget target = source == null ? null :
+        source.getRelatedBindingTarget(navigationProperty.getName());
+    final ExpandOption innerExpand = item == null ? null : item.getExpandOption();
+    List<EntityCollection> results = new ArrayList<EntityCollection>(sources.size());
+    for (final Entity entity : sources) {
+      final Entity original = entity instanceof EntityView ? ((EntityView) entity).getEntity() : entity;
+      final Link link = original.getNavigationLink(navigationProperty.getName());
+      EntityCollection result = null;
+      if (link != null && navigationProperty.isCollection()) {
+        if (link.getInlineEntitySet() != null) {
+          result = newEntitySet(link.getInlineEntitySet());
+          result.getEntities().addAll(view(link.getInlineEntitySet().getEntities(), innerExpand));
+          if (item != null) {
+            applyOptionsToEntityCollection(result, target, item);
           }
         }
+      } else if (link != null && link.getInlineEntity() != null) {
+        result = new EntityCollection();
+        result.getEntities().addAll(view(Collections.singletonList(link.getInlineEntity()), innerExpand));
       }
-
+      results.add(result);
     }
-    return newEntity;
+    return results;
+  }
+
+  private void applyOptionsToEntityCollection(final EntityCollection entitySet,
+      final EdmBindingTarget edmBindingTarget, final ExpandItem item) throws ODataApplicationException {
+    FilterHandler.applyFilterSystemQuery(item.getFilterOption(), entitySet, edmBindingTarget);
+    OrderByHandler.applyOrderByOption(item.getOrderByOption(), item.getSkipOption(), item.getTopOption(),
+        entitySet, edmBindingTarget);
+    // TODO Add CountHandler
+    SkipHandler.applySkipSystemQueryHandler(item.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(item.getTopOption(), entitySet);
   }
 
   public EntityCollection newEntitySet(final EntityCollection entitySet) {
@@ -171,74 +125,18 @@ public class ExpandSystemQueryOptionHandler {
     return newEntitySet;
   }
 
-  private Entity newEntity(final Entity entity) {
-    final Entity newEntity = new Entity();
-
-    newEntity.getProperties().addAll(entity.getProperties());
-    newEntity.getAnnotations().addAll(entity.getAnnotations());
-    newEntity.getAssociationLinks().addAll(entity.getAssociationLinks());
-    newEntity.setEditLink(entity.getEditLink());
-    newEntity.setId(entity.getId());
-    newEntity.setMediaContentSource(entity.getMediaContentSource());
-    newEntity.setMediaContentType(entity.getMediaContentType());
-    newEntity.setMediaETag(entity.getMediaETag());
-    newEntity.getOperations().addAll(entity.getOperations());
-    newEntity.setSelfLink(entity.getSelfLink());
-    newEntity.setType(entity.getType());
-    newEntity.getNavigationBindings().addAll(entity.getNavigationBindings());
-
-    return newEntity;
-  }
-
-  private Link newLink(Link link) {
-    final Link newLink = new Link();
-    newLink.setMediaETag(link.getMediaETag());
-    newLink.setTitle(link.getTitle());
-    newLink.setType(link.getType());
-    newLink.setRel(link.getRel());
-
-    return newLink;
-  }
-
-  private boolean hasExpandItems(ExpandOption expand) {
-    return expand != null && expand.getExpandItems() != null && !expand.getExpandItems().isEmpty();
-  }
-
-  private boolean expandAll(ExpandOption expand) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if (item.isStar()) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private Set<String> getExpandedPropertyNames(List<ExpandItem> expandItems) throws ODataApplicationException {
-    Set<String> expanded = new HashSet<String>();
-    for (final ExpandItem item : expandItems) {
-      final List<UriResource> resourceParts = item.getResourcePath().getUriResourceParts();
-      if (resourceParts.size() == 1) {
-        final UriResource resource = resourceParts.get(0);
-        if (resource instanceof UriResourceNavigation) {
-          expanded.add(((UriResourceNavigation) resource).getProperty().getName());
-        }
-      } else {
-        throw new ODataApplicationException("Expand is not supported within complex properties.",
-            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
-      }
+  /**
+   * Returns views of the entities if navigation properties of them are expanded,
+   * otherwise the entities themselves.
+   */
+  private List<Entity> view(final List<Entity> entities, final ExpandOption expand) {
+    if (expand == null || expand.getExpandItems() == null || expand.getExpandItems().isEmpty()) {
+      return entities;
     }
-    return expanded;
-  }
-
-  private ExpandOption getInnerExpandOption(final ExpandOption expand, final String propertyName) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      final UriResource resource = item.getResourcePath().getUriResourceParts().get(0);
-      if (resource instanceof UriResourceNavigation
-          && propertyName.equals(((UriResourceNavigation) resource).getProperty().getName())) {
-        return item.getExpandOption();
-      }
+    List<Entity> views = new ArrayList<Entity>(entities.size());
+    for (final Entity entity : entities) {
+      views.add(new EntityView(entity));
     }
-
-    return null;
+    return views;
   }
 }
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.UntypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+
+/**
+ * Compiles an expression tree once into a tree of {@link CompiledExpression}s, instead of visiting
+ * the expression tree with a new {@link ExpressionVisitorImpl} for every entity.
+ * <br/>
+ * Literals are typed and member paths are resolved at compile time; sub-expressions without members
+ * are evaluated at compile time, too. Operators and methods are evaluated with the same semantics as
+ * in {@link ExpressionVisitorImpl}; comparisons of properties with constants and their logical
+ * combinations are evaluated by specialized {@link TypedPredicate}s.
+ */
+public class ExpressionCompiler implements ExpressionVisitor<CompiledExpression> {
+
+  /** The operators and methods of the visitor do not depend on its entity, so one instance serves all. */
+  private static final ExpressionVisitorImpl OPERATIONS = new ExpressionVisitorImpl(null, null);
+
+  public static CompiledExpression compile(final Expression expression)
+      throws ExpressionVisitException, ODataApplicationException {
+    return expression.accept(new ExpressionCompiler());
+  }
+
+  @Override
+  public CompiledExpression visitBinaryOperator(final BinaryOperatorKind operator, final CompiledExpression left,
+      final CompiledExpression right) throws ExpressionVisitException, ODataApplicationException {
+    final CompiledExpression compiled = new CompiledExpression() {
+      @Override
+      public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        return OPERATIONS.visitBinaryOperator(operator, left.evaluate(entity), right.evaluate(entity));
+      }
+    };
+    if (left instanceof Constant && right instanceof Constant) {
+      return new Constant(compiled.evaluate(null));
+    }
+    final TypedPredicate specialized = TypedPredicate.binary(operator, left, right, compiled);
+    return specialized == null ? compiled : specialized;
+  }
+
+  @Override
+  public CompiledExpression visitUnaryOperator(final UnaryOperatorKind operator, final CompiledExpression operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    final CompiledExpression compiled = new CompiledExpression() {
+      @Override
+      public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        return OPERATIONS.visitUnaryOperator(operator, operand.evaluate(entity));
+      }
+    };
+    if (operand instanceof Constant) {
+      return new Constant(compiled.evaluate(null));
+    } else if (operator == UnaryOperatorKind.NOT && operand instanceof TypedPredicate) {
+      return TypedPredicate.not((TypedPredicate) operand);
+    }
+    return compiled;
+  }
+
+  @Override
+  public CompiledExpression visitMethodCall(final MethodKind methodCall, final List<CompiledExpression> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    final CompiledExpression[] compiledParameters = parameters.toArray(new CompiledExpression[parameters.size()]);
+    final CompiledExpression compiled = new CompiledExpression() {
+      @Override
+      public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        final List<VisitorOperand> operands = new ArrayList<VisitorOperand>(compiledParameters.length);
+        for (final CompiledExpression parameter : compiledParameters) {
+          operands.add(parameter.evaluate(entity));
+        }
+        return OPERATIONS.visitMethodCall(methodCall, operands);
+      }
+    };
+    for (final CompiledExpression parameter : compiledParameters) {
+      if (!(parameter instanceof Constant)) {
+        return compiled;
+      }
+    }
+    return new Constant(compiled.evaluate(null));
+  }
+
+  @Override
+  public CompiledExpression visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    return throwNotImplemented();
+  }
+
+  @Override
+  public CompiledExpression visitLiteral(final String literal)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new Constant(new UntypedOperand(literal).asTypedOperand());
+  }
+
+  @Override
+  public CompiledExpression visitMember(final UriInfoResource member)
+      throws ExpressionVisitException, ODataApplicationException {
+    final List<UriResource> uriResourceParts = member.getUriResourceParts();
+    final EdmProperty[] path = new EdmProperty[uriResourceParts.size()];
+    final EdmType[] types = new EdmType[path.length];
+    for (int i = 0; i < path.length; i++) {
+      if (!(uriResourceParts.get(i) instanceof UriResourceProperty)) {
+        return throwNotImplemented();
+      }
+      path[i] = ((UriResourceProperty) uriResourceParts.get(i)).getProperty();
+      types[i] = path[i].getType();
+    }
+    return new Member(path, types);
+  }
+
+  @Override
+  public CompiledExpression visitAlias(final String aliasName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return throwNotImplemented();
+  }
+
+  @Override
+  public CompiledExpression visitTypeLiteral(final EdmType type)
+      throws ExpressionVisitException, ODataApplicationException {
+    return throwNotImplemented();
+  }
+
+  @Override
+  public CompiledExpression visitLambdaReference(final String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return throwNotImplemented();
+  }
+
+  @Override
+  public CompiledExpression visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    return throwNotImplemented();
+  }
+
+  private CompiledExpression throwNotImplemented() throws ODataApplicationException {
+    throw new ODataApplicationException("Not implemented", HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(),
+        Locale.ROOT);
+  }
+
+  /** Expression with the same value for all entities. */
+  static final class Constant implements CompiledExpression {
+    private final VisitorOperand value;
+
+    private Constant(final VisitorOperand value) {
+      this.value = value;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      return value;
+    }
+  }
+
+  /** Property path starting at the entity, possibly through complex properties. */
+  static final class Member implements CompiledExpression {
+    /** Marker for entities where the path does not lead to a primitive value as declared in the metadata. */
+    static final Object UNRESOLVED = new Object();
+
+    private final EdmProperty[] path;
+    private final EdmType[] types;
+
+    private Member(final EdmProperty[] path, final EdmType[] types) {
+      this.path = path;
+      this.types = types;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      int current = 0;
+      Property currentProperty = entity.getProperty(path[0].getName());
+      for (int i = 1; i < path.length; i++) {
+        if (currentProperty.isComplex()) {
+          current = i;
+          for (final Property innerProperty : currentProperty.asComplex().getValue()) {
+            if (innerProperty.getName().equals(path[i].getName())) {
+              currentProperty = innerProperty;
+              break;
+            }
+          }
+        }
+      }
+      return new TypedOperand(currentProperty.getValue(), types[current], path[current]);
+    }
+
+    /** @return the names of the properties in the path */
+    List<String> getPathNames() {
+      final List<String> names = new ArrayList<String>(path.length);
+      for (final EdmProperty property : path) {
+        names.add(property.getName());
+      }
+      return names;
+    }
+
+    /**
+     * @return the primitive type at the end of the path, or <code>null</code> if the path does not consist
+     * of complex properties followed by one primitive property
+     */
+    EdmType getPrimitiveType() {
+      for (int i = 0; i < path.length - 1; i++) {
+        if (types[i].getKind() != EdmTypeKind.COMPLEX) {
+          return null;
+        }
+      }
+      return types[path.length - 1].getKind() == EdmTypeKind.PRIMITIVE ? types[path.length - 1] : null;
+    }
+
+    /**
+     * Follows the path strictly, without the fall-backs of {@link #evaluate(Entity)}.
+     * @return the raw value of the primitive property, or {@link #UNRESOLVED}
+     */
+    Object getPrimitiveValue(final Entity entity) {
+      Property currentProperty = entity.getProperty(path[0].getName());
+      for (int i = 1; i < path.length && currentProperty != null; i++) {
+        if (currentProperty.isNull() || !currentProperty.isComplex()) {
+          return UNRESOLVED;
+        }
+        final String name = path[i].getName();
+        Property innerProperty = null;
+        for (final Property property : currentProperty.asComplex().getValue()) {
+          if (property.getName().equals(name)) {
+            innerProperty = property;
+            break;
+          }
+        }
+        currentProperty = innerProperty;
+      }
+      return currentProperty == null || !currentProperty.isPrimitive() ? UNRESOLVED : currentProperty.getValue();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.data.PropertyIndex;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+
+/**
+ * Compiled $filter expression. It can be applied to any number of entities and by several threads concurrently.
+ */
+public class FilterPredicate {
+
+  private static final EdmPrimitiveType primBoolean =
+      OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+
+  private final CompiledExpression expression;
+
+  public FilterPredicate(final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    this.expression = ExpressionCompiler.compile(expression);
+  }
+
+  /**
+   * Filters the entities, using secondary indexes on the entities if possible.
+   * An index is used for comparisons of properties with constants that are combined with <code>and</code>
+   * or <code>or</code>; the filter expression is then evaluated for the entities found in the index only.
+   * @param entities the entities, in the same order as in the indexes
+   * @param indexSource the indexes on the entities
+   * @return the matching entities in their original order,
+   * or <code>null</code> if no index can be used and all entities have to be tested
+   */
+  public List<Entity> filter(final List<Entity> entities, final IndexSource indexSource)
+      throws ExpressionVisitException, ODataApplicationException {
+    final int[] candidates = expression instanceof TypedPredicate ?
+        ((TypedPredicate) expression).lookUp(indexSource, entities.size()) :
+        null;
+    if (candidates == null) {
+      return null;
+    }
+    final List<Entity> result = new ArrayList<Entity>();
+    for (final int position : candidates) {
+      final Entity entity = entities.get(position);
+      // The full expression is checked again, so an index only has to return a superset of the matches.
+      if (matches(entity)) {
+        result.add(entity);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return <code>true</code> if the filter expression evaluates to <code>true</code> for the given entity
+   */
+  public boolean matches(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+    if (expression instanceof TypedPredicate) {
+      return ((TypedPredicate) expression).test(entity);
+    }
+    final TypedOperand typedOperand = expression.evaluate(entity).asTypedOperand();
+    return typedOperand.is(primBoolean) && Boolean.TRUE.equals(typedOperand.getTypedValue(Boolean.class));
+  }
+
+  /** Secondary indexes on the entities to be filtered. */
+  public interface IndexSource {
+
+    /**
+     * @return a sorted index on an integer property, or <code>null</code>
+     * @see PropertyIndex#createIntegerIndex(List, List, long, long)
+     */
+    PropertyIndex getIntegerIndex(List<String> path, long min, long max);
+
+    /**
+     * @return a hash index on a property, or <code>null</code>
+     * @see PropertyIndex#createValueIndex(List, List, Class)
+     */
+    PropertyIndex getValueIndex(List<String> path, Class<?> valueClass);
+  }
+}
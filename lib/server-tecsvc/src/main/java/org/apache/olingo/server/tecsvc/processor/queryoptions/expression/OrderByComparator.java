@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SystemQueryOptionsRuntimeException;
+
+/**
+ * Comparator for the items of a compiled $orderby option.
+ * Errors during evaluation are thrown as {@link SystemQueryOptionsRuntimeException}.
+ * The comparator can be used by several threads concurrently.
+ * <br/>
+ * For sorting, entities should be decorated with {@link SortKey}s, so that each $orderby item
+ * is evaluated at most once per entity instead of once per comparison.
+ */
+public class OrderByComparator implements Comparator<Entity> {
+
+  private final CompiledExpression[] expressions;
+  private final boolean[] descending;
+  private final Comparator<SortKey> sortKeyComparator = new Comparator<SortKey>() {
+    @Override
+    public int compare(final SortKey key1, final SortKey key2) {
+      return compareSortKeys(key1, key2);
+    }
+  };
+
+  public OrderByComparator(final List<OrderByItem> orders)
+      throws ExpressionVisitException, ODataApplicationException {
+    expressions = new CompiledExpression[orders.size()];
+    descending = new boolean[orders.size()];
+    for (int i = 0; i < expressions.length; i++) {
+      expressions[i] = ExpressionCompiler.compile(orders.get(i).getExpression());
+      descending[i] = orders.get(i).isDescending();
+    }
+  }
+
+  @Override
+  public int compare(final Entity e1, final Entity e2) {
+    return compareSortKeys(createSortKey(e1), createSortKey(e2));
+  }
+
+  /** @return a new sort key for the given entity; its values are evaluated when they are compared first */
+  public SortKey createSortKey(final Entity entity) {
+    return new SortKey(entity, new TypedOperand[expressions.length]);
+  }
+
+  /** @return comparator for sort keys created by this comparator */
+  public Comparator<SortKey> getSortKeyComparator() {
+    return sortKeyComparator;
+  }
+
+  /**
+   * Compares the sort key with $orderby values previously taken from another sort key,
+   * with the same result as comparing the sort keys.
+   * @see #getValues(SortKey)
+   */
+  public int compareToValues(final SortKey key, final Object[] values) {
+    int result = 0;
+    for (int i = 0; i < expressions.length && result == 0; i++) {
+      final TypedOperand operand = value(key, i);
+      result = compareValues(operand.isNull() ? null : operand.getValue(), values[i]);
+      result = descending[i] ? result * -1 : result;
+    }
+    return result;
+  }
+
+  /** @return the values of the $orderby items for the entity of the sort key, with <code>null</code> for null */
+  public Object[] getValues(final SortKey key) {
+    Object[] values = new Object[expressions.length];
+    for (int i = 0; i < expressions.length; i++) {
+      final TypedOperand operand = value(key, i);
+      values[i] = operand.isNull() ? null : operand.getValue();
+    }
+    return values;
+  }
+
+  /**
+   * Compares two values in ascending order: null is less than all other values,
+   * and values of different or non-comparable classes are considered equal.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public static int compareValues(final Object o1, final Object o2) {
+    if (o1 == null || o2 == null) {
+      return o1 == null && o2 == null ? 0 : o1 == null ? -1 : 1;
+    }
+    return o1.getClass() == o2.getClass() && o1 instanceof Comparable ? ((Comparable) o1).compareTo(o2) : 0;
+  }
+
+  private int compareSortKeys(final SortKey key1, final SortKey key2) {
+    // Evaluate the first order option for both entity
+    // If and only if the result of the previous order option is equals to 0
+    // evaluate the next order option until all options are evaluated or they are not equals
+    int result = 0;
+
+    for (int i = 0; i < expressions.length && result == 0; i++) {
+      final TypedOperand op1 = value(key1, i);
+      final TypedOperand op2 = value(key2, i);
+      result = compareValues(op1.isNull() ? null : op1.getValue(), op2.isNull() ? null : op2.getValue());
+      result = descending[i] ? result * -1 : result;
+    }
+    return result;
+  }
+
+  private TypedOperand value(final SortKey key, final int index) {
+    if (key.values[index] == null) {
+      try {
+        key.values[index] = expressions[index].evaluate(key.entity).asTypedOperand();
+      } catch (ODataApplicationException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      } catch (ExpressionVisitException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      }
+    }
+    return key.values[index];
+  }
+
+  /**
+   * Entity decorated with the values of the $orderby items.
+   * A sort key must not be compared by several threads concurrently.
+   */
+  public static final class SortKey {
+    private final Entity entity;
+    private final TypedOperand[] values;
+
+    private SortKey(final Entity entity, final TypedOperand[] values) {
+      this.entity = entity;
+      this.values = values;
+    }
+
+    public Entity getEntity() {
+      return entity;
+    }
+  }
+}
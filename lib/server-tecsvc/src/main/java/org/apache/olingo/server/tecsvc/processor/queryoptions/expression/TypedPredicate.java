@@ -0,0 +1,385 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.data.PropertyIndex;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate.IndexSource;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+
+/**
+ * Compiled expression with a Boolean result that is evaluated on raw Java values.
+ * <br/>
+ * The generic operators convert every operand into its canonical representation (via its URI literal)
+ * and cast both operands of a binary operator to a common type. For comparisons of a primitive property
+ * with a constant this work can be done once at compile time. The specialized evaluators fall back to the
+ * generic expression for every value they cannot handle, so the results are always the same.
+ */
+abstract class TypedPredicate implements CompiledExpression {
+
+  private static final EdmPrimitiveType primBoolean;
+  private static final EdmPrimitiveType primString;
+  private static final TypedOperand TRUE;
+  private static final TypedOperand FALSE;
+  /** Value ranges of the integer types, as minimum and maximum. */
+  private static final Map<EdmType, long[]> INTEGER_RANGES = new HashMap<EdmType, long[]>();
+
+  static {
+    final OData oData = OData.newInstance();
+    primBoolean = oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+    primString = oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.String);
+    TRUE = new TypedOperand(true, primBoolean);
+    FALSE = new TypedOperand(false, primBoolean);
+    INTEGER_RANGES.put(oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.SByte),
+        new long[] { Byte.MIN_VALUE, Byte.MAX_VALUE });
+    INTEGER_RANGES.put(oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Byte), new long[] { 0, 255 });
+    INTEGER_RANGES.put(oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int16),
+        new long[] { Short.MIN_VALUE, Short.MAX_VALUE });
+    INTEGER_RANGES.put(oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int32),
+        new long[] { Integer.MIN_VALUE, Integer.MAX_VALUE });
+    INTEGER_RANGES.put(oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Int64),
+        new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+  }
+
+  /**
+   * Evaluates the predicate.
+   * @return the Boolean result; never <code>null</code>
+   */
+  abstract boolean test(Entity entity) throws ExpressionVisitException, ODataApplicationException;
+
+  @Override
+  public VisitorOperand evaluate(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+    return test(entity) ? TRUE : FALSE;
+  }
+
+  /**
+   * Looks up the entities that can satisfy the predicate in the indexes of the entity collection.
+   * @param size the number of entities in the collection; indexes of another size are outdated
+   * @return the ascending positions of a superset of the matching entities,
+   * or <code>null</code> if no index can be used
+   */
+  int[] lookUp(final IndexSource indexSource, final int size) {
+    return null;
+  }
+
+  /**
+   * Creates a specialized evaluator for a binary operator.
+   * @param generic the generic evaluation of the same operator, used as fall-back
+   * @return the specialized evaluator or <code>null</code> if there is none for the given operands
+   */
+  static TypedPredicate binary(final BinaryOperatorKind operator, final CompiledExpression left,
+      final CompiledExpression right, final CompiledExpression generic) throws ExpressionVisitException {
+    switch (operator) {
+    case AND:
+    case OR:
+      return left instanceof TypedPredicate && right instanceof TypedPredicate ?
+          new Junction(operator == BinaryOperatorKind.AND, (TypedPredicate) left, (TypedPredicate) right) :
+          null;
+    case EQ:
+    case NE:
+    case LT:
+    case LE:
+    case GT:
+    case GE:
+      if (left instanceof ExpressionCompiler.Member && right instanceof ExpressionCompiler.Constant) {
+        return comparison(operator, (ExpressionCompiler.Member) left, constant(right), false, generic);
+      } else if (left instanceof ExpressionCompiler.Constant && right instanceof ExpressionCompiler.Member) {
+        return comparison(operator, (ExpressionCompiler.Member) right, constant(left), true, generic);
+      }
+      return null;
+    default:
+      return null;
+    }
+  }
+
+  /** Creates a specialized evaluator for the negation of a predicate. */
+  static TypedPredicate not(final TypedPredicate operand) {
+    return new TypedPredicate() {
+      @Override
+      boolean test(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+        return !operand.test(entity);
+      }
+    };
+  }
+
+  /** @return the typed value of a constant, or <code>null</code> if it cannot be typed at compile time */
+  private static TypedOperand constant(final CompiledExpression constant) throws ExpressionVisitException {
+    try {
+      return constant.evaluate(null).asTypedOperand();
+    } catch (final ODataApplicationException e) {
+      // The generic operator reports the error when it is evaluated.
+      return null;
+    }
+  }
+
+  private static TypedPredicate comparison(final BinaryOperatorKind operator, final ExpressionCompiler.Member member,
+      final TypedOperand constant, final boolean swapped, final CompiledExpression generic) {
+    final EdmType memberType = member.getPrimitiveType();
+    if (memberType == null || constant == null || constant.isNull()) {
+      return null;
+    }
+    final long[] range = INTEGER_RANGES.get(memberType);
+    if (range != null && INTEGER_RANGES.containsKey(constant.getType())
+        && constant.getValue() instanceof BigInteger && ((BigInteger) constant.getValue()).bitLength() < 64) {
+      return new IntegerComparison(operator, member, range, ((BigInteger) constant.getValue()).longValue(),
+          swapped, generic);
+    } else if (memberType == constant.getType() && (memberType == primString || memberType == primBoolean)) {
+      return new EqualityComparison(operator, member, constant.getValue(), generic);
+    }
+    return null;
+  }
+
+  /**
+   * Interprets the result of comparing two values the way the generic comparison operators do.
+   * @param result the comparison result, negative, zero, or positive
+   */
+  private static boolean expected(final BinaryOperatorKind operator, final int result) {
+    switch (operator) {
+    case EQ:
+      return result == 0;
+    case NE:
+      return result != 0;
+    case LT:
+      return result < 0;
+    case LE:
+      return result <= 0;
+    case GT:
+      return result > 0;
+    case GE:
+      return result >= 0;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean generic(final CompiledExpression generic, final Entity entity)
+      throws ExpressionVisitException, ODataApplicationException {
+    return (Boolean) generic.evaluate(entity).getValue();
+  }
+
+  /** Logical AND or OR; both operands are always evaluated, as in the generic operator. */
+  private static final class Junction extends TypedPredicate {
+    private final boolean and;
+    private final TypedPredicate left;
+    private final TypedPredicate right;
+
+    private Junction(final boolean and, final TypedPredicate left, final TypedPredicate right) {
+      this.and = and;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean test(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      final boolean leftResult = left.test(entity);
+      final boolean rightResult = right.test(entity);
+      return and ? leftResult && rightResult : leftResult || rightResult;
+    }
+
+    @Override
+    int[] lookUp(final IndexSource indexSource, final int size) {
+      final int[] leftPositions = left.lookUp(indexSource, size);
+      if (leftPositions == null && !and) {
+        // Without restriction on one side, all entities can satisfy the disjunction.
+        return null;
+      }
+      final int[] rightPositions = right.lookUp(indexSource, size);
+      if (leftPositions == null || rightPositions == null) {
+        return and ? (leftPositions == null ? rightPositions : leftPositions) : null;
+      }
+      return and ? intersect(leftPositions, rightPositions) : unite(leftPositions, rightPositions);
+    }
+  }
+
+  /** Comparison of an integer property with an integer constant, in <code>long</code> arithmetic. */
+  private static final class IntegerComparison extends TypedPredicate {
+    private final BinaryOperatorKind operator;
+    private final ExpressionCompiler.Member member;
+    private final long min;
+    private final long max;
+    private final long constant;
+    private final boolean swapped;
+    private final CompiledExpression generic;
+
+    private IntegerComparison(final BinaryOperatorKind operator, final ExpressionCompiler.Member member,
+        final long[] range, final long constant, final boolean swapped, final CompiledExpression generic) {
+      this.operator = operator;
+      this.member = member;
+      min = range[0];
+      max = range[1];
+      this.constant = constant;
+      this.swapped = swapped;
+      this.generic = generic;
+    }
+
+    @Override
+    boolean test(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      final Object value = member.getPrimitiveValue(entity);
+      if (value == null) {
+        // Only the equality operators are true for exactly one null operand.
+        return operator == BinaryOperatorKind.NE;
+      }
+      final long number;
+      if (value instanceof Integer || value instanceof Short || value instanceof Long || value instanceof Byte) {
+        number = ((Number) value).longValue();
+      } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+        number = ((BigInteger) value).longValue();
+      } else {
+        return generic(generic, entity);
+      }
+      if (number < min || number > max) {
+        // The generic conversion rejects values outside of the range of the property type.
+        return generic(generic, entity);
+      }
+      final int result = number < constant ? -1 : number == constant ? 0 : 1;
+      return expected(operator, swapped ? -result : result);
+    }
+
+    @Override
+    int[] lookUp(final IndexSource indexSource, final int size) {
+      if (operator == BinaryOperatorKind.NE) {
+        return null;
+      }
+      final PropertyIndex index = indexSource.getIntegerIndex(member.getPathNames(), min, max);
+      if (index == null || index.size() != size) {
+        return null;
+      }
+      switch (swapped ? mirror(operator) : operator) {
+      case EQ:
+        return index.getEqual(constant);
+      case LT:
+        return index.getRange(null, false, constant, false);
+      case LE:
+        return index.getRange(null, false, constant, true);
+      case GT:
+        return index.getRange(constant, false, null, false);
+      case GE:
+        return index.getRange(constant, true, null, false);
+      default:
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Comparison of a String or Boolean property with a constant of the same type.
+   * The generic operators only distinguish equal and different values for these types,
+   * where different values count as greater.
+   */
+  private static final class EqualityComparison extends TypedPredicate {
+    private final BinaryOperatorKind operator;
+    private final ExpressionCompiler.Member member;
+    private final Object constant;
+    private final CompiledExpression generic;
+
+    private EqualityComparison(final BinaryOperatorKind operator, final ExpressionCompiler.Member member,
+        final Object constant, final CompiledExpression generic) {
+      this.operator = operator;
+      this.member = member;
+      this.constant = constant;
+      this.generic = generic;
+    }
+
+    @Override
+    boolean test(final Entity entity) throws ExpressionVisitException, ODataApplicationException {
+      final Object value = member.getPrimitiveValue(entity);
+      if (value == null) {
+        return operator == BinaryOperatorKind.NE;
+      } else if (value.getClass() != constant.getClass()) {
+        return generic(generic, entity);
+      }
+      return expected(operator, value.equals(constant) ? 0 : 1);
+    }
+
+    @Override
+    int[] lookUp(final IndexSource indexSource, final int size) {
+      // Only equal values are less than or equal.
+      if (operator != BinaryOperatorKind.EQ && operator != BinaryOperatorKind.LE) {
+        return null;
+      }
+      final PropertyIndex index = indexSource.getValueIndex(member.getPathNames(), constant.getClass());
+      return index == null || index.size() != size ? null : index.getEqual(constant);
+    }
+  }
+
+  /** @return the operator with the same result for exchanged operands */
+  private static BinaryOperatorKind mirror(final BinaryOperatorKind operator) {
+    switch (operator) {
+    case LT:
+      return BinaryOperatorKind.GT;
+    case LE:
+      return BinaryOperatorKind.GE;
+    case GT:
+      return BinaryOperatorKind.LT;
+    case GE:
+      return BinaryOperatorKind.LE;
+    default:
+      return operator;
+    }
+  }
+
+  private static int[] intersect(final int[] positions1, final int[] positions2) {
+    final int[] result = new int[Math.min(positions1.length, positions2.length)];
+    int count = 0;
+    for (int i = 0, j = 0; i < positions1.length && j < positions2.length;) {
+      if (positions1[i] < positions2[j]) {
+        i++;
+      } else if (positions1[i] > positions2[j]) {
+        j++;
+      } else {
+        result[count++] = positions1[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static int[] unite(final int[] positions1, final int[] positions2) {
+    final int[] result = new int[positions1.length + positions2.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < positions1.length || j < positions2.length) {
+      if (j >= positions2.length || i < positions1.length && positions1[i] < positions2[j]) {
+        result[count++] = positions1[i++];
+      } else if (i >= positions1.length || positions2[j] < positions1[i]) {
+        result[count++] = positions2[j++];
+      } else {
+        result[count++] = positions1[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+}
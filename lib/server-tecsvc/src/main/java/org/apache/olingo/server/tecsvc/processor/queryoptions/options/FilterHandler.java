@@ -19,50 +19,69 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
-import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
-import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.FilterOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate.IndexSource;
 
 public class FilterHandler {
-  
-  protected static final OData oData;
-  protected static final EdmPrimitiveType primBoolean;
-  
-  static {
-    oData = OData.newInstance();
-    primBoolean = oData.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
-  }
 
   public static void applyFilterSystemQuery(FilterOption filterOption, EntityCollection entitySet, 
       EdmBindingTarget edmEntitySet) throws ODataApplicationException {
+    applyFilterSystemQuery(filterOption, entitySet, edmEntitySet, null);
+  }
+
+  /**
+   * Applies the filter, using the given secondary indexes if the filter expression allows it.
+   * @param indexSource indexes on the entities in the entity set, or <code>null</code>
+   */
+  public static void applyFilterSystemQuery(final FilterOption filterOption, final EntityCollection entitySet,
+      final EdmBindingTarget edmEntitySet, final IndexSource indexSource) throws ODataApplicationException {
+    applyFilterSystemQuery(filterOption, entitySet, edmEntitySet, indexSource, null);
+  }
+
+  /**
+   * Applies the filter, using the given secondary indexes if the filter expression allows it.
+   * Large entity sets are filtered in parallel chunks if an executor is given.
+   * @param indexSource indexes on the entities in the entity set, or <code>null</code>
+   * @param executor the executor for parallel filtering, or <code>null</code> to filter in the calling thread
+   */
+  public static void applyFilterSystemQuery(final FilterOption filterOption, final EntityCollection entitySet,
+      final EdmBindingTarget edmEntitySet, final IndexSource indexSource, final ExecutorService executor)
+      throws ODataApplicationException {
 
     if (filterOption == null) {
       return;
     }
 
     try {
-      final Iterator<Entity> iter = entitySet.getEntities().iterator();
+      final FilterPredicate filter = new FilterPredicate(filterOption.getExpression());
+      final List<Entity> entities = entitySet.getEntities();
+      final List<Entity> indexed = indexSource == null ? null : filter.filter(entities, indexSource);
 
-      while (iter.hasNext()) {
-        final VisitorOperand operand = filterOption.getExpression()
-            .accept(new ExpressionVisitorImpl(iter.next(), edmEntitySet));
-        final TypedOperand typedOperand = operand.asTypedOperand();
+      if (indexed != null) {
+        entities.clear();
+        entities.addAll(indexed);
+      } else if (ParallelExecution.isParallel(executor, entities.size())) {
+        final List<Entity> result = ParallelExecution.filter(executor, entities, filter);
+        entities.clear();
+        entities.addAll(result);
+      } else {
+        final Iterator<Entity> iter = entities.iterator();
 
-        if (!(typedOperand.is(primBoolean)
-        && Boolean.TRUE.equals(typedOperand.getTypedValue(Boolean.class)))) {
-          iter.remove();
+        while (iter.hasNext()) {
+          if (!filter.matches(iter.next())) {
+            iter.remove();
+          }
         }
       }
 
@@ -71,4 +90,33 @@ public class FilterHandler {
           HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
     }
   }
+
+  /**
+   * Counts the entities matching the filter without changing the given list.
+   * @param indexSource indexes on the entities in the list, or <code>null</code>
+   */
+  public static int countFilterSystemQuery(final FilterOption filterOption, final List<Entity> entities,
+      final IndexSource indexSource) throws ODataApplicationException {
+    if (filterOption == null) {
+      return entities.size();
+    }
+
+    try {
+      final FilterPredicate filter = new FilterPredicate(filterOption.getExpression());
+      final List<Entity> indexed = indexSource == null ? null : filter.filter(entities, indexSource);
+      if (indexed != null) {
+        return indexed.size();
+      }
+      int count = 0;
+      for (final Entity entity : entities) {
+        if (filter.matches(entity)) {
+          count++;
+        }
+      }
+      return count;
+    } catch (ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in filter evaluation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+  }
 }
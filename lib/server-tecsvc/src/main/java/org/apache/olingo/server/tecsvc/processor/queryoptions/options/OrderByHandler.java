@@ -18,31 +18,64 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
-import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.OrderByComparator;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.OrderByComparator.SortKey;
 
 public class OrderByHandler {
   public static void applyOrderByOption(final OrderByOption orderByOption, final EntityCollection entitySet,
       final EdmBindingTarget edmBindingTarget) throws ODataApplicationException {
+    applyOrderByOption(orderByOption, null, null, entitySet, edmBindingTarget);
+  }
+
+  /**
+   * Sorts the entity collection. If $top is given, only the first $skip + $top entities in sort order
+   * are kept, selected with a bounded heap; skipping and reducing to $top is still left to
+   * {@link SkipHandler} and {@link TopHandler}, which then produce the same result as after a full sort.
+   */
+  public static void applyOrderByOption(final OrderByOption orderByOption, final SkipOption skipOption,
+      final TopOption topOption, final EntityCollection entitySet, final EdmBindingTarget edmBindingTarget)
+      throws ODataApplicationException {
+    applyOrderByOption(orderByOption, skipOption, topOption, entitySet, edmBindingTarget, null);
+  }
+
+  /**
+   * Sorts the entity collection like {@link #applyOrderByOption(OrderByOption, SkipOption, TopOption,
+   * EntityCollection, EdmBindingTarget)}; a full sort of a large entity collection is done in parallel
+   * if an executor is given.
+   * @param executor the executor for parallel sorting, or <code>null</code> to sort in the calling thread
+   */
+  public static void applyOrderByOption(final OrderByOption orderByOption, final SkipOption skipOption,
+      final TopOption topOption, final EntityCollection entitySet, final EdmBindingTarget edmBindingTarget,
+      final ExecutorService executor) throws ODataApplicationException {
 
     if (orderByOption == null) {
       return;
     }
 
     try {
-      applyOrderByOptionInternal(orderByOption, entitySet, edmBindingTarget);
+      final long count = getSelectionSize(skipOption, topOption);
+      if (count >= 0 && count < entitySet.getEntities().size()) {
+        selectFirst(orderByOption, entitySet, (int) count);
+      } else {
+        applyOrderByOptionInternal(orderByOption, entitySet, edmBindingTarget, executor);
+      }
     } catch (SystemQueryOptionsRuntimeException e) {
       if (e.getCause() instanceof ODataApplicationException) {
         // Throw the nested exception, to send the correct HTTP status code in the HTTP response
@@ -54,51 +87,97 @@ public class OrderByHandler {
     }
   }
 
-  private static void applyOrderByOptionInternal(final OrderByOption orderByOption, final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget) throws ODataApplicationException {
-    Collections.sort(entitySet.getEntities(), new Comparator<Entity>() {
-      @Override
-      @SuppressWarnings({ "unchecked", "rawtypes" })
-      public int compare(final Entity e1, final Entity e2) {
-        // Evaluate the first order option for both entity
-        // If and only if the result of the previous order option is equals to 0
-        // evaluate the next order option until all options are evaluated or they are not equals
-        int result = 0;
+  /** @return the number of entities needed for $skip and $top, or -1 if all entities are needed */
+  private static long getSelectionSize(final SkipOption skipOption, final TopOption topOption) {
+    if (topOption == null || topOption.getValue() < 0 || skipOption != null && skipOption.getValue() < 0) {
+      // Invalid values are reported by the skip and top handlers.
+      return -1;
+    }
+    return (long) topOption.getValue() + (skipOption == null ? 0 : skipOption.getValue());
+  }
 
-        for (int i = 0; i < orderByOption.getOrders().size() && result == 0; i++) {
-          try {
-            final OrderByItem item = orderByOption.getOrders().get(i);
-            final TypedOperand op1 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e1, edmBindingTarget)).asTypedOperand();
-            final TypedOperand op2 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e2, edmBindingTarget)).asTypedOperand();
+  private static void applyOrderByOptionInternal(final OrderByOption orderByOption, final EntityCollection entitySet,
+      final EdmBindingTarget edmBindingTarget, final ExecutorService executor) throws ODataApplicationException {
+    final OrderByComparator comparator;
+    try {
+      comparator = new OrderByComparator(orderByOption.getOrders());
+    } catch (ExpressionVisitException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    }
 
-            if (op1.isNull() || op2.isNull()) {
-              if (op1.isNull() && op2.isNull()) {
-                result = 0; // null is equals to null
-              } else {
-                result = op1.isNull() ? -1 : 1;
-              }
-            } else {
-              Object o1 = op1.getValue();
-              Object o2 = op2.getValue();
+    // Decorate the entities with their sort keys so that the $orderby items are evaluated once per entity.
+    final List<Entity> entities = entitySet.getEntities();
+    final SortKey[] sortKeys = new SortKey[entities.size()];
+    for (int i = 0; i < sortKeys.length; i++) {
+      sortKeys[i] = comparator.createSortKey(entities.get(i));
+    }
+    if (ParallelExecution.isParallel(executor, sortKeys.length)) {
+      try {
+        ParallelExecution.sort(executor, sortKeys, comparator.getSortKeyComparator());
+      } catch (ExpressionVisitException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      }
+    } else {
+      Arrays.sort(sortKeys, comparator.getSortKeyComparator());
+    }
+    for (int i = 0; i < sortKeys.length; i++) {
+      entities.set(i, sortKeys[i].getEntity());
+    }
+  }
 
-              if (o1.getClass() == o2.getClass() && o1 instanceof Comparable) {
-                result = ((Comparable) o1).compareTo(o2);
-              } else {
-                result = 0;
-              }
-            }
+  /**
+   * Reduces the entity collection to its first entities in sort order, in O(n log count) time.
+   * The original position breaks ties, so the result is the same as with the stable full sort.
+   */
+  private static void selectFirst(final OrderByOption orderByOption, final EntityCollection entitySet,
+      final int count) throws ODataApplicationException {
+    final OrderByComparator comparator;
+    try {
+      comparator = new OrderByComparator(orderByOption.getOrders());
+    } catch (ExpressionVisitException e) {
+      throw new SystemQueryOptionsRuntimeException(e);
+    }
+    final Comparator<SortKey> sortKeyComparator = comparator.getSortKeyComparator();
+    final Comparator<Candidate> order = new Comparator<Candidate>() {
+      @Override
+      public int compare(final Candidate candidate1, final Candidate candidate2) {
+        final int result = sortKeyComparator.compare(candidate1.sortKey, candidate2.sortKey);
+        return result == 0 ? candidate1.position - candidate2.position : result;
+      }
+    };
 
-            result = item.isDescending() ? result * -1 : result;
-          } catch (ODataApplicationException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
-          } catch (ExpressionVisitException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
-          }
+    final List<Entity> entities = entitySet.getEntities();
+    if (count > 0) {
+      // The head of the heap is the last of the best candidates found so far.
+      final PriorityQueue<Candidate> heap = new PriorityQueue<Candidate>(count, Collections.reverseOrder(order));
+      int position = 0;
+      for (final Entity entity : entities) {
+        final Candidate candidate = new Candidate(comparator.createSortKey(entity), position++);
+        if (heap.size() < count) {
+          heap.add(candidate);
+        } else if (order.compare(candidate, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(candidate);
         }
-        return result;
       }
-    });
+      final Candidate[] selected = heap.toArray(new Candidate[heap.size()]);
+      Arrays.sort(selected, order);
+      entities.clear();
+      for (final Candidate candidate : selected) {
+        entities.add(candidate.sortKey.getEntity());
+      }
+    } else {
+      entities.clear();
+    }
+  }
+
+  private static final class Candidate {
+    private final SortKey sortKey;
+    private final int position;
+
+    private Candidate(final SortKey sortKey, final int position) {
+      this.sortKey = sortKey;
+      this.position = position;
+    }
   }
 }
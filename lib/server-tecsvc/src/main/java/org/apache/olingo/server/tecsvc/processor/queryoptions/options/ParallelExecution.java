@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
+
+/**
+ * Filters and sorts large entity collections in parallel chunks on an executor supplied by the caller.
+ * <br/>
+ * Without an executor, and for collections smaller than {@link #THRESHOLD}, the work is done in the
+ * calling thread; for small collections handing the work over to other threads costs more than it saves.
+ * The order of the entities is the same as with sequential processing; sorting is stable.
+ * The executor is not shut down here; its owner, e.g., the servlet creating the processors, does that.
+ */
+final class ParallelExecution {
+
+  /** Minimum number of entities for parallel processing. */
+  static final int THRESHOLD = 8192;
+
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private ParallelExecution() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * @param executor the executor for parallel processing, or <code>null</code>
+   * @return <code>true</code> if a collection of the given size is processed in parallel
+   */
+  static boolean isParallel(final ExecutorService executor, final int size) {
+    return executor != null && PARALLELISM > 1 && size >= THRESHOLD;
+  }
+
+  /**
+   * Evaluates the filter for all entities.
+   * @return the matching entities, in their original order
+   */
+  static List<Entity> filter(final ExecutorService executor, final List<Entity> entities,
+      final FilterPredicate filter) throws ExpressionVisitException, ODataApplicationException {
+    final Entity[] array = entities.toArray(new Entity[entities.size()]);
+    final boolean[] matches = new boolean[array.length];
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (final int[] chunk : chunks(array.length)) {
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws ExpressionVisitException, ODataApplicationException {
+          for (int i = chunk[0]; i < chunk[1]; i++) {
+            matches[i] = filter.matches(array[i]);
+          }
+          return null;
+        }
+      });
+    }
+    invokeAll(executor, tasks);
+
+    final List<Entity> result = new ArrayList<Entity>(array.length);
+    for (int i = 0; i < array.length; i++) {
+      if (matches[i]) {
+        result.add(array[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sorts the array with a stable parallel merge sort: the chunks are sorted in parallel,
+   * then neighboring runs are merged pairwise, again in parallel, until one run is left.
+   */
+  static <T> void sort(final ExecutorService executor, final T[] array, final Comparator<? super T> comparator)
+      throws ExpressionVisitException, ODataApplicationException {
+    final List<int[]> runs = chunks(array.length);
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (final int[] run : runs) {
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          Arrays.sort(array, run[0], run[1], comparator);
+          return null;
+        }
+      });
+    }
+    invokeAll(executor, tasks);
+
+    Object[] source = array;
+    Object[] target = new Object[array.length];
+    List<int[]> currentRuns = runs;
+    while (currentRuns.size() > 1) {
+      tasks.clear();
+      final List<int[]> mergedRuns = new ArrayList<int[]>();
+      for (int i = 0; i < currentRuns.size(); i += 2) {
+        final int[] left = currentRuns.get(i);
+        final int[] right = i + 1 < currentRuns.size() ? currentRuns.get(i + 1) : new int[] { left[1], left[1] };
+        mergedRuns.add(new int[] { left[0], right[1] });
+        final Object[] from = source;
+        final Object[] to = target;
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            merge(from, to, left[0], left[1], right[1], comparator);
+            return null;
+          }
+        });
+      }
+      invokeAll(executor, tasks);
+      currentRuns = mergedRuns;
+      final Object[] swap = source;
+      source = target;
+      target = swap;
+    }
+    if (source != array) {
+      System.arraycopy(source, 0, array, 0, array.length);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void merge(final Object[] from, final Object[] to, final int start, final int middle,
+      final int end, final Comparator<? super T> comparator) {
+    int left = start;
+    int right = middle;
+    for (int i = start; i < end; i++) {
+      // Taking the left element on ties keeps the sort stable.
+      if (right >= end || left < middle && comparator.compare((T) from[left], (T) from[right]) <= 0) {
+        to[i] = from[left++];
+      } else {
+        to[i] = from[right++];
+      }
+    }
+  }
+
+  /** Splits the index range [0, size) into at most four chunks per processor. */
+  private static List<int[]> chunks(final int size) {
+    final int count = Math.max(1, Math.min(PARALLELISM * 4, size / (THRESHOLD / 4)));
+    final List<int[]> chunks = new ArrayList<int[]>(count);
+    for (int i = 0; i < count; i++) {
+      chunks.add(new int[] { (int) ((long) size * i / count), (int) ((long) size * (i + 1) / count) });
+    }
+    return chunks;
+  }
+
+  private static void invokeAll(final ExecutorService executor, final List<Callable<Void>> tasks)
+      throws ExpressionVisitException, ODataApplicationException {
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks.size());
+    try {
+      for (final Callable<Void> task : tasks) {
+        futures.add(executor.submit(task));
+      }
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataApplicationException("Query processing interrupted",
+          HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), Locale.ROOT);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof ExpressionVisitException) {
+        throw (ExpressionVisitException) cause;
+      } else if (cause instanceof ODataApplicationException) {
+        throw (ODataApplicationException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SystemQueryOptionsRuntimeException(e);
+    } finally {
+      for (final Future<Void> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+}
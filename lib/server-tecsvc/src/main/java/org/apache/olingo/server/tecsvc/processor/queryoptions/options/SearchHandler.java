@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.tecsvc.data.SearchIndex;
+
+public class SearchHandler {
+
+  /**
+   * Keeps only the entities matching the search expression.
+   * @param searchIndex the index on the entities of the collection, or <code>null</code>
+   * if a temporary index on all string properties has to be built
+   */
+  public static void applySearchSystemQueryOption(final SearchOption searchOption, final EntityCollection entitySet,
+      final EdmEntityType edmEntityType, final SearchIndex searchIndex) {
+    if (searchOption != null) {
+      final List<Entity> entities = entitySet.getEntities();
+      final List<Entity> result = search(searchOption, entities, edmEntityType, searchIndex);
+      entities.clear();
+      entities.addAll(result);
+    }
+  }
+
+  /**
+   * Searches the entities without changing the given list.
+   * @param searchIndex the index on the entities in the list, or <code>null</code>
+   * if a temporary index on all string properties has to be built
+   * @return the matching entities, in their original order
+   */
+  public static List<Entity> search(final SearchOption searchOption, final List<Entity> entities,
+      final EdmEntityType edmEntityType, final SearchIndex searchIndex) {
+    final SearchIndex index = searchIndex != null && searchIndex.size() == entities.size() ?
+        searchIndex :
+        SearchIndex.create(entities, SearchIndex.getStringPropertyNames(edmEntityType));
+    return index.search(searchOption.getSearchExpression());
+  }
+}
@@ -20,91 +20,259 @@ package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
 
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
-import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.QueryOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 import org.apache.olingo.server.tecsvc.Encoder;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.OrderByComparator;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.OrderByComparator.SortKey;
 
+/**
+ * Server-side paging with keyset pagination.
+ * <br/>
+ * The entities are ordered by the $orderby items and then by their key properties.
+ * The next link of a page contains a {@link SkipToken} with the values of the last entity of the page;
+ * the next page consists of the entities following these values in that order.
+ * So a page is selected in O(n log pageSize) time, independent of its position in the result,
+ * and entities inserted or deleted concurrently do not shift later pages.
+ * $skip applies to the first page, $top limits the number of entities delivered in all pages.
+ */
 public class ServerSidePagingHandler {
   private static final int MAX_PAGE_SIZE = 10;
   private static final String ES_SERVER_SIDE_PAGING = "ESServerSidePaging";
 
-  public static void applyServerSidePaging(final SkipTokenOption skipTokenOption, final EntityCollection entitySet,
-      final EdmEntitySet edmEntitySet, final String rawRequestUri) throws ODataApplicationException {
-
-    if (edmEntitySet != null && shouldApplyServerSidePaging(edmEntitySet)) {
-      final int maxPageSize = getMaxPageSize();
-      final int page = getPage(skipTokenOption);
-      final int itemsToSkip = maxPageSize * page;
+  /**
+   * @return whether the entity set is read in pages; then {@link #applyServerSidePaging} applies
+   * $orderby, $skip, and $top
+   */
+  public static boolean isPaged(final EdmEntitySet edmEntitySet) {
+    return edmEntitySet != null && ES_SERVER_SIDE_PAGING.equals(edmEntitySet.getName());
+  }
 
-      if (itemsToSkip <= entitySet.getEntities().size()) {
-        SkipHandler.popAtMost(entitySet, itemsToSkip);
-        final int remainingItems = entitySet.getEntities().size();
-        TopHandler.reduceToSize(entitySet, maxPageSize);
+  /**
+   * Reduces the entity collection to the requested page and sets its next link.
+   * @param entitySet the entities matching $filter and $search
+   * @param requestUri the raw request URI without query part
+   */
+  public static void applyServerSidePaging(final UriInfo uriInfo, final EntityCollection entitySet,
+      final EdmEntitySet edmEntitySet, final String requestUri) throws ODataApplicationException {
 
-        // Determine if a new next Link has to be provided
-        if (remainingItems > maxPageSize) {
-          entitySet.setNext(createNextLink(rawRequestUri, page + 1));
-        }
-      } else {
-        throw new ODataApplicationException("Nothing found.", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
-      }
+    final Integer skipValue = uriInfo.getSkipOption() == null ? null : uriInfo.getSkipOption().getValue();
+    if (skipValue != null && skipValue < 0) {
+      throw new ODataApplicationException("Skip value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT);
+    }
+    final Integer top = uriInfo.getTopOption() == null ? null : uriInfo.getTopOption().getValue();
+    if (top != null && top < 0) {
+      throw new ODataApplicationException("Top value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT);
     }
-  }
 
-  private static URI createNextLink(final String rawRequestUri, final Integer page)
-      throws ODataApplicationException {
+    final String query = describeQuery(uriInfo, edmEntitySet);
+    final SkipToken skipToken = uriInfo.getSkipTokenOption() == null ? null :
+        SkipToken.decode(uriInfo.getSkipTokenOption().getValue(), query);
+    final int skip = skipToken == null && skipValue != null ? skipValue : 0;
+    final int delivered = skipToken == null ? 0 : skipToken.getDelivered();
+    final int pageSize = top == null ? getMaxPageSize() : Math.max(0, Math.min(getMaxPageSize(), top - delivered));
 
     try {
-      // Remove skip token
-      String nextlink = rawRequestUri;
+      final RowComparator comparator = new RowComparator(uriInfo, edmEntitySet);
+      if (skipToken != null && skipToken.getValues().length != comparator.getValueCount()) {
+        throw new ODataApplicationException("Invalid skip token", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+            Locale.ROOT);
+      }
+      List<Row> rows = new ArrayList<Row>(entitySet.getEntities().size());
+      for (final Entity entity : entitySet.getEntities()) {
+        final Row row = comparator.createRow(entity);
+        if (skipToken == null || comparator.compareToValues(row, skipToken.getValues()) > 0) {
+          rows.add(row);
+        }
+      }
 
-      // Remove a may existing skiptoken, make sure that the query part is not empty
-      if (rawRequestUri.contains("?")) {
-        nextlink = rawRequestUri.replaceAll("(\\$|%24)skiptoken=.+&?", "").replaceAll("(\\?|&)$", "");
+      final Row[] selected = selectFirst(rows, comparator, (long) skip + pageSize + 1);
+      final int end = Math.min(selected.length, skip + pageSize);
+      entitySet.getEntities().clear();
+      for (int i = skip; i < end; i++) {
+        entitySet.getEntities().add(selected[i].entity);
       }
 
-      // Add a question mark or an ampersand, depending of the current query part
-      if (!nextlink.contains("?")) {
-        nextlink = nextlink + "?";
+      // There is a next page if more entities are available and $top has not been reached.
+      if (selected.length > skip + pageSize && (top == null || delivered + pageSize < top)) {
+        final SkipToken next = new SkipToken(comparator.getValues(selected[end - 1]), delivered + pageSize);
+        entitySet.setNext(createNextLink(requestUri, uriInfo, next.encode(query)));
+      }
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in orderBy evaluation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    } catch (final SystemQueryOptionsRuntimeException e) {
+      if (e.getCause() instanceof ODataApplicationException) {
+        throw (ODataApplicationException) e.getCause();
       } else {
-        nextlink = nextlink + "&";
+        throw new ODataApplicationException("Exception in orderBy evaluation",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
       }
+    }
+  }
 
-      // Append the new nextlink
-      return new URI(nextlink + Encoder.encode(SystemQueryOptionKind.SKIPTOKEN.toString()) + "="
-          + Encoder.encode(page.toString()));
+  /** @return the first rows in sort order, selected with a bounded heap if not all rows are needed */
+  private static Row[] selectFirst(final List<Row> rows, final Comparator<Row> comparator, final long count) {
+    if (count >= rows.size()) {
+      final Row[] selected = rows.toArray(new Row[rows.size()]);
+      Arrays.sort(selected, comparator);
+      return selected;
+    }
+    // The head of the heap is the last of the best candidates found so far.
+    final PriorityQueue<Row> heap = new PriorityQueue<Row>((int) count, Collections.reverseOrder(comparator));
+    for (final Row row : rows) {
+      if (heap.size() < count) {
+        heap.add(row);
+      } else if (comparator.compare(row, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(row);
+      }
+    }
+    final Row[] selected = heap.toArray(new Row[heap.size()]);
+    Arrays.sort(selected, comparator);
+    return selected;
+  }
 
-    } catch (URISyntaxException e) {
-      throw new ODataApplicationException("Exception while constructing next link",
-          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+  /** Describes the options determining the result, so that skip tokens are only valid for the same query. */
+  private static String describeQuery(final UriInfo uriInfo, final EdmEntitySet edmEntitySet) {
+    StringBuilder result = new StringBuilder(edmEntitySet.getName());
+    for (final QueryOption option : Arrays.<QueryOption> asList(uriInfo.getSearchOption(),
+        uriInfo.getFilterOption(), uriInfo.getOrderByOption(), uriInfo.getSkipOption(), uriInfo.getTopOption())) {
+      result.append('\n');
+      if (option != null) {
+        result.append(option.getName()).append('=').append(option.getText());
+      }
     }
+    return result.toString();
   }
 
-  private static int getPage(SkipTokenOption skipTokenOption) throws ODataApplicationException {
-    if (skipTokenOption != null) {
-      try {
-        return Integer.parseInt(skipTokenOption.getValue());
-      } catch (NumberFormatException e) {
-        throw new ODataApplicationException("Invalid skip token", HttpStatusCode.BAD_REQUEST.getStatusCode(),
-            Locale.ROOT);
+  private static URI createNextLink(final String requestUri, final UriInfo uriInfo, final String skipToken)
+      throws ODataApplicationException {
+    StringBuilder nextLink = new StringBuilder(requestUri).append('?');
+    for (final SystemQueryOption option : uriInfo.getSystemQueryOptions()) {
+      if (option.getKind() != SystemQueryOptionKind.SKIPTOKEN && option.getText() != null) {
+        appendQueryOption(nextLink, option.getName(), option.getText());
       }
-    } else {
-      return 0;
+    }
+    for (final CustomQueryOption option : uriInfo.getCustomQueryOptions()) {
+      appendQueryOption(nextLink, option.getName(), option.getText());
+    }
+    appendQueryOption(nextLink, SystemQueryOptionKind.SKIPTOKEN.toString(), skipToken);
+    try {
+      return new URI(nextLink.toString());
+    } catch (final URISyntaxException e) {
+      throw new ODataApplicationException("Exception while constructing next link",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
     }
   }
 
-  private static boolean shouldApplyServerSidePaging(final EdmEntitySet edmEntitySet) {
-    return ES_SERVER_SIDE_PAGING.equals(edmEntitySet.getName());
+  private static void appendQueryOption(final StringBuilder queryPart, final String name, final String value) {
+    if (queryPart.charAt(queryPart.length() - 1) != '?') {
+      queryPart.append('&');
+    }
+    queryPart.append(Encoder.encode(name));
+    if (value != null) {
+      queryPart.append('=').append(Encoder.encode(value));
+    }
   }
 
   private static int getMaxPageSize() {
     // TODO Consider odata.maxpagesize preference?
     return MAX_PAGE_SIZE;
   }
+
+  /** Entity decorated with the values of its key properties and, lazily, of the $orderby items. */
+  private static final class Row {
+    private final Entity entity;
+    private final SortKey sortKey;
+    private final Object[] keyValues;
+
+    private Row(final Entity entity, final SortKey sortKey, final Object[] keyValues) {
+      this.entity = entity;
+      this.sortKey = sortKey;
+      this.keyValues = keyValues;
+    }
+  }
+
+  /** Orders rows by the $orderby items and then by the key properties. */
+  private static final class RowComparator implements Comparator<Row> {
+    private final OrderByComparator orderBy;
+    private final Comparator<SortKey> sortKeyComparator;
+    private final List<String> keyNames;
+    private final int valueCount;
+
+    private RowComparator(final UriInfo uriInfo, final EdmEntitySet edmEntitySet)
+        throws ExpressionVisitException, ODataApplicationException {
+      final List<OrderByItem> orders = uriInfo.getOrderByOption() == null ?
+          Collections.<OrderByItem> emptyList() :
+          uriInfo.getOrderByOption().getOrders();
+      orderBy = new OrderByComparator(orders);
+      sortKeyComparator = orderBy.getSortKeyComparator();
+      keyNames = edmEntitySet.getEntityType().getKeyPredicateNames();
+      valueCount = orders.size() + keyNames.size();
+    }
+
+    /** @return the number of values describing the position of a row */
+    private int getValueCount() {
+      return valueCount;
+    }
+
+    private Row createRow(final Entity entity) {
+      Object[] keyValues = new Object[keyNames.size()];
+      for (int i = 0; i < keyValues.length; i++) {
+        final Property property = entity.getProperty(keyNames.get(i));
+        keyValues[i] = property == null ? null : property.getValue();
+      }
+      return new Row(entity, orderBy.createSortKey(entity), keyValues);
+    }
+
+    @Override
+    public int compare(final Row row1, final Row row2) {
+      final int result = sortKeyComparator.compare(row1.sortKey, row2.sortKey);
+      return result == 0 ? compareKeys(row1, row2.keyValues, 0) : result;
+    }
+
+    /** Compares the row with the values of {@link #getValues(Row)} for another row. */
+    private int compareToValues(final Row row, final Object[] values) {
+      final int result = orderBy.compareToValues(row.sortKey, values);
+      return result == 0 ? compareKeys(row, values, values.length - keyNames.size()) : result;
+    }
+
+    private int compareKeys(final Row row, final Object[] values, final int offset) {
+      int result = 0;
+      for (int i = 0; i < keyNames.size() && result == 0; i++) {
+        result = OrderByComparator.compareValues(row.keyValues[i], values[offset + i]);
+      }
+      return result;
+    }
+
+    /** @return the $orderby values followed by the key values of the row */
+    private Object[] getValues(final Row row) {
+      final Object[] orderByValues = orderBy.getValues(row.sortKey);
+      Object[] values = Arrays.copyOf(orderByValues, orderByValues.length + keyNames.size());
+      System.arraycopy(row.keyValues, 0, values, orderByValues.length, keyNames.size());
+      return values;
+    }
+  }
 }
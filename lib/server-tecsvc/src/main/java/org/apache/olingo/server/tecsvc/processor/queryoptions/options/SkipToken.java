@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Position in a paged result, transported to the client as opaque $skiptoken.
+ * <br/>
+ * The token contains the $orderby and key values of the last entity of the delivered page
+ * and the number of entities delivered so far.
+ * It is signed with a secret key of this server instance together with a description of the query,
+ * so that clients can neither forge tokens nor use them with a different query.
+ */
+public class SkipToken {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final int SIGNATURE_LENGTH = 16;
+  private static final EdmPrimitiveType BINARY = OData.newInstance()
+      .createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Binary);
+  private static final byte[] SECRET = new byte[32];
+  static {
+    new SecureRandom().nextBytes(SECRET);
+  }
+
+  private final Object[] values;
+  private final int delivered;
+
+  public SkipToken(final Object[] values, final int delivered) {
+    this.values = values;
+    this.delivered = delivered;
+  }
+
+  /** @return the $orderby values followed by the key values of the last delivered entity */
+  public Object[] getValues() {
+    return values;
+  }
+
+  /** @return the number of entities delivered in previous pages */
+  public int getDelivered() {
+    return delivered;
+  }
+
+  /**
+   * Encodes this position as base64 text; it has to be percent-encoded in URIs.
+   * @param query description of the query the token is valid for
+   */
+  public String encode(final String query) throws ODataApplicationException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(delivered);
+      out.writeShort(values.length);
+      for (final Object value : values) {
+        writeValue(out, value);
+      }
+      out.write(sign(bytes.toByteArray(), query));
+      out.close();
+      return BINARY.valueToString(bytes.toByteArray(), null, null, null, null, null);
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Skip token cannot be created.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    } catch (final IOException e) {
+      throw new ODataApplicationException("Skip token cannot be created.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  /**
+   * Decodes a position encoded with {@link #encode(String)}.
+   * @param query description of the query; it must be the same as at encoding time
+   */
+  public static SkipToken decode(final String token, final String query) throws ODataApplicationException {
+    byte[] bytes;
+    try {
+      bytes = BINARY.valueOfString(token, null, null, null, null, null, byte[].class);
+    } catch (final EdmPrimitiveTypeException e) {
+      throw invalid(e);
+    }
+    if (bytes.length < SIGNATURE_LENGTH
+        || !MessageDigest.isEqual(sign(Arrays.copyOf(bytes, bytes.length - SIGNATURE_LENGTH), query),
+            Arrays.copyOfRange(bytes, bytes.length - SIGNATURE_LENGTH, bytes.length))) {
+      throw invalid(null);
+    }
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - SIGNATURE_LENGTH));
+      final int delivered = in.readInt();
+      Object[] values = new Object[in.readShort()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = readValue(in);
+      }
+      return new SkipToken(values, delivered);
+    } catch (final IOException e) {
+      throw invalid(e);
+    }
+  }
+
+  private static byte[] sign(final byte[] data, final String query) throws ODataApplicationException {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(new SecretKeySpec(SECRET, ALGORITHM));
+      mac.update(data);
+      return Arrays.copyOf(mac.doFinal(query.getBytes("UTF-8")), SIGNATURE_LENGTH);
+    } catch (final GeneralSecurityException e) {
+      throw new ODataApplicationException("Skip token cannot be signed.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    } catch (final IOException e) {
+      throw new ODataApplicationException("Skip token cannot be signed.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+    if (value == null) {
+      out.writeByte('N');
+    } else if (value instanceof String) {
+      out.writeByte('S');
+      writeBytes(out, ((String) value).getBytes("UTF-8"));
+    } else if (value instanceof Boolean) {
+      out.writeByte('Z');
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Byte) {
+      out.writeByte('B');
+      out.writeByte((Byte) value);
+    } else if (value instanceof Short) {
+      out.writeByte('H');
+      out.writeShort((Short) value);
+    } else if (value instanceof Integer) {
+      out.writeByte('I');
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte('J');
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte('F');
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte('D');
+      out.writeDouble((Double) value);
+    } else if (value instanceof BigInteger) {
+      out.writeByte('i');
+      writeBytes(out, ((BigInteger) value).toByteArray());
+    } else if (value instanceof BigDecimal) {
+      out.writeByte('d');
+      out.writeInt(((BigDecimal) value).scale());
+      writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+    } else if (value instanceof Calendar) {
+      out.writeByte('C');
+      out.writeLong(((Calendar) value).getTimeInMillis());
+      writeBytes(out, ((Calendar) value).getTimeZone().getID().getBytes("UTF-8"));
+    } else if (value instanceof UUID) {
+      out.writeByte('U');
+      out.writeLong(((UUID) value).getMostSignificantBits());
+      out.writeLong(((UUID) value).getLeastSignificantBits());
+    } else if (value instanceof byte[]) {
+      out.writeByte('X');
+      writeBytes(out, (byte[]) value);
+    } else {
+      throw new IOException("Values of class " + value.getClass().getName() + " are not supported.");
+    }
+  }
+
+  private static Object readValue(final DataInputStream in) throws IOException {
+    final byte tag = in.readByte();
+    switch (tag) {
+    case 'N':
+      return null;
+    case 'S':
+      return new String(readBytes(in), "UTF-8");
+    case 'Z':
+      return in.readBoolean();
+    case 'B':
+      return in.readByte();
+    case 'H':
+      return in.readShort();
+    case 'I':
+      return in.readInt();
+    case 'J':
+      return in.readLong();
+    case 'F':
+      return in.readFloat();
+    case 'D':
+      return in.readDouble();
+    case 'i':
+      return new BigInteger(readBytes(in));
+    case 'd':
+      final int scale = in.readInt();
+      return new BigDecimal(new BigInteger(readBytes(in)), scale);
+    case 'C':
+      final long millis = in.readLong();
+      Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(new String(readBytes(in), "UTF-8")));
+      calendar.clear();
+      calendar.setTimeInMillis(millis);
+      return calendar;
+    case 'U':
+      return new UUID(in.readLong(), in.readLong());
+    case 'X':
+      return readBytes(in);
+    default:
+      throw new IOException("Unknown value tag " + tag + ".");
+    }
+  }
+
+  private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(final DataInputStream in) throws IOException {
+    final int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Wrong length.");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static ODataApplicationException invalid(final Exception cause) {
+    return new ODataApplicationException("Invalid skip token", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+        Locale.ROOT, cause);
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.tecsvc.data;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -26,13 +27,18 @@ import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.edmx.EdmxReference;
 import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.tecsvc.data.DataProvider.DataProviderException;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
 import org.junit.Assert;
 import org.junit.Test;
@@ -85,6 +91,95 @@ public class DataProviderTest {
         mockParameter("PropertyTimeOfDay", "02:48:21"))));
   }
 
+  @Test
+  public void keyIndex() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final List<Entity> entities = dataProvider.readAll(esAllPrim).getEntities();
+    Assert.assertEquals(entities.get(0),
+        dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "32767"))));
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "42"))));
+
+    final Entity created = dataProvider.create(esAllPrim);
+    final UriParameter createdKey =
+        mockParameter("PropertyInt16", created.getProperty("PropertyInt16").getValue().toString());
+    Assert.assertEquals(created, dataProvider.read(esAllPrim, Arrays.asList(createdKey)));
+
+    dataProvider.delete(esAllPrim, entities.get(0));
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "32767"))));
+    Assert.assertEquals(created, dataProvider.read(esAllPrim, Arrays.asList(createdKey)));
+
+    // Changes not made through the data provider are detected, too.
+    entities.remove(created);
+    Assert.assertNull(dataProvider.read(esAllPrim, Arrays.asList(createdKey)));
+  }
+
+  @Test
+  public void compositeKeyIndex() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final EdmEntitySet esTwoKeyNav = entityContainer.getEntitySet("ESTwoKeyNav");
+    final Entity entity = dataProvider.readAll(esTwoKeyNav).getEntities().get(1);
+    Assert.assertEquals(entity, dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyString", "'2'"),
+        mockParameter("PropertyInt16", "1"))));
+    Assert.assertNull(dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyInt16", "2"),
+        mockParameter("PropertyString", "'2'"))));
+  }
+
+  @Test
+  public void keyIndexWithFacets() throws Exception {
+    final EdmProperty property = Mockito.mock(EdmProperty.class);
+    Mockito.when(property.isPrimitive()).thenReturn(true);
+    Mockito.when(property.getType())
+        .thenReturn(OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Decimal));
+    Mockito.when(property.getPrecision()).thenReturn(10);
+    Mockito.when(property.getScale()).thenReturn(2);
+    final EdmEntityType entityType = Mockito.mock(EdmEntityType.class);
+    Mockito.when(entityType.getKeyPredicateNames()).thenReturn(Collections.singletonList("PropertyDecimal"));
+    Mockito.when(entityType.getProperty("PropertyDecimal")).thenReturn(property);
+    final EntityCollection entities = new EntityCollection();
+    final Entity first = new Entity().addProperty(
+        new Property(null, "PropertyDecimal", ValueType.PRIMITIVE, new BigDecimal("1.5")));
+    entities.getEntities().add(first);
+    entities.getEntities().add(new Entity().addProperty(
+        new Property(null, "PropertyDecimal", ValueType.PRIMITIVE, new BigDecimal("2.25"))));
+
+    final KeyIndex keyIndex = KeyIndex.create(entityType, entities);
+    Assert.assertEquals(first, keyIndex.get(Arrays.asList(mockParameter("PropertyDecimal", "1.5"))));
+    Assert.assertNull(keyIndex.get(Arrays.asList(mockParameter("PropertyDecimal", "3"))));
+    Assert.assertTrue(keyIndex.isExhaustive());
+
+    // A key with more decimals than the scale allows cannot be indexed.
+    entities.getEntities().add(new Entity().addProperty(
+        new Property(null, "PropertyDecimal", ValueType.PRIMITIVE, new BigDecimal("3.125"))));
+    Assert.assertNull(keyIndex.get(Arrays.asList(mockParameter("PropertyDecimal", "3"))));
+    Assert.assertFalse(keyIndex.isExhaustive());
+  }
+
+  @Test
+  public void propertyIndex() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final List<String> path = Collections.singletonList("PropertyInt16");
+    final PropertyIndex index = dataProvider.getIntegerIndex(esAllPrim, path, Short.MIN_VALUE, Short.MAX_VALUE);
+    Assert.assertSame(index, dataProvider.getIntegerIndex(esAllPrim, path, Short.MIN_VALUE, Short.MAX_VALUE));
+    Assert.assertArrayEquals(new int[] { 0 }, index.getEqual(32767L));
+    Assert.assertArrayEquals(new int[] { 1, 2 }, index.getRange(null, false, 0L, true));
+
+    dataProvider.create(esAllPrim);
+    final PropertyIndex newIndex = dataProvider.getIntegerIndex(esAllPrim, path, Short.MIN_VALUE, Short.MAX_VALUE);
+    Assert.assertNotSame(index, newIndex);
+    Assert.assertEquals(4, newIndex.size());
+
+    final PropertyIndex stringIndex = dataProvider.getValueIndex(esAllPrim,
+        Collections.singletonList("PropertyString"), String.class);
+    Assert.assertArrayEquals(new int[] { 0 }, stringIndex.getEqual("First Resource - positive values"));
+  }
+
+  @Test(expected = DataProviderException.class)
+  public void wrongKey() throws Exception {
+    new DataProvider().read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "'a'")));
+  }
+
   @Test
   public void esAllPrim() throws Exception {
     final DataProvider data = new DataProvider();
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.core.uri.parser.SearchParser;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet esAllPrim = edm.getEntityContainer(null).getEntitySet("ESAllPrim");
+
+  @Test
+  public void search() throws Exception {
+    final List<Entity> entities = Arrays.asList(
+        createEntity("Red apple", "fruit"),
+        createEntity("Green apple", "fruit"),
+        createEntity("Red pepper", "vegetable"),
+        createEntity("Apple-Pie", null));
+    final SearchIndex index = SearchIndex.create(entities, Arrays.asList("Name", "Category"));
+    Assert.assertEquals(4, index.size());
+
+    assertSearch(index, "apple", entities.get(0), entities.get(1), entities.get(3));
+    assertSearch(index, "APPLE AND red", entities.get(0));
+    assertSearch(index, "red OR fruit", entities.get(0), entities.get(1), entities.get(2));
+    assertSearch(index, "NOT fruit", entities.get(2), entities.get(3));
+    assertSearch(index, "apple NOT red", entities.get(1), entities.get(3));
+    assertSearch(index, "NOT red apple", entities.get(1), entities.get(3));
+    assertSearch(index, "NOT red NOT fruit", entities.get(3));
+    assertSearch(index, "(green OR pepper) red", entities.get(2));
+    assertSearch(index, "\"red apple\"", entities.get(0));
+    assertSearch(index, "\"apple red\"");
+    assertSearch(index, "\"apple fruit\"");
+    assertSearch(index, "apple-pie", entities.get(3));
+    assertSearch(index, "banana");
+    assertSearch(index, "-");
+  }
+
+  @Test
+  public void incrementalUpdates() throws Exception {
+    final List<Entity> entities = Arrays.asList(createEntity("Red apple", "fruit"));
+    final SearchIndex index = SearchIndex.create(entities, Arrays.asList("Name"));
+    assertSearch(index, "fruit");
+
+    final Entity entity = createEntity("Apple", "fruit");
+    index.add(entity);
+    assertSearch(index, "apple", entities.get(0), entity);
+
+    entity.getProperty("Name").setValue(ValueType.PRIMITIVE, "Pear");
+    index.changed(entity.getProperty("Name"));
+    assertSearch(index, "apple", entities.get(0));
+    assertSearch(index, "pear", entity);
+
+    index.remove(entities.get(0));
+    Assert.assertEquals(1, index.size());
+    assertSearch(index, "apple");
+    assertSearch(index, "NOT apple", entity);
+  }
+
+  @Test
+  public void dataProvider() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final SearchIndex index = dataProvider.getSearchIndex(esAllPrim);
+    final List<Entity> entities = dataProvider.readAll(esAllPrim).getEntities();
+    assertSearch(index, "resource", entities.get(0), entities.get(1));
+    assertSearch(index, "\"positive values\"", entities.get(0));
+
+    final Entity created = dataProvider.create(esAllPrim);
+    final EdmProperty edmProperty = (EdmProperty) esAllPrim.getEntityType().getProperty("PropertyString");
+    dataProvider.updateProperty(edmProperty, created.getProperty("PropertyString"),
+        new Property(null, "PropertyString", ValueType.PRIMITIVE, "Third resource"), false);
+    Assert.assertSame(index, dataProvider.getSearchIndex(esAllPrim));
+    assertSearch(index, "resource", entities.get(0), entities.get(1), created);
+
+    dataProvider.delete(esAllPrim, entities.get(0));
+    assertSearch(index, "resource", entities.get(0), created);
+
+    dataProvider.setSearchProperties(esAllPrim, Collections.<String> emptyList());
+    assertSearch(dataProvider.getSearchIndex(esAllPrim), "resource");
+  }
+
+  private void assertSearch(final SearchIndex index, final String search, final Entity... expected)
+      throws Exception {
+    Assert.assertEquals(search, Arrays.asList(expected), index.search(new SearchParser().parse(search)));
+  }
+
+  private Entity createEntity(final String name, final String category) {
+    return new Entity()
+        .addProperty(new Property(null, "Name", ValueType.PRIMITIVE, name))
+        .addProperty(new Property(null, "Category", ValueType.PRIMITIVE, category));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.processor.CachingEntityCountProvider;
+import org.apache.olingo.server.api.processor.EntityCountProcessor;
+import org.apache.olingo.server.api.processor.EntityCountProvider;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class EntityCountTest {
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata serviceMetadata = odata.createServiceMetadata(
+      new EdmTechProvider(Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList());
+  private final Edm edm = serviceMetadata.getEdm();
+  private final EdmEntitySet esAllPrim = edm.getEntityContainer(null).getEntitySet("ESAllPrim");
+
+  @Test
+  public void countWithoutReading() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final TechnicalCountProvider provider = new TechnicalCountProvider(dataProvider);
+    assertEquals(Integer.valueOf(3), provider.count(parse("ESAllPrim/$count", null)));
+    assertEquals(Integer.valueOf(3), provider.estimateCount(parse("ESAllPrim/$count", null)));
+    assertEquals(Integer.valueOf(filter(dataProvider, "PropertyInt16 ge 0")),
+        provider.count(parse("ESAllPrim", "$filter=PropertyInt16 ge 0")));
+    assertNull(provider.estimateCount(parse("ESAllPrim", "$filter=PropertyInt16 ge 0")));
+    assertNull(provider.count(parse("ESKeyNav(1)/NavPropertyETTwoKeyNavMany/$count", null)));
+  }
+
+  @Test
+  public void cachedCountsAreInvalidated() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final CachingEntityCountProvider counts = dataProvider.getCountCache(new TechnicalCountProvider(dataProvider));
+    final UriInfo uriInfo = parse("ESAllPrim", "$filter=PropertyInt16 ge 0");
+    final Integer count = counts.count(uriInfo);
+    assertEquals(count, counts.count(uriInfo));
+
+    dataProvider.delete(esAllPrim, dataProvider.readAll(esAllPrim).getEntities().get(0));
+    // The outdated count is still a valid estimate.
+    assertEquals(count, counts.estimateCount(uriInfo));
+    assertEquals(Integer.valueOf(filter(dataProvider, "PropertyInt16 ge 0")), counts.count(uriInfo));
+  }
+
+  @Test
+  public void cachedPerAliasValue() throws Exception {
+    final CachingEntityCountProvider counts = new CachingEntityCountProvider(new EntityCountProvider() {
+      @Override
+      public Integer count(final UriInfoResource uriInfo) {
+        return Integer.valueOf(uriInfo.getValueForAlias("@a"));
+      }
+
+      @Override
+      public Integer estimateCount(final UriInfoResource uriInfo) {
+        return null;
+      }
+    });
+    assertEquals(Integer.valueOf(1), counts.count(parse("ESAllPrim", "$filter=PropertyInt16 eq @a&@a=1")));
+    assertEquals(Integer.valueOf(2), counts.count(parse("ESAllPrim", "$filter=PropertyInt16 eq @a&@a=2")));
+    assertEquals(Integer.valueOf(1), counts.estimateCount(parse("ESAllPrim", "$filter=PropertyInt16 eq @a&@a=1")));
+  }
+
+  @Test
+  public void estimatedCountIfPreferred() throws Exception {
+    final DataProvider dataProvider = new DataProvider();
+    final CachingEntityCountProvider counts = dataProvider.getCountCache(new TechnicalCountProvider(dataProvider));
+    final UriInfo uriInfo = parse("ESAllPrim", "$filter=PropertyInt16 ge 0");
+    counts.count(uriInfo);
+    dataProvider.delete(esAllPrim, dataProvider.readAll(esAllPrim).getEntities().get(0));
+
+    final EntityCountProcessor processor = new EntityCountProcessor(counts);
+    processor.init(odata, serviceMetadata);
+    ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.PREFER,
+        Arrays.asList("return=minimal, " + EntityCountProcessor.PREFERENCE_ESTIMATED_COUNT));
+    ODataResponse response = new ODataResponse();
+    processor.countEntityCollection(request, response, uriInfo);
+    assertEquals("2", IOUtils.toString(response.getContent()));
+    assertEquals(EntityCountProcessor.PREFERENCE_ESTIMATED_COUNT,
+        response.getHeaders().get(HttpHeader.PREFERENCE_APPLIED));
+
+    response = new ODataResponse();
+    processor.countEntityCollection(new ODataRequest(), response, uriInfo);
+    assertEquals("1", IOUtils.toString(response.getContent()));
+    assertNull(response.getHeaders().get(HttpHeader.PREFERENCE_APPLIED));
+  }
+
+  private int filter(final DataProvider dataProvider, final String filter) throws Exception {
+    EntityCollection entities = new EntityCollection();
+    entities.getEntities().addAll(dataProvider.readAll(esAllPrim).getEntities());
+    FilterHandler.applyFilterSystemQuery(parse("ESAllPrim", "$filter=" + filter).getFilterOption(), entities,
+        esAllPrim);
+    return entities.getEntities().size();
+  }
+
+  private UriInfo parse(final String path, final String query) throws Exception {
+    return new Parser().parseUri(path, query, null, edm);
+  }
+}
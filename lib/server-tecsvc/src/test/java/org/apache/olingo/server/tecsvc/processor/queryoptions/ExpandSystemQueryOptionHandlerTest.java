@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class ExpandSystemQueryOptionHandlerTest {
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet esKeyNav = edm.getEntityContainer(null).getEntitySet("ESKeyNav");
+
+  @Test
+  public void oneLoadPerNavigationAndLevel() throws Exception {
+    final EntityCollection data = new DataProvider().readAll(esKeyNav);
+    final CountingHandler handler = new CountingHandler();
+    final EntityCollection tree = handler.transformEntitySetGraphToTree(data, esKeyNav,
+        expand("NavPropertyETKeyNavMany($expand=NavPropertyETKeyNavOne;$orderby=PropertyInt16 desc),"
+            + "NavPropertyETTwoKeyNavOne"));
+
+    assertEquals(Arrays.asList("NavPropertyETKeyNavMany", "NavPropertyETKeyNavOne", "NavPropertyETTwoKeyNavOne"),
+        handler.navigationProperties);
+    // The second level contains every entity only once, although some are related to several entities.
+    assertEquals(Arrays.asList(3, 3, 3), handler.sourceCounts);
+
+    final Entity first = tree.getEntities().get(0);
+    final List<Entity> many = first.getNavigationLink("NavPropertyETKeyNavMany").getInlineEntitySet().getEntities();
+    assertEquals(Arrays.asList(2, 1), Arrays.asList(
+        many.get(0).getProperty("PropertyInt16").getValue(), many.get(1).getProperty("PropertyInt16").getValue()));
+    assertEquals(3, many.get(0).getNavigationLink("NavPropertyETKeyNavOne").getInlineEntity()
+        .getProperty("PropertyInt16").getValue());
+    // Entities without expanded navigation properties are not copied.
+    assertSame(data.getEntities().get(2), many.get(0).getNavigationLink("NavPropertyETKeyNavOne").getInlineEntity());
+    assertSame(data.getEntities().get(0).getProperty("PropertyInt16"), first.getProperty("PropertyInt16"));
+    assertEquals(2, first.getNavigationLinks().size());
+    assertNull(first.getNavigationLink("NavPropertyETKeyNavOne"));
+  }
+
+  @Test
+  public void storedDataIsNotModified() throws Exception {
+    final EntityCollection data = new DataProvider().readAll(esKeyNav);
+    final Entity stored = data.getEntities().get(0);
+    final List<Entity> storedMany = new ArrayList<Entity>(
+        stored.getNavigationLink("NavPropertyETKeyNavMany").getInlineEntitySet().getEntities());
+
+    final Entity entity = new ExpandSystemQueryOptionHandler().transformEntityGraphToTree(stored, esKeyNav,
+        expand("NavPropertyETKeyNavMany($orderby=PropertyInt16 desc;$expand=NavPropertyETKeyNavMany)"));
+
+    assertEquals(storedMany, stored.getNavigationLink("NavPropertyETKeyNavMany").getInlineEntitySet().getEntities());
+    final Entity related = entity.getNavigationLink("NavPropertyETKeyNavMany").getInlineEntitySet().getEntities()
+        .get(0);
+    assertNotSame(storedMany.get(1), related);
+    assertSame(storedMany.get(1).getProperties().get(0), related.getProperties().get(0));
+  }
+
+  @Test
+  public void concurrentBranches() throws Exception {
+    final EntityCollection data = new DataProvider().readAll(esKeyNav);
+    final ExpandOption expand = expand("NavPropertyETKeyNavMany($expand=NavPropertyETKeyNavOne),"
+        + "NavPropertyETTwoKeyNavOne,NavPropertyETKeyNavOne");
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      // The loads of the three branches of the first level only pass the barrier if they run concurrently.
+      final CyclicBarrier barrier = new CyclicBarrier(3);
+      final AtomicInteger calls = new AtomicInteger();
+      final ExpandSystemQueryOptionHandler handler = new ExpandSystemQueryOptionHandler(executor, 2) {
+        @Override
+        public List<EntityCollection> load(final EdmBindingTarget source,
+            final EdmNavigationProperty navigationProperty, final List<Entity> sources, final ExpandItem item)
+            throws ODataApplicationException {
+          if (calls.incrementAndGet() <= 3) {
+            try {
+              barrier.await(10, TimeUnit.SECONDS);
+            } catch (final Exception e) {
+              throw new ODataApplicationException(e.getMessage(),
+                  HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+            }
+          }
+          return super.load(source, navigationProperty, sources, item);
+        }
+      };
+      final EntityCollection tree = handler.transformEntitySetGraphToTree(data, esKeyNav, expand);
+
+      final EntityCollection expected = new ExpandSystemQueryOptionHandler()
+          .transformEntitySetGraphToTree(data, esKeyNav, expand);
+      for (int i = 0; i < expected.getEntities().size(); i++) {
+        assertEquals(propertyValues(expected.getEntities().get(i)), propertyValues(tree.getEntities().get(i)));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedBranchCancelsOthers() throws Exception {
+    final EntityCollection data = new DataProvider().readAll(esKeyNav);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final ExpandSystemQueryOptionHandler handler = new ExpandSystemQueryOptionHandler(executor, 2) {
+        @Override
+        public List<EntityCollection> load(final EdmBindingTarget source,
+            final EdmNavigationProperty navigationProperty, final List<Entity> sources, final ExpandItem item)
+            throws ODataApplicationException {
+          try {
+            if (navigationProperty.isCollection()) {
+              started.countDown();
+              Thread.sleep(10000);
+            } else {
+              started.await(10, TimeUnit.SECONDS);
+              throw new ODataApplicationException("Backend not available",
+                  HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), Locale.ROOT);
+            }
+          } catch (final InterruptedException e) {
+            interrupted.countDown();
+          }
+          return super.load(source, navigationProperty, sources, item);
+        }
+      };
+      try {
+        handler.transformEntitySetGraphToTree(data, esKeyNav,
+            expand("NavPropertyETKeyNavOne,NavPropertyETKeyNavMany"));
+        fail("Expected exception");
+      } catch (final ODataApplicationException e) {
+        assertEquals(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), e.getStatusCode());
+      }
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Returns the values of the key property of the entity and of its expanded navigation targets. */
+  private List<Object> propertyValues(final Entity entity) {
+    List<Object> values = new ArrayList<Object>();
+    values.add(entity.getProperty("PropertyInt16").getValue());
+    if (!(entity instanceof EntityView)) {
+      // The navigation links of shared entities belong to the stored data.
+      return values;
+    }
+    for (final Link link : entity.getNavigationLinks()) {
+      values.add(link.getTitle());
+      if (link.getInlineEntity() != null) {
+        values.addAll(propertyValues(link.getInlineEntity()));
+      } else if (link.getInlineEntitySet() != null) {
+        for (final Entity related : link.getInlineEntitySet().getEntities()) {
+          values.addAll(propertyValues(related));
+        }
+      }
+    }
+    return values;
+  }
+
+  private ExpandOption expand(final String expand) throws Exception {
+    return new Parser().parseUri("ESKeyNav", "$expand=" + expand, null, edm).getExpandOption();
+  }
+
+  private static class CountingHandler extends ExpandSystemQueryOptionHandler {
+    private final List<String> navigationProperties = new ArrayList<String>();
+    private final List<Integer> sourceCounts = new ArrayList<Integer>();
+
+    @Override
+    public List<EntityCollection> load(final EdmBindingTarget source, final EdmNavigationProperty navigationProperty,
+        final List<Entity> sources, final ExpandItem item) throws ODataApplicationException {
+      navigationProperties.add(navigationProperty.getName());
+      sourceCounts.add(sources.size());
+      return super.load(source, navigationProperty, sources, item);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpressionCompilerTest {
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final DataProvider dataProvider = new DataProvider();
+
+  @Test
+  public void sameResultsAsVisitor() throws Exception {
+    assertSameResults("ESAllPrim", "PropertyInt16 gt 0");
+    assertSameResults("ESAllPrim", "PropertyInt16 add 1 le 2 and PropertyString ne null");
+    assertSameResults("ESAllPrim", "not (PropertyBoolean eq true) or PropertyDecimal lt 0");
+    assertSameResults("ESAllPrim", "contains(PropertyString,'Second') or length(PropertyString) gt 30");
+    assertSameResults("ESAllPrim", "year(PropertyDate) eq 2012");
+    assertSameResults("ESAllPrim", "-PropertyInt32 lt PropertyInt32");
+    assertSameResults("ESCompAllPrim", "PropertyComp/PropertyInt16 ge 0");
+    assertSameResults("ESTwoKeyNav", "PropertyComp/PropertyComp/PropertyString eq 'String 1'");
+  }
+
+  @Test
+  public void typedPredicates() throws Exception {
+    assertTypedPredicate("ESTwoPrim", "PropertyInt16 lt -365");
+    assertTypedPredicate("ESTwoPrim", "-365 le PropertyInt16");
+    assertTypedPredicate("ESTwoPrim", "PropertyInt16 ge 32766 and PropertyInt16 ne 32767");
+    assertTypedPredicate("ESTwoPrim", "PropertyInt16 eq 2147483648 or PropertyInt16 gt -32767");
+    assertTypedPredicate("ESTwoPrim", "PropertyString eq 'Test String2'");
+    assertTypedPredicate("ESTwoPrim", "PropertyString ne 'Test String2'");
+    assertTypedPredicate("ESTwoPrim", "'Test String1' gt PropertyString");
+    assertTypedPredicate("ESTwoPrim", "not (PropertyString eq 'Test String4')");
+    assertTypedPredicate("ESAllPrim", "PropertyBoolean eq true or PropertyByte gt 200");
+    assertTypedPredicate("ESAllPrim", "PropertyInt64 le 0 and PropertySByte ge -128");
+    assertTypedPredicate("ESCompAllPrim", "PropertyComp/PropertyInt32 lt 0");
+    assertTypedPredicate("ESTwoKeyNav", "PropertyComp/PropertyComp/PropertyString eq 'String 1'");
+  }
+
+  @Test
+  public void constantFolding() throws Exception {
+    final CompiledExpression compiled = ExpressionCompiler.compile(
+        filter("ESAllPrim", "2 add 3 mul 4 eq 14 and tolower('ABC') eq 'abc'"));
+    Assert.assertTrue(compiled instanceof ExpressionCompiler.Constant);
+    Assert.assertEquals(Boolean.TRUE, compiled.evaluate(null).asTypedOperand().getValue());
+  }
+
+  @Test
+  public void filterPredicate() throws Exception {
+    final FilterPredicate predicate = new FilterPredicate(filter("ESAllPrim", "PropertyInt16 gt 0"));
+    int count = 0;
+    for (final Entity entity : entities("ESAllPrim")) {
+      if (predicate.matches(entity)) {
+        count++;
+      }
+    }
+    Assert.assertEquals(1, count);
+  }
+
+  @Test
+  public void orderBy() throws Exception {
+    final List<Entity> entities = new ArrayList<Entity>(entities("ESAllPrim"));
+    Collections.sort(entities, new OrderByComparator(parse("ESAllPrim", "$orderby=PropertyInt16 desc")
+        .getOrderByOption().getOrders()));
+    Assert.assertEquals(Short.MAX_VALUE, ((Number) entities.get(0).getProperty("PropertyInt16").getValue()).intValue());
+    Assert.assertEquals(0, ((Number) entities.get(1).getProperty("PropertyInt16").getValue()).intValue());
+    Assert.assertEquals(Short.MIN_VALUE, ((Number) entities.get(2).getProperty("PropertyInt16").getValue()).intValue());
+  }
+
+  private void assertSameResults(final String entitySetName, final String filter) throws Exception {
+    final Expression expression = filter(entitySetName, filter);
+    final CompiledExpression compiled = ExpressionCompiler.compile(expression);
+    for (final Entity entity : entities(entitySetName)) {
+      final TypedOperand expected = expression.accept(new ExpressionVisitorImpl(entity, null)).asTypedOperand();
+      final TypedOperand actual = compiled.evaluate(entity).asTypedOperand();
+      Assert.assertEquals(filter, expected.getValue(), actual.getValue());
+      Assert.assertEquals(filter, expected.getType(), actual.getType());
+    }
+  }
+
+  private void assertTypedPredicate(final String entitySetName, final String filter) throws Exception {
+    Assert.assertTrue(filter, ExpressionCompiler.compile(filter(entitySetName, filter)) instanceof TypedPredicate);
+    assertSameResults(entitySetName, filter);
+  }
+
+  private Expression filter(final String entitySetName, final String filter) throws Exception {
+    return parse(entitySetName, "$filter=" + filter).getFilterOption().getExpression();
+  }
+
+  private UriInfo parse(final String entitySetName, final String query) throws Exception {
+    return new Parser().parseUri(entitySetName, query, null, edm);
+  }
+
+  private List<Entity> entities(final String entitySetName) throws Exception {
+    final EdmEntitySet entitySet = edm.getEntityContainer(new FullQualifiedName("olingo.odata.test1", "Container"))
+        .getEntitySet(entitySetName);
+    return dataProvider.readAll(entitySet).getEntities();
+  }
+}
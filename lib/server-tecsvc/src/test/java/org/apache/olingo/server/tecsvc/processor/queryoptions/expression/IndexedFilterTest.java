@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.PropertyIndex;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate.IndexSource;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedFilterTest {
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  private final List<Entity> entities = createEntities();
+
+  private final IndexSource indexSource = new IndexSource() {
+    @Override
+    public PropertyIndex getIntegerIndex(final List<String> path, final long min, final long max) {
+      return PropertyIndex.createIntegerIndex(entities, path, min, max);
+    }
+
+    @Override
+    public PropertyIndex getValueIndex(final List<String> path, final Class<?> valueClass) {
+      return PropertyIndex.createValueIndex(entities, path, valueClass);
+    }
+  };
+
+  @Test
+  public void sameResultsAsScan() throws Exception {
+    assertIndexed("PropertyInt16 eq 42");
+    assertIndexed("PropertyInt16 lt -10");
+    assertIndexed("PropertyInt16 le -10");
+    assertIndexed("-10 lt PropertyInt16");
+    assertIndexed("PropertyInt16 ge 90");
+    assertIndexed("PropertyString eq 'S3'");
+    assertIndexed("PropertyString eq 'S3' and PropertyInt16 gt 0");
+    assertIndexed("PropertyString eq 'S3' and not (PropertyInt16 gt 0)");
+    assertIndexed("PropertyInt16 eq 1 or PropertyString eq 'S4'");
+    assertIndexed("PropertyInt16 eq 1 and PropertyInt16 eq 2");
+  }
+
+  @Test
+  public void notIndexed() throws Exception {
+    Assert.assertNull(predicate("PropertyInt16 ne 42").filter(entities, indexSource));
+    Assert.assertNull(predicate("PropertyString gt 'S3'").filter(entities, indexSource));
+    Assert.assertNull(predicate("PropertyInt16 eq 1 or PropertyInt16 ne 2").filter(entities, indexSource));
+    Assert.assertNull(predicate("not (PropertyInt16 eq 1)").filter(entities, indexSource));
+    Assert.assertNull(predicate("PropertyInt16 add 1 eq 2").filter(entities, indexSource));
+  }
+
+  @Test
+  public void outdatedIndex() throws Exception {
+    final FilterPredicate predicate = predicate("PropertyInt16 eq 42");
+    Assert.assertNull(predicate.filter(entities.subList(1, entities.size()), indexSource));
+  }
+
+  private void assertIndexed(final String filter) throws Exception {
+    final FilterPredicate predicate = predicate(filter);
+    final List<Entity> expected = new ArrayList<Entity>();
+    for (final Entity entity : entities) {
+      if (predicate.matches(entity)) {
+        expected.add(entity);
+      }
+    }
+    Assert.assertEquals(filter, expected, predicate.filter(entities, indexSource));
+  }
+
+  private FilterPredicate predicate(final String filter) throws Exception {
+    return new FilterPredicate(new Parser().parseUri("ESAllPrim", "$filter=" + filter, null, edm)
+        .getFilterOption().getExpression());
+  }
+
+  private static List<Entity> createEntities() {
+    final Random random = new Random(42);
+    final List<Entity> entities = new ArrayList<Entity>();
+    for (int i = 0; i < 1000; i++) {
+      entities.add(new Entity()
+          .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE,
+              i % 50 == 0 ? null : (short) (random.nextInt(200) - 100)))
+          .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE,
+              i % 70 == 0 ? null : "S" + random.nextInt(10))));
+    }
+    // Values of unexpected types are checked by the filter expression itself.
+    entities.add(new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, 42L))
+        .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, 'c')));
+    return entities;
+  }
+}
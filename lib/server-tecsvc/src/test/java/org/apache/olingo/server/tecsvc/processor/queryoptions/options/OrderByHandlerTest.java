@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderByHandlerTest {
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @Test
+  public void topWithTies() throws Exception {
+    assertSameAsFullSort("$orderby=PropertyString&$top=10");
+    assertSameAsFullSort("$orderby=PropertyString desc&$skip=95&$top=3");
+    assertSameAsFullSort("$orderby=PropertyString,PropertyInt16 desc&$skip=20&$top=20");
+    assertSameAsFullSort("$orderby=PropertyInt16&$top=0");
+    assertSameAsFullSort("$orderby=PropertyInt16&$skip=10&$top=2147483647");
+    assertSameAsFullSort("$orderby=PropertyInt16&$skip=1000&$top=10");
+  }
+
+  private void assertSameAsFullSort(final String query) throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri("ESAllPrim", query, null, edm);
+
+    final EntityCollection expected = createEntities();
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), expected, null);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), expected);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), expected);
+
+    final EntityCollection actual = createEntities();
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), uriInfo.getSkipOption(), uriInfo.getTopOption(),
+        actual, null);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), actual);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), actual);
+
+    Assert.assertEquals(query, ids(expected), ids(actual));
+  }
+
+  private List<Integer> ids(final EntityCollection entityCollection) {
+    final List<Integer> ids = new ArrayList<Integer>();
+    for (final Entity entity : entityCollection.getEntities()) {
+      ids.add((Integer) entity.getProperty("PropertyInt32").getValue());
+    }
+    return ids;
+  }
+
+  private EntityCollection createEntities() {
+    final Random random = new Random(42);
+    final EntityCollection entityCollection = new EntityCollection();
+    for (int i = 0; i < 100; i++) {
+      entityCollection.getEntities().add(new Entity()
+          .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) random.nextInt(10)))
+          .addProperty(new Property(null, "PropertyInt32", ValueType.PRIMITIVE, i))
+          .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, "S" + random.nextInt(5))));
+    }
+    return entityCollection;
+  }
+}
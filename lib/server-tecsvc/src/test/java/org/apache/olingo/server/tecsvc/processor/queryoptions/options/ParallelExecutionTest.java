@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterPredicate;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelExecutionTest {
+
+  private static final int SIZE = 3 * ParallelExecution.THRESHOLD + 17;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void stableSort() throws Exception {
+    final Random random = new Random(42);
+    final int[][] array = new int[SIZE][];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = new int[] { random.nextInt(100), i };
+    }
+    final int[][] expected = array.clone();
+    final Comparator<int[]> comparator = new Comparator<int[]>() {
+      @Override
+      public int compare(final int[] o1, final int[] o2) {
+        return o1[0] - o2[0];
+      }
+    };
+    Arrays.sort(expected, comparator);
+    ParallelExecution.sort(executor, array, comparator);
+    Assert.assertArrayEquals(expected, array);
+  }
+
+  @Test
+  public void filterAndOrderBy() throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri("ESAllPrim",
+        "$filter=PropertyInt16 gt 0&$orderby=PropertyString,PropertyInt16 desc", null, edm);
+    final EntityCollection entityCollection = createEntities();
+    final List<Entity> expected = new ArrayList<Entity>();
+    for (final Entity entity : entityCollection.getEntities()) {
+      if ((Short) entity.getProperty("PropertyInt16").getValue() > 0) {
+        expected.add(entity);
+      }
+    }
+    Collections.sort(expected, new Comparator<Entity>() {
+      @Override
+      public int compare(final Entity e1, final Entity e2) {
+        final int result = ((String) e1.getProperty("PropertyString").getValue())
+            .compareTo((String) e2.getProperty("PropertyString").getValue());
+        return result == 0 ?
+            (Short) e2.getProperty("PropertyInt16").getValue() - (Short) e1.getProperty("PropertyInt16").getValue() :
+            result;
+      }
+    });
+
+    FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entityCollection, null, null, executor);
+    Assert.assertEquals(expected.size(), entityCollection.getEntities().size());
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), null, null, entityCollection, null, executor);
+    Assert.assertEquals(expected, entityCollection.getEntities());
+  }
+
+  @Test
+  public void filterChunks() throws Exception {
+    final FilterPredicate filter = new FilterPredicate(new Parser().parseUri("ESAllPrim",
+        "$filter=PropertyString eq 'S7'", null, edm).getFilterOption().getExpression());
+    final List<Entity> entities = createEntities().getEntities();
+    final List<Entity> expected = new ArrayList<Entity>();
+    for (final Entity entity : entities) {
+      if (filter.matches(entity)) {
+        expected.add(entity);
+      }
+    }
+    Assert.assertEquals(expected, ParallelExecution.filter(executor, entities, filter));
+  }
+
+  @Test
+  public void sequentialWithoutExecutor() throws Exception {
+    Assert.assertFalse(ParallelExecution.isParallel(null, SIZE));
+
+    final UriInfo uriInfo = new Parser().parseUri("ESAllPrim",
+        "$filter=PropertyInt16 gt 0&$orderby=PropertyString,PropertyInt16 desc", null, edm);
+    final EntityCollection parallel = createEntities();
+    FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), parallel, null, null, executor);
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), null, null, parallel, null, executor);
+    final EntityCollection sequential = createEntities();
+    FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), sequential, null);
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), sequential, null);
+    Assert.assertEquals(parallel.getEntities().size(), sequential.getEntities().size());
+    for (int i = 0; i < parallel.getEntities().size(); i++) {
+      Assert.assertEquals(parallel.getEntities().get(i).getProperties(),
+          sequential.getEntities().get(i).getProperties());
+    }
+  }
+
+  private EntityCollection createEntities() {
+    final Random random = new Random(4711);
+    final EntityCollection entityCollection = new EntityCollection();
+    for (int i = 0; i < SIZE; i++) {
+      entityCollection.getEntities().add(new Entity()
+          .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) (random.nextInt(2000) - 500)))
+          .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, "S" + random.nextInt(50))));
+    }
+    return entityCollection;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class ServerSidePagingHandlerTest {
+
+  private static final String REQUEST_URI = "http://localhost/odata/ESServerSidePaging";
+
+  private final Edm edm = OData.newInstance().createServiceMetadata(new EdmTechProvider(
+      Collections.<EdmxReference> emptyList()), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet edmEntitySet = edm.getEntityContainer(null).getEntitySet("ESServerSidePaging");
+
+  @Test
+  public void pagesAreSameAsFullSort() throws Exception {
+    assertPagesSameAsFullSort("");
+    assertPagesSameAsFullSort("$orderby=PropertyString");
+    assertPagesSameAsFullSort("$orderby=PropertyString desc,PropertyInt16 desc");
+    assertPagesSameAsFullSort("$filter=PropertyInt16 gt 20&$orderby=PropertyString&$skip=7&$top=33");
+    assertPagesSameAsFullSort("$orderby=PropertyString&$top=20");
+    assertPagesSameAsFullSort("$skip=95&$top=10");
+    assertPagesSameAsFullSort("$top=0");
+  }
+
+  @Test
+  public void insertionDoesNotShiftPages() throws Exception {
+    EntityCollection data = createEntities();
+    final EntityCollection firstPage = read(data, "$orderby=PropertyString");
+    final URI next = firstPage.getNext();
+    assertNotNull(next);
+    final EntityCollection expected = read(data, next.getRawQuery());
+
+    // A new entity sorted before the position of the skip token does not change the next page.
+    data.getEntities().add(0, createEntity(1000, ""));
+    assertEquals(ids(expected), ids(read(data, next.getRawQuery())));
+  }
+
+  @Test
+  public void nextLinkKeepsQueryOptions() throws Exception {
+    final URI next = read(createEntities(), "$filter=contains(PropertyString,'S%201')&$count=true&custom=a%26b")
+        .getNext();
+    assertTrue(next.toString().startsWith(REQUEST_URI + "?"));
+    final UriInfo uriInfo = new Parser().parseUri("ESServerSidePaging", next.getRawQuery(), null, edm);
+    assertEquals("contains(PropertyString,'S 1')", uriInfo.getFilterOption().getText());
+    assertEquals(true, uriInfo.getCountOption().getValue());
+    assertEquals("a&b", uriInfo.getCustomQueryOptions().get(0).getText());
+    assertNotNull(uriInfo.getSkipTokenOption());
+  }
+
+  @Test
+  public void invalidSkipToken() throws Exception {
+    final EntityCollection data = createEntities();
+    final String nextQuery = read(data, "$orderby=PropertyString").getNext().getRawQuery();
+    expectBadRequest(data, "$skiptoken=1");
+    expectBadRequest(data, nextQuery.replace("PropertyString", "PropertyInt16"));
+    expectBadRequest(data, tamper(nextQuery));
+  }
+
+  /** Changes a letter in the skip token. */
+  private String tamper(final String query) {
+    int index = query.indexOf("skiptoken=") + 20;
+    while (!Character.isLetter(query.charAt(index))) {
+      index++;
+    }
+    return query.substring(0, index) + (query.charAt(index) == 'A' ? 'B' : 'A') + query.substring(index + 1);
+  }
+
+  private void expectBadRequest(final EntityCollection data, final String query) throws Exception {
+    try {
+      read(data, query);
+      fail("Expected exception for " + query);
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private void assertPagesSameAsFullSort(final String query) throws Exception {
+    final EntityCollection data = createEntities();
+    final UriInfo uriInfo = new Parser().parseUri("ESServerSidePaging", query, null, edm);
+
+    // Sorting stably by the $orderby items after sorting by key results in the order used for paging.
+    EntityCollection expected = filter(data, uriInfo);
+    OrderByHandler.applyOrderByOption(
+        new Parser().parseUri("ESServerSidePaging", "$orderby=PropertyInt16", null, edm).getOrderByOption(),
+        expected, edmEntitySet);
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), expected, edmEntitySet);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), expected);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), expected);
+
+    List<Integer> actual = new ArrayList<Integer>();
+    String pageQuery = query;
+    int pages = 0;
+    while (pageQuery != null) {
+      final EntityCollection page = read(data, pageQuery);
+      assertTrue(page.getEntities().size() <= 10);
+      actual.addAll(ids(page));
+      pageQuery = page.getNext() == null ? null : page.getNext().getRawQuery();
+      pages++;
+    }
+    assertEquals(query, ids(expected), actual);
+    assertEquals(query, Math.max(1, (expected.getEntities().size() + 9) / 10), pages);
+  }
+
+  private EntityCollection read(final EntityCollection data, final String query) throws Exception {
+    final UriInfo uriInfo = new Parser().parseUri("ESServerSidePaging", query, null, edm);
+    final EntityCollection entities = filter(data, uriInfo);
+    ServerSidePagingHandler.applyServerSidePaging(uriInfo, entities, edmEntitySet, REQUEST_URI);
+    return entities;
+  }
+
+  private EntityCollection filter(final EntityCollection data, final UriInfo uriInfo)
+      throws ODataApplicationException {
+    EntityCollection entities = new EntityCollection();
+    entities.getEntities().addAll(data.getEntities());
+    FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entities, edmEntitySet);
+    return entities;
+  }
+
+  private List<Integer> ids(final EntityCollection entityCollection) {
+    final List<Integer> ids = new ArrayList<Integer>();
+    for (final Entity entity : entityCollection.getEntities()) {
+      ids.add(((Short) entity.getProperty("PropertyInt16").getValue()).intValue());
+    }
+    return ids;
+  }
+
+  private EntityCollection createEntities() {
+    // Keys are not in data order, and string values occur several times.
+    final Random random = new Random(42);
+    final EntityCollection entityCollection = new EntityCollection();
+    for (int i = 0; i < 100; i++) {
+      entityCollection.getEntities().add(createEntity((i * 37) % 100 + 1, "S " + random.nextInt(7)));
+    }
+    return entityCollection;
+  }
+
+  private Entity createEntity(final int key, final String value) {
+    return new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) key))
+        .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, value));
+  }
+}
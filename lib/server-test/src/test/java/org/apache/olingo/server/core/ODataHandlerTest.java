@@ -268,6 +268,14 @@ public class ODataHandlerTest {
     dispatchMethodNotAllowed(HttpMethod.DELETE, uri, processor);
   }
 
+  @Test
+  public void dispatchDeltaNotImplemented() throws Exception {
+    final EntityCollectionProcessor processor = mock(EntityCollectionProcessor.class);
+    final ODataResponse response = dispatch(HttpMethod.GET, "ESAllPrim", "$deltatoken=1", null, null, processor);
+    assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), response.getStatusCode());
+    verifyZeroInteractions(processor);
+  }
+
   @Test
   public void dispatchEntitySetCount() throws Exception {
     final String uri = "ESAllPrim/$count";
@@ -20,12 +20,17 @@ package org.apache.olingo.server.core.serializer.json;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.ContextURL.Suffix;
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.DeltaLink;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
@@ -43,6 +48,9 @@ import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.edmx.EdmxReference;
 import org.apache.olingo.server.api.serializer.ComplexSerializerOptions;
+import org.apache.olingo.server.api.serializer.CrossJoinSerializerOptions;
+import org.apache.olingo.server.api.serializer.DeltaChange;
+import org.apache.olingo.server.api.serializer.DeltaSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
@@ -681,4 +689,114 @@ public class ODataJsonSerializerTest {
             + "{\"PropertyInt16\":789,\"PropertyString\":\"TEST 3\"}]}",
         resultString);
   }
+
+  @Test
+  public void crossJoin() throws Exception {
+    final EdmEntitySet twoPrim = entityContainer.getEntitySet("ESTwoPrim");
+    final EdmEntitySet paging = entityContainer.getEntitySet("ESServerSidePaging");
+    List<List<Entity>> rows = new ArrayList<List<Entity>>();
+    for (final Entity first : data.readAll(twoPrim).getEntities()) {
+      for (final Entity second : data.readAll(paging).getEntities()) {
+        rows.add(Arrays.asList(first, second));
+      }
+    }
+    final CrossJoinSerializerOptions options = CrossJoinSerializerOptions.with()
+        .contextURL(ContextURL.with().asCollection().entitySetOrSingletonOrType("Edm.ComplexType").build())
+        .build();
+
+    final String resultString = IOUtils.toString(serializer.crossJoin(metadata,
+        Arrays.asList(twoPrim, paging), rows.iterator(), options).getContent());
+    Assert.assertThat(resultString, CoreMatchers.startsWith("{"
+        + "\"@odata.context\":\"$metadata#Collection(Edm.ComplexType)\","
+        + "\"value\":[{\"ESTwoPrim\":{\"PropertyInt16\":32766,\"PropertyString\":\"Test String1\"},"
+        + "\"ESServerSidePaging\":{\"PropertyInt16\":1,\"PropertyString\":\"Number:1\"}},"));
+    Assert.assertThat(resultString, CoreMatchers.endsWith("}}]}"));
+    Assert.assertEquals(rows.size(), resultString.split("\"ESServerSidePaging\":").length - 1);
+
+    final String emptyResult = IOUtils.toString(serializer.crossJoin(metadata,
+        Arrays.asList(twoPrim, paging), Collections.<List<Entity>> emptyList().iterator(), options)
+        .getContent());
+    Assert.assertEquals("{\"@odata.context\":\"$metadata#Collection(Edm.ComplexType)\",\"value\":[]}",
+        emptyResult);
+  }
+
+  @Test
+  public void delta() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESTwoPrim");
+    final List<Entity> entities = data.readAll(edmEntitySet).getEntities();
+    Delta delta = new Delta();
+    delta.getEntities().add(entities.get(0));
+    DeletedEntity deletedEntity = new DeletedEntity();
+    deletedEntity.setId(URI.create("ESTwoPrim(32767)"));
+    deletedEntity.setReason(DeletedEntity.Reason.deleted);
+    delta.getDeletedEntities().add(deletedEntity);
+    DeltaLink link = new DeltaLink();
+    link.setSource(URI.create("ESTwoPrim(32766)"));
+    link.setRelationship("NavPropertyETAllPrimOne");
+    link.setTarget(URI.create("ESAllPrim(0)"));
+    delta.getDeletedLinks().add(link);
+    delta.setDeltaLink(URI.create("ESTwoPrim?$deltatoken=1"));
+    final DeltaSerializerOptions options = DeltaSerializerOptions.with()
+        .contextURL(ContextURL.with().entitySet(edmEntitySet).build())
+        .build();
+
+    final String resultString = IOUtils.toString(serializer.delta(metadata, edmEntitySet.getEntityType(), delta,
+        options).getContent());
+    Assert.assertEquals("{\"@odata.context\":\"$metadata#ESTwoPrim/$delta\","
+        + "\"value\":[{\"PropertyInt16\":32766,\"PropertyString\":\"Test String1\"},"
+        + "{\"@odata.context\":\"$metadata#ESTwoPrim/$deletedEntity\",\"id\":\"ESTwoPrim(32767)\","
+        + "\"reason\":\"deleted\"},"
+        + "{\"@odata.context\":\"$metadata#ESTwoPrim/$deletedLink\",\"source\":\"ESTwoPrim(32766)\","
+        + "\"relationship\":\"NavPropertyETAllPrimOne\",\"target\":\"ESAllPrim(0)\"}],"
+        + "\"@odata.deltaLink\":\"ESTwoPrim?$deltatoken=1\"}",
+        resultString);
+  }
+
+  @Test
+  public void deltaFromIterator() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESServerSidePaging");
+    final List<Entity> entities = data.readAll(edmEntitySet).getEntities();
+    // more changes than fit into one chunk of the streamed content
+    List<DeltaChange> changes = new ArrayList<DeltaChange>();
+    for (final Entity entity : entities) {
+      changes.add(DeltaChange.entity(entity));
+    }
+
+    final String resultString = IOUtils.toString(serializer.delta(metadata, edmEntitySet.getEntityType(),
+        changes.iterator(), URI.create("ESServerSidePaging?$deltatoken=1"),
+        DeltaSerializerOptions.with().contextURL(ContextURL.with().entitySet(edmEntitySet).build()).build())
+        .getContent());
+    Assert.assertThat(resultString, CoreMatchers.startsWith("{"
+        + "\"@odata.context\":\"$metadata#ESServerSidePaging/$delta\","
+        + "\"value\":[{\"PropertyInt16\":1,\"PropertyString\":\"Number:1\"},"));
+    Assert.assertThat(resultString,
+        CoreMatchers.endsWith("}],\"@odata.deltaLink\":\"ESServerSidePaging?$deltatoken=1\"}"));
+    Assert.assertEquals(changes.size(), resultString.split("\"PropertyInt16\":").length - 1);
+  }
+
+  @Test
+  public void deltaLinksFromIterator() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESTwoPrim");
+    DeltaLink link = new DeltaLink();
+    link.setSource(URI.create("ESTwoPrim(32766)"));
+    link.setRelationship("NavPropertyETAllPrimOne");
+    link.setTarget(URI.create("ESAllPrim(0)"));
+
+    final String resultString = IOUtils.toString(serializer.delta(metadata, edmEntitySet.getEntityType(),
+        Arrays.asList(DeltaChange.addedLink(link), DeltaChange.deletedLink(link)).iterator(), null,
+        DeltaSerializerOptions.with().contextURL(ContextURL.with().entitySet(edmEntitySet).build()).build())
+        .getContent());
+    Assert.assertEquals("{\"@odata.context\":\"$metadata#ESTwoPrim/$delta\","
+        + "\"value\":[{\"@odata.context\":\"$metadata#ESTwoPrim/$link\",\"source\":\"ESTwoPrim(32766)\","
+        + "\"relationship\":\"NavPropertyETAllPrimOne\",\"target\":\"ESAllPrim(0)\"},"
+        + "{\"@odata.context\":\"$metadata#ESTwoPrim/$deletedLink\",\"source\":\"ESTwoPrim(32766)\","
+        + "\"relationship\":\"NavPropertyETAllPrimOne\",\"target\":\"ESAllPrim(0)\"}]}",
+        resultString);
+  }
+
+  @Test(expected = SerializerException.class)
+  public void deltaWithoutContextURL() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESTwoPrim");
+    serializer.delta(metadata, edmEntitySet.getEntityType(), new Delta(), DeltaSerializerOptions.with().build());
+  }
 }
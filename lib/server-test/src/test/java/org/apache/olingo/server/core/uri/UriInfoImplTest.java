@@ -33,6 +33,7 @@ import org.apache.olingo.server.api.uri.UriInfoService;
 import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
 import org.apache.olingo.server.core.uri.queryoption.CountOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.CustomQueryOptionImpl;
+import org.apache.olingo.server.core.uri.queryoption.DeltaTokenOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.FilterOptionImpl;
 import org.apache.olingo.server.core.uri.queryoption.FormatOptionImpl;
@@ -146,6 +147,7 @@ public class UriInfoImplTest {
     SelectOptionImpl select = new SelectOptionImpl();
     SkipOptionImpl skip = new SkipOptionImpl();
     SkipTokenOptionImpl skipToken = new SkipTokenOptionImpl();
+    DeltaTokenOptionImpl deltaToken = new DeltaTokenOptionImpl();
     TopOptionImpl top = new TopOptionImpl();
     LevelsOptionImpl levels = new LevelsOptionImpl();
 
@@ -167,6 +169,7 @@ public class UriInfoImplTest {
     queryOptions.add(skip.setName(""));
     queryOptions.add(skipToken.setName(""));
     queryOptions.add(top.setName(""));
+    queryOptions.add(deltaToken.setName(""));
     queryOptions.add(customOption0.setName(""));
     queryOptions.add(customOption1.setName(""));
     queryOptions.add(levels.setName(""));// not stored
@@ -184,6 +187,7 @@ public class UriInfoImplTest {
     assertEquals(skip, uriInfo.getSkipOption());
     assertEquals(skipToken, uriInfo.getSkipTokenOption());
     assertEquals(top, uriInfo.getTopOption());
+    assertEquals(deltaToken, uriInfo.getDeltaTokenOption());
 
     List<CustomQueryOption> customQueryOptions = uriInfo.getCustomQueryOptions();
     assertEquals(customOption0, customQueryOptions.get(0));
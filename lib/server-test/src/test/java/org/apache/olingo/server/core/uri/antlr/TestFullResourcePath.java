@@ -43,7 +43,6 @@ import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EntityTypeProvider;
 import org.apache.olingo.server.tecsvc.provider.EnumTypeProvider;
 import org.apache.olingo.server.tecsvc.provider.PropertyProvider;
-import org.junit.Ignore;
 import org.junit.Test;
 
 public class TestFullResourcePath {
@@ -901,6 +900,16 @@ public class TestFullResourcePath {
     testUri.run("$crossjoin(ESKeyNav, ESTwoKeyNav)")
         .isKind(UriInfoKind.crossjoin)
         .isCrossJoinEntityList(Arrays.asList("ESKeyNav", "ESTwoKeyNav"));
+
+    testUri.run("$crossjoin(ESKeyNav, ESTwoKeyNav)",
+        "$filter=ESKeyNav/PropertyInt16 eq ESTwoKeyNav/PropertyInt16 and ESTwoKeyNav/PropertyComp/PropertyInt16 gt 1")
+        .isKind(UriInfoKind.crossjoin)
+        .goFilter()
+        .is("<<<ESKeyNav/PropertyInt16> eq <ESTwoKeyNav/PropertyInt16>> and "
+            + "<<ESTwoKeyNav/PropertyComp/PropertyInt16> gt <1>>>");
+
+    testUri.run("$crossjoin(ESKeyNav, ESTwoKeyNav)", "$orderby=ESKeyNav/PropertyString")
+        .isKind(UriInfoKind.crossjoin);
   }
 
   @Test
@@ -910,6 +919,10 @@ public class TestFullResourcePath {
     testUri.runEx("$crossjoin()").isExSyntax(UriParserSyntaxException.MessageKeys.SYNTAX);
     testUri.runEx("$crossjoin(ESKeyNav, ESTwoKeyNav)/invalid")
         .isExSyntax(UriParserSyntaxException.MessageKeys.MUST_BE_LAST_SEGMENT);
+    testUri.runEx("$crossjoin(ESKeyNav, ESTwoKeyNav)", "$filter=PropertyInt16 eq 1")
+        .isExSemantic(UriParserSemanticException.MessageKeys.RESOURCE_NOT_FOUND);
+    testUri.runEx("$crossjoin(ESKeyNav)", "$filter=$it/PropertyInt16 eq 1")
+        .isExSemantic(UriParserSemanticException.MessageKeys.INVALID_KEY_VALUE);
   }
 
   @Test
@@ -2613,6 +2626,13 @@ public class TestFullResourcePath {
         .isSkipTokenText("foo");
   }
 
+  @Test
+  public void deltatoken() throws Exception {
+    testUri.run("ESAllPrim", "$deltatoken=foo")
+        .isKind(UriInfoKind.resource).goPath()
+        .isDeltaTokenText("foo");
+  }
+
   @Test
   public void notExistingSystemQueryOption() throws Exception {
     testUri.runEx("ESAllPrim", "$wrong=error")
@@ -5101,40 +5121,66 @@ public class TestFullResourcePath {
   }
 
   @Test
-  @Ignore("$search currently not implemented")
   public void testSearch() throws Exception {
 
-    testUri.run("ESTwoKeyNav", "$search=abc");
-    testUri.run("ESTwoKeyNav", "$search=NOT abc");
+    testUri.run("ESTwoKeyNav", "$search=abc").isSearchSerialized("'abc'");
+    testUri.run("ESTwoKeyNav", "$search=NOT abc").isSearchSerialized("{NOT 'abc'}");
 
-    testUri.run("ESTwoKeyNav", "$search=abc AND def");
-    testUri.run("ESTwoKeyNav", "$search=abc  OR def");
-    testUri.run("ESTwoKeyNav", "$search=abc     def");
+    testUri.run("ESTwoKeyNav", "$search=abc AND def").isSearchSerialized("{'abc' AND 'def'}");
+    testUri.run("ESTwoKeyNav", "$search=abc  OR def").isSearchSerialized("{'abc' OR 'def'}");
+    testUri.run("ESTwoKeyNav", "$search=abc     def").isSearchSerialized("{'abc' AND 'def'}");
 
-    testUri.run("ESTwoKeyNav", "$search=abc AND def AND ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc AND def  OR ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc AND def     ghi");
+    testUri.run("ESTwoKeyNav", "$search=abc AND def AND ghi").isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=abc AND def  OR ghi").isSearchSerialized("{{'abc' AND 'def'} OR 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=abc AND def     ghi").isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
 
-    testUri.run("ESTwoKeyNav", "$search=abc  OR def AND ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc  OR def  OR ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc  OR def     ghi");
+    testUri.run("ESTwoKeyNav", "$search=abc  OR def AND ghi").isSearchSerialized("{'abc' OR {'def' AND 'ghi'}}");
+    testUri.run("ESTwoKeyNav", "$search=abc  OR def  OR ghi").isSearchSerialized("{{'abc' OR 'def'} OR 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=abc  OR def     ghi").isSearchSerialized("{'abc' OR {'def' AND 'ghi'}}");
 
-    testUri.run("ESTwoKeyNav", "$search=abc     def AND ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc     def  OR ghi");
-    testUri.run("ESTwoKeyNav", "$search=abc     def     ghi");
+    testUri.run("ESTwoKeyNav", "$search=abc     def AND ghi").isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=abc     def  OR ghi").isSearchSerialized("{{'abc' AND 'def'} OR 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=abc     def     ghi").isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
 
     // mixed not
-    testUri.run("ESTwoKeyNav", "$search=    abc         def AND     ghi");
-    testUri.run("ESTwoKeyNav", "$search=NOT abc  NOT    def  OR NOT ghi");
-    testUri.run("ESTwoKeyNav", "$search=    abc         def     NOT ghi");
+    testUri.run("ESTwoKeyNav", "$search=    abc         def AND     ghi")
+        .isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=NOT abc  NOT    def  OR NOT ghi")
+        .isSearchSerialized("{{{NOT 'abc'} AND {NOT 'def'}} OR {NOT 'ghi'}}");
+    testUri.run("ESTwoKeyNav", "$search=    abc         def     NOT ghi")
+        .isSearchSerialized("{{'abc' AND 'def'} AND {NOT 'ghi'}}");
 
     // parenthesis
-    testUri.run("ESTwoKeyNav", "$search= (abc)");
-    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)");
-    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)   OR  ghi ");
-    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)       ghi ");
-    testUri.run("ESTwoKeyNav", "$search=  abc AND (def    OR  ghi)");
-    testUri.run("ESTwoKeyNav", "$search=  abc AND (def        ghi)");
+    testUri.run("ESTwoKeyNav", "$search= (abc)").isSearchSerialized("'abc'");
+    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)").isSearchSerialized("{'abc' AND 'def'}");
+    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)   OR  ghi ").isSearchSerialized("{{'abc' AND 'def'} OR 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search= (abc AND  def)       ghi ")
+        .isSearchSerialized("{{'abc' AND 'def'} AND 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=  abc AND (def    OR  ghi)").isSearchSerialized("{'abc' AND {'def' OR 'ghi'}}");
+    testUri.run("ESTwoKeyNav", "$search=  abc AND (def        ghi)")
+        .isSearchSerialized("{'abc' AND {'def' AND 'ghi'}}");
+
+    // phrases
+    testUri.run("ESTwoKeyNav", "$search=\"abc def\" OR ghi").isSearchSerialized("{'abc def' OR 'ghi'}");
+    testUri.run("ESTwoKeyNav", "$search=NOT \"a\\\"b\"").isSearchSerialized("{NOT 'a\"b'}");
+    testUri.run("ESTwoKeyNav", "$search=%22abc%20AND%22").isSearchSerialized("'abc AND'");
+
+    testUri.runEx("ESTwoKeyNav", "$search=")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=abc AND")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=OR abc")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=NOT (abc)")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=(abc")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=abc)")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=\"abc")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
+    testUri.runEx("ESTwoKeyNav", "$search=\"\"")
+        .isExSyntax(UriParserSyntaxException.MessageKeys.WRONG_VALUE_FOR_SYSTEM_QUERY_OPTION);
   }
 
   @Test
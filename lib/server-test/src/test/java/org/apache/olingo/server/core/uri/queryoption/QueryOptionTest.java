@@ -27,6 +27,7 @@ import org.apache.olingo.server.core.uri.UriInfoImpl;
 import org.apache.olingo.server.core.uri.queryoption.expression.AliasImpl;
 import org.apache.olingo.server.core.uri.queryoption.expression.ExpressionImpl;
 import org.apache.olingo.server.core.uri.queryoption.expression.LiteralImpl;
+import org.apache.olingo.server.core.uri.queryoption.search.SearchTermImpl;
 import org.apache.olingo.server.core.uri.testutil.EdmTechTestProvider;
 import org.junit.Test;
 
@@ -222,7 +223,10 @@ public class QueryOptionTest {
   public void testSearchOptionImpl() {
     SearchOptionImpl option = new SearchOptionImpl();
     assertEquals(SystemQueryOptionKind.SEARCH, option.getKind());
-    // $search is not supported yet
+
+    SearchTermImpl searchTerm = new SearchTermImpl("A");
+    option.setSearchExpression(searchTerm);
+    assertEquals(searchTerm, option.getSearchExpression());
   }
 
   @Test
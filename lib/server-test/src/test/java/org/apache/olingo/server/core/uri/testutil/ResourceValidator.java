@@ -559,6 +559,11 @@ public class ResourceValidator implements TestValidator {
     return this;
   }
 
+  public ResourceValidator isDeltaTokenText(final String deltaTokenText) {
+    assertEquals(deltaTokenText, uriInfo.getDeltaTokenOption().getText());
+    return this;
+  }
+
   public ResourceValidator isSelectItemStar(final int index) {
     SelectOptionImpl select = (SelectOptionImpl) uriInfo.getSelectOption();
 
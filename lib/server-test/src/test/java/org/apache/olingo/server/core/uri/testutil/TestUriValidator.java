@@ -221,6 +221,11 @@ public class TestUriValidator implements TestValidator {
     return this;
   }
 
+  public TestUriValidator isSearchSerialized(final String serialized) {
+    assertEquals(serialized, uriInfo.getSearchOption().getSearchExpression().toString());
+    return this;
+  }
+
   public TestUriValidator isFormatText(final String text) {
     assertEquals(text, uriInfo.getFormatOption().getText());
     return this;